@@ -0,0 +1,82 @@
+package spring.reborn.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import spring.reborn.domain.review.model.GetReviewRes;
+import spring.reborn.domain.review.model.ReviewImg;
+import spring.reborn.domain.store.model.GetStoreRes;
+import spring.reborn.domain.store.model.StoreCategory;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 목록 응답(BaseResponse<List<...>>) 을 JSON 으로 쓰는 비용
+ * ObjectMapper 는 스프링 MVC 와 같은 Jackson2ObjectMapperBuilder 기본값으로 만든다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BaseResponseJsonBenchmark {
+
+    @Param({"20", "100"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter objectWriter;
+    private BaseResponse<List<GetStoreRes>> storeResponse;
+    private BaseResponse<List<GetReviewRes>> reviewResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        objectWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructParametricType(BaseResponse.class,
+                        objectMapper.getTypeFactory().constructCollectionType(List.class, GetStoreRes.class)));
+
+        StoreCategory[] categories = StoreCategory.values();
+        Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+        List<GetStoreRes> stores = new ArrayList<>();
+        List<GetReviewRes> reviews = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            stores.add(GetStoreRes.builder()
+                    .storeIdx((long) i + 1)
+                    .storeName("리본 스토어 " + i)
+                    .category(categories[i % categories.length])
+                    .storeAddress("서울특별시 중구 세종대로 " + i)
+                    .userImage("https://reborn-bucket.s3.ap-northeast-2.amazonaws.com/" + i + "_128.jpg")
+                    .storeDescription("남은 음식을 나누는 가게입니다.")
+                    .storeScore(4.5f)
+                    .build());
+            reviews.add(new GetReviewRes(i + 1, i % 10 + 1,
+                    "https://reborn-bucket.s3.ap-northeast-2.amazonaws.com/user" + i + "_128.jpg",
+                    "리본유저" + i, "리본 스토어 " + i, categories[i % categories.length].label(),
+                    i + 1, "오늘의 빵 묶음", 5, "맛있게 잘 먹었습니다. 다음에도 신청할게요!", createdAt,
+                    new ReviewImg("https://reborn-bucket.s3.ap-northeast-2.amazonaws.com/review" + i + "_512.jpg",
+                            null, null, null, null)));
+        }
+        storeResponse = new BaseResponse<>(stores);
+        reviewResponse = new BaseResponse<>(reviews);
+    }
+
+    @Benchmark
+    public byte[] storeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(storeResponse);
+    }
+
+    // 타입을 미리 정해둔 writer 재사용
+    @Benchmark
+    public byte[] storeListPreparedWriter() throws JsonProcessingException {
+        return objectWriter.writeValueAsBytes(storeResponse);
+    }
+
+    @Benchmark
+    public byte[] reviewList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(reviewResponse);
+    }
+}
@@ -0,0 +1,82 @@
+package spring.reborn.domain.rebornTask;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+import spring.reborn.config.BaseException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 선착순 리본 신청(Lua 스크립트) 왕복 비용, 임베디드 Redis 사용
+ * reserveAndRelease : 신청 성공 후 바로 취소해서 재고를 유지
+ * soldOut : 재고가 0 인 리본에 신청 (예외 경로)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RebornTaskClaimBenchmark {
+
+    private static final long AVAILABLE_REBORN_IDX = 1L;
+    private static final long SOLD_OUT_REBORN_IDX = 2L;
+
+    @Param("16379")
+    public int port;
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private RebornTaskRedisService rebornTaskRedisService;
+    private final AtomicLong userIdxSequence = new AtomicLong();
+
+    @Setup
+    public void setUp() throws IOException {
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+
+        // 재고를 미리 올려두므로 RebornDao 는 사용되지 않음
+        stringRedisTemplate.opsForValue().set("rebornStock:" + AVAILABLE_REBORN_IDX, "1000000");
+        stringRedisTemplate.opsForValue().set("rebornStock:" + SOLD_OUT_REBORN_IDX, "0");
+        rebornTaskRedisService = new RebornTaskRedisService(stringRedisTemplate, null);
+        ReflectionTestUtils.setField(rebornTaskRedisService, "reservationTtlMillis", 600000L);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Benchmark
+    public Long reserveAndRelease() throws BaseException {
+        long userIdx = userIdxSequence.incrementAndGet();
+        Long seq = rebornTaskRedisService.reserve(AVAILABLE_REBORN_IDX, userIdx);
+        rebornTaskRedisService.cancel(AVAILABLE_REBORN_IDX, userIdx);
+        return seq;
+    }
+
+    // 오픈 직후처럼 여러 요청이 같은 리본에 몰리는 경우
+    @Benchmark
+    @Threads(8)
+    public Long reserveAndReleaseContended() throws BaseException {
+        return reserveAndRelease();
+    }
+
+    @Benchmark
+    public int soldOut() {
+        try {
+            rebornTaskRedisService.reserve(SOLD_OUT_REBORN_IDX, userIdxSequence.incrementAndGet());
+            return 0;
+        } catch (BaseException e) {
+            return e.getStatus().getCode();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package spring.reborn.domain.review;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import spring.reborn.domain.review.model.GetReviewRes;
+import spring.reborn.domain.store.model.StoreCategory;
+import spring.reborn.utils.BenchmarkRowSets;
+
+import javax.sql.rowset.CachedRowSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리뷰 목록 한 페이지를 GetReviewRes 로 매핑하는 비용
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReviewRowMapperBenchmark {
+
+    @Param({"20", "100"})
+    public int rows;
+
+    private ReviewDao reviewDao;
+    private CachedRowSet rowSet;
+
+    @Setup
+    public void setUp() throws SQLException {
+        reviewDao = new ReviewDao();
+
+        StoreCategory[] categories = StoreCategory.values();
+        Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+        List<Map<String, Object>> data = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("reviewIdx", i + 1);
+            row.put("userIdx", i % 10 + 1);
+            row.put("userImg", "https://reborn-bucket.s3.ap-northeast-2.amazonaws.com/user" + i + ".png");
+            row.put("userNickname", "리본유저" + i);
+            row.put("storeName", "리본 스토어 " + i);
+            row.put("category", categories[i % categories.length].name());
+            row.put("rebornIdx", i + 1);
+            row.put("productName", "오늘의 빵 묶음");
+            row.put("reviewScore", 5);
+            row.put("reviewComment", "맛있게 잘 먹었습니다. 다음에도 신청할게요!");
+            row.put("createdAt", createdAt);
+            // 사진 없는 리뷰가 대부분이라 두 장까지만 채움
+            row.put("reviewImage1", "https://reborn-bucket.s3.ap-northeast-2.amazonaws.com/review" + i + "_1.png");
+            row.put("reviewImage2", i % 2 == 0 ? "https://reborn-bucket.s3.ap-northeast-2.amazonaws.com/review" + i + "_2.png" : null);
+            row.put("reviewImage3", null);
+            row.put("reviewImage4", null);
+            row.put("reviewImage5", null);
+            data.add(row);
+        }
+        rowSet = BenchmarkRowSets.of(data);
+    }
+
+    @Benchmark
+    public void mapPage(Blackhole blackhole) throws SQLException {
+        rowSet.beforeFirst();
+        int rowNum = 0;
+        while (rowSet.next()) {
+            GetReviewRes res = reviewDao.reviewResMapper.mapRow(rowSet, rowNum++);
+            blackhole.consume(res);
+        }
+    }
+}
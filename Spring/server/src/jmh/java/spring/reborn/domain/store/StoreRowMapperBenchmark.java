@@ -0,0 +1,60 @@
+package spring.reborn.domain.store;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import spring.reborn.domain.store.model.GetStoreRes;
+import spring.reborn.domain.store.model.StoreCategory;
+import spring.reborn.utils.BenchmarkRowSets;
+
+import javax.sql.rowset.CachedRowSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 스토어 목록/검색 결과 한 페이지를 GetStoreRes 로 매핑하는 비용
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StoreRowMapperBenchmark {
+
+    @Param({"20", "100"})
+    public int rows;
+
+    private StoreDao storeDao;
+    private CachedRowSet rowSet;
+
+    @Setup
+    public void setUp() throws SQLException {
+        storeDao = new StoreDao();
+
+        StoreCategory[] categories = StoreCategory.values();
+        List<Map<String, Object>> data = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("storeIdx", (long) i + 1);
+            row.put("storeName", "리본 스토어 " + i);
+            row.put("userImage", "https://reborn-bucket.s3.ap-northeast-2.amazonaws.com/" + i + ".png");
+            row.put("storeAddress", "서울특별시 중구 세종대로 " + i);
+            row.put("storeDescription", "남은 음식을 나누는 가게입니다.");
+            row.put("category", categories[i % categories.length].name());
+            row.put("storeScore", 4.5f);
+            data.add(row);
+        }
+        rowSet = BenchmarkRowSets.of(data);
+    }
+
+    @Benchmark
+    public void mapPage(Blackhole blackhole) throws SQLException {
+        rowSet.beforeFirst();
+        int rowNum = 0;
+        while (rowSet.next()) {
+            GetStoreRes res = storeDao.storeResMapper.mapRow(rowSet, rowNum++);
+            blackhole.consume(res);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package spring.reborn.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원가입/로그인마다 호출되는 비밀번호 암복호화 비용
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AES128Benchmark {
+
+    private AES128 aes128;
+    private String password;
+    private String encrypted;
+
+    @Setup
+    public void setUp() throws Exception {
+        aes128 = new AES128("benchmarkUserInfoPasswordKey0123");
+        password = "Reborn!Passw0rd";
+        encrypted = aes128.encrypt(password);
+    }
+
+    @Benchmark
+    public String encrypt() throws Exception {
+        return aes128.encrypt(password);
+    }
+
+    @Benchmark
+    public String decrypt() throws Exception {
+        return aes128.decrypt(encrypted);
+    }
+
+    // 생성자에서 키를 만드는 비용 (요청마다 new AES128 을 하는 코드 경로)
+    @Benchmark
+    public String encryptWithNewInstance() throws Exception {
+        return new AES128("benchmarkUserInfoPasswordKey0123").encrypt(password);
+    }
+}
@@ -0,0 +1,50 @@
+package spring.reborn.utils;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RowMapper 벤치마크용 메모리 ResultSet
+ * DB 없이 컬럼 이름으로 값을 꺼내는 비용만 재기 위해 CachedRowSet 에 행을 채워둔다.
+ */
+public final class BenchmarkRowSets {
+
+    private BenchmarkRowSets() {
+    }
+
+    // 첫 행의 키 순서대로 컬럼을 만든다 (LinkedHashMap 사용)
+    public static CachedRowSet of(List<Map<String, Object>> rows) throws SQLException {
+        CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+        String[] columns = rows.get(0).keySet().toArray(new String[0]);
+
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            metaData.setColumnName(i + 1, columns[i]);
+            metaData.setColumnLabel(i + 1, columns[i]);
+            metaData.setColumnType(i + 1, Types.JAVA_OBJECT);
+        }
+        rowSet.setMetaData(metaData);
+
+        for (Map<String, Object> row : rows) {
+            rowSet.moveToInsertRow();
+            for (int i = 0; i < columns.length; i++) {
+                Object value = row.get(columns[i]);
+                if (value == null) {
+                    rowSet.updateNull(i + 1);
+                } else {
+                    rowSet.updateObject(i + 1, value);
+                }
+            }
+            rowSet.insertRow();
+        }
+        rowSet.moveToCurrentRow();
+        rowSet.beforeFirst();
+        return rowSet;
+    }
+}
@@ -0,0 +1,61 @@
+package spring.reborn.utils;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.user.UserPrincipalCache;
+import spring.reborn.domain.user.model.UserPrincipal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 하나에서 JwtService 로 userIdx 를 두 번 꺼내는 비용
+ * parseEveryCall : 캐시 없이 매번 서명 검증 (기존 동작)
+ * cachedPerRequest : 새 요청마다 request attribute 는 비어있고, 토큰 캐시에서 claims 를 찾음
+ * createJwt : 로그인/토큰 재발급시 서명 비용
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        // 유저 상태 확인은 캐시에 올려둔 스냅샷으로 (DB 없이)
+        UserPrincipalCache userPrincipalCache = new UserPrincipalCache(null, 3_600_000, 10_000);
+        userPrincipalCache.put(new UserPrincipal(1, "ACTIVE", "CONSUMER", "benchmark", null));
+        jwtService = new JwtService(null, userPrincipalCache, 300_000, 10_000);
+        token = jwtService.createJwt(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public String createJwt() {
+        return jwtService.createJwt(1);
+    }
+
+    @Benchmark
+    public int parseEveryCall() throws BaseException {
+        Claims first = jwtService.parseClaims(token);
+        Claims second = jwtService.parseClaims(token);
+        return first.get("userIdx", Integer.class) + second.get("userIdx", Integer.class);
+    }
+
+    @Benchmark
+    public int cachedPerRequest() throws BaseException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-ACCESS-TOKEN", token);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return jwtService.getUserIdx() + jwtService.getUserIdx();
+    }
+}
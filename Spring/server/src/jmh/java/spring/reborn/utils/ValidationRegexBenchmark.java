@@ -0,0 +1,83 @@
+package spring.reborn.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원가입 요청 하나에서 수행되는 형식 검사 비용
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationRegexBenchmark {
+
+    @Param({"valid", "invalid"})
+    public String input;
+
+    private String email;
+    private String password;
+    private String storeRegister;
+    private String nickname;
+    private String birthDate;
+    private String id;
+
+    @Setup
+    public void setUp() {
+        if (input.equals("valid")) {
+            email = "reborn.user@example.com";
+            password = "Reborn!Passw0rd";
+            storeRegister = "123-45-67890";
+            nickname = "리본유저01";
+            birthDate = "19990101";
+            id = "rebornuser01";
+        } else {
+            email = "reborn.user@@example";
+            password = "password";
+            storeRegister = "12-34-567";
+            nickname = "리본 유저!";
+            birthDate = "1999-13-01";
+            id = "r!";
+        }
+    }
+
+    @Benchmark
+    public boolean email() {
+        return ValidationRegex.isRegexEmail(email);
+    }
+
+    @Benchmark
+    public boolean password() {
+        return ValidationRegex.isRegexPassword(password);
+    }
+
+    @Benchmark
+    public boolean storeRegister() {
+        return ValidationRegex.isRegexStoreRegister(storeRegister);
+    }
+
+    @Benchmark
+    public boolean nickname() {
+        return ValidationRegex.isRegexNickname(nickname);
+    }
+
+    @Benchmark
+    public boolean birthDate() {
+        return ValidationRegex.isRegexBirthDate(birthDate);
+    }
+
+    @Benchmark
+    public boolean id() {
+        return ValidationRegex.isRegexId(id);
+    }
+
+    // 가게 회원가입 한 번에 해당하는 검사 묶음
+    @Benchmark
+    public boolean storeSignUp() {
+        return ValidationRegex.isRegexEmail(email)
+                & ValidationRegex.isRegexPassword(password)
+                & ValidationRegex.isRegexNickname(nickname)
+                & ValidationRegex.isRegexStoreRegister(storeRegister)
+                & ValidationRegex.isRegexId(id);
+    }
+}
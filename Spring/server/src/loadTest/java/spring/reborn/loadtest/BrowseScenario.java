@@ -0,0 +1,81 @@
+package spring.reborn.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import spring.reborn.loadtest.model.ScenarioResult;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 점심 시간 둘러보기 트래픽
+ * 가상 유저마다 정해진 시간 동안 목록 5 : 검색 3 : 찜 토글 2 비율로 요청을 반복한다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BrowseScenario {
+
+    private static final String[] SEARCH_SORTS = {"name", "score", "jjim"};
+
+    private final LoadTestClient client;
+    private final LoadTestConfig config;
+    private final LoadTestSeeder seeder;
+
+    public ScenarioResult run(String scenario, int durationSeconds) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        ExecutorService executor = Executors.newFixedThreadPool(config.getBrowseUsers());
+
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.SECONDS.toNanos(durationSeconds);
+        for (int n = 0; n < config.getBrowseUsers(); n++) {
+            long userIdx = seeder.getConsumerIdx(n);
+            Random random = new Random(config.getSeed() + n);
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                    step(recorder, random, userIdx);
+                    think();
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(durationSeconds + config.getRequestTimeoutSeconds(), TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        log.info(scenario + " finished in " + durationMillis + "ms");
+        return recorder.summarize(scenario, durationMillis);
+    }
+
+    private void step(LatencyRecorder recorder, Random random, long userIdx) {
+        int action = random.nextInt(10);
+        if (action < 5) {
+            client.get(recorder, "GET /store/list", "/store/list");
+        } else if (action < 8) {
+            String keyword = LoadTestSeeder.STORE_NOUNS[random.nextInt(LoadTestSeeder.STORE_NOUNS.length)];
+            String sort = SEARCH_SORTS[random.nextInt(SEARCH_SORTS.length)];
+            client.get(recorder, "GET /store/search",
+                    "/store/search?keyword=" + LoadTestClient.encode(keyword) + "&sort=" + sort);
+        } else {
+            Map<String, Object> jjimReq = new HashMap<>();
+            jjimReq.put("storeIdx", 1 + random.nextInt(config.getStores()));
+            jjimReq.put("userIdx", userIdx);
+            client.post(recorder, "POST /jjim", "/jjim", jjimReq);
+        }
+    }
+
+    private void think() {
+        if (config.getBrowseThinkTimeMillis() <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(config.getBrowseThinkTimeMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package spring.reborn.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import spring.reborn.loadtest.model.FlashDropResult;
+import spring.reborn.loadtest.model.ScenarioResult;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static spring.reborn.config.BaseResponseStatus.NOT_ENOUGH_REBORN;
+
+/**
+ * 선착순 나눔 오픈
+ * 가상 유저 모두가 같은 rebornIdx 에 한 번씩 POST /reborn-task 를 동시에 보내고,
+ * 응답과 DB 를 비교해서 재고보다 많이 나간 신청(oversell)이 없는지 확인한다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class FlashDropScenario {
+
+    private static final String SCENARIO = "flash-drop";
+    private static final String ENDPOINT = "POST /reborn-task";
+    private static final String SOLD_OUT_CODE = String.valueOf(NOT_ENOUGH_REBORN.getCode());
+
+    // write-behind 모드에서 DB 저장을 기다리는 최대 시간
+    private static final long SETTLE_TIMEOUT_MILLIS = 30_000;
+
+    private final LoadTestClient client;
+    private final LoadTestConfig config;
+    private final LoadTestSeeder seeder;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    public ScenarioResult run() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(config.getFlashConcurrency());
+        CountDownLatch open = new CountDownLatch(1);
+
+        for (int n = 0; n < config.getFlashUsers(); n++) {
+            long userIdx = seeder.getConsumerIdx(n);
+            executor.execute(() -> {
+                try {
+                    open.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                Map<String, Object> postRebornTaskReq = new HashMap<>();
+                postRebornTaskReq.put("rebornIdx", LoadTestSeeder.FLASH_REBORN_IDX);
+                postRebornTaskReq.put("userIdx", userIdx);
+                client.post(recorder, ENDPOINT, "/reborn-task", postRebornTaskReq);
+            });
+        }
+
+        long startedAt = System.nanoTime();
+        open.countDown();
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.MINUTES)) {
+            executor.shutdownNow();
+        }
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        log.info(SCENARIO + " finished in " + durationMillis + "ms");
+        return recorder.summarize(SCENARIO, durationMillis);
+    }
+
+    public FlashDropResult verify() throws InterruptedException {
+        long succeeded = recorder.count(ENDPOINT, LoadTestClient.SUCCESS_CODE);
+        long soldOut = recorder.count(ENDPOINT, SOLD_OUT_CODE);
+        long failed = config.getFlashUsers() - succeeded - soldOut;
+
+        // write-behind 모드는 응답 이후에 저장되므로 신청 수가 맞을 때까지 기다림
+        long reservations = countReservations();
+        long settleDeadline = System.currentTimeMillis() + SETTLE_TIMEOUT_MILLIS;
+        while (reservations < succeeded && System.currentTimeMillis() < settleDeadline) {
+            Thread.sleep(200);
+            reservations = countReservations();
+        }
+
+        Integer remainingProductCnt = jdbcTemplate.queryForObject(
+                "select productCnt from Reborn where rebornIdx = ?", Integer.class, LoadTestSeeder.FLASH_REBORN_IDX);
+        int remaining = remainingProductCnt == null ? 0 : remainingProductCnt;
+
+        // 응답 기준, DB 기준 중 큰 쪽으로 판단 (재고가 음수가 된 경우 포함)
+        long oversell = Math.max(0, Math.max(Math.max(succeeded, reservations) - config.getFlashStock(), -remaining));
+
+        return new FlashDropResult(LoadTestSeeder.FLASH_REBORN_IDX, config.getFlashStock(), config.getFlashUsers(),
+                succeeded, soldOut, failed, reservations, remaining, oversell);
+    }
+
+    private long countReservations() {
+        Long count = jdbcTemplate.queryForObject(
+                "select count(*) from RebornTask where rebornIdx = ?", Long.class, LoadTestSeeder.FLASH_REBORN_IDX);
+        return count == null ? 0 : count;
+    }
+}
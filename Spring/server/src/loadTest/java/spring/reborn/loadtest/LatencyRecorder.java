@@ -0,0 +1,86 @@
+package spring.reborn.loadtest;
+
+import spring.reborn.loadtest.model.EndpointResult;
+import spring.reborn.loadtest.model.ScenarioResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 시나리오 하나의 응답 시간과 결과 코드 기록
+ * 퍼센타일을 정확히 내기 위해 샘플을 모두 보관한다 (수십만 건 정도까지).
+ */
+public class LatencyRecorder {
+
+    private final Map<String, Samples> samplesByEndpoint = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long elapsedNanos, String code) {
+        samplesByEndpoint.computeIfAbsent(endpoint, key -> new Samples()).add(elapsedNanos, code);
+    }
+
+    public long count(String endpoint, String code) {
+        Samples samples = samplesByEndpoint.get(endpoint);
+        if (samples == null) {
+            return 0;
+        }
+        LongAdder count = samples.codes.get(code);
+        return count == null ? 0 : count.sum();
+    }
+
+    public ScenarioResult summarize(String scenario, long durationMillis) {
+        List<EndpointResult> endpoints = new ArrayList<>();
+        long requests = 0;
+        for (Map.Entry<String, Samples> entry : new TreeMap<>(samplesByEndpoint).entrySet()) {
+            EndpointResult endpointResult = entry.getValue().summarize(entry.getKey(), durationMillis);
+            endpoints.add(endpointResult);
+            requests += endpointResult.getRequests();
+        }
+        return new ScenarioResult(scenario, durationMillis, requests, perSecond(requests, durationMillis), endpoints);
+    }
+
+    private static double perSecond(long count, long durationMillis) {
+        return durationMillis == 0 ? 0 : count * 1000.0 / durationMillis;
+    }
+
+    private static class Samples {
+        private long[] values = new long[1024];
+        private int size;
+        private final Map<String, LongAdder> codes = new ConcurrentHashMap<>();
+
+        synchronized void add(long elapsedNanos, String code) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = elapsedNanos;
+            codes.computeIfAbsent(code, key -> new LongAdder()).increment();
+        }
+
+        synchronized EndpointResult summarize(String endpoint, long durationMillis) {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            Map<String, Long> codeCounts = new TreeMap<>();
+            codes.forEach((code, count) -> codeCounts.put(code, count.sum()));
+            return new EndpointResult(endpoint, size, perSecond(size, durationMillis),
+                    percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                    size == 0 ? 0 : toMillis(sorted[size - 1]), codeCounts);
+        }
+
+        // nearest-rank
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+            return toMillis(sorted[Math.max(rank, 1) - 1]);
+        }
+
+        private static double toMillis(long nanos) {
+            return Math.round(nanos / 10_000.0) / 100.0;
+        }
+    }
+}
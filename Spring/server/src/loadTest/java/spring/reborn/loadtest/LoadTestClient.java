@@ -0,0 +1,101 @@
+package spring.reborn.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static spring.reborn.config.BaseResponseStatus.SUCCESS;
+
+/**
+ * 가상 유저가 공유하는 HTTP 클라이언트
+ * 응답 시간은 BaseResponse 를 파싱하기 전까지만 잰다.
+ */
+public class LoadTestClient {
+
+    public static final String SUCCESS_CODE = String.valueOf(SUCCESS.getCode());
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+
+    public LoadTestClient(String baseUrl, ObjectMapper objectMapper, Duration requestTimeout) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.requestTimeout = requestTimeout;
+    }
+
+    public String get(LatencyRecorder recorder, String endpoint, String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+        return send(recorder, endpoint, request);
+    }
+
+    public String post(LatencyRecorder recorder, String endpoint, String path, Map<String, Object> body) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return send(recorder, endpoint, request);
+    }
+
+    public static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private String send(LatencyRecorder recorder, String endpoint, HttpRequest request) {
+        long startedAt = System.nanoTime();
+        String code;
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long elapsed = System.nanoTime() - startedAt;
+            code = toCode(response);
+            recorder.record(endpoint, elapsed, code);
+            return code;
+        } catch (HttpTimeoutException e) {
+            code = "TIMEOUT";
+        } catch (IOException e) {
+            code = "IO_ERROR";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            code = "INTERRUPTED";
+        }
+        recorder.record(endpoint, System.nanoTime() - startedAt, code);
+        return code;
+    }
+
+    private String toCode(HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            return "HTTP_" + response.statusCode();
+        }
+        try {
+            JsonNode code = objectMapper.readTree(response.body()).get("code");
+            return code == null ? "NO_CODE" : code.asText();
+        } catch (IOException e) {
+            return "INVALID_BODY";
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package spring.reborn.loadtest;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 부하 테스트 설정, 시스템 프로퍼티(-Dloadtest.*)로 덮어쓴다.
+ */
+@Getter
+public class LoadTestConfig {
+
+    // 목록/검색/찜 시나리오, 워밍업은 같은 시나리오를 기록 없이 돌림
+    private final int warmupSeconds = intProperty("loadtest.warmup-seconds", 5);
+    private final int browseUsers = intProperty("loadtest.browse.users", 200);
+    private final int browseDurationSeconds = intProperty("loadtest.browse.duration-seconds", 30);
+    private final int browseThinkTimeMillis = intProperty("loadtest.browse.think-time", 0);
+
+    // 선착순 나눔 시나리오
+    private final int flashUsers = intProperty("loadtest.flash.users", 5000);
+    private final int flashStock = intProperty("loadtest.flash.stock", 100);
+    private final int flashConcurrency = intProperty("loadtest.flash.concurrency", 500);
+
+    // 시드 데이터, 손님 수는 가상 유저보다 적을 수 없음
+    private final long seed = longProperty("loadtest.seed", 42);
+    private final int stores = intProperty("loadtest.stores", 500);
+    private final int consumers = Math.max(intProperty("loadtest.consumers", 10000), Math.max(flashUsers, browseUsers));
+    private final int rebornsPerStore = intProperty("loadtest.reborns-per-store", 2);
+    private final int jjimsPerConsumer = intProperty("loadtest.jjims-per-consumer", 3);
+
+    private final int requestTimeoutSeconds = intProperty("loadtest.request-timeout-seconds", 30);
+    private final String reportPath = System.getProperty("loadtest.report", "build/reports/loadtest/report.json");
+
+    // 리포트에 남길 설정값
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("seed", seed);
+        map.put("stores", stores);
+        map.put("consumers", consumers);
+        map.put("rebornsPerStore", rebornsPerStore);
+        map.put("jjimsPerConsumer", jjimsPerConsumer);
+        map.put("warmupSeconds", warmupSeconds);
+        map.put("browseUsers", browseUsers);
+        map.put("browseDurationSeconds", browseDurationSeconds);
+        map.put("browseThinkTimeMillis", browseThinkTimeMillis);
+        map.put("flashUsers", flashUsers);
+        map.put("flashStock", flashStock);
+        map.put("flashConcurrency", flashConcurrency);
+        map.put("writeBehind", Boolean.getBoolean("reborn.task.write-behind.enabled"));
+        return map;
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    private static long longProperty(String name, long defaultValue) {
+        return Long.parseLong(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+}
@@ -0,0 +1,133 @@
+package spring.reborn.loadtest;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import redis.embedded.RedisServer;
+import spring.reborn.RebornApplication;
+import spring.reborn.loadtest.model.EndpointResult;
+import spring.reborn.loadtest.model.FlashDropResult;
+import spring.reborn.loadtest.model.LoadTestReport;
+import spring.reborn.loadtest.model.ScenarioResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 부하 테스트 진입점 (./gradlew loadTest)
+ * 1. 임베디드 MariaDB, Redis 를 띄우고 스키마/시드 데이터 적재
+ * 2. 서버를 임의 포트로 띄움 (spring.config.name=loadtest, application.properties 는 읽지 않음)
+ * 3. 워밍업 → 둘러보기 → 선착순 나눔 순서로 실행하고 리포트(JSON) 저장
+ * oversell 이 있으면 exit code 1
+ */
+@Slf4j
+public class LoadTestRunner {
+
+    private static final String DATABASE = "reborn";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = new LoadTestConfig();
+        String startedAt = OffsetDateTime.now().toString();
+
+        DBConfigurationBuilder dbConfig = DBConfigurationBuilder.newBuilder();
+        dbConfig.setPort(0);
+        dbConfig.addArg("--character-set-server=utf8mb4");
+        dbConfig.addArg("--collation-server=utf8mb4_unicode_ci");
+        dbConfig.addArg("--max-connections=500");
+        DB mariaDb = DB.newEmbeddedDB(dbConfig.build());
+        int redisPort = findFreePort();
+        RedisServer redisServer = new RedisServer(redisPort);
+        ConfigurableApplicationContext context = null;
+
+        int exitCode;
+        try {
+            mariaDb.start();
+            mariaDb.createDB(DATABASE);
+            mariaDb.source("loadtest/schema.sql", "root", null, DATABASE);
+            redisServer.start();
+
+            String url = "jdbc:mysql://localhost:" + mariaDb.getConfiguration().getPort() + "/" + DATABASE
+                    + "?rewriteBatchedStatements=true&characterEncoding=UTF-8&serverTimezone=Asia/Seoul";
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "root", ""));
+            LoadTestSeeder seeder = new LoadTestSeeder(jdbcTemplate, config);
+            seeder.seed();
+
+            // 검색/위치 색인은 서버 시작시 적재되므로 시드 이후에 띄움
+            System.setProperty("spring.config.name", "loadtest");
+            context = new SpringApplicationBuilder(RebornApplication.class)
+                    .properties("spring.datasource.url=" + url, "spring.redis.port=" + redisPort)
+                    .run(args);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            LoadTestClient client = new LoadTestClient("http://localhost:" + port, objectMapper,
+                    Duration.ofSeconds(config.getRequestTimeoutSeconds()));
+
+            BrowseScenario browseScenario = new BrowseScenario(client, config, seeder);
+            browseScenario.run("warmup", config.getWarmupSeconds());
+
+            List<ScenarioResult> scenarios = new ArrayList<>();
+            scenarios.add(browseScenario.run("browse", config.getBrowseDurationSeconds()));
+            FlashDropScenario flashDropScenario = new FlashDropScenario(client, config, seeder, jdbcTemplate);
+            scenarios.add(flashDropScenario.run());
+            FlashDropResult flashDropResult = flashDropScenario.verify();
+
+            LoadTestReport report = new LoadTestReport(startedAt, config.toMap(), scenarios, flashDropResult);
+            print(report);
+            write(objectMapper, report, new File(config.getReportPath()));
+
+            exitCode = flashDropResult.getOversell() > 0 ? 1 : 0;
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            redisServer.stop();
+            mariaDb.stop();
+        }
+        System.exit(exitCode);
+    }
+
+    private static void print(LoadTestReport report) {
+        for (ScenarioResult scenario : report.getScenarios()) {
+            log.info(String.format("[%s] %d requests in %dms (%.1f req/s)",
+                    scenario.getScenario(), scenario.getRequests(), scenario.getDurationMillis(), scenario.getThroughput()));
+            for (EndpointResult endpoint : scenario.getEndpoints()) {
+                log.info(String.format("  %-20s %7d req %8.1f req/s  p50 %7.2fms  p90 %7.2fms  p99 %7.2fms  max %8.2fms  %s",
+                        endpoint.getEndpoint(), endpoint.getRequests(), endpoint.getThroughput(),
+                        endpoint.getP50Millis(), endpoint.getP90Millis(), endpoint.getP99Millis(), endpoint.getMaxMillis(),
+                        endpoint.getCodes()));
+            }
+        }
+        FlashDropResult flashDrop = report.getFlashDrop();
+        log.info(String.format("[flash-drop] stock %d, users %d, succeeded %d, sold out %d, failed %d, " +
+                        "reservations %d, remaining %d, oversell %d",
+                flashDrop.getStock(), flashDrop.getUsers(), flashDrop.getSucceeded(), flashDrop.getSoldOut(),
+                flashDrop.getFailed(), flashDrop.getReservations(), flashDrop.getRemainingProductCnt(), flashDrop.getOversell()));
+    }
+
+    private static void write(ObjectMapper objectMapper, LoadTestReport report, File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("can not create " + parent);
+        }
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        log.info("report : " + file.getAbsolutePath());
+    }
+
+    private static int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
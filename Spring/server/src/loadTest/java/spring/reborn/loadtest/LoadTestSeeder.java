@@ -0,0 +1,136 @@
+package spring.reborn.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import spring.reborn.domain.store.model.StoreCategory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 스토어, 리본, 유저, 찜 시드 데이터
+ * 같은 seed 면 항상 같은 데이터가 만들어지도록 idx 를 직접 지정한다.
+ * userIdx 1..stores 는 스토어 유저 (storeIdx 와 같음), 그 뒤로 손님 유저
+ * rebornIdx 1 은 선착순 나눔 대상
+ */
+@Slf4j
+public class LoadTestSeeder {
+
+    public static final long FLASH_REBORN_IDX = 1L;
+
+    // 검색 시나리오에서 키워드로도 사용
+    public static final String[] STORE_NOUNS = {"베이커리", "카페", "반찬가게", "마트", "떡집", "샐러드", "분식", "디저트", "정육점", "과일가게"};
+    private static final String[] STORE_PREFIXES = {"리본", "초록", "동네", "오늘의", "행복한", "달콤", "바른", "우리", "모퉁이", "햇살"};
+    private static final String[] PRODUCT_NAMES = {"식빵 묶음", "마감 도시락", "샐러드 세트", "반찬 3종", "조각 케이크", "떡 모음", "과일 바구니", "우유 2팩"};
+
+    // 서울 시청 기준 약 5km 안쪽
+    private static final double BASE_LATITUDE = 37.5665;
+    private static final double BASE_LONGITUDE = 126.9780;
+    private static final double COORDINATE_SPREAD = 0.05;
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String IMAGE_URL = "https://reborn-loadtest.s3.ap-northeast-2.amazonaws.com/";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoadTestConfig config;
+    private final Random random;
+
+    public LoadTestSeeder(JdbcTemplate jdbcTemplate, LoadTestConfig config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+        this.random = new Random(config.getSeed());
+    }
+
+    public long getConsumerIdx(int n) {
+        return config.getStores() + 1L + n;
+    }
+
+    public void seed() {
+        long startedAt = System.currentTimeMillis();
+        seedUsers();
+        seedStores();
+        seedReborns();
+        seedJjims();
+        seedStoreStats();
+        log.info("seeded " + config.getStores() + " stores, " + config.getConsumers() + " consumers in "
+                + (System.currentTimeMillis() - startedAt) + "ms");
+    }
+
+    private void seedUsers() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= config.getStores(); i++) {
+            rows.add(new Object[]{(long) i, "store" + i, "store" + i + "@reborn.test", "사장님" + i,
+                    IMAGE_URL + "store" + i + ".jpg", "STORE"});
+        }
+        for (int n = 0; n < config.getConsumers(); n++) {
+            long userIdx = getConsumerIdx(n);
+            rows.add(new Object[]{userIdx, "user" + userIdx, "user" + userIdx + "@reborn.test", "손님" + userIdx,
+                    random.nextInt(4) == 0 ? null : IMAGE_URL + "user" + userIdx + ".jpg", "CONSUMER"});
+        }
+        batchInsert("insert into User (userIdx, userId, userEmail, userNickname, userImg, userType) values (?,?,?,?,?,?)", rows);
+    }
+
+    private void seedStores() {
+        StoreCategory[] categories = StoreCategory.values();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= config.getStores(); i++) {
+            String storeName = STORE_PREFIXES[random.nextInt(STORE_PREFIXES.length)] + " "
+                    + STORE_NOUNS[random.nextInt(STORE_NOUNS.length)] + " " + i + "호점";
+            // 평점은 3.0 ~ 5.0, 좌표가 없는 오래된 스토어도 일부 섞음
+            float storeScore = Math.round((3 + random.nextFloat() * 2) * 10) / 10f;
+            boolean hasLocation = random.nextInt(10) != 0;
+            rows.add(new Object[]{(long) i, (long) i, storeName, String.format("%03d-%02d-%05d", i % 1000, i % 100, i),
+                    IMAGE_URL + "store" + i + ".jpg", "서울특별시 중구 세종대로 " + i, storeName + " 입니다. 남은 상품을 나눠요.",
+                    categories[random.nextInt(categories.length)].name(), storeScore,
+                    hasLocation ? BASE_LATITUDE + (random.nextDouble() * 2 - 1) * COORDINATE_SPREAD : null,
+                    hasLocation ? BASE_LONGITUDE + (random.nextDouble() * 2 - 1) * COORDINATE_SPREAD : null});
+        }
+        batchInsert("insert into Store (storeIdx, userIdx, storeName, storeRegister, storeImage, storeAddress, storeDescription, " +
+                "category, storeScore, latitude, longitude) values (?,?,?,?,?,?,?,?,?,?,?)", rows);
+    }
+
+    private void seedReborns() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{FLASH_REBORN_IDX, 1L, "선착순 나눔 " + PRODUCT_NAMES[0], config.getFlashStock(), "02:00:00"});
+        long rebornIdx = FLASH_REBORN_IDX;
+        for (int i = 1; i <= config.getStores(); i++) {
+            for (int r = 0; r < config.getRebornsPerStore(); r++) {
+                rows.add(new Object[]{++rebornIdx, (long) i, PRODUCT_NAMES[random.nextInt(PRODUCT_NAMES.length)],
+                        1 + random.nextInt(10), "01:00:00"});
+            }
+        }
+        batchInsert("insert into Reborn (rebornIdx, storeIdx, productName, productCnt, productLimitTime, " +
+                "productGuide, productComment, productImg) values (?,?,?,?,?,'매장 방문 수령','마감 상품입니다.',null)", rows);
+    }
+
+    private void seedJjims() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int n = 0; n < config.getConsumers(); n++) {
+            int count = random.nextInt(config.getJjimsPerConsumer() + 1);
+            Set<Long> storeIdxSet = new HashSet<>();
+            for (int j = 0; j < count; j++) {
+                storeIdxSet.add(1L + random.nextInt(config.getStores()));
+            }
+            for (Long storeIdx : storeIdxSet) {
+                rows.add(new Object[]{storeIdx, getConsumerIdx(n)});
+            }
+        }
+        batchInsert("insert into Jjim (storeIdx, userIdx) values (?,?)", rows);
+    }
+
+    // store_stats.sql 최초 적재와 같은 집계
+    private void seedStoreStats() {
+        jdbcTemplate.update("insert into StoreStats (storeIdx, numOfReborn, numOfReview, numOfJjim) " +
+                "select S.storeIdx, 0, 0, ifnull(J.cnt, 0) " +
+                "from Store S left join (select storeIdx, count(*) cnt from Jjim group by storeIdx) J on J.storeIdx = S.storeIdx");
+    }
+
+    private void batchInsert(String query, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(query, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package spring.reborn.loadtest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class EndpointResult {
+    private String endpoint;
+    private long requests;
+    // 초당 요청 수
+    private double throughput;
+    private double p50Millis;
+    private double p90Millis;
+    private double p99Millis;
+    private double maxMillis;
+    // BaseResponse code (HTTP 오류는 HTTP_xxx, 연결 실패는 IO_ERROR / TIMEOUT)
+    private Map<String, Long> codes;
+}
@@ -0,0 +1,21 @@
+package spring.reborn.loadtest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class FlashDropResult {
+    private long rebornIdx;
+    private int stock;
+    private int users;
+    // 응답 기준
+    private long succeeded;
+    private long soldOut;
+    private long failed;
+    // DB 기준
+    private long reservations;
+    private int remainingProductCnt;
+    // 재고보다 많이 나간 수 (0 이어야 정상)
+    private long oversell;
+}
@@ -0,0 +1,16 @@
+package spring.reborn.loadtest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class LoadTestReport {
+    private String startedAt;
+    private Map<String, Object> config;
+    private List<ScenarioResult> scenarios;
+    private FlashDropResult flashDrop;
+}
@@ -0,0 +1,16 @@
+package spring.reborn.loadtest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ScenarioResult {
+    private String scenario;
+    private long durationMillis;
+    private long requests;
+    private double throughput;
+    private List<EndpointResult> endpoints;
+}
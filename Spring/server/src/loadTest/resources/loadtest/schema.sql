@@ -0,0 +1,131 @@
+-- 부하 테스트용 스키마 (운영 스키마 + src/main/resources/sql 변경분)
+
+CREATE TABLE User
+(
+    userIdx         BIGINT       NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    userId          VARCHAR(45)  NULL,
+    userEmail       VARCHAR(100) NULL,
+    userPwd         VARCHAR(255) NULL,
+    userNickname    VARCHAR(45)  NULL,
+    userImg         VARCHAR(500) NULL,
+    userAdAgreement BOOLEAN      NOT NULL DEFAULT FALSE,
+    userAddress     VARCHAR(255) NULL,
+    userLikes       VARCHAR(45)  NULL,
+    userType        VARCHAR(10)  NOT NULL DEFAULT 'CONSUMER',
+    status          VARCHAR(10)  NOT NULL DEFAULT 'ACTIVE',
+    createdAt       TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updatedAt       TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+CREATE TABLE Store
+(
+    storeIdx         BIGINT       NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    userIdx          BIGINT       NOT NULL,
+    storeName        VARCHAR(45)  NOT NULL,
+    storeRegister    VARCHAR(20)  NULL,
+    storeImage       VARCHAR(500) NULL,
+    storeAddress     VARCHAR(255) NULL,
+    storeDescription VARCHAR(500) NULL,
+    category         VARCHAR(10)  NOT NULL,
+    storeScore       FLOAT        NOT NULL DEFAULT 0,
+    reviewScoreSum   BIGINT       NOT NULL DEFAULT 0,
+    reviewCnt        BIGINT       NOT NULL DEFAULT 0,
+    latitude         DOUBLE       NULL,
+    longitude        DOUBLE       NULL,
+    status           VARCHAR(10)  NOT NULL DEFAULT 'ACTIVE',
+    createdAt        TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updatedAt        TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_store_userIdx (userIdx),
+    INDEX idx_store_status_createdAt (status, createdAt, storeIdx),
+    INDEX idx_store_latitude_longitude (latitude, longitude)
+);
+
+CREATE TABLE Reborn
+(
+    rebornIdx        BIGINT       NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    storeIdx         BIGINT       NOT NULL,
+    productName      VARCHAR(45)  NOT NULL,
+    productGuide     VARCHAR(255) NULL,
+    productComment   VARCHAR(255) NULL,
+    productImg       VARCHAR(500) NULL,
+    productLimitTime TIME         NOT NULL,
+    productCnt       INT          NOT NULL DEFAULT 0,
+    status           VARCHAR(10)  NOT NULL DEFAULT 'ACTIVE',
+    createdAt        TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updatedAt        TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_reborn_storeIdx (storeIdx, rebornIdx),
+    INDEX idx_reborn_storeIdx_status (storeIdx, status, productCnt)
+);
+
+CREATE TABLE RebornTask
+(
+    rebornTaskIdx       BIGINT      NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    userIdx             BIGINT      NOT NULL,
+    rebornIdx           BIGINT      NOT NULL,
+    storeIdx            BIGINT      NULL,
+    productExchangeCode BIGINT      NOT NULL,
+    claimKey            VARCHAR(36) NULL,
+    status              VARCHAR(10) NOT NULL DEFAULT 'ACTIVE',
+    createdAt           TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updatedAt           TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE INDEX uk_rebornTask_claimKey (claimKey),
+    INDEX idx_rebornTask_rebornIdx_createdAt (rebornIdx, createdAt, rebornTaskIdx),
+    INDEX idx_rebornTask_storeIdx_createdAt (storeIdx, createdAt, rebornTaskIdx),
+    INDEX idx_rebornTask_userIdx_createdAt (userIdx, createdAt, rebornTaskIdx)
+);
+
+CREATE TABLE Review
+(
+    reviewIdx     BIGINT       NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    userIdx       BIGINT       NOT NULL,
+    rebornIdx     BIGINT       NOT NULL,
+    storeIdx      BIGINT       NULL,
+    reviewScore   INT          NOT NULL,
+    reviewComment VARCHAR(500) NULL,
+    reviewImage1  VARCHAR(500) NULL,
+    reviewImage2  VARCHAR(500) NULL,
+    reviewImage3  VARCHAR(500) NULL,
+    reviewImage4  VARCHAR(500) NULL,
+    reviewImage5  VARCHAR(500) NULL,
+    status        VARCHAR(10)  NOT NULL DEFAULT 'ACTIVE',
+    createdAt     TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updatedAt     TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_review_rebornIdx_createdAt (rebornIdx, createdAt, reviewIdx),
+    INDEX idx_review_storeIdx_createdAt (storeIdx, createdAt, reviewIdx)
+);
+
+CREATE TABLE Jjim
+(
+    jjimIdx   BIGINT    NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    storeIdx  BIGINT    NOT NULL,
+    userIdx   BIGINT    NOT NULL,
+    createdAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE INDEX uk_jjim_user_store (userIdx, storeIdx),
+    INDEX idx_jjim_userIdx (userIdx, jjimIdx),
+    INDEX idx_jjim_storeIdx (storeIdx)
+);
+
+CREATE TABLE StoreStats
+(
+    storeIdx    BIGINT    NOT NULL PRIMARY KEY,
+    numOfReborn BIGINT    NOT NULL DEFAULT 0,
+    numOfReview BIGINT    NOT NULL DEFAULT 0,
+    numOfJjim   BIGINT    NOT NULL DEFAULT 0,
+    updatedAt   TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE ImageVariant
+(
+    imageKey     VARCHAR(255) NOT NULL PRIMARY KEY,
+    thumbnailKey VARCHAR(255) NOT NULL,
+    detailKey    VARCHAR(255) NOT NULL,
+    createdAt    TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE ImageObject
+(
+    imageKey  VARCHAR(255) NOT NULL PRIMARY KEY,
+    refCount  INT          NOT NULL DEFAULT 0,
+    uploaded  BOOLEAN      NOT NULL DEFAULT FALSE,
+    createdAt TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
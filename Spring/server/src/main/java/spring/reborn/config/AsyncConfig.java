@@ -1,5 +1,9 @@
 package spring.reborn.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurerSupport;
@@ -12,6 +16,9 @@ import java.util.concurrent.Executor;
 @Configuration
 public class AsyncConfig extends AsyncConfigurerSupport {
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Override
     public Executor getAsyncExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -19,7 +26,11 @@ public class AsyncConfig extends AsyncConfigurerSupport {
         executor.setMaxPoolSize(50);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("ThreadPoolTaskExecutorForRebornTask-");
+        // @Async 작업도 요청한 쓰레드의 DB 라우팅(replica / read-your-writes)을 따름
+        executor.setTaskDecorator(DataSourceRouting::wrap);
         executor.initialize();
+        // 쓰레드/대기열 사용량 (executor.active, executor.queued 등)
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "reborn-async", Tags.empty()).bindTo(meterRegistry);
 
         return executor;
     }
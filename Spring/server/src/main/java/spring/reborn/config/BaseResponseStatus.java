@@ -21,6 +21,7 @@ public enum BaseResponseStatus {
     EMPTY_JWT(false, 2001, "JWT를 입력해주세요."),
     INVALID_JWT(false, 2002, "유효하지 않은 JWT입니다."),
     INVALID_USER_JWT(false,2003,"권한이 없는 유저의 접근입니다."),
+    INVALID_CURSOR(false, 2004, "유효하지 않은 페이지 커서입니다."),
 
     // users
     USERS_EMPTY_USER_ID(false, 2010, "유저 아이디 값을 확인해주세요."),
@@ -55,6 +56,7 @@ public enum BaseResponseStatus {
     MODIFY_FAIL_STORE(false,2203,"해당 스토어의 정보를 수정할 수 없습니다."),
     MODIFY_FAIL_STORE_EMPTY_NAME(false,2204,"해당 스토어의 이름을 입력해주세요."),
     MODIFY_FAIL_STORE_EMPTY_LOCATION(false,2205,"해당 스토어의 위치를 입력해주세요."),
+    INVALID_STORE_COORDINATE(false,2206,"위도, 경도 값을 확인해주세요."),
 
     CAN_NOT_CREATE_REBORN_TASK(false, 2210, "리본을 생성할 수 없습니다. 다시 시도해주세요."),
     NOT_AVAILABLE_REBORN_TASK(false, 2211, "리본을 진행할 수 없는 상태입니다. 다시 확인해주세요."),
@@ -74,6 +76,7 @@ public enum BaseResponseStatus {
     CAN_NOT_JJIM_STORE_TO_STORE(false,2224, "스토어는 찜을 할 수 없습니다."),
 
     UPDATE_FAIL_REBORN(false, 2225, "리본상품 개수 업데이트 실패했습니다."),
+    ALREADY_RESERVED_REBORN(false, 2226, "이미 신청한 리본입니다."),
 
 
 
@@ -106,6 +109,7 @@ public enum BaseResponseStatus {
     POST_USERS_EMPTY_STORECATEGORY(false, 2407, "카테고리를 설정해주세요."),
     POST_USERS_EMPTY_STOREREGISTER(false, 2408, "사업자 등록번호를 입력해주세요."),
     POST_USERS_INVALID_STOREREGISTER(false, 2409, "사업자 등록번호 형식을 확인해주세요."),
+    POST_USERS_INVALID_STORELOCATION(false, 2410, "가게 위치(위도, 경도)를 확인해주세요."),
 
     // 햄 (2500~2599)
     CAN_NOT_CHANGE_STATUS_TO_ACTIVE(false,2500,"활성화, 혹은 비활성화가 불가능한 리본상품입니다."),
@@ -126,6 +130,7 @@ public enum BaseResponseStatus {
      */
     DATABASE_ERROR(false, 4000, "데이터베이스 연결에 실패하였습니다."),
     SERVER_ERROR(false, 4001, "서버와의 연결에 실패하였습니다."),
+    FAIL_SEND_MAIL(false, 4002, "메일 발송 요청에 실패하였습니다."),
 
     //[PATCH] /users/{userIdx}
     MODIFY_FAIL_USERNAME(false,4014,"유저네임 수정 실패"),
@@ -0,0 +1,95 @@
+package spring.reborn.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * replica 주소(spring.datasource.replica.urls, 쉼표로 구분)가 있을 때만 읽기/쓰기 라우팅 사용
+ * 없으면 기존처럼 spring.datasource 하나만 쓴다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.datasource.replica.urls")
+public class DataSourceConfig {
+
+    @Value("${spring.datasource.replica.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${spring.datasource.replica.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${spring.datasource.replica.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${spring.datasource.replica.maximum-pool-size:10}")
+    private int replicaPoolSize;
+
+    // round-robin, least-connections
+    @Value("${spring.datasource.replica.balance:round-robin}")
+    private String balance;
+
+    @Value("${spring.datasource.replica.max-lag:5}")
+    private long maxLagSeconds;
+
+    // 쓰기 요청 후 이 시간 동안 같은 사용자의 조회는 primary 에서
+    @Value("${spring.datasource.replica.read-your-writes:3000}")
+    private long readYourWritesMillis;
+
+    @Bean
+    public ReplicationRoutingDataSource routingDataSource(DataSourceProperties dataSourceProperties, MeterRegistry meterRegistry) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        // 직접 만든 풀은 자동 등록되지 않으므로 커넥션 풀 메트릭(hikaricp.*)을 직접 연결
+        primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+
+        ReplicationRoutingDataSource routingDataSource = new ReplicationRoutingDataSource(primary, replicas,
+                balance.equals("least-connections") ? ReplicationRoutingDataSource.Balance.LEAST_CONNECTIONS : ReplicationRoutingDataSource.Balance.ROUND_ROBIN,
+                maxLagSeconds, readYourWritesMillis);
+
+        routingDataSource.getReplicas().forEach(replica -> {
+            Gauge.builder("datasource.replica.lag", replica, ReplicationRoutingDataSource.Replica::getLagSeconds)
+                    .description("replica 복제 지연 (확인 불가면 Long.MAX_VALUE)")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .description("replica 사용 가능 여부")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        });
+        return routingDataSource;
+    }
+
+    // 트랜잭션 readOnly 여부가 정해진 뒤 첫 쿼리 시점에 커넥션을 고름
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicationRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
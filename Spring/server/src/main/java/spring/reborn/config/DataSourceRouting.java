@@ -0,0 +1,94 @@
+package spring.reborn.config;
+
+/**
+ * 현재 쓰레드의 DB 라우팅 정보
+ * readOnly : *Provider 조회 경로 (DataSourceRoutingAspect 가 설정)
+ * clientKey : 요청한 사용자 구분값 (DataSourceRoutingFilter 가 설정), 본인이 방금 쓴 내용은 primary 에서 읽기 위해 사용
+ * forcePrimary : 쓰기 요청 (DataSourceRoutingFilter 가 설정), 토큰이 없어도 요청 안의 조회는 모두 primary
+ * ThreadLocal 이므로 다른 쓰레드(executor)에 넘기는 작업은 wrap 으로 감싸야 같은 라우팅을 따른다.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+    private static final ThreadLocal<String> CLIENT_KEY = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static boolean isReadOnly() {
+        return Boolean.TRUE.equals(READ_ONLY.get());
+    }
+
+    // 이전 값을 반환, 끝나면 restoreReadOnly 로 되돌림 (Provider 가 Provider 를 부르는 경우)
+    public static Boolean setReadOnly(boolean readOnly) {
+        Boolean previous = READ_ONLY.get();
+        READ_ONLY.set(readOnly);
+        return previous;
+    }
+
+    public static void restoreReadOnly(Boolean previous) {
+        if (previous == null) {
+            READ_ONLY.remove();
+        } else {
+            READ_ONLY.set(previous);
+        }
+    }
+
+    public static String getClientKey() {
+        return CLIENT_KEY.get();
+    }
+
+    public static void setClientKey(String clientKey) {
+        CLIENT_KEY.set(clientKey);
+    }
+
+    public static boolean isForcePrimary() {
+        return Boolean.TRUE.equals(FORCE_PRIMARY.get());
+    }
+
+    public static void setForcePrimary(boolean forcePrimary) {
+        if (forcePrimary) {
+            FORCE_PRIMARY.set(true);
+        } else {
+            FORCE_PRIMARY.remove();
+        }
+    }
+
+    // 지금 쓰레드의 라우팅 정보를 작업을 실행하는 쓰레드에 옮겨서 실행하고, 끝나면 그 쓰레드의 원래 값으로 되돌림
+    // (CallerRunsPolicy 로 요청 쓰레드에서 바로 실행되는 경우도 있음)
+    public static Runnable wrap(Runnable task) {
+        Boolean readOnly = READ_ONLY.get();
+        String clientKey = CLIENT_KEY.get();
+        boolean forcePrimary = isForcePrimary();
+        return () -> {
+            Boolean previousReadOnly = READ_ONLY.get();
+            String previousClientKey = CLIENT_KEY.get();
+            boolean previousForcePrimary = isForcePrimary();
+            restoreReadOnly(readOnly);
+            restoreClientKey(clientKey);
+            setForcePrimary(forcePrimary);
+            try {
+                task.run();
+            } finally {
+                restoreReadOnly(previousReadOnly);
+                restoreClientKey(previousClientKey);
+                setForcePrimary(previousForcePrimary);
+            }
+        };
+    }
+
+    private static void restoreClientKey(String clientKey) {
+        if (clientKey == null) {
+            CLIENT_KEY.remove();
+        } else {
+            CLIENT_KEY.set(clientKey);
+        }
+    }
+
+    public static void clear() {
+        READ_ONLY.remove();
+        CLIENT_KEY.remove();
+        FORCE_PRIMARY.remove();
+    }
+}
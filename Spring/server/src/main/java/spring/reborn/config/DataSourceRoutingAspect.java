@@ -0,0 +1,30 @@
+package spring.reborn.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * *Provider 는 조회 전용이므로 트랜잭션이 없어도 replica 로 보냄
+ * 쓰기 트랜잭션 안에서 불린 경우는 ReplicationRoutingDataSource 가 primary 로 돌린다.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "spring.datasource.replica.urls")
+public class DataSourceRoutingAspect {
+
+    @Around("execution(public * spring.reborn.domain..*Provider.*(..))")
+    public Object routeToReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        Boolean previous = DataSourceRouting.setReadOnly(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            DataSourceRouting.restoreReadOnly(previous);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package spring.reborn.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * 요청한 사용자를 구분해서 라우팅에 넘김 (JWT 의 SHA-256, 토큰 원문은 메모리에 들고 있지 않음)
+ * GET 이 아닌 요청 안의 조회는 토큰이 없어도 모두 primary 에서 읽는다. (회원가입 중복 확인 등)
+ * GET 이 아닌 요청이 끝나면 그 사용자는 잠시 primary 에서 읽는다. (read-your-writes)
+ * 토큰이 없는 요청은 요청이 끝난 뒤로는 구분하지 않는다. (프록시 뒤에서는 IP 가 모든 사용자에게 같음)
+ */
+@Component
+@ConditionalOnProperty(name = "spring.datasource.replica.urls")
+public class DataSourceRoutingFilter extends OncePerRequestFilter {
+
+    private final ReplicationRoutingDataSource routingDataSource;
+
+    public DataSourceRoutingFilter(ReplicationRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String token = request.getHeader("X-ACCESS-TOKEN");
+        String clientKey = token == null || token.isEmpty() ? null : hash(token);
+        boolean write = isWrite(request.getMethod());
+        DataSourceRouting.setClientKey(clientKey);
+        // 쓰기 요청 안의 조회도 primary 로 (쓰기 전 확인, 응답을 만들 때 방금 쓴 값을 읽는 경우)
+        DataSourceRouting.setForcePrimary(write);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // 요청이 끝난 시점부터 다시 read-your-writes 시간만큼
+            if (write) {
+                routingDataSource.markWrite(clientKey);
+            }
+            DataSourceRouting.clear();
+        }
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean isWrite(String method) {
+        return !(method.equals("GET") || method.equals("HEAD") || method.equals("OPTIONS"));
+    }
+}
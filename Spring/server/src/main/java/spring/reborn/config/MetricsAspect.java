@@ -0,0 +1,51 @@
+package spring.reborn.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * DAO 메서드, Redis 연산 시간 측정
+ * reborn.dao : @Repository 의 public 메서드 (class, method, exception 태그)
+ * reborn.redis : RebornTaskRedisService 의 public 메서드
+ */
+@Aspect
+@Component
+public class MetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * spring.reborn.domain..*(..)) && @within(org.springframework.stereotype.Repository) && !execution(* set*(..))")
+    public Object timeDao(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("reborn.dao", joinPoint);
+    }
+
+    @Around("execution(public * spring.reborn.domain.rebornTask.RebornTaskRedisService.*(..))")
+    public Object timeRedis(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("reborn.redis", joinPoint);
+    }
+
+    private Object time(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package spring.reborn.config;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 메트릭 설정 (/actuator/prometheus)
+ * 응답은 모두 200 + BaseResponse 이므로 http.server.requests 에 BaseResponseStatus 코드를 태그로 붙인다.
+ */
+@Configuration
+@PropertySource("classpath:metrics.properties")
+public class MetricsConfig {
+
+    static final String RESPONSE_CODE_ATTRIBUTE = MetricsConfig.class.getName() + ".code";
+
+    @Bean
+    public WebMvcTagsContributor baseResponseTagsContributor() {
+        return new WebMvcTagsContributor() {
+            @Override
+            public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response, Object handler, Throwable exception) {
+                Object code = request.getAttribute(RESPONSE_CODE_ATTRIBUTE);
+                return Tags.of("code", code == null ? "NONE" : code.toString());
+            }
+
+            @Override
+            public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+                return Tags.empty();
+            }
+        };
+    }
+}
@@ -0,0 +1,193 @@
+package spring.reborn.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import spring.reborn.utils.LocalCache;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * primary / replica 라우팅 DataSource
+ * 읽기 전용 트랜잭션과 *Provider 조회는 replica 로 보내고, 쓰기 트랜잭션 안에서는 항상 primary 를 쓴다.
+ * 방금 쓰기 요청을 보낸 사용자, 지연(lag)이 큰 replica 는 primary 로 돌린다.
+ * 트랜잭션 속성이 정해진 뒤에 커넥션을 고르도록 LazyConnectionDataSourceProxy 로 감싸서 사용한다.
+ */
+@Slf4j
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    public enum Balance {
+        ROUND_ROBIN, LEAST_CONNECTIONS
+    }
+
+    static class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private volatile boolean healthy = true;
+        private volatile long lagSeconds;
+
+        Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        boolean isHealthy() {
+            return healthy;
+        }
+
+        long getLagSeconds() {
+            return lagSeconds;
+        }
+    }
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Balance balance;
+    private final long maxLagSeconds;
+    private final long readYourWritesMillis;
+    private final LocalCache<String, Long> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicationRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaDataSources, Balance balance,
+                                        long maxLagSeconds, long readYourWritesMillis) {
+        this.primary = primary;
+        this.balance = balance;
+        this.maxLagSeconds = maxLagSeconds;
+        this.readYourWritesMillis = readYourWritesMillis;
+        this.recentWriters = new LocalCache<>(readYourWritesMillis, 100_000);
+
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        List<Replica> replicaList = new ArrayList<>();
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            Replica replica = new Replica("replica-" + i, replicaDataSources.get(i));
+            replicaList.add(replica);
+            targetDataSources.put(replica.getName(), replica.dataSource);
+        }
+        this.replicas = Collections.unmodifiableList(replicaList);
+
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+    }
+
+    List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    // 쓰기 요청을 보낸 사용자는 잠시 동안 primary 에서 읽음
+    public void markWrite(String clientKey) {
+        if (clientKey != null && readYourWritesMillis > 0) {
+            recentWriters.put(clientKey, System.currentTimeMillis());
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return useReplica() ? chooseReplica() : PRIMARY;
+    }
+
+    private boolean useReplica() {
+        boolean readOnlyTransaction = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        // 쓰기 트랜잭션 안의 조회는 같은 커넥션(primary)으로
+        if (TransactionSynchronizationManager.isActualTransactionActive() && !readOnlyTransaction) {
+            return false;
+        }
+        if (!readOnlyTransaction && !DataSourceRouting.isReadOnly()) {
+            return false;
+        }
+        // 쓰기 요청 안의 조회
+        if (DataSourceRouting.isForcePrimary()) {
+            return false;
+        }
+        String clientKey = DataSourceRouting.getClientKey();
+        return clientKey == null || recentWriters.get(clientKey) == null;
+    }
+
+    private String chooseReplica() {
+        Replica chosen = null;
+        if (balance == Balance.LEAST_CONNECTIONS) {
+            int leastActive = Integer.MAX_VALUE;
+            for (Replica replica : replicas) {
+                if (!replica.healthy || replica.dataSource.getHikariPoolMXBean() == null) {
+                    continue;
+                }
+                int active = replica.dataSource.getHikariPoolMXBean().getActiveConnections();
+                if (active < leastActive) {
+                    leastActive = active;
+                    chosen = replica;
+                }
+            }
+        } else {
+            int size = replicas.size();
+            int start = Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (replica.healthy) {
+                    chosen = replica;
+                    break;
+                }
+            }
+        }
+        // 쓸 수 있는 replica 가 없으면 primary
+        return chosen == null ? PRIMARY : chosen.getName();
+    }
+
+    // replica 지연 확인, 지연이 크거나 확인할 수 없으면 잠시 제외
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.lag-check-interval:5000}")
+    public void checkReplicaLag() {
+        for (Replica replica : replicas) {
+            try {
+                Long lagSeconds = getLagSeconds(replica.jdbcTemplate);
+                replica.lagSeconds = lagSeconds == null ? Long.MAX_VALUE : lagSeconds;
+                boolean healthy = lagSeconds != null && lagSeconds <= maxLagSeconds;
+                if (healthy != replica.healthy) {
+                    log.warn(replica.getName() + " healthy : " + healthy + " (lag " + lagSeconds + "s)");
+                }
+                replica.healthy = healthy;
+            } catch (Exception e) {
+                if (replica.healthy) {
+                    log.warn(replica.getName() + " unavailable : " + e.getMessage());
+                }
+                replica.lagSeconds = Long.MAX_VALUE;
+                replica.healthy = false;
+            }
+        }
+    }
+
+    // 복제가 멈췄으면 null, 복제 설정이 없는 인스턴스(H2 등)는 0
+    private Long getLagSeconds(JdbcTemplate jdbcTemplate) {
+        List<Map<String, Object>> status;
+        try {
+            status = jdbcTemplate.queryForList("SHOW REPLICA STATUS");
+        } catch (Exception e) {
+            // MySQL 8.0.22 이전
+            status = jdbcTemplate.queryForList("SHOW SLAVE STATUS");
+        }
+        if (status.isEmpty()) {
+            return 0L;
+        }
+        Object lag = status.get(0).containsKey("Seconds_Behind_Source")
+                ? status.get(0).get("Seconds_Behind_Source")
+                : status.get(0).get("Seconds_Behind_Master");
+        return lag == null ? null : ((Number) lag).longValue();
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+}
@@ -12,6 +12,7 @@ import spring.reborn.domain.review.ReviewProvider;
 import spring.reborn.domain.review.ReviewService;
 import spring.reborn.domain.review.model.PostReviewReq;
 import spring.reborn.domain.review.model.PostReviewRes;
+import spring.reborn.utils.JwtService;
 
 import java.util.List;
 
@@ -20,9 +21,13 @@ public class AwsS3Controller {
 
     @Autowired
     private final AwsS3Service awsS3Service;
+    private final ImageVariantService imageVariantService;
+    private final JwtService jwtService;
 
-    public AwsS3Controller(AwsS3Service awsS3Service) {
+    public AwsS3Controller(AwsS3Service awsS3Service, ImageVariantService imageVariantService, JwtService jwtService) {
         this.awsS3Service = awsS3Service;
+        this.imageVariantService = imageVariantService;
+        this.jwtService = jwtService;
     }
 
     @ResponseBody
@@ -45,4 +50,17 @@ public class AwsS3Controller {
         }
     }
 
+    // 기존 이미지 축소본 생성 (백그라운드에서 진행, 대상 이미지 수 반환), 관리자만
+    @ResponseBody
+    @PostMapping("/s3/variant/backfill")
+    public BaseResponse<Integer> backfillImageVariants() {
+        try {
+            jwtService.checkAdmin();
+            return new BaseResponse<>(imageVariantService.backfill());
+        }
+        catch (BaseException e){
+            return new BaseResponse<>(e.getStatus());
+        }
+    }
+
 }
@@ -5,48 +5,113 @@ import com.amazonaws.services.s3.model.CannedAccessControlList;
 import com.amazonaws.services.s3.model.DeleteObjectRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
-import lombok.RequiredArgsConstructor;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 import spring.reborn.config.BaseException;
 import spring.reborn.config.BaseResponseStatus;
+import spring.reborn.domain.awsS3.model.ImageReleasedEvent;
+import spring.reborn.domain.awsS3.model.ImageUploadedEvent;
 
+import javax.annotation.PreDestroy;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.*;
 
+/**
+ * S3 이미지 업로드
+ * 파일 key 는 내용의 SHA-256 이라 같은 사진은 한 번만 올라가고, ImageObject 의 참조 수가 0 이 될 때만 지운다.
+ * 여러 장은 전용 쓰레드풀에서 동시에 올리고, 큰 파일은 TransferManager 가 멀티파트로 나눠 올린다.
+ * 요청 본문은 임시 파일로 복사하지 않고 MultipartFile 의 InputStream 을 그대로 흘려보낸다.
+ * 업로드가 끝난 이미지는 ImageVariantService 가 축소본을 만든다.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class AwsS3Service {
 
     @Value("${cloud.aws.s3.bucket}")
     private String bucket;
 
     private final AmazonS3 amazonS3;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final ImageObjectDao imageObjectDao;
+    private final ImageVariantService imageVariantService;
+    private final TransferManager transferManager;
+    private final ExecutorService uploadExecutor;
+    private final Timer uploadTimer;
+    private final Timer batchUploadTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter dedupCounter;
+
+    public AwsS3Service(AmazonS3 amazonS3, ApplicationEventPublisher applicationEventPublisher, ImageObjectDao imageObjectDao,
+                        ImageVariantService imageVariantService, MeterRegistry meterRegistry,
+                        @Value("${cloud.aws.s3.upload.pool-size:8}") int uploadPoolSize,
+                        @Value("${cloud.aws.s3.upload.queue-capacity:64}") int uploadQueueCapacity,
+                        @Value("${cloud.aws.s3.upload.multipart-threshold:8388608}") long multipartThreshold,
+                        @Value("${cloud.aws.s3.upload.part-pool-size:4}") int partPoolSize) {
+        this.amazonS3 = amazonS3;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.imageObjectDao = imageObjectDao;
+        this.imageVariantService = imageVariantService;
+        // 대기열이 차면 요청 쓰레드가 직접 업로드해서 자연스럽게 속도를 늦춤
+        ThreadPoolExecutor uploadThreadPool = new ThreadPoolExecutor(uploadPoolSize, uploadPoolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(uploadQueueCapacity), new ThreadPoolExecutor.CallerRunsPolicy());
+        new ExecutorServiceMetrics(uploadThreadPool, "s3-upload", Tags.empty()).bindTo(meterRegistry);
+        this.uploadExecutor = uploadThreadPool;
+        // 업로드 쓰레드는 TransferManager 작업이 끝날 때까지 기다리므로, 업로드 쓰레드마다 하나씩 + 멀티파트 파트용 partPoolSize 개
+        // (TransferManager 쪽이 더 작으면 업로드 쓰레드가 놀면서 기다림)
+        ExecutorService transferThreadPool = Executors.newFixedThreadPool(uploadPoolSize + partPoolSize);
+        new ExecutorServiceMetrics(transferThreadPool, "s3-transfer", Tags.empty()).bindTo(meterRegistry);
+        // S3 클라이언트는 공유하므로 종료할 때 같이 닫지 않음
+        this.transferManager = TransferManagerBuilder.standard()
+                .withS3Client(amazonS3)
+                .withMultipartUploadThreshold(multipartThreshold)
+                .withExecutorFactory(() -> transferThreadPool)
+                .withShutDownThreadPools(true)
+                .build();
+
+        this.uploadTimer = Timer.builder("s3.upload")
+                .description("이미지 한 장 업로드 시간")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.batchUploadTimer = Timer.builder("s3.upload.request")
+                .description("요청 하나의 이미지 전체 업로드 시간")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("s3.upload.request.files")
+                .description("요청 하나에 포함된 이미지 수")
+                .register(meterRegistry);
+        this.dedupCounter = Counter.builder("s3.upload.deduplicated")
+                .description("이미 있는 사진이라 업로드를 건너뛴 수")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+        transferManager.shutdownNow(false);
+    }
 
     public String uploadImage(MultipartFile multipartFile) throws BaseException {
         try {
-            String fileName = createFileName(multipartFile.getOriginalFilename());
-            String fileUrl = amazonS3.getUrl(bucket, fileName).toString();
-            ObjectMetadata objectMetadata = new ObjectMetadata();
-            objectMetadata.setContentLength(multipartFile.getSize());
-            objectMetadata.setContentType(multipartFile.getContentType());
-
-            try (InputStream inputStream = multipartFile.getInputStream()) {
-                amazonS3.putObject(new PutObjectRequest(bucket, fileName, inputStream, objectMetadata)
-                        .withCannedAcl(CannedAccessControlList.PublicRead));
-            } catch (IOException e) {
-                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "이미지 업로드에 실패했습니다.");
-            }
-
-            return fileUrl;
+            return upload(multipartFile);
         }
         catch (Exception e){
             log.error(e.getMessage());
@@ -54,44 +119,138 @@ public class AwsS3Service {
         }
     }
 
+    // 여러 장을 동시에 업로드, 반환 순서는 요청 순서와 같음
+    // 한 장이라도 실패하면 이미 올라간 파일은 지우고 실패 처리
     public List<String> uploadImage(List<MultipartFile> multipartFile) {
-        List<String> fileNameList = new ArrayList<>();
-        List<String> fileUrlList = new ArrayList<>();
+        long start = System.nanoTime();
+        batchSizeSummary.record(multipartFile.size());
 
-        multipartFile.forEach(file -> {
-            String fileName = createFileName(file.getOriginalFilename());
-            String fileUrl = amazonS3.getUrl(bucket, fileName).toString();
-            ObjectMetadata objectMetadata = new ObjectMetadata();
-            objectMetadata.setContentLength(file.getSize());
-            objectMetadata.setContentType(file.getContentType());
-
-            try(InputStream inputStream = file.getInputStream()) {
-                amazonS3.putObject(new PutObjectRequest(bucket, fileName, inputStream, objectMetadata)
-                        .withCannedAcl(CannedAccessControlList.PublicRead));
-            } catch(IOException e) {
-                log.error(e.getMessage());
-                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "이미지 업로드에 실패했습니다.");
+        // 파일 형식 검사는 업로드 시작 전에
+        multipartFile.forEach(file -> getFileExtension(file.getOriginalFilename()));
+
+        List<Future<String>> futures = new ArrayList<>();
+        for (MultipartFile file : multipartFile) {
+            FutureTask<String> uploadTask = new FutureTask<>(() -> upload(file));
+            // 한 장이면 쓰레드를 넘기지 않고 요청 쓰레드에서 바로 업로드
+            if (multipartFile.size() == 1) {
+                uploadTask.run();
+            } else {
+                uploadExecutor.execute(uploadTask);
             }
+            futures.add(uploadTask);
+        }
 
-            fileNameList.add(fileName);
-            fileUrlList.add(fileUrl);
-        });
+        List<String> fileUrlList = new ArrayList<>();
+        Exception failure = null;
+        for (Future<String> future : futures) {
+            try {
+                fileUrlList.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = e;
+            } catch (Exception e) {
+                // 나머지 업로드도 끝까지 기다려야 올라간 파일을 빠짐없이 지울 수 있음
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+
+        if (failure != null) {
+            log.error("이미지 업로드 실패 : " + failure.getMessage());
+            fileUrlList.forEach(fileUrl -> releaseQuietly(ImageVariantIndex.toImageKey(fileUrl)));
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "이미지 업로드에 실패했습니다.");
+        }
 
+        batchUploadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         return fileUrlList;
     }
 
+    // 참조 하나를 해제하고, 더 이상 쓰는 곳이 없을 때만 S3 에서 지움 (원본, 축소본 모두 참조 행 잠금 안에서)
     public void deleteImage(String fileName) throws BaseException {
         try {
-            amazonS3.deleteObject(new DeleteObjectRequest(bucket, fileName));
-
+            imageObjectDao.release(fileName, imageKey -> {
+                amazonS3.deleteObject(new DeleteObjectRequest(bucket, imageKey));
+                imageVariantService.deleteVariants(imageKey);
+            });
         }
         catch (Exception e){
             throw new BaseException(BaseResponseStatus.AWS_DELETE_FAIL_ERROR);
         }
     }
 
-    private String createFileName(String fileName) {
-        return UUID.randomUUID().toString().concat(getFileExtension(fileName));
+    // 트랜잭션 안에서 교체된 이미지는 커밋된 뒤에 해제 (롤백되면 기존 이미지를 그대로 씀)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageReleased(ImageReleasedEvent event) {
+        try {
+            deleteImage(event.getImageKey());
+        } catch (BaseException e) {
+            // 지우지 못한 이미지는 남아있어도 서비스에 영향 없음
+            log.error(e.getStatus().getMessage() + " : " + event.getImageKey());
+        }
+    }
+
+    // 업로드 한 장, 멀티파트 업로드가 실패하면 TransferManager 가 올라간 파트를 abort 함
+    // 이미 같은 내용이 올라가 있으면 참조 수만 올리고 업로드는 건너뜀
+    private String upload(MultipartFile file) throws Exception {
+        long start = System.nanoTime();
+        String fileName = createFileName(file);
+        if (imageObjectDao.acquire(fileName)) {
+            dedupCounter.increment();
+            uploadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return amazonS3.getUrl(bucket, fileName).toString();
+        }
+
+        ObjectMetadata objectMetadata = new ObjectMetadata();
+        // 길이를 알려줘야 SDK 가 스트림 전체를 메모리에 올리지 않음
+        objectMetadata.setContentLength(file.getSize());
+        objectMetadata.setContentType(file.getContentType());
+
+        try (InputStream inputStream = file.getInputStream()) {
+            transferManager.upload(new PutObjectRequest(bucket, fileName, inputStream, objectMetadata)
+                            .withCannedAcl(CannedAccessControlList.PublicRead))
+                    .waitForUploadResult();
+            imageObjectDao.markUploaded(fileName);
+        } catch (Exception e) {
+            releaseQuietly(fileName);
+            throw e;
+        } finally {
+            uploadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        // 축소본 생성은 응답을 기다리게 하지 않도록 따로 처리
+        if (file.getContentType() != null && file.getContentType().startsWith("image/")) {
+            applicationEventPublisher.publishEvent(new ImageUploadedEvent(fileName));
+        }
+
+        return amazonS3.getUrl(bucket, fileName).toString();
+    }
+
+    private void releaseQuietly(String fileName) {
+        try {
+            deleteImage(fileName);
+        } catch (Exception e) {
+            log.error("업로드 실패 정리중 삭제 실패 : " + fileName);
+        }
+    }
+
+    // 내용의 SHA-256 + 확장자, 요청 본문을 한 번 더 읽어서 계산 (디스크에 따로 복사하지 않음)
+    private String createFileName(MultipartFile file) throws IOException, NoSuchAlgorithmException {
+        String extension = getFileExtension(file.getOriginalFilename()).toLowerCase();
+        MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+        byte[] buffer = new byte[8192];
+        try (InputStream inputStream = file.getInputStream()) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, read);
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        for (byte b : messageDigest.digest()) {
+            hash.append(String.format("%02x", b));
+        }
+        return hash.append(extension).toString();
     }
 
     private String getFileExtension(String fileName) {
@@ -101,4 +260,4 @@ public class AwsS3Service {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "잘못된 형식의 파일(" + fileName + ") 입니다.");
         }
     }
-}
\ No newline at end of file
+}
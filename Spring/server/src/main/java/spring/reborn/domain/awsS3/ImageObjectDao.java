@@ -0,0 +1,89 @@
+package spring.reborn.domain.awsS3;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import spring.reborn.config.BaseException;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static spring.reborn.config.BaseResponseStatus.AWS_DELETE_FAIL_ERROR;
+import static spring.reborn.config.BaseResponseStatus.DATABASE_ERROR;
+
+@Repository
+public class ImageObjectDao {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // 참조 추가, 이미 S3 에 올라가 있으면 true
+    public boolean acquire(String imageKey) throws BaseException {
+        try {
+            String acquireQuery = "INSERT INTO ImageObject (imageKey, refCount, uploaded) VALUES (?, 1, FALSE) " +
+                    "ON DUPLICATE KEY UPDATE refCount = refCount + 1";
+            this.jdbcTemplate.update(acquireQuery, imageKey);
+
+            String getUploadedQuery = "SELECT uploaded FROM ImageObject WHERE imageKey = ?";
+            Boolean uploaded = this.jdbcTemplate.queryForObject(getUploadedQuery, Boolean.class, imageKey);
+            return Boolean.TRUE.equals(uploaded);
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
+    public void markUploaded(String imageKey) throws BaseException {
+        try {
+            String markUploadedQuery = "UPDATE ImageObject SET uploaded = TRUE WHERE imageKey = ?";
+            this.jdbcTemplate.update(markUploadedQuery, imageKey);
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
+    // 마지막 참조를 해제할 때 S3 객체를 지우는 작업
+    public interface ObjectDeleter {
+        void delete(String imageKey) throws Exception;
+    }
+
+    // 참조 해제, 마지막 참조였으면 행 잠금을 잡은 채로 S3 객체를 지운 뒤 행을 지우고 true
+    // 그동안 같은 사진을 올리는 acquire 는 잠금에서 기다렸다가 새 행으로 다시 올리므로, 새로 올린 객체를 지우지 않음
+    // S3 삭제에 실패하면 참조 수도 그대로 (롤백), 참조 수를 모르는 key 는 false
+    @Transactional(rollbackFor = Exception.class)
+    public boolean release(String imageKey, ObjectDeleter objectDeleter) throws BaseException {
+        List<Integer> refCounts;
+        try {
+            String getRefCountQuery = "SELECT refCount FROM ImageObject WHERE imageKey = ? FOR UPDATE";
+            refCounts = this.jdbcTemplate.queryForList(getRefCountQuery, Integer.class, imageKey);
+            if (refCounts.isEmpty() || refCounts.get(0) <= 0) {
+                return false;
+            }
+            if (refCounts.get(0) > 1) {
+                String releaseQuery = "UPDATE ImageObject SET refCount = refCount - 1 WHERE imageKey = ?";
+                this.jdbcTemplate.update(releaseQuery, imageKey);
+                return false;
+            }
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
+        }
+
+        try {
+            objectDeleter.delete(imageKey);
+        } catch (Exception exception) {
+            throw new BaseException(AWS_DELETE_FAIL_ERROR);
+        }
+
+        try {
+            String deleteQuery = "DELETE FROM ImageObject WHERE imageKey = ?";
+            this.jdbcTemplate.update(deleteQuery, imageKey);
+            return true;
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package spring.reborn.domain.awsS3;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.awsS3.model.ImageVariant;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static spring.reborn.config.BaseResponseStatus.DATABASE_ERROR;
+
+@Repository
+public class ImageVariantDao {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public List<ImageVariant> getImageVariants() throws BaseException {
+        try {
+            String getImageVariantsQuery = "SELECT imageKey, thumbnailKey, detailKey FROM ImageVariant";
+            return this.jdbcTemplate.query(getImageVariantsQuery,
+                    (rs, rowNum) -> new ImageVariant(
+                            rs.getString("imageKey"),
+                            rs.getString("thumbnailKey"),
+                            rs.getString("detailKey")));
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
+    public void createImageVariant(ImageVariant imageVariant) throws BaseException {
+        try {
+            String createImageVariantQuery = "INSERT INTO ImageVariant (imageKey, thumbnailKey, detailKey) VALUES (?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE thumbnailKey = VALUES(thumbnailKey), detailKey = VALUES(detailKey)";
+            this.jdbcTemplate.update(createImageVariantQuery,
+                    imageVariant.getImageKey(), imageVariant.getThumbnailKey(), imageVariant.getDetailKey());
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
+    public void deleteImageVariant(String imageKey) throws BaseException {
+        try {
+            String deleteImageVariantQuery = "DELETE FROM ImageVariant WHERE imageKey = ?";
+            this.jdbcTemplate.update(deleteImageVariantQuery, imageKey);
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
+    // 축소본이 없는 기존 이미지 URL (유저/스토어 사진, 리뷰 사진)
+    public List<String> getImageUrlsWithoutVariant() throws BaseException {
+        try {
+            String getImageUrlsQuery =
+                    "SELECT DISTINCT url FROM (\n" +
+                            "    SELECT userImg url FROM User\n" +
+                            "    UNION ALL SELECT storeImage FROM Store\n" +
+                            "    UNION ALL SELECT reviewImage1 FROM Review\n" +
+                            "    UNION ALL SELECT reviewImage2 FROM Review\n" +
+                            "    UNION ALL SELECT reviewImage3 FROM Review\n" +
+                            "    UNION ALL SELECT reviewImage4 FROM Review\n" +
+                            "    UNION ALL SELECT reviewImage5 FROM Review\n" +
+                            ") images\n" +
+                            "WHERE url IS NOT NULL AND url <> ''\n" +
+                            "AND SUBSTRING_INDEX(url, '/', -1) NOT IN (SELECT imageKey FROM ImageVariant)";
+            return this.jdbcTemplate.queryForList(getImageUrlsQuery, String.class);
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+}
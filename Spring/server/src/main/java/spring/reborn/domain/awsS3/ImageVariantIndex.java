@@ -0,0 +1,81 @@
+package spring.reborn.domain.awsS3;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.awsS3.model.ImageVariant;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 축소본 색인
+ * 원본 key → 축소본 key 를 메모리에 올려두고, 목록 응답의 이미지 URL 을 축소본 URL 로 바꿔준다.
+ * 축소본이 아직 없으면 원본 URL 을 그대로 돌려준다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageVariantIndex {
+
+    private final ImageVariantDao imageVariantDao;
+
+    private volatile Map<String, ImageVariant> variants = new ConcurrentHashMap<>();
+
+    // 서버 시작시, 그리고 다른 서버가 만든 축소본을 반영하기 위해 주기적으로 다시 읽음
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${image.variant.refresh-interval:300000}", fixedDelayString = "${image.variant.refresh-interval:300000}")
+    public void reload() {
+        try {
+            Map<String, ImageVariant> loaded = new ConcurrentHashMap<>();
+            imageVariantDao.getImageVariants().forEach(variant -> loaded.put(variant.getImageKey(), variant));
+            variants = loaded;
+            log.info("image variant index loaded : " + loaded.size());
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        }
+    }
+
+    public void put(ImageVariant imageVariant) {
+        variants.put(imageVariant.getImageKey(), imageVariant);
+    }
+
+    public ImageVariant remove(String imageKey) {
+        return variants.remove(imageKey);
+    }
+
+    public boolean contains(String imageKey) {
+        return variants.containsKey(imageKey);
+    }
+
+    // 목록용 (128px)
+    public String toThumbnailUrl(String url) {
+        ImageVariant variant = find(url);
+        return variant == null ? url : replaceKey(url, variant.getThumbnailKey());
+    }
+
+    // 상세용 (512px)
+    public String toDetailUrl(String url) {
+        ImageVariant variant = find(url);
+        return variant == null ? url : replaceKey(url, variant.getDetailKey());
+    }
+
+    public static String toImageKey(String url) {
+        return url.substring(url.lastIndexOf('/') + 1);
+    }
+
+    private ImageVariant find(String url) {
+        if (url == null || url.isEmpty()) {
+            return null;
+        }
+        return variants.get(toImageKey(url));
+    }
+
+    private String replaceKey(String url, String key) {
+        return url.substring(0, url.lastIndexOf('/') + 1) + key;
+    }
+}
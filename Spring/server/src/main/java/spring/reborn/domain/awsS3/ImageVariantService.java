@@ -0,0 +1,224 @@
+package spring.reborn.domain.awsS3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.awsS3.model.ImageUploadedEvent;
+import spring.reborn.domain.awsS3.model.ImageVariant;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 이미지 축소본 생성
+ * 업로드가 끝나면 별도 쓰레드풀에서 원본을 받아 목록용(128px), 상세용(512px) JPEG 로 다시 인코딩해 올린다.
+ * 대기열이 가득 차면 버리고, 빠진 이미지는 backfill 로 채운다.
+ */
+@Slf4j
+@Service
+public class ImageVariantService {
+
+    @Value("${cloud.aws.s3.bucket}")
+    private String bucket;
+
+    @Value("${image.variant.thumbnail-size:128}")
+    private int thumbnailSize;
+
+    @Value("${image.variant.detail-size:512}")
+    private int detailSize;
+
+    @Value("${image.variant.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    private final AmazonS3 amazonS3;
+    private final ImageVariantDao imageVariantDao;
+    private final ImageVariantIndex imageVariantIndex;
+    private final ThreadPoolExecutor variantExecutor;
+    private final ExecutorService backfillExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean backfillRunning = new AtomicBoolean(false);
+    private final Timer generateTimer;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+
+    public ImageVariantService(AmazonS3 amazonS3, ImageVariantDao imageVariantDao, ImageVariantIndex imageVariantIndex,
+                               MeterRegistry meterRegistry,
+                               @Value("${image.variant.pool-size:2}") int poolSize,
+                               @Value("${image.variant.queue-capacity:200}") int queueCapacity) {
+        this.amazonS3 = amazonS3;
+        this.imageVariantDao = imageVariantDao;
+        this.imageVariantIndex = imageVariantIndex;
+        this.generateTimer = Timer.builder("image.variant.generate")
+                .description("원본 한 장의 축소본 생성 시간 (count 로 처리량 확인)")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("image.variant.failed")
+                .description("축소본 생성 실패 수")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("image.variant.dropped")
+                .description("대기열이 가득 차서 버린 요청 수")
+                .register(meterRegistry);
+        // 대기열이 가득 차면 버리고 개수만 기록
+        this.variantExecutor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), (runnable, executor) -> droppedCounter.increment());
+        Gauge.builder("image.variant.queue.depth", variantExecutor, executor -> executor.getQueue().size())
+                .description("축소본 생성 대기중인 이미지 수")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        variantExecutor.shutdown();
+        backfillExecutor.shutdownNow();
+    }
+
+    @EventListener
+    public void onImageUploaded(ImageUploadedEvent event) {
+        variantExecutor.execute(() -> generate(event.getImageKey()));
+    }
+
+    // 축소본이 없는 기존 이미지를 한 쓰레드에서 차례로 처리, 대상 수 반환
+    public int backfill() throws BaseException {
+        // 이미 돌고 있으면 새로 시작하지 않음
+        if (!backfillRunning.compareAndSet(false, true)) {
+            return 0;
+        }
+        List<String> imageUrls;
+        try {
+            imageUrls = imageVariantDao.getImageUrlsWithoutVariant();
+        } catch (BaseException e) {
+            backfillRunning.set(false);
+            throw e;
+        }
+        backfillExecutor.execute(() -> {
+            try {
+                imageUrls.forEach(imageUrl -> generate(ImageVariantIndex.toImageKey(imageUrl)));
+                log.info("image variant backfill done : " + imageUrls.size());
+            } finally {
+                backfillRunning.set(false);
+            }
+        });
+        return imageUrls.size();
+    }
+
+    // 원본을 지울 때 축소본도 같이 정리
+    public void deleteVariants(String imageKey) throws BaseException {
+        ImageVariant imageVariant = imageVariantIndex.remove(imageKey);
+        if (imageVariant != null) {
+            amazonS3.deleteObject(bucket, imageVariant.getThumbnailKey());
+            amazonS3.deleteObject(bucket, imageVariant.getDetailKey());
+        }
+        imageVariantDao.deleteImageVariant(imageKey);
+    }
+
+    void generate(String imageKey) {
+        if (imageVariantIndex.contains(imageKey)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            BufferedImage source;
+            try (S3Object s3Object = amazonS3.getObject(bucket, imageKey);
+                 InputStream inputStream = s3Object.getObjectContent()) {
+                source = ImageIO.read(inputStream);
+            }
+            if (source == null) {
+                // 이미지가 아니거나 읽을 수 없는 형식
+                throw new IOException("지원하지 않는 이미지 형식");
+            }
+
+            String baseKey = imageKey.contains(".") ? imageKey.substring(0, imageKey.lastIndexOf('.')) : imageKey;
+            ImageVariant imageVariant = new ImageVariant(imageKey,
+                    baseKey + "_" + thumbnailSize + ".jpg",
+                    baseKey + "_" + detailSize + ".jpg");
+            put(imageVariant.getThumbnailKey(), resize(source, thumbnailSize));
+            put(imageVariant.getDetailKey(), resize(source, detailSize));
+
+            imageVariantDao.createImageVariant(imageVariant);
+            imageVariantIndex.put(imageVariant);
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.error("image variant failed : " + imageKey + " " + e.getMessage());
+        } finally {
+            generateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void put(String key, byte[] image) {
+        ObjectMetadata objectMetadata = new ObjectMetadata();
+        objectMetadata.setContentLength(image.length);
+        objectMetadata.setContentType("image/jpeg");
+        amazonS3.putObject(new PutObjectRequest(bucket, key, new ByteArrayInputStream(image), objectMetadata)
+                .withCannedAcl(CannedAccessControlList.PublicRead));
+    }
+
+    // 긴 변을 maxSize 에 맞춰 줄이고(확대는 하지 않음) JPEG 로 인코딩
+    private byte[] resize(BufferedImage source, int maxSize) throws IOException {
+        double scale = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        // 한 번에 크게 줄이면 계단 현상이 생기므로 절반씩 줄여나감
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height);
+        } while (width != targetWidth || height != targetHeight);
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(outputStream)) {
+            writer.setOutput(imageOutputStream);
+            writer.write(null, new IIOImage(current, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+
+    // JPEG 는 투명도가 없으므로 흰 배경에 그림
+    private BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+}
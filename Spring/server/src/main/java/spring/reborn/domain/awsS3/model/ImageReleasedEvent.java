@@ -0,0 +1,11 @@
+package spring.reborn.domain.awsS3.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 더 이상 쓰지 않는 이미지 참조 해제 요청 (커밋 후 처리)
+@Getter
+@AllArgsConstructor
+public class ImageReleasedEvent {
+    private String imageKey;
+}
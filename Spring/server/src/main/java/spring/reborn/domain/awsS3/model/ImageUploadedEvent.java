@@ -0,0 +1,11 @@
+package spring.reborn.domain.awsS3.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// S3 업로드 완료 알림 (축소본 생성용)
+@Getter
+@AllArgsConstructor
+public class ImageUploadedEvent {
+    private String imageKey;
+}
@@ -0,0 +1,13 @@
+package spring.reborn.domain.awsS3.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 원본 이미지 key 와 축소본 key
+@Getter
+@AllArgsConstructor
+public class ImageVariant {
+    private String imageKey;
+    private String thumbnailKey;
+    private String detailKey;
+}
@@ -0,0 +1,35 @@
+package spring.reborn.domain.home;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import spring.reborn.config.BaseException;
+import spring.reborn.config.BaseResponse;
+import spring.reborn.domain.home.model.GetHomeRes;
+import spring.reborn.utils.JwtService;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class HomeController {
+
+    private final HomeProvider homeProvider;
+    private final JwtService jwtService;
+
+    /*
+    홈 화면 (신규 가게, 카테고리별 인기 가게, 베스트 리뷰, 좋아할만한 가게)
+    /store/new, /store/popular, /review/best, /store/likeable-stores 를 한 번에
+     */
+    @GetMapping("/home")
+    public BaseResponse<GetHomeRes> getHome() {
+        try {
+            int userIdx = jwtService.getUserIdx();
+            GetHomeRes getHomeRes = homeProvider.getHome(userIdx);
+            return new BaseResponse<>(getHomeRes);
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+            return new BaseResponse<>(e.getStatus());
+        }
+    }
+}
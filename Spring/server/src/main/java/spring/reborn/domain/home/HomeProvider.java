@@ -0,0 +1,143 @@
+package spring.reborn.domain.home;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import spring.reborn.config.BaseException;
+import spring.reborn.config.DataSourceRouting;
+import spring.reborn.domain.home.model.GetHomeRes;
+import spring.reborn.domain.home.model.HomeSections;
+import spring.reborn.domain.review.ReviewProvider;
+import spring.reborn.domain.review.model.GetBestReviewRes;
+import spring.reborn.domain.store.StoreProvider;
+import spring.reborn.domain.store.StoreService;
+import spring.reborn.domain.store.model.GetLikeableStoreRes;
+import spring.reborn.domain.store.model.GetNewStoreRes;
+import spring.reborn.domain.store.model.GetPopularStoreRes;
+import spring.reborn.domain.store.model.StoreCategory;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static spring.reborn.config.BaseResponseStatus.DATABASE_ERROR;
+import static spring.reborn.config.BaseResponseStatus.SERVER_ERROR;
+
+/**
+ * 홈 화면 (GET /home)
+ * 신규 가게, 카테고리별 인기 가게, 베스트 리뷰는 유저와 상관없으므로 주기적으로 한 번에 읽어 공유하고,
+ * 요청마다는 좋아할만한 가게만 조회한다.
+ * 각 구역은 전용 쓰레드풀에서 동시에 조회한다.
+ */
+@Slf4j
+@Service
+public class HomeProvider {
+
+    private final StoreService storeService;
+    private final StoreProvider storeProvider;
+    private final ReviewProvider reviewProvider;
+    private final ExecutorService homeExecutor;
+
+    @Value("${home.feed.timeout:3000}")
+    private long timeout;
+
+    private volatile HomeSections sections;
+
+    public HomeProvider(StoreService storeService, StoreProvider storeProvider, ReviewProvider reviewProvider,
+                        MeterRegistry meterRegistry,
+                        @Value("${home.feed.pool-size:8}") int poolSize,
+                        @Value("${home.feed.queue-capacity:100}") int queueCapacity) {
+        this.storeService = storeService;
+        this.storeProvider = storeProvider;
+        this.reviewProvider = reviewProvider;
+        // 대기열이 차면 요청 쓰레드가 직접 조회
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.CallerRunsPolicy());
+        new ExecutorServiceMetrics(executor, "home-feed", Tags.empty()).bindTo(meterRegistry);
+        this.homeExecutor = executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        homeExecutor.shutdown();
+    }
+
+    public GetHomeRes getHome(int userIdx) throws BaseException {
+        Future<List<GetLikeableStoreRes>> likeableStoresTask = submit(() -> storeService.getLikeableStores(userIdx));
+
+        HomeSections homeSections = sections;
+        if (homeSections == null) {
+            // 첫 갱신 전이면 직접 읽고 공유
+            homeSections = loadSections();
+            sections = homeSections;
+        }
+
+        return new GetHomeRes(homeSections.getNewStores(), homeSections.getPopularStores(),
+                homeSections.getBestReviews(), await(likeableStoresTask));
+    }
+
+    // 실패하면 이전 내용을 계속 사용
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${home.feed.refresh-interval:60000}", fixedDelayString = "${home.feed.refresh-interval:60000}")
+    public void refresh() {
+        try {
+            sections = loadSections();
+        } catch (BaseException e) {
+            log.error("home feed refresh failed : " + e.getStatus().getMessage());
+        }
+    }
+
+    private HomeSections loadSections() throws BaseException {
+        Future<List<GetNewStoreRes>> newStoresTask = submit(storeService::getNewStoreList);
+        Future<List<GetBestReviewRes>> bestReviewsTask = submit(reviewProvider::getBestReview);
+        Map<String, Future<List<GetPopularStoreRes>>> popularStoresTasks = new LinkedHashMap<>();
+        for (StoreCategory category : StoreCategory.values()) {
+            popularStoresTasks.put(category.name(), submit(() -> storeProvider.getPopularStore(category.name())));
+        }
+
+        Map<String, List<GetPopularStoreRes>> popularStores = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<List<GetPopularStoreRes>>> entry : popularStoresTasks.entrySet()) {
+            popularStores.put(entry.getKey(), Collections.unmodifiableList(await(entry.getValue())));
+        }
+        return new HomeSections(
+                Collections.unmodifiableList(await(newStoresTask)),
+                Collections.unmodifiableMap(popularStores),
+                Collections.unmodifiableList(await(bestReviewsTask)),
+                System.currentTimeMillis());
+    }
+
+    private <T> Future<T> submit(Callable<T> section) {
+        FutureTask<T> task = new FutureTask<>(section);
+        // 요청한 사용자의 read-your-writes 라우팅을 그대로 넘김
+        homeExecutor.execute(DataSourceRouting.wrap(task));
+        return task;
+    }
+
+    private <T> T await(Future<T> task) throws BaseException {
+        try {
+            return task.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BaseException) {
+                throw (BaseException) e.getCause();
+            }
+            log.error(e.getMessage());
+            throw new BaseException(DATABASE_ERROR);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            log.error("home feed section timeout");
+            throw new BaseException(DATABASE_ERROR);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BaseException(SERVER_ERROR);
+        }
+    }
+}
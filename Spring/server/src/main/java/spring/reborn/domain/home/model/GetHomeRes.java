@@ -0,0 +1,21 @@
+package spring.reborn.domain.home.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import spring.reborn.domain.review.model.GetBestReviewRes;
+import spring.reborn.domain.store.model.GetLikeableStoreRes;
+import spring.reborn.domain.store.model.GetNewStoreRes;
+import spring.reborn.domain.store.model.GetPopularStoreRes;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class GetHomeRes {
+    private List<GetNewStoreRes> newStores;
+    // 카테고리(StoreCategory name) 별 인기 가게
+    private Map<String, List<GetPopularStoreRes>> popularStores;
+    private List<GetBestReviewRes> bestReviews;
+    private List<GetLikeableStoreRes> likeableStores;
+}
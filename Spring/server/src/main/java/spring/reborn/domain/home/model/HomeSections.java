@@ -0,0 +1,22 @@
+package spring.reborn.domain.home.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import spring.reborn.domain.review.model.GetBestReviewRes;
+import spring.reborn.domain.store.model.GetNewStoreRes;
+import spring.reborn.domain.store.model.GetPopularStoreRes;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 홈 화면에서 모든 유저가 같이 보는 부분 (주기적으로 갱신해서 공유)
+ */
+@Getter
+@AllArgsConstructor
+public class HomeSections {
+    private List<GetNewStoreRes> newStores;
+    private Map<String, List<GetPopularStoreRes>> popularStores;
+    private List<GetBestReviewRes> bestReviews;
+    private long loadedAt;
+}
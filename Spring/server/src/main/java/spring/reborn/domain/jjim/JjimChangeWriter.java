@@ -0,0 +1,150 @@
+package spring.reborn.domain.jjim;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.jjim.model.JjimChange;
+import spring.reborn.domain.jjim.model.JjimChangedEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 찜 write-behind
+ * JjimRedisService 가 쌓아둔 저장 대기열을 주기적으로 통째로 옮겨와서 묶음 단위로 MySQL 에 저장한다.
+ * 대기열에는 (유저, 스토어)별 마지막 상태만 남으므로 여러 번 누른 찜도 한 번만 저장된다.
+ * 스토어별 찜 개수 증감도 대기열과 함께 옮기고, StoreStats 를 다시 센 뒤에 지운다.
+ * (다시 센 뒤 지우기 전까지 잠깐은 같은 증감이 두 번 보일 수 있음)
+ * 저장에 실패한 묶음은 옮겨온 key 에 남겨두고 다음 주기에 먼저 다시 저장한다.
+ * jjim.redis.enabled 를 끈 뒤에도 남은 대기열이 없어질 때까지는 계속 저장한다.
+ */
+@Slf4j
+@Component
+public class JjimChangeWriter {
+
+    private static final String FLUSH_LOCK_KEY = "jjim:flush:lock";
+
+    // 대기열과 스토어별 찜 개수 증감을 한 번에 옮김 (그 사이 토글이 끼어들지 않도록)
+    // KEYS[1] : 대기열, KEYS[2] : 저장중, KEYS[3] : 찜 개수 증감, KEYS[4] : 저장중인 찜 개수 증감
+    private static final RedisScript<Long> MOVE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "redis.call('RENAME', KEYS[1], KEYS[2]) " +
+            "if redis.call('EXISTS', KEYS[3]) == 1 then redis.call('RENAME', KEYS[3], KEYS[4]) end " +
+            "return 1",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final JjimDao jjimDao;
+    private final JjimRedisService jjimRedisService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final Timer batchLatency;
+    private final DistributionSummary batchSize;
+
+    @Value("${jjim.write-behind.batch-size:500}")
+    private int maxBatchSize;
+
+    // 저장 도중 서버가 죽어도 다른 서버가 이어받을 수 있도록 잠금에 만료를 둠
+    @Value("${jjim.write-behind.lock-ttl:30000}")
+    private long lockTtlMillis;
+
+    private final String writerName = "writer-" + UUID.randomUUID();
+
+    public JjimChangeWriter(StringRedisTemplate stringRedisTemplate, JjimDao jjimDao,
+                            JjimRedisService jjimRedisService, ApplicationEventPublisher applicationEventPublisher,
+                            MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.jjimDao = jjimDao;
+        this.jjimRedisService = jjimRedisService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.batchLatency = Timer.builder("jjim.write-behind.batch.latency")
+                .description("찜 변경 묶음 저장 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("jjim.write-behind.batch.size")
+                .description("찜 변경 묶음 크기")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${jjim.write-behind.flush-interval:1000}")
+    public void flush() {
+        // 꺼진 뒤에도 이미 쌓인 대기열은 끝까지 저장
+        if (!jjimRedisService.isEnabled() && !hasQueue()) {
+            return;
+        }
+        // 여러 서버 중 한 곳만 저장
+        if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                .setIfAbsent(FLUSH_LOCK_KEY, writerName, Duration.ofMillis(lockTtlMillis)))) {
+            return;
+        }
+        try {
+            // 이전에 저장하지 못한 묶음이 없을 때만 새 대기열을 옮겨옴 (저장 순서 유지)
+            if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(JjimRedisService.FLUSHING_KEY))) {
+                Long moved = stringRedisTemplate.execute(MOVE_SCRIPT, Arrays.asList(
+                        JjimRedisService.PENDING_KEY, JjimRedisService.FLUSHING_KEY,
+                        JjimRedisService.STORE_DELTA_KEY, JjimRedisService.FLUSHING_STORE_DELTA_KEY));
+                if (moved == null || moved == 0) {
+                    return;
+                }
+            }
+
+            List<JjimChange> jjimChanges = new ArrayList<>();
+            for (Map.Entry<Object, Object> entry : stringRedisTemplate.opsForHash().entries(JjimRedisService.FLUSHING_KEY).entrySet()) {
+                String[] userStore = String.valueOf(entry.getKey()).split(":");
+                jjimChanges.add(new JjimChange(Integer.parseInt(userStore[0]), Integer.parseInt(userStore[1]),
+                        "1".equals(String.valueOf(entry.getValue()))));
+            }
+
+            for (int from = 0; from < jjimChanges.size(); from += maxBatchSize) {
+                write(jjimChanges.subList(from, Math.min(from + maxBatchSize, jjimChanges.size())));
+            }
+            stringRedisTemplate.delete(Arrays.asList(JjimRedisService.FLUSHING_KEY, JjimRedisService.FLUSHING_STORE_DELTA_KEY));
+        } catch (BaseException e) {
+            // FLUSHING_KEY 를 남겨두었으므로 다음 주기에 재저장 (이미 저장된 묶음을 다시 저장해도 결과가 같음)
+            log.error(e.getStatus().getMessage());
+        } finally {
+            if (writerName.equals(stringRedisTemplate.opsForValue().get(FLUSH_LOCK_KEY))) {
+                stringRedisTemplate.delete(FLUSH_LOCK_KEY);
+            }
+        }
+    }
+
+    private boolean hasQueue() {
+        Long count = stringRedisTemplate.countExistingKeys(Arrays.asList(JjimRedisService.PENDING_KEY, JjimRedisService.FLUSHING_KEY));
+        return count != null && count > 0;
+    }
+
+    private void write(List<JjimChange> jjimChanges) throws BaseException {
+        Timer.Sample sample = Timer.start();
+        try {
+            jjimDao.applyJjimChanges(jjimChanges);
+            batchSize.record(jjimChanges.size());
+
+            // 새로 저장된 찜 번호를 유저 찜 hash 에 채움 (찜 목록이 MySQL 을 거치지 않도록)
+            List<JjimChange> created = jjimChanges.stream().filter(JjimChange::isJjim).collect(Collectors.toList());
+            jjimRedisService.setSavedJjimIdx(jjimDao.getJjimIdxMap(created));
+
+            // 저장된 찜 번호가 찜 목록에 반영되도록
+            jjimChanges.stream()
+                    .map(JjimChange::getUserIdx)
+                    .distinct()
+                    .forEach(userIdx -> applicationEventPublisher.publishEvent(new JjimChangedEvent(userIdx)));
+        } finally {
+            sample.stop(batchLatency);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import spring.reborn.config.BaseResponse;
 import spring.reborn.domain.jjim.model.JjimReq;
 import spring.reborn.domain.jjim.model.JjimRes;
 import spring.reborn.domain.jjim.model.JjimStoreRes;
+import spring.reborn.utils.CursorPage;
 
 import java.awt.print.Pageable;
 import java.util.List;
@@ -50,13 +51,31 @@ public class JjimController {
     @GetMapping("/jjim/{userIdx}")
     public BaseResponse<List<JjimStoreRes>> getSortedJjimStoreList(@PathVariable("userIdx") Integer userIdx,
                                                                    @RequestParam(value = "sort", required = false) String sort) throws BaseException {
-        if (sort == null) {
-            // 분류 선택 X
-            return new BaseResponse<>(jjimProvider.getJjimStoreList(userIdx));
-        } else {
-            // 분류 선택 O
-            // jjimCnt(인기순), storeName(스토어이름), storeScore(스토어점수)
-            return new BaseResponse<>(jjimProvider.getSortedJjimStoreList(userIdx, sort));
+        try {
+            if (sort == null) {
+                // 분류 선택 X
+                return new BaseResponse<>(jjimProvider.getJjimStoreList(userIdx));
+            } else {
+                // 분류 선택 O
+                // jjimCnt(인기순), storeName(스토어이름), storeScore(스토어점수)
+                return new BaseResponse<>(jjimProvider.getSortedJjimStoreList(userIdx, sort));
+            }
+        } catch (BaseException e) {
+            return new BaseResponse<>(e.getStatus());
+        }
+    }
+
+    @ResponseBody
+    @GetMapping("/jjim/{userIdx}/cursor")
+    public BaseResponse<CursorPage<JjimStoreRes>> getSortedJjimStorePage(@PathVariable("userIdx") Integer userIdx,
+                                                                         @RequestParam(value = "sort", required = false) String sort,
+                                                                         @RequestParam(required = false) String after,
+                                                                         @RequestParam(required = false) Integer size) {
+        try {
+            // jjimCnt(인기순), storeName(스토어이름), storeScore(스토어점수), 없으면 최근 찜 순
+            return new BaseResponse<>(jjimProvider.getSortedJjimStorePage(userIdx, sort, after, size));
+        } catch (BaseException e) {
+            return new BaseResponse<>(e.getStatus());
         }
     }
-}
\ No newline at end of file
+}
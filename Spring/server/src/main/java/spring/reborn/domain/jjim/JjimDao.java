@@ -1,126 +1,160 @@
 package spring.reborn.domain.jjim;
 
 import com.sun.istack.NotNull;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import spring.reborn.config.BaseException;
-import spring.reborn.domain.jjim.model.JjimReq;
-import spring.reborn.domain.jjim.model.JjimRes;
-import spring.reborn.domain.jjim.model.JjimStoreRes;
+import spring.reborn.domain.jjim.model.*;
 import spring.reborn.domain.review.model.GetReviewRes;
+import spring.reborn.domain.store.StoreStatsDao;
+import spring.reborn.utils.CursorPage;
+import spring.reborn.utils.CursorPageCollector;
+import spring.reborn.utils.KeysetCursor;
 
 import javax.sql.DataSource;
 
-import java.util.List;
+import java.util.*;
 
 import static javax.swing.UIManager.getInt;
 import static javax.swing.UIManager.getString;
 import static spring.reborn.config.BaseResponseStatus.*;
 
+@Slf4j
 @Repository
 public class JjimDao {
 
     private JdbcTemplate jdbcTemplate;
+    private StoreStatsDao storeStatsDao;
 
     @Autowired
     public void setDataSource(DataSource dataSource) {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
     }
 
+    @Autowired
+    public void setStoreStatsDao(StoreStatsDao storeStatsDao) {
+        this.storeStatsDao = storeStatsDao;
+    }
+
 
+    // (userIdx, storeIdx) unique key 기준 토글
+    // 찜 주체가 스토어인지는 JjimService 에서 유저 스냅샷으로 검증
     @Transactional
     public JjimRes changeJjim(JjimReq jjimReq) throws BaseException {
         try {
-            // 찜 주체가 스토어인지 검증
-            String userValidQuery = "select userIdx from User where userType = 'CONSUMER' and userIdx=?;";
-            try {
-                Long userIdx = this.jdbcTemplate.queryForObject(
-                        "select userIdx from User where userType = 'CONSUMER' and userIdx=?;",
-                        Long.class,
-                        jjimReq.getUserIdx());
-            } catch (DataAccessException e) {
-                throw new BaseException(CAN_NOT_JJIM_STORE_TO_STORE);
-            }
-
-            System.out.println("[검증완료] 찜 주체 스토어 아님");
-
-            JjimRes jjimRes = new JjimRes();
+            JjimRes jjimRes = getJjimTarget(jjimReq);
 
             // 찜이 존재하는 경우
-            try {
-                Integer jjimIdx = this.jdbcTemplate.queryForObject(
-                        "select jjimIdx from Jjim where storeIdx = ? and userIdx = ?",
-                        int.class,
-                        jjimReq.getStoreIdx(), jjimReq.getUserIdx());
-                jjimRes = deleteJjim (jjimReq, jjimIdx);
-                System.out.println("찜을 해제 성공");
-
-            }
-            // 찜이 존재하지 않는 경우
-            catch (DataAccessException e) {
-                jjimRes = createJjim(jjimReq);
-                System.out.println("찜을 등록 성공");
+            if (jjimRes.getJjimIdx() != 0) {
+                if (this.jdbcTemplate.update("delete from Jjim where jjimIdx = ?", jjimRes.getJjimIdx()) == 0) {
+                    throw new BaseException(FAIL_DELETE_JJIM);
+                }
+                storeStatsDao.changeJjimCnt((long) jjimReq.getStoreIdx(), -1);
+                jjimRes.setJjimStatus(JjimRes.DELETED);
+                log.debug("찜을 해제 성공");
+                return jjimRes;
             }
 
+            // 찜이 존재하지 않는 경우, 동시에 같은 찜을 등록하면 한 쪽만 저장
+            if (this.jdbcTemplate.update("insert ignore into Jjim (storeIdx, userIdx) values (?,?)",
+                    jjimReq.getStoreIdx(), jjimReq.getUserIdx()) == 0) {
+                // 먼저 저장한 쪽의 찜을 그대로 등록 결과로 (스냅샷에 없는 행이므로 잠금 조회)
+                List<Integer> jjimIdxList = this.jdbcTemplate.queryForList(
+                        "select jjimIdx from Jjim where userIdx = ? and storeIdx = ? lock in share mode",
+                        Integer.class, jjimReq.getUserIdx(), jjimReq.getStoreIdx());
+                if (jjimIdxList.isEmpty()) {
+                    throw new BaseException(FAIL_INSERT_JJIM);
+                }
+                jjimRes.setJjimIdx(jjimIdxList.get(0));
+                jjimRes.setJjimStatus(JjimRes.CREATED);
+                log.debug("이미 등록된 찜");
+                return jjimRes;
+            }
+            storeStatsDao.changeJjimCnt((long) jjimReq.getStoreIdx(), 1);
+            jjimRes.setJjimIdx(this.jdbcTemplate.queryForObject("select last_insert_id()", int.class));
+            jjimRes.setJjimStatus(JjimRes.CREATED);
+            log.debug("찜을 등록 성공");
             return jjimRes;
 
         } catch (BaseException e) {
-            e.printStackTrace();
             throw new BaseException(e.getStatus());
         } catch (Exception exception) {
             throw new BaseException(DATABASE_ERROR);
         }
     }
 
-    @Transactional
-    public JjimRes deleteJjim (JjimReq jjimReq, Integer jjimIdx) throws BaseException{
-        // 반환값 생성
-        JjimRes jjimRes = this.jdbcTemplate.queryForObject(
-                "select Jjim.jjimIdx,User.userEmail,Store.storeName\n" +
-                        "from Jjim, User, Store " +
-                        "where Jjim.jjimIdx=? and Jjim.userIdx = User.userIdx and Jjim.storeIdx = Store.storeIdx;",
-                new Object[]{jjimIdx},
-                (rs, rowNum) -> new JjimRes(
-                        "찜이 해제되었습니다.",
-                        rs.getInt("jjimIdx"),
-                        rs.getString("userEmail"),
-                        rs.getString("storeName"))
-        );
-
-        // 찜 해제
-        String deleteJjimQuery = "delete from Jjim  where jjimIdx = ?";
-        if (this.jdbcTemplate.update(deleteJjimQuery, jjimIdx) == 0) {
-            throw new BaseException(FAIL_DELETE_JJIM);
+    // 응답에 필요한 유저 이메일, 스토어 이름과 기존 찜 번호(없으면 0)를 한 번에 조회, 없는 유저/스토어면 예외
+    public JjimRes getJjimTarget(JjimReq jjimReq) throws BaseException {
+        List<JjimRes> jjimResList;
+        try {
+            String getJjimTargetQuery = "select U.userEmail, S.storeName, " +
+                    "ifnull((select J.jjimIdx from Jjim J where J.userIdx = U.userIdx and J.storeIdx = S.storeIdx), 0) jjimIdx " +
+                    "from User U join Store S on S.storeIdx = ? " +
+                    "where U.userIdx = ?";
+            jjimResList = this.jdbcTemplate.query(getJjimTargetQuery,
+                    (rs, rowNum) -> new JjimRes(
+                            null,
+                            rs.getInt("jjimIdx"),
+                            rs.getString("userEmail"),
+                            rs.getString("storeName")),
+                    jjimReq.getStoreIdx(), jjimReq.getUserIdx());
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
         }
-
-        return jjimRes;
+        if (jjimResList.isEmpty()) {
+            throw new BaseException(CAN_NOT_FOUND_STORE);
+        }
+        return jjimResList.get(0);
     }
 
-    @Transactional
-    public JjimRes createJjim (JjimReq jjimReq) throws BaseException{
-        // 찜 등록
-        String createJjimQuery = "insert into Jjim (storeIdx, userIdx) values (?,?)";
-        if (this.jdbcTemplate.update
-                (createJjimQuery, jjimReq.getStoreIdx(), jjimReq.getUserIdx()) == 0) {
-            throw new BaseException(FAIL_INSERT_JJIM);
+    // 유저의 찜 스토어 번호 (Redis 찜 hash 를 쓰지 않을 때 스토어 목록의 찜 여부 표시용)
+    public List<Long> getJjimStoreIdxList(Integer userIdx) throws BaseException {
+        try {
+            return this.jdbcTemplate.queryForList("select storeIdx from Jjim where userIdx = ?", Long.class, userIdx);
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
         }
+    }
 
-        // 반환값 생성
-        JjimRes jjimRes = this.jdbcTemplate.queryForObject(
-                "select Jjim.jjimIdx,User.userEmail,Store.storeName\n" +
-                        "from Jjim, User, Store " +
-                        "where Jjim.jjimIdx=last_insert_id() and Jjim.userIdx = User.userIdx and Jjim.storeIdx = Store.storeIdx;",
-                (rs, rowNum) -> new JjimRes(
-                        "찜이 등록되었습니다.",
-                        rs.getInt("jjimIdx"),
-                        rs.getString("userEmail"),
-                        rs.getString("storeName"))
-        );
+    // write-behind 로 모인 찜 변경을 한 번에 저장하고, 바뀐 스토어의 찜 개수를 다시 센다.
+    // insert ignore / delete 라서 같은 묶음을 다시 저장해도 결과가 같다.
+    @Transactional(rollbackFor = Exception.class)
+    public void applyJjimChanges(List<JjimChange> jjimChanges) throws BaseException {
+        List<Object> insertParams = new ArrayList<>();
+        List<Object> deleteParams = new ArrayList<>();
+        Set<Long> storeIdxSet = new HashSet<>();
+        for (JjimChange jjimChange : jjimChanges) {
+            if (jjimChange.isJjim()) {
+                insertParams.add(jjimChange.getStoreIdx());
+                insertParams.add(jjimChange.getUserIdx());
+            } else {
+                deleteParams.add(jjimChange.getUserIdx());
+                deleteParams.add(jjimChange.getStoreIdx());
+            }
+            storeIdxSet.add((long) jjimChange.getStoreIdx());
+        }
 
-        return jjimRes;
+        try {
+            if (!insertParams.isEmpty()) {
+                String insertJjimsQuery = "insert ignore into Jjim (storeIdx, userIdx) values " +
+                        String.join(",", Collections.nCopies(insertParams.size() / 2, "(?,?)"));
+                this.jdbcTemplate.update(insertJjimsQuery, insertParams.toArray());
+            }
+            if (!deleteParams.isEmpty()) {
+                String deleteJjimsQuery = "delete from Jjim where (userIdx, storeIdx) in (" +
+                        String.join(",", Collections.nCopies(deleteParams.size() / 2, "(?,?)")) + ")";
+                this.jdbcTemplate.update(deleteJjimsQuery, deleteParams.toArray());
+            }
+        } catch (Exception exception) {
+            log.error(exception.getMessage());
+            throw new BaseException(DATABASE_ERROR);
+        }
+        storeStatsDao.recountJjimCnt(new ArrayList<>(storeIdxSet));
     }
 
     @Transactional
@@ -158,21 +192,56 @@ public class JjimDao {
         return jjimStoreRes;
     }
 
-    // 작성중
-    @Transactional
-    public List<JjimStoreRes> getSortedJjimStoreList(Integer userIdx, String sort) throws BaseException {
+    // 저장된 찜의 번호 (key : userIdx:storeIdx), 해제된 찜은 없음
+    public Map<String, Integer> getJjimIdxMap(List<JjimChange> jjimChanges) throws BaseException {
+        Map<String, Integer> jjimIdxMap = new HashMap<>();
+        if (jjimChanges.isEmpty()) {
+            return jjimIdxMap;
+        }
+        List<Object> params = new ArrayList<>();
+        jjimChanges.forEach(jjimChange -> {
+            params.add(jjimChange.getUserIdx());
+            params.add(jjimChange.getStoreIdx());
+        });
+        try {
+            String getJjimIdxQuery = "select jjimIdx, userIdx, storeIdx from Jjim where (userIdx, storeIdx) in (" +
+                    String.join(",", Collections.nCopies(jjimChanges.size(), "(?,?)")) + ")";
+            this.jdbcTemplate.query(getJjimIdxQuery,
+                    (RowCallbackHandler) rs -> jjimIdxMap.put(rs.getInt("userIdx") + ":" + rs.getInt("storeIdx"), rs.getInt("jjimIdx")),
+                    params.toArray());
+            return jjimIdxMap;
+        } catch (Exception exception) {
+            log.error(exception.getMessage());
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
 
-        if (!sort.equals("storeName")) {
-            sort += " DESC;";
+    // 찜 목록 읽기 모델이 준비되기 전에만 사용
+    @Transactional
+    public List<JjimStoreRes> getSortedJjimStoreList(Integer userIdx, JjimSort sort) throws BaseException {
+        // 정렬은 허용된 값만 그대로 쿼리에 넣음
+        String orderBy;
+        switch (sort) {
+            case STORE_NAME:
+                orderBy = "s.storeName ASC";
+                break;
+            case STORE_SCORE:
+                orderBy = "s.storeScore DESC";
+                break;
+            case JJIM_CNT:
+                orderBy = "ifnull(ss.numOfJjim, 0) DESC";
+                break;
+            default:
+                orderBy = "j.jjimIdx DESC";
         }
 
         String getJjimStoreListQuery =
-                "SELECT j.jjimIdx, j.storeIdx, s.storeName, s.storeImage, s.category, s.storeScore, \n" +
-                        "(SELECT count(a.jjimIdx) FROM Jjim a JOIN Store b ON a.storeIdx = b.storeIdx WHERE a.storeIdx=j.storeIdx) jjimCnt\n" +
+                "SELECT j.jjimIdx, j.storeIdx, s.storeName, s.storeImage, s.category, s.storeScore\n" +
                         "FROM Jjim j JOIN Store s\n" +
                         "ON j.storeIdx = s.storeIdx\n" +
+                        "LEFT JOIN StoreStats ss ON ss.storeIdx = j.storeIdx\n" +
                         "WHERE j.userIdx = ?\n" +
-                        "ORDER BY "+sort;
+                        "ORDER BY " + orderBy + ", j.jjimIdx DESC";
         Object[] getJjimStoreListParams = new Object[]{
                 userIdx}; // 동적 쿼리의 ?부분에 주입될 값
 
@@ -189,4 +258,119 @@ public class JjimDao {
 
         return jjimStoreRes;
     }
+
+    // 찜 목록 읽기 모델용 전체 스토어
+    public List<JjimStoreCard> getJjimStoreCards() throws BaseException {
+        return getJjimStoreCards("");
+    }
+
+    // 스토어가 없으면 null
+    public JjimStoreCard getJjimStoreCard(Long storeIdx) throws BaseException {
+        List<JjimStoreCard> jjimStoreCards = getJjimStoreCards("WHERE s.storeIdx = ?", storeIdx);
+        return jjimStoreCards.isEmpty() ? null : jjimStoreCards.get(0);
+    }
+
+    private List<JjimStoreCard> getJjimStoreCards(String where, Object... params) throws BaseException {
+        try {
+            String getJjimStoreCardsQuery = "SELECT s.storeIdx, s.storeName, s.storeImage, s.category, s.storeScore, ifnull(ss.numOfJjim, 0) jjimCnt " +
+                    "FROM Store s LEFT JOIN StoreStats ss ON ss.storeIdx = s.storeIdx " + where;
+            return this.jdbcTemplate.query(getJjimStoreCardsQuery,
+                    (rs, rowNum) -> new JjimStoreCard(
+                            rs.getLong("storeIdx"),
+                            rs.getString("storeName"),
+                            rs.getString("storeImage"),
+                            rs.getString("category"),
+                            rs.getFloat("storeScore"),
+                            rs.getLong("jjimCnt")),
+                    params);
+        } catch (Exception exception) {
+            log.error(exception.getMessage());
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
+    // 유저의 찜 (storeIdx -> jjimIdx), 최근 찜 순
+    public Map<Long, Integer> getUserJjims(Integer userIdx) throws BaseException {
+        try {
+            Map<Long, Integer> userJjims = new LinkedHashMap<>();
+            this.jdbcTemplate.query("select jjimIdx, storeIdx from Jjim where userIdx = ? order by jjimIdx desc",
+                    (RowCallbackHandler) rs -> userJjims.put(rs.getLong("storeIdx"), rs.getInt("jjimIdx")),
+                    userIdx);
+            return userJjims;
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
+    // 찜 목록 커서 페이지, 정렬값이 같으면 jjimIdx 로 구분
+    public CursorPage<JjimStoreRes> getSortedJjimStorePage(Integer userIdx, JjimSort sort, String after, int size) throws BaseException {
+        // 정렬은 허용된 값만 그대로 쿼리에 넣음
+        String sortColumn;
+        boolean ascending = false;
+        switch (sort) {
+            case STORE_NAME:
+                sortColumn = "s.storeName";
+                ascending = true;
+                break;
+            case STORE_SCORE:
+                // float 비교 오차를 피하기 위해 소수 둘째 자리까지만 비교
+                sortColumn = "round(s.storeScore, 2)";
+                break;
+            case JJIM_CNT:
+                sortColumn = "ifnull(ss.numOfJjim, 0)";
+                break;
+            default:
+                sortColumn = "j.jjimIdx";
+        }
+
+        KeysetCursor cursor = KeysetCursor.decode(after, 2);
+        Object sortValue = null;
+        Long jjimIdx = null;
+        if (cursor != null) {
+            jjimIdx = cursor.getLong(1);
+            switch (sort) {
+                case STORE_NAME:
+                    sortValue = cursor.getString(0);
+                    break;
+                case STORE_SCORE:
+                    sortValue = cursor.getDecimal(0);
+                    break;
+                default:
+                    sortValue = cursor.getLong(0);
+            }
+        }
+
+        String compare = ascending ? ">" : "<";
+        String direction = ascending ? "ASC" : "DESC";
+        String getJjimStorePageQuery =
+                "SELECT j.jjimIdx, j.storeIdx, s.storeName, s.storeImage, s.category, s.storeScore, " + sortColumn + " sortValue\n" +
+                        "FROM Jjim j JOIN Store s\n" +
+                        "ON j.storeIdx = s.storeIdx\n" +
+                        "LEFT JOIN StoreStats ss ON ss.storeIdx = j.storeIdx\n" +
+                        "WHERE j.userIdx = ?\n" +
+                        (cursor == null ? "" : "AND (" + sortColumn + " " + compare + " ? OR (" + sortColumn + " = ? AND j.jjimIdx " + compare + " ?))\n") +
+                        "ORDER BY " + sortColumn + " " + direction + ", j.jjimIdx " + direction + "\n" +
+                        "LIMIT ?";
+
+        CursorPageCollector<JjimStoreRes> collector = new CursorPageCollector<>(
+                (rs, rowNum) -> new JjimStoreRes(
+                        rs.getInt("jjimIdx"),
+                        rs.getInt("storeIdx"),
+                        rs.getString("storeName"),
+                        rs.getString("storeImage"),
+                        rs.getString("category"),
+                        rs.getFloat("storeScore")),
+                rs -> KeysetCursor.encode(rs.getString("sortValue"), rs.getLong("jjimIdx")),
+                size);
+        Object[] getJjimStorePageParams = cursor == null
+                ? new Object[]{userIdx, collector.limit()}
+                : new Object[]{userIdx, sortValue, sortValue, jjimIdx, collector.limit()};
+
+        try {
+            this.jdbcTemplate.query(getJjimStorePageQuery, collector, getJjimStorePageParams);
+            return collector.toPage();
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
 }
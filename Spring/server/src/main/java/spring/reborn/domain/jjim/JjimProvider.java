@@ -3,31 +3,85 @@ package spring.reborn.domain.jjim;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import spring.reborn.config.BaseException;
+import spring.reborn.domain.awsS3.ImageVariantIndex;
+import spring.reborn.domain.jjim.model.JjimSort;
 import spring.reborn.domain.jjim.model.JjimStoreRes;
 import spring.reborn.domain.review.ReviewDao;
+import spring.reborn.utils.CursorPage;
+import spring.reborn.utils.CursorPageCollector;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class JjimProvider {
 
     private final JjimDao jjimDao;
+    private final ImageVariantIndex imageVariantIndex;
+    private final JjimRedisService jjimRedisService;
+    private final JjimReadModel jjimReadModel;
 
     @Autowired //readme 참고
-    public JjimProvider(JjimDao jjimDao) {
+    public JjimProvider(JjimDao jjimDao, ImageVariantIndex imageVariantIndex, JjimRedisService jjimRedisService,
+                        JjimReadModel jjimReadModel) {
         this.jjimDao = jjimDao;
+        this.imageVariantIndex = imageVariantIndex;
+        this.jjimRedisService = jjimRedisService;
+        this.jjimReadModel = jjimReadModel;
     }
 
     public Integer countJjim(Integer userIdx) throws BaseException {
+        if (jjimRedisService.isEnabled()) {
+            return jjimRedisService.countJjim(userIdx);
+        }
         return jjimDao.countJjim(userIdx);
     }
 
+    // 유저가 찜한 스토어 번호 (스토어 목록의 찜 여부 표시용)
+    public Set<Long> getJjimStoreIdxSet(Integer userIdx) throws BaseException {
+        if (jjimRedisService.isEnabled()) {
+            return jjimRedisService.getJjimStoreIdxSet(userIdx);
+        }
+        return new HashSet<>(jjimDao.getJjimStoreIdxList(userIdx));
+    }
+
+    // 아직 StoreStats 에 반영되지 않은 스토어 찜 개수 증감 (write-behind 저장 대기중)
+    public long getUnsavedJjimCnt(Long storeIdx) {
+        if (!jjimRedisService.isEnabled()) {
+            return 0;
+        }
+        return jjimRedisService.getUnsavedJjimCnt(storeIdx);
+    }
+
     public List<JjimStoreRes> getJjimStoreList(Integer userIdx) throws BaseException {
-        return jjimDao.getJjimStoreList(userIdx);
+        List<JjimStoreRes> jjimStoreRes = jjimReadModel.getJjimStoreList(userIdx, JjimSort.RECENT);
+        if (jjimStoreRes == null) {
+            jjimStoreRes = jjimDao.getJjimStoreList(userIdx);
+        }
+        return toThumbnail(jjimStoreRes);
     }
 
+    // sort : jjimCnt(인기순), storeName(스토어이름), storeScore(스토어점수) 외에는 REQUEST_ERROR
     public List<JjimStoreRes> getSortedJjimStoreList(Integer userIdx, String sort) throws BaseException {
-        return jjimDao.getSortedJjimStoreList(userIdx, sort);
+        JjimSort jjimSort = JjimSort.from(sort);
+        List<JjimStoreRes> jjimStoreRes = jjimReadModel.getJjimStoreList(userIdx, jjimSort);
+        if (jjimStoreRes == null) {
+            jjimStoreRes = jjimDao.getSortedJjimStoreList(userIdx, jjimSort);
+        }
+        return toThumbnail(jjimStoreRes);
+    }
+
+    public CursorPage<JjimStoreRes> getSortedJjimStorePage(Integer userIdx, String sort, String after, Integer size) throws BaseException {
+        CursorPage<JjimStoreRes> jjimStorePage = jjimDao.getSortedJjimStorePage(userIdx, JjimSort.from(sort), after, CursorPageCollector.pageSize(size));
+        toThumbnail(jjimStorePage.getItems());
+        return jjimStorePage;
+    }
+
+    // 목록은 축소본 이미지로
+    private List<JjimStoreRes> toThumbnail(List<JjimStoreRes> jjimStoreRes) {
+        jjimStoreRes.forEach(store -> store.setStoreImage(imageVariantIndex.toThumbnailUrl(store.getStoreImage())));
+        return jjimStoreRes;
     }
 
 }
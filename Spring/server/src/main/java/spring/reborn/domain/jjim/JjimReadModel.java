@@ -0,0 +1,184 @@
+package spring.reborn.domain.jjim;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.jjim.model.JjimChangedEvent;
+import spring.reborn.domain.jjim.model.JjimSort;
+import spring.reborn.domain.jjim.model.JjimStoreCard;
+import spring.reborn.domain.jjim.model.JjimStoreRes;
+import spring.reborn.domain.store.model.StoreChangedEvent;
+import spring.reborn.utils.LocalCache;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 찜 목록 읽기 모델
+ * 스토어 이름, 이미지, 카테고리, 평점, 전체 찜 개수와 정렬 키(이름 collation key, 소수 둘째 자리 평점)를 미리 계산해두고
+ * 스토어가 바뀌면 해당 스토어만 다시 읽고, 주기적으로 전체를 다시 읽어 통째로 바꾼다 (지워진 스토어 정리).
+ * 유저별 찜(storeIdx -> jjimIdx)은 Redis 찜 hash 를 쓰면 그 hash 에서 읽고 (저장 전 찜은 jjimIdx 0, 가장 최근),
+ * 쓰지 않으면 찜이 바뀔 때 비우는 로컬 캐시에 둔다.
+ */
+@Slf4j
+@Component
+public class JjimReadModel {
+
+    private static class Entry {
+        private final JjimStoreCard card;
+        private final CollationKey nameKey;
+        private final long scoreKey;
+
+        private Entry(JjimStoreCard card, Collator collator) {
+            this.card = card;
+            this.nameKey = collator.getCollationKey(card.getStoreName() == null ? "" : card.getStoreName());
+            // float 비교 오차를 피하기 위해 소수 둘째 자리까지만 비교
+            this.scoreKey = Math.round(card.getStoreScore() * 100);
+        }
+    }
+
+    private static class Row {
+        private final Entry entry;
+        private final int jjimIdx;
+
+        private Row(Entry entry, int jjimIdx) {
+            this.entry = entry;
+            this.jjimIdx = jjimIdx;
+        }
+    }
+
+    // 정렬값이 같으면 최근 찜 순, 저장 전(jjimIdx 0)인 찜이 가장 최근
+    private static final Comparator<Row> RECENT_ORDER = Comparator.comparingInt(
+            (Row row) -> row.jjimIdx == 0 ? Integer.MAX_VALUE : row.jjimIdx).reversed();
+
+    private final JjimDao jjimDao;
+    private final JjimRedisService jjimRedisService;
+    private final Collator collator = Collator.getInstance(Locale.KOREAN);
+    private volatile Map<Long, Entry> stores = new ConcurrentHashMap<>();
+    // 전체를 다시 읽는 동안 바뀐 스토어, 새 map 으로 바꾼 뒤 다시 읽음
+    private Set<Long> changedWhileReloading;
+    // Redis 찜 hash 를 쓰지 않을 때만 사용
+    private final LocalCache<Integer, Map<Long, Integer>> userJjims;
+    private volatile boolean ready = false;
+
+    public JjimReadModel(JjimDao jjimDao, JjimRedisService jjimRedisService,
+                         @Value("${jjim.read-model.user-ttl:30000}") long userTtlMillis,
+                         @Value("${jjim.read-model.user-max-size:10000}") int userMaxSize) {
+        this.jjimDao = jjimDao;
+        this.jjimRedisService = jjimRedisService;
+        this.userJjims = new LocalCache<>(userTtlMillis, userMaxSize);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // 서버 시작시, 그리고 놓친 변경을 바로잡기 위해 주기적으로 전체 스토어를 다시 읽음
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${jjim.read-model.reload-interval:600000}", fixedDelayString = "${jjim.read-model.reload-interval:600000}")
+    public void reload() {
+        synchronized (this) {
+            if (changedWhileReloading != null) {
+                return;
+            }
+            changedWhileReloading = new HashSet<>();
+        }
+        Set<Long> changed;
+        try {
+            List<JjimStoreCard> jjimStoreCards = jjimDao.getJjimStoreCards();
+            Map<Long, Entry> loaded = new ConcurrentHashMap<>();
+            jjimStoreCards.forEach(card -> loaded.put(card.getStoreIdx(), new Entry(card, collator)));
+            stores = loaded;
+            ready = true;
+            log.info("reload jjim read model : " + jjimStoreCards.size());
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        } finally {
+            synchronized (this) {
+                changed = changedWhileReloading;
+                changedWhileReloading = null;
+            }
+        }
+        changed.forEach(this::refreshStore);
+    }
+
+    // 스토어 정보, 평점, 찜 개수 변경
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStoreChanged(StoreChangedEvent storeChangedEvent) {
+        Long storeIdx = storeChangedEvent.getStoreIdx();
+        synchronized (this) {
+            if (changedWhileReloading != null) {
+                changedWhileReloading.add(storeIdx);
+            }
+        }
+        refreshStore(storeIdx);
+    }
+
+    private void refreshStore(Long storeIdx) {
+        try {
+            JjimStoreCard card = jjimDao.getJjimStoreCard(storeIdx);
+            if (card == null) {
+                stores.remove(storeIdx);
+            } else {
+                stores.put(storeIdx, new Entry(card, collator));
+            }
+        } catch (BaseException e) {
+            // 다음 조회에서 예전 정보가 보이지 않도록 제거, 전체 다시 읽을 때 채워짐
+            stores.remove(storeIdx);
+            log.error(e.getStatus().getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJjimChanged(JjimChangedEvent jjimChangedEvent) {
+        userJjims.invalidate(jjimChangedEvent.getUserIdx());
+    }
+
+    // 준비되기 전이면 null
+    public List<JjimStoreRes> getJjimStoreList(Integer userIdx, JjimSort sort) throws BaseException {
+        if (!ready) {
+            return null;
+        }
+        Map<Long, Integer> jjims = jjimRedisService.isEnabled()
+                ? jjimRedisService.getJjims(userIdx)
+                : userJjims.get(userIdx, jjimDao::getUserJjims);
+
+        Map<Long, Entry> stores = this.stores;
+        List<Row> rows = new ArrayList<>();
+        jjims.forEach((storeIdx, jjimIdx) -> {
+            Entry entry = stores.get(storeIdx);
+            if (entry != null) {
+                rows.add(new Row(entry, jjimIdx));
+            }
+        });
+        rows.sort(getOrder(sort));
+
+        List<JjimStoreRes> jjimStoreRes = new ArrayList<>();
+        for (Row row : rows) {
+            JjimStoreCard card = row.entry.card;
+            jjimStoreRes.add(new JjimStoreRes(row.jjimIdx, (int) card.getStoreIdx(), card.getStoreName(),
+                    card.getStoreImage(), card.getCategory(), card.getStoreScore()));
+        }
+        return jjimStoreRes;
+    }
+
+    private Comparator<Row> getOrder(JjimSort sort) {
+        switch (sort) {
+            case STORE_NAME:
+                return Comparator.comparing((Row row) -> row.entry.nameKey).thenComparing(RECENT_ORDER);
+            case STORE_SCORE:
+                return Comparator.comparingLong((Row row) -> row.entry.scoreKey).reversed().thenComparing(RECENT_ORDER);
+            case JJIM_CNT:
+                return Comparator.comparingLong((Row row) -> row.entry.card.getJjimCnt()).reversed().thenComparing(RECENT_ORDER);
+            default:
+                return RECENT_ORDER;
+        }
+    }
+}
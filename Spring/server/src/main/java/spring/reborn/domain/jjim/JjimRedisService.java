@@ -0,0 +1,219 @@
+package spring.reborn.domain.jjim;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import spring.reborn.config.BaseException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static spring.reborn.config.BaseResponseStatus.SERVER_ERROR;
+
+/**
+ * 유저별 찜 hash (Redis, field : storeIdx, value : jjimIdx, 아직 MySQL 에 저장되지 않은 찜은 0)
+ * 찜 여부 확인, 추가/제거, 저장 대기열 기록을 Lua 스크립트 하나로 처리하고 MySQL 저장은 JjimChangeWriter 가 묶어서 한다.
+ * 저장이 끝나면 JjimChangeWriter 가 찜 번호를 채워넣으므로 찜 목록도 MySQL 을 거치지 않고 만들 수 있다.
+ * hash 가 없으면 MySQL 에서 채우며, 찜이 하나도 없는 유저도 구분할 수 있도록 LOADED_MARKER 를 함께 넣어둔다.
+ * 아직 MySQL 에 저장되지 않은 변경이 남아있으면 (저장 지연 중 hash 가 만료된 경우) 그 변경을 덮어써서 채운다.
+ * 스토어별 찜 개수는 같은 스크립트에서 저장 대기중인 증감을 더해두고, 저장 후 StoreStats 를 다시 셀 때까지 그 위에 더해서 보여준다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JjimRedisService {
+
+    // 저장 대기중인 찜 변경 (field : userIdx:storeIdx, value : 1 등록 / 0 해제)
+    static final String PENDING_KEY = "jjim:pending";
+    // JjimChangeWriter 가 대기열을 옮겨와 저장하는 중인 찜 변경
+    static final String FLUSHING_KEY = "jjim:flushing";
+    // 저장 대기중인 스토어별 찜 개수 증감 (field : storeIdx), 대기열과 함께 옮겨짐
+    static final String STORE_DELTA_KEY = "jjim:store-delta";
+    static final String FLUSHING_STORE_DELTA_KEY = "jjim:flushing-store-delta";
+
+    // storeIdx 는 1부터 시작하므로 0 은 찜과 겹치지 않음
+    private static final String LOADED_MARKER = "0";
+    private static final String UNSAVED_JJIM_IDX = "0";
+    private static final long NOT_LOADED = -1;
+
+    // KEYS[1] : 유저 찜 hash, KEYS[2] : 저장 대기열, KEYS[3] : 스토어별 찜 개수 증감
+    // ARGV[1] : storeIdx, ARGV[2] : 대기열 field, ARGV[3] : hash 유지 시간(ms)
+    private static final RedisScript<Long> TOGGLE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end " +
+            "local jjim = 1 " +
+            "if redis.call('HDEL', KEYS[1], ARGV[1]) == 1 then jjim = 0 else redis.call('HSET', KEYS[1], ARGV[1], '0') end " +
+            "redis.call('HSET', KEYS[2], ARGV[2], jjim) " +
+            "redis.call('HINCRBY', KEYS[3], ARGV[1], jjim == 1 and 1 or -1) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[3]) " +
+            "return jjim",
+            Long.class);
+
+    // 다른 요청이 먼저 채웠으면 그대로 둠
+    // KEYS[1] : 유저 찜 hash, ARGV[1] : hash 유지 시간(ms), ARGV[2..] : LOADED_MARKER, 0, storeIdx, jjimIdx...
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+            "redis.call('HMSET', KEYS[1], unpack(ARGV, 2)) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[1]) " +
+            "return 1",
+            Long.class);
+
+    // 저장된 찜 번호 채우기, 그 사이 해제되었거나 이미 번호가 있으면 그대로 둠
+    // KEYS[i] : 유저 찜 hash, ARGV[2i - 1] : storeIdx, ARGV[2i] : jjimIdx
+    private static final RedisScript<Long> SAVED_SCRIPT = new DefaultRedisScript<>(
+            "for i, key in ipairs(KEYS) do " +
+            "if redis.call('HGET', key, ARGV[2 * i - 1]) == '0' then redis.call('HSET', key, ARGV[2 * i - 1], ARGV[2 * i]) end " +
+            "end " +
+            "return 1",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final JjimDao jjimDao;
+
+    @Value("${jjim.redis.enabled:false}")
+    private boolean enabled;
+
+    // 대기열이 저장되기 전에 hash 가 만료되지 않도록 저장 주기보다 충분히 길게
+    @Value("${jjim.redis.user-ttl:604800000}")
+    private long userTtlMillis;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 찜 토글, 등록되었으면 true
+    public boolean toggle(int userIdx, int storeIdx) throws BaseException {
+        List<String> keys = Arrays.asList(getUserKey(userIdx), PENDING_KEY, STORE_DELTA_KEY);
+        String storeIdxS = String.valueOf(storeIdx);
+        String pendingField = userIdx + ":" + storeIdx;
+        String ttl = String.valueOf(userTtlMillis);
+
+        Long result = stringRedisTemplate.execute(TOGGLE_SCRIPT, keys, storeIdxS, pendingField, ttl);
+        if (result != null && result == NOT_LOADED) {
+            load(userIdx);
+            result = stringRedisTemplate.execute(TOGGLE_SCRIPT, keys, storeIdxS, pendingField, ttl);
+        }
+        if (result == null || result == NOT_LOADED) {
+            throw new BaseException(SERVER_ERROR);
+        }
+        return result == 1;
+    }
+
+    public int countJjim(int userIdx) throws BaseException {
+        ensureLoaded(userIdx);
+        Long size = stringRedisTemplate.opsForHash().size(getUserKey(userIdx));
+        return size == null ? 0 : (int) Math.max(0, size - 1);
+    }
+
+    // 아직 StoreStats 에 반영되지 않은 스토어 찜 개수 증감 (저장 대기중 + 저장중)
+    public long getUnsavedJjimCnt(Long storeIdx) {
+        String storeIdxS = String.valueOf(storeIdx);
+        List<Object> deltas = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.hashCommands().hGet(STORE_DELTA_KEY.getBytes(StandardCharsets.UTF_8), storeIdxS.getBytes(StandardCharsets.UTF_8));
+            connection.hashCommands().hGet(FLUSHING_STORE_DELTA_KEY.getBytes(StandardCharsets.UTF_8), storeIdxS.getBytes(StandardCharsets.UTF_8));
+            return null;
+        });
+        long unsavedJjimCnt = 0;
+        for (Object delta : deltas) {
+            if (delta != null) {
+                unsavedJjimCnt += Long.parseLong(String.valueOf(delta));
+            }
+        }
+        return unsavedJjimCnt;
+    }
+
+    public Set<Long> getJjimStoreIdxSet(int userIdx) throws BaseException {
+        return new HashSet<>(getJjims(userIdx).keySet());
+    }
+
+    // 유저의 찜 (storeIdx -> jjimIdx, 저장 전이면 0)
+    public Map<Long, Integer> getJjims(int userIdx) throws BaseException {
+        ensureLoaded(userIdx);
+        Map<Long, Integer> jjims = new HashMap<>();
+        stringRedisTemplate.opsForHash().entries(getUserKey(userIdx)).forEach((storeIdx, jjimIdx) -> {
+            if (!LOADED_MARKER.equals(storeIdx)) {
+                jjims.put(Long.valueOf(String.valueOf(storeIdx)), Integer.valueOf(String.valueOf(jjimIdx)));
+            }
+        });
+        return jjims;
+    }
+
+    // JjimChangeWriter 가 저장한 찜 번호 반영 (key : userIdx:storeIdx)
+    void setSavedJjimIdx(Map<String, Integer> jjimIdxMap) {
+        if (jjimIdxMap.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        List<String> args = new ArrayList<>();
+        jjimIdxMap.forEach((userStore, jjimIdx) -> {
+            String[] userStoreIdx = userStore.split(":");
+            keys.add(getUserKey(Integer.parseInt(userStoreIdx[0])));
+            args.add(userStoreIdx[1]);
+            args.add(String.valueOf(jjimIdx));
+        });
+        stringRedisTemplate.execute(SAVED_SCRIPT, keys, args.toArray());
+    }
+
+    private void ensureLoaded(int userIdx) throws BaseException {
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(getUserKey(userIdx)))) {
+            load(userIdx);
+        }
+    }
+
+    private void load(int userIdx) throws BaseException {
+        // hash 가 없는 동안에는 이 유저의 새 변경이 생기지 않으므로, 대기열 -> 저장중 -> MySQL 순으로 읽으면
+        // 그 사이에 저장이 끝난 변경은 MySQL 에서, 아직인 변경은 대기열에서 보인다.
+        Map<Long, Boolean> pending = getUnsavedChanges(PENDING_KEY, userIdx);
+        Map<Long, Boolean> flushing = getUnsavedChanges(FLUSHING_KEY, userIdx);
+        Map<Long, Integer> jjims = new LinkedHashMap<>(jjimDao.getUserJjims(userIdx));
+        // 저장중인 변경이 더 오래된 것
+        applyUnsavedChanges(jjims, flushing);
+        applyUnsavedChanges(jjims, pending);
+
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(userTtlMillis));
+        args.add(LOADED_MARKER);
+        args.add(UNSAVED_JJIM_IDX);
+        jjims.forEach((storeIdx, jjimIdx) -> {
+            args.add(String.valueOf(storeIdx));
+            args.add(String.valueOf(jjimIdx));
+        });
+        stringRedisTemplate.execute(LOAD_SCRIPT, Collections.singletonList(getUserKey(userIdx)), args.toArray());
+    }
+
+    // 대기열 hash 에서 이 유저의 변경만 (storeIdx -> 등록 여부)
+    private Map<Long, Boolean> getUnsavedChanges(String key, int userIdx) {
+        Map<Long, Boolean> changes = new HashMap<>();
+        String prefix = userIdx + ":";
+        ScanOptions scanOptions = ScanOptions.scanOptions().match(prefix + "*").count(1000).build();
+        try (Cursor<Map.Entry<Object, Object>> cursor = stringRedisTemplate.opsForHash().scan(key, scanOptions)) {
+            while (cursor.hasNext()) {
+                Map.Entry<Object, Object> entry = cursor.next();
+                changes.put(Long.valueOf(String.valueOf(entry.getKey()).substring(prefix.length())),
+                        "1".equals(String.valueOf(entry.getValue())));
+            }
+        }
+        return changes;
+    }
+
+    // 이미 저장된 찜은 번호를 유지 (해제 후 다시 누른 찜은 insert ignore 로 같은 행이 남음)
+    private static void applyUnsavedChanges(Map<Long, Integer> jjims, Map<Long, Boolean> changes) {
+        changes.forEach((storeIdx, jjim) -> {
+            if (jjim) {
+                jjims.putIfAbsent(storeIdx, 0);
+            } else {
+                jjims.remove(storeIdx);
+            }
+        });
+    }
+
+    private String getUserKey(int userIdx) {
+        return "jjim:user-jjim:" + userIdx;
+    }
+}
@@ -1,29 +1,60 @@
 package spring.reborn.domain.jjim;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import spring.reborn.config.BaseException;
+import spring.reborn.domain.jjim.model.JjimChangedEvent;
 import spring.reborn.domain.jjim.model.JjimReq;
 import spring.reborn.domain.jjim.model.JjimRes;
+import spring.reborn.domain.user.UserPrincipalCache;
+import spring.reborn.domain.user.model.UserPrincipal;
 
+import static spring.reborn.config.BaseResponseStatus.CAN_NOT_JJIM_STORE_TO_STORE;
 import static spring.reborn.config.BaseResponseStatus.DATABASE_ERROR;
 
 @Service
 public class JjimService {
     private final JjimDao jjimDao;
     private final JjimProvider jjimProvider;
+    private final UserPrincipalCache userPrincipalCache;
+    private final JjimRedisService jjimRedisService;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Autowired
-    public JjimService(JjimDao jjimDao, JjimProvider jjimProvider) {
+    public JjimService(JjimDao jjimDao, JjimProvider jjimProvider, UserPrincipalCache userPrincipalCache,
+                       JjimRedisService jjimRedisService, ApplicationEventPublisher applicationEventPublisher) {
         this.jjimDao = jjimDao;
         this.jjimProvider = jjimProvider;
+        this.userPrincipalCache = userPrincipalCache;
+        this.jjimRedisService = jjimRedisService;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     @Transactional
     public JjimRes changeJjim(JjimReq jjimReq) throws BaseException {
         try {
-            JjimRes jjimRes = jjimDao.changeJjim(jjimReq);
+            // 찜 주체가 스토어인지 검증
+            UserPrincipal userPrincipal = userPrincipalCache.get(jjimReq.getUserIdx());
+            if (userPrincipal == null || !userPrincipal.isConsumer()) {
+                throw new BaseException(CAN_NOT_JJIM_STORE_TO_STORE);
+            }
+
+            if (!jjimRedisService.isEnabled()) {
+                JjimRes jjimRes = jjimDao.changeJjim(jjimReq);
+                applicationEventPublisher.publishEvent(new JjimChangedEvent(jjimReq.getUserIdx()));
+                return jjimRes;
+            }
+
+            // 스토어 확인 쿼리 한 번 + Redis 토글 한 번, MySQL 저장은 JjimChangeWriter 가 묶어서 처리
+            JjimRes jjimRes = jjimDao.getJjimTarget(jjimReq);
+            boolean jjim = jjimRedisService.toggle(jjimReq.getUserIdx(), jjimReq.getStoreIdx());
+            // 찜이 실제로 바뀐 뒤에만 찜 목록 / 추천 갱신
+            applicationEventPublisher.publishEvent(new JjimChangedEvent(jjimReq.getUserIdx()));
+            // 저장 전이라 찜 번호는 아직 없음
+            jjimRes.setJjimIdx(0);
+            jjimRes.setJjimStatus(jjim ? JjimRes.CREATED : JjimRes.DELETED);
             return jjimRes;
         } catch (BaseException e) {
             throw new BaseException(e.getStatus());
@@ -0,0 +1,13 @@
+package spring.reborn.domain.jjim.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 아직 MySQL 에 저장하지 않은 찜 변경 (jjim : 최종 상태)
+@Getter
+@AllArgsConstructor
+public class JjimChange {
+    private int userIdx;
+    private int storeIdx;
+    private boolean jjim;
+}
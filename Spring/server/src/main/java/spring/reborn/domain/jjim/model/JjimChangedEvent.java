@@ -0,0 +1,11 @@
+package spring.reborn.domain.jjim.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 유저의 찜이 바뀌었거나 write-behind 로 저장되었을 때 발행 (찜 목록 갱신)
+@Getter
+@AllArgsConstructor
+public class JjimChangedEvent {
+    private int userIdx;
+}
@@ -10,6 +10,9 @@ import lombok.Setter;
 @AllArgsConstructor
 @NoArgsConstructor
 public class JjimRes {
+    public static final String CREATED = "찜이 등록되었습니다.";
+    public static final String DELETED = "찜이 해제되었습니다.";
+
     private String jjimStatus;
     private int jjimIdx;
     private String userEmail;
@@ -0,0 +1,32 @@
+package spring.reborn.domain.jjim.model;
+
+import spring.reborn.config.BaseException;
+
+import static spring.reborn.config.BaseResponseStatus.REQUEST_ERROR;
+
+// 찜 목록 정렬 (요청 파라미터는 여기 있는 값만 허용)
+public enum JjimSort {
+    RECENT(null),
+    STORE_NAME("storeName"),
+    STORE_SCORE("storeScore"),
+    JJIM_CNT("jjimCnt");
+
+    private final String param;
+
+    JjimSort(String param) {
+        this.param = param;
+    }
+
+    // sort 파라미터가 없으면 최근 찜 순
+    public static JjimSort from(String param) throws BaseException {
+        if (param == null) {
+            return RECENT;
+        }
+        for (JjimSort jjimSort : values()) {
+            if (param.equals(jjimSort.param)) {
+                return jjimSort;
+            }
+        }
+        throw new BaseException(REQUEST_ERROR);
+    }
+}
@@ -0,0 +1,16 @@
+package spring.reborn.domain.jjim.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 찜 목록에 보여줄 스토어 정보와 전체 찜 개수
+@Getter
+@AllArgsConstructor
+public class JjimStoreCard {
+    private long storeIdx;
+    private String storeName;
+    private String storeImage;
+    private String category;
+    private float storeScore;
+    private long jjimCnt;
+}
@@ -0,0 +1,171 @@
+package spring.reborn.domain.mail;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import spring.reborn.config.BaseException;
+import spring.reborn.config.secret.Secret;
+import spring.reborn.domain.mail.model.MailRequestedEvent;
+import spring.reborn.domain.mail.model.OutboxMail;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static spring.reborn.config.BaseResponseStatus.FAIL_SEND_MAIL;
+
+/**
+ * 메일 발송 대기열
+ * 요청 쓰레드에서는 Redis stream 에 메일을 쌓기만 하고, 실제 SMTP 발송은 MailOutboxWorker 가 한다.
+ * 메일 내용에 인증 코드, 임시 비밀번호가 들어가므로 html 은 AES-GCM 으로 암호화해서 넣고 발송 직전에만 푼다.
+ */
+@Slf4j
+@Component
+public class MailOutbox {
+
+    static final String OUTBOX_STREAM_KEY = "mail:outbox";
+    static final String RETRY_QUEUE_KEY = "mail:retry";
+    static final String DEAD_STREAM_KEY = "mail:dead";
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SecretKeySpec payloadKey;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${mail.outbox.dead-max-length:1000}")
+    private long deadMaxLength;
+
+    // payload-key 를 따로 두지 않으면 유저 정보 암호화 키에서 만듦
+    public MailOutbox(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry,
+                      @Value("${mail.outbox.payload-key:}") String payloadKey) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.payloadKey = toKey(payloadKey.isEmpty() ? Secret.USER_INFO_PASSWORD_KEY : payloadKey);
+
+        Gauge.builder("mail.outbox.depth", this, outbox -> outbox.size(OUTBOX_STREAM_KEY))
+                .description("발송 대기중인 메일 수")
+                .register(meterRegistry);
+        Gauge.builder("mail.outbox.retry.depth", this, MailOutbox::getRetryDepth)
+                .description("재시도 대기중인 메일 수")
+                .register(meterRegistry);
+        Gauge.builder("mail.outbox.dead", this, outbox -> outbox.size(DEAD_STREAM_KEY))
+                .description("재시도를 모두 실패한 메일 수")
+                .register(meterRegistry);
+    }
+
+    // 메일 발송 요청, 대기열에 들어가면 바로 반환
+    public void enqueue(String to, String subject, String html) throws BaseException {
+        try {
+            OutboxMail outboxMail = OutboxMail.builder()
+                    .mailId(UUID.randomUUID().toString())
+                    .to(to)
+                    .subject(subject)
+                    .encryptedHtml(encrypt(html))
+                    .attempt(0)
+                    .build();
+            add(OUTBOX_STREAM_KEY, outboxMail);
+        } catch (Exception e) {
+            log.error("mail enqueue failed : " + e.getMessage());
+            throw new BaseException(FAIL_SEND_MAIL);
+        }
+    }
+
+    // 트랜잭션 안에서 요청된 메일은 커밋 이후에 대기열에 넣음 (롤백된 변경 내용이 메일로 나가지 않도록)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMailRequested(MailRequestedEvent mailRequestedEvent) {
+        try {
+            enqueue(mailRequestedEvent.getTo(), mailRequestedEvent.getSubject(), mailRequestedEvent.getHtml());
+        } catch (BaseException e) {
+            log.error("mail enqueue after commit failed : " + mailRequestedEvent.getTo());
+        }
+    }
+
+    void add(String streamKey, OutboxMail outboxMail) {
+        Map<String, String> mail = new HashMap<>();
+        mail.put("mailId", outboxMail.getMailId());
+        mail.put("to", outboxMail.getTo());
+        mail.put("subject", outboxMail.getSubject());
+        mail.put("encryptedHtml", outboxMail.getEncryptedHtml());
+        mail.put("attempt", String.valueOf(outboxMail.getAttempt()));
+
+        stringRedisTemplate.opsForStream().add(StreamRecords.mapBacked(mail).withStreamKey(streamKey));
+    }
+
+    // 보내지 못한 메일은 내용을 지우고 최근 deadMaxLength 개만 남김 (확인용)
+    void addDead(OutboxMail outboxMail) {
+        add(DEAD_STREAM_KEY, OutboxMail.builder()
+                .mailId(outboxMail.getMailId())
+                .to(outboxMail.getTo())
+                .subject(outboxMail.getSubject())
+                .encryptedHtml("")
+                .attempt(outboxMail.getAttempt())
+                .build());
+        stringRedisTemplate.opsForStream().trim(DEAD_STREAM_KEY, deadMaxLength);
+    }
+
+    static OutboxMail toMail(Map<Object, Object> value) {
+        return OutboxMail.builder()
+                .mailId(String.valueOf(value.get("mailId")))
+                .to(String.valueOf(value.get("to")))
+                .subject(String.valueOf(value.get("subject")))
+                .encryptedHtml(String.valueOf(value.get("encryptedHtml")))
+                .attempt(Integer.parseInt(String.valueOf(value.get("attempt"))))
+                .build();
+    }
+
+    String decrypt(String encryptedHtml) throws GeneralSecurityException {
+        byte[] payload = Base64.getDecoder().decode(encryptedHtml);
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.DECRYPT_MODE, payloadKey, new GCMParameterSpec(TAG_LENGTH_BITS, payload, 0, IV_LENGTH));
+        return new String(cipher.doFinal(payload, IV_LENGTH, payload.length - IV_LENGTH), StandardCharsets.UTF_8);
+    }
+
+    // iv(12 byte) + 암호문, base64
+    private String encrypt(String html) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_LENGTH];
+        secureRandom.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.ENCRYPT_MODE, payloadKey, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+        byte[] encrypted = cipher.doFinal(html.getBytes(StandardCharsets.UTF_8));
+
+        byte[] payload = new byte[IV_LENGTH + encrypted.length];
+        System.arraycopy(iv, 0, payload, 0, IV_LENGTH);
+        System.arraycopy(encrypted, 0, payload, IV_LENGTH, encrypted.length);
+        return Base64.getEncoder().encodeToString(payload);
+    }
+
+    private static SecretKeySpec toKey(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(hash, "AES");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double size(String streamKey) {
+        Long size = stringRedisTemplate.opsForStream().size(streamKey);
+        return size == null ? 0 : size;
+    }
+
+    private double getRetryDepth() {
+        Long size = stringRedisTemplate.opsForZSet().zCard(RETRY_QUEUE_KEY);
+        return size == null ? 0 : size;
+    }
+}
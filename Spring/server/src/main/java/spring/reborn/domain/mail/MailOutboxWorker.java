@@ -0,0 +1,319 @@
+package spring.reborn.domain.mail;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands.XClaimOptions;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import spring.reborn.domain.mail.model.OutboxMail;
+
+import javax.annotation.PreDestroy;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static spring.reborn.domain.mail.MailOutbox.*;
+
+/**
+ * 메일 발송 worker
+ * 대기열에서 메일을 묶어서 읽고, 묶음을 여러 쓰레드로 나눠 보낸다.
+ * 한 묶음은 SMTP 연결 하나로 모두 보내고, 실패한 메일만 지수 백오프로 재시도 대기열에 넣는다.
+ * 재시도를 모두 실패하면 내용을 지운 채 mail:dead stream 으로 옮긴다.
+ */
+@Slf4j
+@Component
+public class MailOutboxWorker {
+
+    private static final byte[] OUTBOX_STREAM_KEY_BYTES = OUTBOX_STREAM_KEY.getBytes(StandardCharsets.UTF_8);
+    private static final String OUTBOX_GROUP = "mail-sender";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MailOutbox mailOutbox;
+    private final JavaMailSender emailsender;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executorService;
+    private final int parallelism;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Timer sendTimer;
+
+    @Value("${mail.outbox.batch-size:50}")
+    private int maxBatchSize;
+
+    @Value("${mail.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.retry-delay:5000}")
+    private long retryDelay;
+
+    @Value("${mail.outbox.max-retry-delay:600000}")
+    private long maxRetryDelay;
+
+    // 재시도 대기열 상한, 넘치면 재시도 시각이 가장 늦은 메일부터 dead 로 옮김
+    @Value("${mail.outbox.retry-max-length:10000}")
+    private long retryMaxLength;
+
+    // 죽은 서버가 가져간 채 ack 못한 메일을 넘겨받기까지 대기 시간
+    @Value("${mail.outbox.claim-idle:60000}")
+    private long claimIdleMillis;
+
+    private final String consumerName = "sender-" + UUID.randomUUID();
+
+    public MailOutboxWorker(StringRedisTemplate stringRedisTemplate, MailOutbox mailOutbox, JavaMailSender emailsender,
+                            ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                            @Value("${mail.outbox.parallelism:2}") int parallelism) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.mailOutbox = mailOutbox;
+        this.emailsender = emailsender;
+        this.objectMapper = objectMapper;
+        this.parallelism = Math.max(1, parallelism);
+        this.executorService = Executors.newFixedThreadPool(this.parallelism);
+        this.sentCounter = Counter.builder("mail.outbox.sent")
+                .description("발송 성공한 메일 수")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.outbox.failed")
+                .description("발송 실패한 메일 수 (재시도 포함)")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("mail.outbox.send")
+                .description("묶음 하나의 SMTP 발송 시간")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdown();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createGroup() {
+        try {
+            stringRedisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands().xGroupCreate(
+                    OUTBOX_STREAM_KEY_BYTES, OUTBOX_GROUP, ReadOffset.from("0"), true));
+        } catch (Exception e) {
+            // 이미 그룹이 있는 경우 (BUSYGROUP)
+            log.info("mail outbox group : " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval:500}")
+    public void drain() {
+        StreamOperations<String, Object, Object> streamOperations = stringRedisTemplate.opsForStream();
+        Consumer consumer = Consumer.from(OUTBOX_GROUP, consumerName);
+        StreamReadOptions readOptions = StreamReadOptions.empty().count(maxBatchSize);
+
+        // 1. 보내다 멈춘 내 메일부터
+        List<MapRecord<String, Object, Object>> records = read(streamOperations, consumer, readOptions, ReadOffset.from("0"));
+
+        // 2. 다른 서버가 오래 잡고 있는 메일 넘겨받기
+        if (records == null || records.isEmpty()) {
+            records = claimIdleRecords(streamOperations);
+        }
+
+        // 3. 새 메일
+        if (records == null || records.isEmpty()) {
+            records = read(streamOperations, consumer, readOptions, ReadOffset.lastConsumed());
+        }
+
+        if (records == null || records.isEmpty()) {
+            return;
+        }
+
+        // 묶음을 쓰레드 수만큼 나눠서 발송
+        int chunkSize = (records.size() + parallelism - 1) / parallelism;
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < records.size(); from += chunkSize) {
+            List<MapRecord<String, Object, Object>> chunk = records.subList(from, Math.min(from + chunkSize, records.size()));
+            futures.add(executorService.submit(() -> send(streamOperations, chunk)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                // ack 하지 않은 메일은 다음 주기에 다시 읽음
+                log.error("mail outbox send failed : " + e.getCause().getMessage());
+            }
+        }
+    }
+
+    // 재시도 시각이 된 메일을 대기열로 되돌림
+    @Scheduled(fixedDelayString = "${mail.outbox.retry-poll-interval:1000}")
+    public void promoteRetries() {
+        ZSetOperations<String, String> zSetOperations = stringRedisTemplate.opsForZSet();
+        Set<String> dueMails = zSetOperations.rangeByScore(RETRY_QUEUE_KEY, 0, System.currentTimeMillis(), 0, maxBatchSize);
+        if (dueMails == null) {
+            return;
+        }
+        for (String dueMail : dueMails) {
+            // 여러 서버가 같은 대기열을 보더라도 제거에 성공한 서버만 처리
+            Long removed = zSetOperations.remove(RETRY_QUEUE_KEY, dueMail);
+            if (removed == null || removed != 1) {
+                continue;
+            }
+            try {
+                mailOutbox.add(OUTBOX_STREAM_KEY, objectMapper.readValue(dueMail, OutboxMail.class));
+            } catch (Exception e) {
+                log.error("mail retry promote failed : " + e.getMessage());
+                zSetOperations.add(RETRY_QUEUE_KEY, dueMail, System.currentTimeMillis() + retryDelay);
+            }
+        }
+    }
+
+    // 읽는 stream 이 하나라 varargs 배열 원소 타입이 StreamOffset<String> 으로 고정됨
+    @SuppressWarnings("unchecked")
+    private List<MapRecord<String, Object, Object>> read(StreamOperations<String, Object, Object> streamOperations,
+                                                         Consumer consumer, StreamReadOptions readOptions, ReadOffset readOffset) {
+        return streamOperations.read(consumer, readOptions, StreamOffset.create(OUTBOX_STREAM_KEY, readOffset));
+    }
+
+    private List<MapRecord<String, Object, Object>> claimIdleRecords(StreamOperations<String, Object, Object> streamOperations) {
+        PendingMessages pendingMessages = streamOperations.pending(OUTBOX_STREAM_KEY, OUTBOX_GROUP, Range.unbounded(), maxBatchSize);
+        RecordId[] idleRecordIds = pendingMessages.stream()
+                .filter(pendingMessage -> pendingMessage.getElapsedTimeSinceLastDelivery().toMillis() >= claimIdleMillis)
+                .map(PendingMessage::getId)
+                .toArray(RecordId[]::new);
+        if (idleRecordIds.length == 0) {
+            return Collections.emptyList();
+        }
+
+        // XCLAIM 은 StreamOperations 에 없으므로 connection 으로 직접 호출
+        XClaimOptions claimOptions = XClaimOptions.minIdle(Duration.ofMillis(claimIdleMillis)).ids(idleRecordIds);
+        List<ByteRecord> claimedRecords = stringRedisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xClaim(OUTBOX_STREAM_KEY_BYTES, OUTBOX_GROUP, consumerName, claimOptions));
+        if (claimedRecords == null) {
+            return Collections.emptyList();
+        }
+        List<MapRecord<String, Object, Object>> records = new ArrayList<>();
+        for (ByteRecord claimedRecord : claimedRecords) {
+            Map<Object, Object> value = new HashMap<>();
+            claimedRecord.getValue().forEach((field, fieldValue) ->
+                    value.put(new String(field, StandardCharsets.UTF_8), new String(fieldValue, StandardCharsets.UTF_8)));
+            records.add(StreamRecords.<String, Object, Object>mapBacked(value)
+                    .withStreamKey(OUTBOX_STREAM_KEY)
+                    .withId(claimedRecord.getId()));
+        }
+        return records;
+    }
+
+    private void send(StreamOperations<String, Object, Object> streamOperations, List<MapRecord<String, Object, Object>> records) {
+        Map<MimeMessage, OutboxMail> messages = new LinkedHashMap<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            OutboxMail outboxMail = toMail(record.getValue());
+            try {
+                messages.put(createMimeMessage(outboxMail), outboxMail);
+            } catch (Exception e) {
+                // 메일을 만들 수 없으면 재시도해도 같으므로 바로 dead
+                log.error("mail build failed : " + e.getMessage());
+                mailOutbox.addDead(outboxMail);
+            }
+        }
+
+        Set<Object> failedMessages = Collections.emptySet();
+        if (!messages.isEmpty()) {
+            try {
+                // JavaMailSenderImpl 은 한 번의 send 호출을 SMTP 연결 하나로 보낸다.
+                sendTimer.record(() -> emailsender.send(messages.keySet().toArray(new MimeMessage[0])));
+            } catch (MailSendException e) {
+                failedMessages = e.getFailedMessages().isEmpty()
+                        ? new HashSet<>(messages.keySet())
+                        : e.getFailedMessages().keySet();
+                log.error("mail send failed : " + e.getMessage());
+            } catch (MailException e) {
+                failedMessages = new HashSet<>(messages.keySet());
+                log.error("mail send failed : " + e.getMessage());
+            }
+        }
+
+        for (Map.Entry<MimeMessage, OutboxMail> message : messages.entrySet()) {
+            if (failedMessages.contains(message.getKey())) {
+                failedCounter.increment();
+                retry(message.getValue());
+            } else {
+                sentCounter.increment();
+            }
+        }
+
+        // 재시도, dead 로 옮긴 뒤에 ack
+        RecordId[] recordIds = records.stream()
+                .map(MapRecord::getId)
+                .toArray(RecordId[]::new);
+        streamOperations.acknowledge(OUTBOX_STREAM_KEY, OUTBOX_GROUP, recordIds);
+        streamOperations.delete(OUTBOX_STREAM_KEY, recordIds);
+    }
+
+    private void retry(OutboxMail outboxMail) {
+        OutboxMail retryMail = OutboxMail.builder()
+                .mailId(outboxMail.getMailId())
+                .to(outboxMail.getTo())
+                .subject(outboxMail.getSubject())
+                .encryptedHtml(outboxMail.getEncryptedHtml())
+                .attempt(outboxMail.getAttempt() + 1)
+                .build();
+        if (retryMail.getAttempt() >= maxAttempts) {
+            log.error("mail dead : " + retryMail.getMailId());
+            mailOutbox.addDead(retryMail);
+            return;
+        }
+
+        // retryDelay * 2^(attempt-1), 최대 maxRetryDelay
+        long delay = Math.min(maxRetryDelay, retryDelay << Math.min(retryMail.getAttempt() - 1, 20));
+        try {
+            ZSetOperations<String, String> zSetOperations = stringRedisTemplate.opsForZSet();
+            zSetOperations.add(RETRY_QUEUE_KEY, objectMapper.writeValueAsString(retryMail), System.currentTimeMillis() + delay);
+            trimRetries(zSetOperations);
+        } catch (Exception e) {
+            log.error("mail retry enqueue failed : " + e.getMessage());
+            mailOutbox.addDead(retryMail);
+        }
+    }
+
+    private void trimRetries(ZSetOperations<String, String> zSetOperations) throws Exception {
+        Long size = zSetOperations.zCard(RETRY_QUEUE_KEY);
+        if (size == null || size <= retryMaxLength) {
+            return;
+        }
+        Set<String> overflowMails = zSetOperations.range(RETRY_QUEUE_KEY, retryMaxLength, -1);
+        if (overflowMails == null) {
+            return;
+        }
+        for (String overflowMail : overflowMails) {
+            Long removed = zSetOperations.remove(RETRY_QUEUE_KEY, overflowMail);
+            if (removed != null && removed == 1) {
+                mailOutbox.addDead(objectMapper.readValue(overflowMail, OutboxMail.class));
+            }
+        }
+        log.error("mail retry queue overflow : " + overflowMails.size());
+    }
+
+    private MimeMessage createMimeMessage(OutboxMail outboxMail) throws Exception {
+        MimeMessage message = emailsender.createMimeMessage();
+        message.addRecipients(MimeMessage.RecipientType.TO, outboxMail.getTo());// 보내는 대상
+        message.setSubject(outboxMail.getSubject());// 제목
+        message.setText(mailOutbox.decrypt(outboxMail.getEncryptedHtml()), "utf-8", "html");// 내용, charset 타입, subtype
+        message.setFrom(new InternetAddress("reborn_umc@naver.com", "Reborn_Admin"));// 보내는 사람
+        return message;
+    }
+}
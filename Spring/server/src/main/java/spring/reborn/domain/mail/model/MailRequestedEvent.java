@@ -0,0 +1,13 @@
+package spring.reborn.domain.mail.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 트랜잭션 안에서 보낼 메일, 커밋된 뒤에 대기열에 넣음 (롤백되면 보내지 않음)
+@Getter
+@AllArgsConstructor
+public class MailRequestedEvent {
+    private String to;
+    private String subject;
+    private String html;
+}
@@ -0,0 +1,20 @@
+package spring.reborn.domain.mail.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// 발송 대기중인 메일 (내용은 만들어진 html 을 암호화해서 보관, dead 로 옮길 때는 비움)
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMail {
+    private String mailId;
+    private String to;
+    private String subject;
+    private String encryptedHtml;
+    // 지금까지 실패한 횟수
+    private int attempt;
+}
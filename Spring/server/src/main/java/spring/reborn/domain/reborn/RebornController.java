@@ -11,6 +11,7 @@ import spring.reborn.config.BaseException;
 import spring.reborn.config.BaseResponse;
 import spring.reborn.domain.awsS3.AwsS3Service;
 import spring.reborn.domain.reborn.model.*;
+import spring.reborn.utils.CursorPage;
 
 import java.util.List;
 import static spring.reborn.config.BaseResponseStatus.*;
@@ -90,6 +91,21 @@ public class RebornController {
         }
     }
 
+    /* 리본 조회 페이지 with 상태별, 커서 페이지 (스토어) */
+    @ResponseBody
+    @GetMapping("/store/page/{storeIdx}/cursor")
+    public BaseResponse<CursorPage<GetRebornPageRes>> getRebornsPageByCursor(@PathVariable Integer storeIdx,
+                                                                             @RequestParam(required = false) String status,
+                                                                             @RequestParam(required = false) String after,
+                                                                             @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<GetRebornPageRes> getRebornsPageRes = rebornProvider.getRebornsPageByCursor(storeIdx, status, after, size);
+            return new BaseResponse<>(getRebornsPageRes);
+        } catch (BaseException baseException) {
+            return new BaseResponse<>(baseException.getStatus());
+        }
+    }
+
     /* 진행 중인 리본 조회 (유저) */
     @ResponseBody
     @GetMapping("/inprogress/user/{userIdx}")
@@ -132,6 +148,20 @@ public class RebornController {
         }
     }
 
+    /* 리본 히스토리 조회, 커서 페이지 (유저) */
+    @ResponseBody
+    @GetMapping("/history/{userIdx}/cursor")
+    public BaseResponse<CursorPage<GetHistoryRes>> getHistoryPage(@PathVariable Integer userIdx,
+                                                                  @RequestParam(required = false) String after,
+                                                                  @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<GetHistoryRes> getHistoriesRes = rebornProvider.getHistoryPage(userIdx, after, size);
+            return new BaseResponse<>(getHistoriesRes);
+        } catch (BaseException baseException) {
+            return new BaseResponse<>(baseException.getStatus());
+        }
+    }
+
     /* 리본 히스토리 상세조회*/
     @ResponseBody
     @GetMapping("/history/detail/{rebornTaskIdx}")
@@ -7,9 +7,14 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import spring.reborn.config.BaseException;
 import spring.reborn.domain.reborn.model.*;
+import spring.reborn.utils.CursorPage;
+import spring.reborn.utils.CursorPageCollector;
+import spring.reborn.utils.KeysetCursor;
 
 import javax.sql.DataSource;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 
 import static spring.reborn.config.BaseResponseStatus.*;
@@ -87,7 +92,7 @@ public class RebornDao {
 
     public List<GetRebornPageRes> getRebornsPage(Integer storeIdx) {
         System.out.println("dao 시작");
-        String getRebornsPageQuery = "SELECT T.rebornTaskIdx, U.userNickname, R.productName, R.productImg, R.productLimitTime, R.productCnt, T.status, T.createdAt FROM RebornTask AS T LEFT OUTER JOIN Reborn AS R ON (T.rebornIdx = R.rebornIdx) LEFT OUTER JOIN User AS U ON (U.userIdx = T.userIdx) WHERE (storeIdx = ? AND T.status != 'DELETE' AND T.status != 'INACTIVE')";
+        String getRebornsPageQuery = "SELECT T.rebornTaskIdx, U.userNickname, R.productName, R.productImg, R.productLimitTime, R.productCnt, T.status, T.createdAt FROM RebornTask AS T LEFT OUTER JOIN Reborn AS R ON (T.rebornIdx = R.rebornIdx) LEFT OUTER JOIN User AS U ON (U.userIdx = T.userIdx) WHERE (R.storeIdx = ? AND T.status != 'DELETE' AND T.status != 'INACTIVE')";
         List<GetRebornPageRes> result = this.jdbcTemplate.query(
                 getRebornsPageQuery,
                 (rs, rowNum) -> new GetRebornPageRes(
@@ -107,7 +112,7 @@ public class RebornDao {
 
     public List<GetRebornPageRes> getRebornsPageByStatus(Integer storeIdx, String status) {
         System.out.println("dao 시작");
-        String getRebornsPageQuery = "SELECT T.rebornTaskIdx, U.userNickname, R.productName, R.productImg, R.productLimitTime, R.productCnt, T.status, T.createdAt FROM RebornTask AS T LEFT OUTER JOIN Reborn AS R ON (T.rebornIdx = R.rebornIdx) LEFT OUTER JOIN User AS U ON (U.userIdx = T.userIdx) WHERE (storeIdx = ? AND T.status = ?)";
+        String getRebornsPageQuery = "SELECT T.rebornTaskIdx, U.userNickname, R.productName, R.productImg, R.productLimitTime, R.productCnt, T.status, T.createdAt FROM RebornTask AS T LEFT OUTER JOIN Reborn AS R ON (T.rebornIdx = R.rebornIdx) LEFT OUTER JOIN User AS U ON (U.userIdx = T.userIdx) WHERE (R.storeIdx = ? AND T.status = ?)";
         List<GetRebornPageRes> result = this.jdbcTemplate.query(
                 getRebornsPageQuery,
                 (rs, rowNum) -> new GetRebornPageRes(
@@ -126,6 +131,55 @@ public class RebornDao {
         return result;
     }
 
+    // 리본 조회 페이지 커서 버전 (createdAt, rebornTaskIdx 최신순), status 가 비어있으면 전체
+    // RebornTask(storeIdx, createdAt, rebornTaskIdx) 인덱스 사용
+    public CursorPage<GetRebornPageRes> getRebornsPageByCursor(Integer storeIdx, String status, String after, int size) throws BaseException {
+        KeysetCursor cursor = KeysetCursor.decode(after, 2);
+        Timestamp createdAt = cursor == null ? null : new Timestamp(cursor.getLong(0));
+        Long rebornTaskIdx = cursor == null ? null : cursor.getLong(1);
+        boolean allStatus = status == null || status.isEmpty();
+        try {
+            String getRebornsPageQuery = "SELECT T.rebornTaskIdx, U.userNickname, R.productName, R.productImg, R.productLimitTime, R.productCnt, T.status, T.createdAt " +
+                    "FROM RebornTask AS T LEFT OUTER JOIN Reborn AS R ON (T.rebornIdx = R.rebornIdx) LEFT OUTER JOIN User AS U ON (U.userIdx = T.userIdx) " +
+                    "WHERE T.storeIdx = ? " +
+                    (allStatus ? "AND T.status != 'DELETE' AND T.status != 'INACTIVE' " : "AND T.status = ? ") +
+                    (cursor == null ? "" : "AND (T.createdAt < ? OR (T.createdAt = ? AND T.rebornTaskIdx < ?)) ") +
+                    "ORDER BY T.createdAt DESC, T.rebornTaskIdx DESC " +
+                    "LIMIT ?";
+
+            CursorPageCollector<GetRebornPageRes> collector = new CursorPageCollector<>(
+                    (rs, rowNum) -> new GetRebornPageRes(
+                            rs.getInt("rebornTaskIdx"),
+                            rs.getString("userNickname"),
+                            rs.getString("productName"),
+                            rs.getString("productImg"),
+                            rs.getString("productLimitTime"),
+                            rs.getInt("productCnt"),
+                            rs.getString("status"),
+                            rs.getString("createdAt")),
+                    rs -> KeysetCursor.encode(rs.getTimestamp("createdAt").getTime(), rs.getLong("rebornTaskIdx")),
+                    size);
+
+            List<Object> getRebornsPageParams = new ArrayList<>();
+            getRebornsPageParams.add(storeIdx);
+            if (!allStatus) {
+                getRebornsPageParams.add(status);
+            }
+            if (cursor != null) {
+                getRebornsPageParams.add(createdAt);
+                getRebornsPageParams.add(createdAt);
+                getRebornsPageParams.add(rebornTaskIdx);
+            }
+            getRebornsPageParams.add(collector.limit());
+
+            this.jdbcTemplate.query(getRebornsPageQuery, collector, getRebornsPageParams.toArray());
+            return collector.toPage();
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
     public List<GetInProgressRes> getInProgressReborns(Integer userIdx) {
         System.out.println("dao 시작");
         String getRebornsQuery = "SELECT T.rebornTaskIdx, T.rebornIdx, S.storeIdx, S.storeName, S.category, R.productName, R.productImg, R.productLimitTime, R.productCnt FROM Reborn AS R LEFT OUTER JOIN RebornTask AS T ON T.rebornIdx = R.rebornIdx LEFT OUTER JOIN Store AS S ON R.storeIdx = S.storeIdx WHERE (T.userIdx = ? AND T.status = 'ACTIVE')";
@@ -147,6 +201,13 @@ public class RebornDao {
         return result;
     }
 
+    // 수정 전 상품 이미지 (이미지 참조 해제용), 없는 상품이면 null
+    public String getProductImg(int rebornIdx) {
+        List<String> productImgList = this.jdbcTemplate.queryForList(
+                "SELECT productImg FROM Reborn WHERE rebornIdx = ?", String.class, rebornIdx);
+        return productImgList.isEmpty() ? null : productImgList.get(0);
+    }
+
     public int patchReborn(PatchRebornReq patchRebornReq) {
         String patchRebornQuery = "UPDATE Reborn SET productName = ?, productGuide = ?, productComment = ?, productImg = ?, productLimitTime = ?, productCnt = ? WHERE rebornIdx = ?";
         Object[] patchRebornParams = new Object[]{patchRebornReq.getProductName(), patchRebornReq.getProductGuide(), patchRebornReq.getProductComment(), patchRebornReq.getProductImg(), patchRebornReq.getProductLimitTime(), patchRebornReq.getProductCnt(), patchRebornReq.getRebornIdx()};
@@ -174,6 +235,43 @@ public class RebornDao {
         return result;
     }
 
+    // 리본 히스토리 커서 버전 (createdAt, rebornTaskIdx 최신순)
+    public CursorPage<GetHistoryRes> getHistoryPage(Integer userIdx, String after, int size) throws BaseException {
+        KeysetCursor cursor = KeysetCursor.decode(after, 2);
+        Timestamp createdAt = cursor == null ? null : new Timestamp(cursor.getLong(0));
+        Long rebornTaskIdx = cursor == null ? null : cursor.getLong(1);
+        try {
+            String getHistoriesQuery = "SELECT T.rebornTaskIdx, R.rebornIdx, S.storeName, S.storeImage, S.storeScore, S.category, T.status, T.createdAt " +
+                    "FROM RebornTask AS T JOIN Reborn AS R ON T.rebornIdx = R.rebornIdx LEFT OUTER JOIN Store AS S ON R.storeIdx = S.storeIdx " +
+                    "WHERE T.userIdx = ? AND T.status != 'INACTIVE' " +
+                    (cursor == null ? "" : "AND (T.createdAt < ? OR (T.createdAt = ? AND T.rebornTaskIdx < ?)) ") +
+                    "ORDER BY T.createdAt DESC, T.rebornTaskIdx DESC " +
+                    "LIMIT ?";
+
+            CursorPageCollector<GetHistoryRes> collector = new CursorPageCollector<>(
+                    (rs, rowNum) -> new GetHistoryRes(
+                            rs.getInt("rebornTaskIdx"),
+                            rs.getInt("rebornIdx"),
+                            rs.getString("storeName"),
+                            rs.getString("storeImage"),
+                            rs.getFloat("storeScore"),
+                            rs.getString("category"),
+                            rs.getString("status"),
+                            rs.getString("createdAt")),
+                    rs -> KeysetCursor.encode(rs.getTimestamp("createdAt").getTime(), rs.getLong("rebornTaskIdx")),
+                    size);
+            Object[] getHistoriesParams = cursor == null
+                    ? new Object[]{userIdx, collector.limit()}
+                    : new Object[]{userIdx, createdAt, createdAt, rebornTaskIdx, collector.limit()};
+
+            this.jdbcTemplate.query(getHistoriesQuery, collector, getHistoriesParams);
+            return collector.toPage();
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
     public GetHistroyDetailRes getHistoryDetail(Integer rebornTaskIdx) {
         System.out.println("dao 시작");
         String getHistoryQeury = "SELECT R.productName, R.productGuide, R.productComment, S.storeName, S.storeImage, S.storeAddress, S.category, T.productExchangeCode, T.createdAt, T.status FROM Reborn AS R LEFT OUTER JOIN RebornTask AS T ON T.rebornIdx = R.rebornIdx LEFT OUTER JOIN Store AS S ON R.storeIdx = S.storeIdx WHERE (T.rebornTaskIdx = ? AND T.status != 'DELETE')";
@@ -195,10 +293,10 @@ public class RebornDao {
     }
 
     @Transactional
+    // 완료 처리된 나눔 수, 없는 나눔이거나 이미 완료된 나눔이면 0
     public int postHistory(int rebornTaskIdx) throws BaseException {
         try {
-            this.jdbcTemplate.update("UPDATE RebornTask SET status = 'COMPLETE' WHERE rebornTaskIdx = ?", rebornTaskIdx);
-            return 1;
+            return this.jdbcTemplate.update("UPDATE RebornTask SET status = 'COMPLETE' WHERE rebornTaskIdx = ? AND status <> 'COMPLETE'", rebornTaskIdx);
         } catch (Exception exception) {
             throw new BaseException(DATABASE_ERROR);
         }
@@ -278,4 +376,26 @@ public class RebornDao {
         }
     }
 
+    // 선착순 재고 초기값, 진행중인 리본이 아니면 0
+    public int getActiveRebornProductCnt(Long rebornIdx) throws BaseException {
+        try {
+            String selectProductCntQuery = "select ifnull(max(productCnt), 0) from Reborn where rebornIdx = ? and status = 'ACTIVE'";
+            return this.jdbcTemplate.queryForObject(selectProductCntQuery, Integer.class, rebornIdx);
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
+    // 리본이 속한 스토어, 없으면 null
+    public Long getStoreIdxByRebornIdx(Long rebornIdx) throws BaseException {
+        try {
+            List<Long> storeIdxList = this.jdbcTemplate.queryForList("select storeIdx from Reborn where rebornIdx = ?", Long.class, rebornIdx);
+            return storeIdxList.isEmpty() ? null : storeIdxList.get(0);
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
 }
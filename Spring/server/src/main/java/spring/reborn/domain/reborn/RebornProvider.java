@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import spring.reborn.config.BaseException;
 import spring.reborn.domain.reborn.model.*;
+import spring.reborn.utils.CursorPage;
+import spring.reborn.utils.CursorPageCollector;
 
 import java.util.List;
 
@@ -64,6 +66,13 @@ public class RebornProvider {
         }
     }
 
+    public CursorPage<GetRebornPageRes> getRebornsPageByCursor(Integer storeIdx, String status, String after, Integer size) throws BaseException {
+        if (!(status == null || status.equals("") || status.equals("ACTIVE") || status.equals("INACTIVE") || status.equals("COMPLETE"))) {
+            throw new BaseException(GET_FAIL_REBORN);
+        }
+        return rebornDao.getRebornsPageByCursor(storeIdx, status, after, CursorPageCollector.pageSize(size));
+    }
+
     public List<GetInProgressRes> getInProgressReborns(Integer userIdx) throws BaseException {
         try {
             System.out.println("provider 시작");
@@ -86,6 +95,10 @@ public class RebornProvider {
         }
     }
 
+    public CursorPage<GetHistoryRes> getHistoryPage(Integer userIdx, String after, Integer size) throws BaseException {
+        return rebornDao.getHistoryPage(userIdx, after, CursorPageCollector.pageSize(size));
+    }
+
     public GetHistroyDetailRes getHistoryDetail(Integer rebornTaskIdx) throws BaseException {
         try {
             System.out.println("provider 시작");
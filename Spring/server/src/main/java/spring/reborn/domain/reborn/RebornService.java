@@ -3,11 +3,17 @@ package spring.reborn.domain.reborn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import spring.reborn.config.BaseException;
 import spring.reborn.config.BaseResponse;
+import spring.reborn.domain.awsS3.ImageVariantIndex;
+import spring.reborn.domain.awsS3.model.ImageReleasedEvent;
 import spring.reborn.domain.reborn.model.*;
+import spring.reborn.domain.rebornTask.RebornTaskRedisService;
+import spring.reborn.domain.rebornTask.model.RebornTaskCompletedEvent;
+import spring.reborn.domain.store.model.StoreChangedEvent;
 
 import static spring.reborn.config.BaseResponseStatus.*;
 
@@ -17,11 +23,16 @@ public class RebornService {
 
     private final RebornDao rebornDao;
     private final RebornProvider rebornProvider;
+    private final RebornTaskRedisService rebornTaskRedisService;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Autowired
-    public RebornService(RebornDao rebornDao, RebornProvider rebornProvider) {
+    public RebornService(RebornDao rebornDao, RebornProvider rebornProvider, RebornTaskRedisService rebornTaskRedisService,
+                         ApplicationEventPublisher applicationEventPublisher) {
         this.rebornDao = rebornDao;
         this.rebornProvider = rebornProvider;
+        this.rebornTaskRedisService = rebornTaskRedisService;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     @Transactional
@@ -30,6 +41,7 @@ public class RebornService {
             System.out.println("service 시작");
             int rebornIdx = rebornDao.createReborn(postRebornReq);
             System.out.println("dao 끝");
+            applicationEventPublisher.publishEvent(new StoreChangedEvent((long) postRebornReq.getStoreIdx()));
             return new PostRebornRes(rebornIdx);
         } catch (Exception e) {
             throw new BaseException(DATABASE_ERROR);
@@ -40,8 +52,16 @@ public class RebornService {
     public String patchReborn(PatchRebornReq patchRebornReq) throws BaseException {
         try {
             System.out.println("service 시작");
+            String oldProductImg = rebornDao.getProductImg(patchRebornReq.getRebornIdx());
             int v = rebornDao.patchReborn(patchRebornReq);
             System.out.println("dao 끝");
+            // 바뀐 상품 이미지는 커밋 후 참조 해제
+            if (v > 0 && oldProductImg != null && !oldProductImg.isEmpty() && !oldProductImg.equals(patchRebornReq.getProductImg())) {
+                applicationEventPublisher.publishEvent(new ImageReleasedEvent(ImageVariantIndex.toImageKey(oldProductImg)));
+            }
+            // 개수가 바뀌었을 수 있으므로 선착순 재고 초기화
+            rebornTaskRedisService.evictStock((long) patchRebornReq.getRebornIdx());
+            publishStoreChanged((long) patchRebornReq.getRebornIdx());
 //            if (v == 1)
 //                throw new BaseException(MODIFY_FAIL_REBORN);
             String result = "상품 수정 성공!";
@@ -54,11 +74,10 @@ public class RebornService {
     @Transactional
     public int postHistory(int rebornTaskIdx) throws BaseException {
         try {
-            System.out.println("service 시작");
-            if (rebornDao.postHistory(rebornTaskIdx) == 1) {
-                System.out.println("dao 끝");
+            // 실제로 완료 처리된 경우에만 추천을 다시 계산
+            if (rebornDao.postHistory(rebornTaskIdx) > 0) {
+                applicationEventPublisher.publishEvent(new RebornTaskCompletedEvent((long) rebornTaskIdx));
             }
-            ;
             return 1;
         } catch (Exception e) {
             throw new BaseException(DATABASE_ERROR);
@@ -71,6 +90,8 @@ public class RebornService {
             int v = rebornDao.deleteProduct(rebornIdx);
             if (v == 0)
                 throw new BaseException(DELETE_FAIL_REBORN);
+            rebornTaskRedisService.evictStock((long) rebornIdx);
+            publishStoreChanged((long) rebornIdx);
             String result = "상품이 삭제되었습니다!";
             return result;
         } catch (Exception exception) {
@@ -95,11 +116,22 @@ public class RebornService {
     public PatchRebornStatusRes ativeReborn(int rebornIdx) throws BaseException {
         try {
             System.out.println("service start");
-            return rebornDao.activeReborn(rebornIdx);
+            PatchRebornStatusRes patchRebornStatusRes = rebornDao.activeReborn(rebornIdx);
+            rebornTaskRedisService.evictStock((long) rebornIdx);
+            publishStoreChanged((long) rebornIdx);
+            return patchRebornStatusRes;
         } catch (BaseException exception) {
             throw new BaseException(exception.getStatus());
         } catch (Exception exception) {
             throw new BaseException(DATABASE_ERROR);
         }
     }
+
+    // 리본 상태가 바뀌면 스토어 색인(주변 스토어 등)도 갱신
+    private void publishStoreChanged(Long rebornIdx) throws BaseException {
+        Long storeIdx = rebornDao.getStoreIdxByRebornIdx(rebornIdx);
+        if (storeIdx != null) {
+            applicationEventPublisher.publishEvent(new StoreChangedEvent(storeIdx));
+        }
+    }
 }
@@ -0,0 +1,223 @@
+package spring.reborn.domain.rebornTask;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStreamCommands.XClaimOptions;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.rebornTask.model.RebornTaskClaim;
+import spring.reborn.domain.rebornTask.model.RebornTaskClaimResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 리본 신청 write-behind
+ * Redis 에서 선착순 통과한 신청을 stream 에 쌓아두고, consumer group 으로 묶어서 MySQL 에 저장한다.
+ * 저장이 끝난 뒤에만 ack 하므로 최소 한 번 처리되고, 중복 처리는 claimKey 로 걸러낸다.
+ */
+@Slf4j
+@Component
+public class RebornTaskClaimWriter {
+
+    private static final String CLAIM_STREAM_KEY = "rebornTask:claims";
+    private static final byte[] CLAIM_STREAM_KEY_BYTES = CLAIM_STREAM_KEY.getBytes(StandardCharsets.UTF_8);
+    private static final String CLAIM_GROUP = "rebornTask-writer";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RebornTaskDao rebornTaskDao;
+    private final RebornTaskExpirationScheduler rebornTaskExpirationScheduler;
+    private final RebornTaskRedisService rebornTaskRedisService;
+    private final Timer batchLatency;
+    private final DistributionSummary batchSize;
+
+    @Value("${reborn.task.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${reborn.task.write-behind.batch-size:200}")
+    private int maxBatchSize;
+
+    // 죽은 서버가 가져간 채 ack 못한 신청을 넘겨받기까지 대기 시간
+    @Value("${reborn.task.write-behind.claim-idle:30000}")
+    private long claimIdleMillis;
+
+    private final String consumerName = "writer-" + UUID.randomUUID();
+
+    public RebornTaskClaimWriter(StringRedisTemplate stringRedisTemplate, RebornTaskDao rebornTaskDao,
+                                 RebornTaskExpirationScheduler rebornTaskExpirationScheduler,
+                                 RebornTaskRedisService rebornTaskRedisService, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.rebornTaskDao = rebornTaskDao;
+        this.rebornTaskExpirationScheduler = rebornTaskExpirationScheduler;
+        this.rebornTaskRedisService = rebornTaskRedisService;
+        this.batchLatency = Timer.builder("reborn.task.write-behind.batch.latency")
+                .description("신청 묶음 저장 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("reborn.task.write-behind.batch.size")
+                .description("신청 묶음 크기")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 선착순 통과한 신청 적재
+    public void publish(RebornTaskClaim rebornTaskClaim) {
+        Map<String, String> claim = new HashMap<>();
+        claim.put("claimKey", rebornTaskClaim.getClaimKey());
+        claim.put("rebornIdx", String.valueOf(rebornTaskClaim.getRebornIdx()));
+        claim.put("userIdx", String.valueOf(rebornTaskClaim.getUserIdx()));
+        claim.put("productExchangeCode", String.valueOf(rebornTaskClaim.getProductExchangeCode()));
+
+        stringRedisTemplate.opsForStream().add(StreamRecords.mapBacked(claim).withStreamKey(CLAIM_STREAM_KEY));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createGroup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute((RedisCallback<String>) connection -> createGroup(connection));
+        } catch (Exception e) {
+            // 이미 그룹이 있는 경우 (BUSYGROUP)
+            log.info("rebornTask claim group : " + e.getMessage());
+        }
+    }
+
+    private String createGroup(RedisConnection connection) {
+        return connection.streamCommands().xGroupCreate(CLAIM_STREAM_KEY_BYTES, CLAIM_GROUP, ReadOffset.from("0"), true);
+    }
+
+    @Scheduled(fixedDelayString = "${reborn.task.write-behind.poll-interval:200}")
+    public void drain() {
+        if (!enabled) {
+            return;
+        }
+        StreamOperations<String, Object, Object> streamOperations = stringRedisTemplate.opsForStream();
+        Consumer consumer = Consumer.from(CLAIM_GROUP, consumerName);
+        StreamReadOptions readOptions = StreamReadOptions.empty().count(maxBatchSize);
+
+        // 1. 저장 실패로 ack 못한 내 신청부터 재처리
+        List<MapRecord<String, Object, Object>> records = read(streamOperations, consumer, readOptions, ReadOffset.from("0"));
+
+        // 2. 다른 서버가 오래 잡고 있는 신청 넘겨받기
+        if (records == null || records.isEmpty()) {
+            records = claimIdleRecords(streamOperations);
+        }
+
+        // 3. 새 신청
+        if (records == null || records.isEmpty()) {
+            records = read(streamOperations, consumer, readOptions, ReadOffset.lastConsumed());
+        }
+
+        if (records == null || records.isEmpty()) {
+            return;
+        }
+        write(streamOperations, records);
+    }
+
+    // 읽는 stream 이 하나라 varargs 배열 원소 타입이 StreamOffset<String> 으로 고정됨
+    @SuppressWarnings("unchecked")
+    private List<MapRecord<String, Object, Object>> read(StreamOperations<String, Object, Object> streamOperations,
+                                                         Consumer consumer, StreamReadOptions readOptions, ReadOffset readOffset) {
+        return streamOperations.read(consumer, readOptions, StreamOffset.create(CLAIM_STREAM_KEY, readOffset));
+    }
+
+    private List<MapRecord<String, Object, Object>> claimIdleRecords(StreamOperations<String, Object, Object> streamOperations) {
+        PendingMessages pendingMessages = streamOperations.pending(CLAIM_STREAM_KEY, CLAIM_GROUP, Range.unbounded(), maxBatchSize);
+        RecordId[] idleRecordIds = pendingMessages.stream()
+                .filter(pendingMessage -> pendingMessage.getElapsedTimeSinceLastDelivery().toMillis() >= claimIdleMillis)
+                .map(PendingMessage::getId)
+                .toArray(RecordId[]::new);
+        if (idleRecordIds.length == 0) {
+            return Collections.emptyList();
+        }
+
+        // XCLAIM 은 StreamOperations 에 없으므로 connection 으로 직접 호출
+        XClaimOptions claimOptions = XClaimOptions.minIdle(Duration.ofMillis(claimIdleMillis)).ids(idleRecordIds);
+        List<ByteRecord> claimedRecords = stringRedisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xClaim(CLAIM_STREAM_KEY_BYTES, CLAIM_GROUP, consumerName, claimOptions));
+        if (claimedRecords == null) {
+            return Collections.emptyList();
+        }
+        return claimedRecords.stream()
+                .map(this::toMapRecord)
+                .collect(Collectors.toList());
+    }
+
+    private MapRecord<String, Object, Object> toMapRecord(ByteRecord byteRecord) {
+        Map<Object, Object> value = new HashMap<>();
+        byteRecord.getValue().forEach((field, fieldValue) ->
+                value.put(new String(field, StandardCharsets.UTF_8), new String(fieldValue, StandardCharsets.UTF_8)));
+        return StreamRecords.<String, Object, Object>mapBacked(value)
+                .withStreamKey(CLAIM_STREAM_KEY)
+                .withId(byteRecord.getId());
+    }
+
+    private void write(StreamOperations<String, Object, Object> streamOperations, List<MapRecord<String, Object, Object>> records) {
+        List<RebornTaskClaim> rebornTaskClaims = records.stream()
+                .map(record -> toClaim(record.getValue()))
+                .collect(Collectors.toList());
+        RecordId[] recordIds = records.stream()
+                .map(MapRecord::getId)
+                .toArray(RecordId[]::new);
+
+        Timer.Sample sample = Timer.start();
+        try {
+            RebornTaskClaimResult result = rebornTaskDao.createRebornTasks(rebornTaskClaims);
+
+            // 커밋된 뒤에만 ack
+            result.getDeadlines().forEach(deadline -> rebornTaskExpirationScheduler.schedule(deadline.getRebornTaskIdx(), deadline.getExpiredAt()));
+            streamOperations.acknowledge(CLAIM_STREAM_KEY, CLAIM_GROUP, recordIds);
+            streamOperations.delete(CLAIM_STREAM_KEY, recordIds);
+
+            // ack 한 뒤에 저장 대기 신청 수를 줄임 (중간에 실패하면 재고가 적게 보이는 쪽으로 남음)
+            Set<String> rejectedClaimKeys = new HashSet<>();
+            for (RebornTaskClaim rejectedClaim : result.getRejectedClaims()) {
+                rejectedClaimKeys.add(rejectedClaim.getClaimKey());
+                rebornTaskRedisService.reject(rejectedClaim.getRebornIdx(), rejectedClaim.getUserIdx(), rejectedClaim.getClaimKey());
+            }
+            rebornTaskClaims.stream()
+                    .filter(claim -> !rejectedClaimKeys.contains(claim.getClaimKey()))
+                    .collect(Collectors.groupingBy(RebornTaskClaim::getRebornIdx, Collectors.counting()))
+                    .forEach(rebornTaskRedisService::settle);
+            if (!rejectedClaimKeys.isEmpty()) {
+                log.warn("rebornTask claims rejected (sold out) : " + rejectedClaimKeys.size());
+            }
+
+            batchSize.record(rebornTaskClaims.size());
+        } catch (BaseException e) {
+            // ack 하지 않았으므로 다음 주기에 재처리
+            log.error(e.getStatus().getMessage() + " : " + rebornTaskClaims.size());
+        } finally {
+            sample.stop(batchLatency);
+        }
+    }
+
+    private RebornTaskClaim toClaim(Map<Object, Object> value) {
+        return RebornTaskClaim.builder()
+                .claimKey(String.valueOf(value.get("claimKey")))
+                .rebornIdx(Long.valueOf(String.valueOf(value.get("rebornIdx"))))
+                .userIdx(Long.valueOf(String.valueOf(value.get("userIdx"))))
+                .productExchangeCode(Long.valueOf(String.valueOf(value.get("productExchangeCode"))))
+                .build();
+    }
+}
@@ -2,8 +2,6 @@ package spring.reborn.domain.rebornTask;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.*;
 import org.springframework.web.bind.annotation.*;
 import spring.reborn.config.BaseException;
 import spring.reborn.config.BaseResponse;
@@ -19,12 +17,7 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class RebornTaskController {
 
-    @Autowired
-    private final RedisTemplate<Object,Object> redisTemplate;
-
-
     private final RebornTaskService rebornTaskService;
-    private final RebornTaskRedisService rebornTaskRedisService;
     private final JwtService jwtService;
 
 
@@ -39,10 +32,30 @@ public class RebornTaskController {
         }
     }
 
+    // write-behind 모드에서 신청이 저장되었는지 확인
+    @GetMapping("/claims/{claimKey}")
+    public BaseResponse<PostRebornTaskRes> getRebornTaskClaim(@PathVariable String claimKey) {
+        try {
+            Long userIdx = (long) jwtService.getUserIdx();
+            PostRebornTaskRes postRebornTaskRes = rebornTaskService.getRebornTaskClaim(claimKey, userIdx);
+            return new BaseResponse<>(postRebornTaskRes);
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+            return new BaseResponse<>(e.getStatus());
+        }
+    }
+
     @PostMapping("/redis")
     public BaseResponse<String> createRebornTask2(@RequestBody PostRebornTaskReq postRebornTaskReq) {
+        // 선착순 신청은 POST /reborn-task 와 같은 경로(Redis 예약 후 MySQL 저장)로 처리
         String result = "";
-        result = rebornTaskRedisService.addQueue(postRebornTaskReq.getRebornIdx(), postRebornTaskReq.getUserIdx());
+        try {
+            rebornTaskService.createRebornTask(postRebornTaskReq);
+            result = "선착순 나눔에 성공하였습니다";
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+            result = "선착순 나눔에 실패하였습니다";
+        }
         return new BaseResponse<>(result);
     }
 
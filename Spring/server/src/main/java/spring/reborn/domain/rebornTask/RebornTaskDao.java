@@ -4,16 +4,24 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import spring.reborn.config.BaseException;
 import spring.reborn.domain.reborn.RebornDao;
 import spring.reborn.domain.rebornTask.model.*;
+import spring.reborn.domain.store.StoreStatsDao;
 import spring.reborn.domain.user.UserDao;
 
 import javax.sql.DataSource;
-import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 import static spring.reborn.config.BaseResponseStatus.*;
 
@@ -30,6 +38,7 @@ public class RebornTaskDao {
 
     private final RebornDao rebornDao;
     private final UserDao userDao;
+    private final StoreStatsDao storeStatsDao;
 
 
     @Transactional
@@ -37,12 +46,11 @@ public class RebornTaskDao {
         try {
 
             // 가능하다면 리본 태스크 생성
-            String createRebornTaskQuery = "insert into RebornTask (userIdx, rebornIdx, productExchangeCode) select ?,?,? from dual where exists(select * from Reborn where rebornIdx= ? and productCnt > 0 and status='ACTIVE')";
+            String createRebornTaskQuery = "insert into RebornTask (userIdx, rebornIdx, storeIdx, productExchangeCode) select ?, rebornIdx, storeIdx, ? from Reborn where rebornIdx= ? and productCnt > 0 and status='ACTIVE'";
 
             // 리본 생성 및 6자리 랜덤 값
             Object[] createRebornTaskParams = new Object[]{
                     postRebornTaskReq.getUserIdx(),
-                    postRebornTaskReq.getRebornIdx(),
                     (int) (Math.random() * 89999 + 10000),
                     postRebornTaskReq.getRebornIdx()
             };
@@ -81,7 +89,7 @@ public class RebornTaskDao {
             // todo 시간고려는 프론트가 처리해서 만료된 api 따로처리
 
             // 가능한 상태인지 -> 교환 코드 확인
-            String selectRebornTaskQuery = "select rebornTaskIdx, rt.rebornIdx rebornIdx, productExchangeCode, rt.status status, productCnt " +
+            String selectRebornTaskQuery = "select rebornTaskIdx, rt.rebornIdx rebornIdx, rt.userIdx userIdx, productExchangeCode, rt.status status, productCnt " +
                     "from RebornTask rt join Reborn r on rt.rebornIdx = r.rebornIdx " +
                     "where rebornTaskIdx = ?";
 
@@ -89,6 +97,7 @@ public class RebornTaskDao {
                     (rs, rowNum) -> PatchRebornTaskForExchange.builder()
                             .rebornTaskIdx(rs.getLong("rebornTaskIdx"))
                             .rebornIdx(rs.getLong("rebornIdx"))
+                            .userIdx(rs.getLong("userIdx"))
                             .productExchangeCode(rs.getLong("productExchangeCode"))
                             .status(rs.getString("status"))
                             .productCnt(rs.getLong("productCnt"))
@@ -121,8 +130,15 @@ public class RebornTaskDao {
             // 2. reborn 개수 감소
             rebornDao.decreaseRebornProductCnt(rebornTask.getRebornIdx());
 
+            // 3. 스토어 리본 완료 개수 증가
+            storeStatsDao.increaseRebornCnt(rebornTask.getRebornIdx());
 
-            return PatchRebornTaskRes.builder().rebornTaskIdx(rebornTaskIdx).build();
+
+            return PatchRebornTaskRes.builder()
+                    .rebornTaskIdx(rebornTaskIdx)
+                    .rebornIdx(rebornTask.getRebornIdx())
+                    .userIdx(rebornTask.getUserIdx())
+                    .build();
         } catch (BaseException e) {
             log.error(e.getStatus().getMessage());
             throw new BaseException(e.getStatus());
@@ -151,66 +167,233 @@ public class RebornTaskDao {
 
 
 
-    @Transactional
-    public void expiredRebornTask(Long rebornTaskIdx, Time productLimitTime) throws BaseException {
-        log.info("check Expired");
-        log.info(productLimitTime.toString());
+    @Transactional(rollbackFor = Exception.class)
+    public List<RebornTask> expiredRebornTask(List<Long> rebornTaskIdxList) throws BaseException {
+        if (rebornTaskIdxList.isEmpty()) {
+            return Collections.emptyList();
+        }
         try {
-            String selectRebornTaskQuery = "select now() >= addtime(createdAt,?) " +
-                    "from RebornTask " +
-                    "where rebornTaskIdx = ?";
-            Boolean isExpired = this.jdbcTemplate.queryForObject(selectRebornTaskQuery,
-                    Boolean.class,
-                    productLimitTime.toString(), rebornTaskIdx);
+            String inClause = String.join(",", Collections.nCopies(rebornTaskIdxList.size(), "?"));
 
-            if (isExpired == null) {
-                throw new BaseException(CAN_NOT_CHECK_EXPIRING_REBORN_TASK);
-            }
-
-            log.info("isExpired : " + isExpired);
-            if (isExpired) {
-                String updateRebornTaskQuery =
-                        "update RebornTask set status = 'EXPIRED', updatedAt = now() where rebornTaskIdx = ? and status = 'ACTIVE'";
+            // 만료 시간이 지난 ACTIVE 태스크만 잠금 후 조회
+            String selectExpiredRebornTaskQuery = "select rt.rebornTaskIdx, rt.rebornIdx, rt.userIdx " +
+                    "from RebornTask rt join Reborn r on rt.rebornIdx = r.rebornIdx " +
+                    "where rt.rebornTaskIdx in (" + inClause + ") and rt.status = 'ACTIVE' " +
+                    "and now() >= addtime(rt.createdAt, r.productLimitTime) " +
+                    "for update";
 
-                if (this.jdbcTemplate.update(updateRebornTaskQuery, rebornTaskIdx) == 0) {
-                    throw new BaseException(FAIL_EXPIRING_REBORN_TASK);
-                }
+            List<RebornTask> expiredRebornTasks = this.jdbcTemplate.query(selectExpiredRebornTaskQuery,
+                    (rs, rowNum) -> RebornTask.builder()
+                            .rebornTaskIdx(rs.getLong("rebornTaskIdx"))
+                            .rebornIdx(rs.getLong("rebornIdx"))
+                            .userIdx(rs.getLong("userIdx"))
+                            .build(),
+                    rebornTaskIdxList.toArray());
 
+            if (expiredRebornTasks.isEmpty()) {
+                return expiredRebornTasks;
             }
-            // 만료시 리본 1개 복구
-            String updateRebornQuery = "update Reborn set productCnt = productCnt+1 where rebornIdx = (select rebornIdx from RebornTask where rebornTaskIdx=?)";
-            if (this.jdbcTemplate.update(updateRebornQuery, rebornTaskIdx) == 0) {
-                throw new BaseException(UPDATE_FAIL_REBORN);
+
+            List<Long> expiredRebornTaskIdxList = expiredRebornTasks.stream()
+                    .map(RebornTask::getRebornTaskIdx)
+                    .collect(Collectors.toList());
+            String updateRebornTaskQuery = "update RebornTask set status = 'EXPIRED', updatedAt = now() " +
+                    "where rebornTaskIdx in (" + String.join(",", Collections.nCopies(expiredRebornTaskIdxList.size(), "?")) + ") and status = 'ACTIVE'";
+
+            if (this.jdbcTemplate.update(updateRebornTaskQuery, expiredRebornTaskIdxList.toArray()) != expiredRebornTaskIdxList.size()) {
+                throw new BaseException(FAIL_EXPIRING_REBORN_TASK);
             }
 
+            // 만료시 리본 개수 복구 (리본별로 한 번에)
+            Map<Long, Long> restoreCntByRebornIdx = expiredRebornTasks.stream()
+                    .collect(Collectors.groupingBy(RebornTask::getRebornIdx, Collectors.counting()));
+            List<Object[]> restoreParams = restoreCntByRebornIdx.entrySet().stream()
+                    .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                    .collect(Collectors.toList());
+
+            String updateRebornQuery = "update Reborn set productCnt = productCnt + ? where rebornIdx = ?";
+            this.jdbcTemplate.batchUpdate(updateRebornQuery, restoreParams);
+
+            log.info("expired rebornTask : " + expiredRebornTaskIdxList);
+            return expiredRebornTasks;
+
         } catch (BaseException e) {
-            e.printStackTrace();
             log.error(e.getStatus().getMessage());
             throw new BaseException(e.getStatus());
         } catch (Exception e) {
             log.error(e.getMessage());
-            e.printStackTrace();
             throw new BaseException(DATABASE_ERROR);
         }
-
-
     }
 
-    public Time getRebornProductLimitTime(Long rebornTaskIdx) throws BaseException {
+    public Timestamp getRebornTaskExpiredAt(Long rebornTaskIdx) throws BaseException {
         try {
-            String selectProductLimitTime = "select productLimitTime " +
+            String selectExpiredAtQuery = "select addtime(rt.createdAt, r.productLimitTime) expiredAt " +
                     "from RebornTask rt join Reborn r on rt.rebornIdx = r.rebornIdx " +
                     "where rt.rebornTaskIdx = ?";
 
-            Time productLimitTime = this.jdbcTemplate.queryForObject(selectProductLimitTime,
-                    Time.class,
+            return this.jdbcTemplate.queryForObject(selectExpiredAtQuery,
+                    Timestamp.class,
                     rebornTaskIdx);
 
-            return productLimitTime;
-
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error(e.getMessage());
             throw new BaseException(CAN_NOT_FOUND_REBORN_TASK);
         }
     }
+
+    // 서버 재시작시 만료 대기열 복구용
+    public List<RebornTaskDeadline> getActiveRebornTaskDeadlines() throws BaseException {
+        try {
+            String selectDeadlineQuery = "select rt.rebornTaskIdx, addtime(rt.createdAt, r.productLimitTime) expiredAt " +
+                    "from RebornTask rt join Reborn r on rt.rebornIdx = r.rebornIdx " +
+                    "where rt.status = 'ACTIVE'";
+
+            return this.jdbcTemplate.query(selectDeadlineQuery,
+                    (rs, rowNum) -> new RebornTaskDeadline(
+                            rs.getLong("rebornTaskIdx"),
+                            rs.getTimestamp("expiredAt").getTime()));
+
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
+    public List<RebornTaskDeadline> getActiveRebornTaskDeadlines(List<Long> rebornTaskIdxList) throws BaseException {
+        if (rebornTaskIdxList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            String selectDeadlineQuery = "select rt.rebornTaskIdx, addtime(rt.createdAt, r.productLimitTime) expiredAt " +
+                    "from RebornTask rt join Reborn r on rt.rebornIdx = r.rebornIdx " +
+                    "where rt.rebornTaskIdx in (" + String.join(",", Collections.nCopies(rebornTaskIdxList.size(), "?")) + ") " +
+                    "and rt.status = 'ACTIVE'";
+
+            return this.jdbcTemplate.query(selectDeadlineQuery,
+                    (rs, rowNum) -> new RebornTaskDeadline(
+                            rs.getLong("rebornTaskIdx"),
+                            rs.getTimestamp("expiredAt").getTime()),
+                    rebornTaskIdxList.toArray());
+
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
+    // 만료 시각이 지났는데 아직 ACTIVE 인 태스크 (만료 대기열 보완용)
+    public List<RebornTaskDeadline> getOverdueRebornTaskDeadlines(int limit) throws BaseException {
+        try {
+            String selectDeadlineQuery = "select rt.rebornTaskIdx, addtime(rt.createdAt, r.productLimitTime) expiredAt " +
+                    "from RebornTask rt join Reborn r on rt.rebornIdx = r.rebornIdx " +
+                    "where rt.status = 'ACTIVE' and now() >= addtime(rt.createdAt, r.productLimitTime) " +
+                    "limit ?";
+
+            return this.jdbcTemplate.query(selectDeadlineQuery,
+                    (rs, rowNum) -> new RebornTaskDeadline(
+                            rs.getLong("rebornTaskIdx"),
+                            rs.getTimestamp("expiredAt").getTime()),
+                    limit);
+
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
+    // write-behind 묶음 저장
+    @Transactional(rollbackFor = Exception.class)
+    public RebornTaskClaimResult createRebornTasks(List<RebornTaskClaim> rebornTaskClaims) throws BaseException {
+        if (rebornTaskClaims.isEmpty()) {
+            return new RebornTaskClaimResult(Collections.emptyList(), Collections.emptyList());
+        }
+        try {
+            // 신청 순서를 유지한 채 리본별로 묶음, 잠금 순서를 맞추려고 리본 번호 순으로 처리
+            Map<Long, List<RebornTaskClaim>> claimsByRebornIdx = rebornTaskClaims.stream()
+                    .collect(Collectors.groupingBy(RebornTaskClaim::getRebornIdx, TreeMap::new, Collectors.toList()));
+
+            List<RebornTaskClaim> newClaims = new ArrayList<>();
+            List<RebornTaskClaim> rejectedClaims = new ArrayList<>();
+            for (Map.Entry<Long, List<RebornTaskClaim>> entry : claimsByRebornIdx.entrySet()) {
+                newClaims.addAll(createRebornTasksOfReborn(entry.getKey(), entry.getValue(), rejectedClaims));
+            }
+            if (newClaims.isEmpty()) {
+                return new RebornTaskClaimResult(Collections.emptyList(), rejectedClaims);
+            }
+
+            // 만료 대기열 등록용
+            String selectDeadlineQuery = "select rt.rebornTaskIdx, addtime(rt.createdAt, r.productLimitTime) expiredAt " +
+                    "from RebornTask rt join Reborn r on rt.rebornIdx = r.rebornIdx " +
+                    "where rt.claimKey in (" + String.join(",", Collections.nCopies(newClaims.size(), "?")) + ")";
+
+            List<RebornTaskDeadline> deadlines = this.jdbcTemplate.query(selectDeadlineQuery,
+                    (rs, rowNum) -> new RebornTaskDeadline(
+                            rs.getLong("rebornTaskIdx"),
+                            rs.getTimestamp("expiredAt").getTime()),
+                    newClaims.stream().map(RebornTaskClaim::getClaimKey).toArray());
+            return new RebornTaskClaimResult(deadlines, rejectedClaims);
+
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(CAN_NOT_CREATE_REBORN_TASK);
+        }
+    }
+
+    // 리본 하나의 신청 저장, 재고가 모자라면 남은 만큼만 먼저 신청한 순서대로 받음
+    // 리본 행을 잠근 채로 저장 여부 확인 -> insert -> 실제 저장된 수만큼 재고 감소 (다른 consumer 가 같은 claim 을 재처리해도 한 번만 반영)
+    private List<RebornTaskClaim> createRebornTasksOfReborn(Long rebornIdx, List<RebornTaskClaim> claims,
+                                                           List<RebornTaskClaim> rejectedClaims) {
+        List<Integer> productCntList = this.jdbcTemplate.queryForList(
+                "select productCnt from Reborn where rebornIdx = ? for update", Integer.class, rebornIdx);
+        int productCnt = productCntList.isEmpty() ? 0 : Math.max(0, productCntList.get(0));
+
+        // 재전송된 claim 은 이미 저장되어 있으므로 제외 (잠금 읽기로 다른 트랜잭션이 커밋한 claim 까지 확인)
+        String selectSavedClaimKeyQuery = "select claimKey from RebornTask " +
+                "where claimKey in (" + String.join(",", Collections.nCopies(claims.size(), "?")) + ") lock in share mode";
+        Set<String> savedClaimKeys = new HashSet<>(this.jdbcTemplate.queryForList(selectSavedClaimKeyQuery, String.class,
+                claims.stream().map(RebornTaskClaim::getClaimKey).toArray()));
+        List<RebornTaskClaim> unsavedClaims = claims.stream()
+                .filter(claim -> !savedClaimKeys.contains(claim.getClaimKey()))
+                .collect(Collectors.toList());
+
+        int acceptedCnt = Math.min(productCnt, unsavedClaims.size());
+        rejectedClaims.addAll(unsavedClaims.subList(acceptedCnt, unsavedClaims.size()));
+        List<RebornTaskClaim> acceptedClaims = unsavedClaims.subList(0, acceptedCnt);
+        if (acceptedClaims.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 여러 건을 한 번의 insert 로 저장
+        String createRebornTasksQuery = "insert ignore into RebornTask (userIdx, rebornIdx, storeIdx, productExchangeCode, claimKey) values " +
+                String.join(",", Collections.nCopies(acceptedClaims.size(), "(?,?,(select storeIdx from Reborn where rebornIdx = ?),?,?)"));
+        List<Object> createRebornTasksParams = new ArrayList<>();
+        for (RebornTaskClaim claim : acceptedClaims) {
+            createRebornTasksParams.add(claim.getUserIdx());
+            createRebornTasksParams.add(claim.getRebornIdx());
+            createRebornTasksParams.add(claim.getRebornIdx());
+            createRebornTasksParams.add(claim.getProductExchangeCode());
+            createRebornTasksParams.add(claim.getClaimKey());
+        }
+        int insertedCnt = this.jdbcTemplate.update(createRebornTasksQuery, createRebornTasksParams.toArray());
+
+        // 실제로 저장된 수만큼만 감소
+        if (insertedCnt > 0) {
+            this.jdbcTemplate.update("update Reborn set productCnt = productCnt - ? where rebornIdx = ?", insertedCnt, rebornIdx);
+        }
+        return acceptedClaims;
+    }
+
+    public Long getRebornTaskIdxByClaimKey(String claimKey, Long userIdx) throws BaseException {
+        try {
+            String selectRebornTaskIdxQuery = "select rebornTaskIdx from RebornTask where claimKey = ? and userIdx = ?";
+            List<Long> rebornTaskIdxList = this.jdbcTemplate.queryForList(selectRebornTaskIdxQuery, Long.class, claimKey, userIdx);
+
+            // 아직 저장 전이면 null
+            return rebornTaskIdxList.isEmpty() ? null : rebornTaskIdxList.get(0);
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
 }
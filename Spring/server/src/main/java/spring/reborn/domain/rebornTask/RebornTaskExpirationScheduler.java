@@ -0,0 +1,164 @@
+package spring.reborn.domain.rebornTask;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.rebornTask.model.RebornTask;
+import spring.reborn.domain.rebornTask.model.RebornTaskDeadline;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 리본 태스크 만료 스케줄러
+ * 태스크마다 쓰레드를 재우는 대신, 만료 시각을 score 로 하는 Redis sorted set 에 모아두고
+ * 주기적으로 만료 시각이 지난 태스크를 묶어서 만료 처리한다.
+ * 대기열에서는 만료가 커밋된 뒤에만 제거하고, 처리 중에는 score 를 재시도 시각으로 미뤄둔다.
+ * 등록에 실패한 태스크는 MySQL 의 만료 지난 ACTIVE 태스크를 주기적으로 다시 등록해서 보완한다.
+ */
+@Slf4j
+@Component
+public class RebornTaskExpirationScheduler {
+
+    private static final String EXPIRE_QUEUE_KEY = "rebornTask:expire";
+
+    // 만료 시각이 지난 태스크를 가져가면서 score 를 재시도 시각으로 미룸 (여러 서버가 같은 태스크를 가져가지 않도록)
+    // 처리 도중 서버가 죽어도 재시도 시각이 지나면 다시 처리됨
+    // KEYS[1] : 만료 대기열, ARGV[1] : 현재 시각, ARGV[2] : 재시도 시각, ARGV[3] : 최대 개수
+    private static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[3]) " +
+            "for i, rebornTaskIdx in ipairs(due) do redis.call('ZADD', KEYS[1], ARGV[2], rebornTaskIdx) end " +
+            "return due",
+            List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RebornTaskDao rebornTaskDao;
+    private final RebornTaskRedisService rebornTaskRedisService;
+
+    @Value("${reborn.task.expire.batch-size:100}")
+    private int batchSize;
+
+    @Value("${reborn.task.expire.retry-delay:5000}")
+    private long retryDelay;
+
+    public RebornTaskExpirationScheduler(StringRedisTemplate stringRedisTemplate, RebornTaskDao rebornTaskDao,
+                                         RebornTaskRedisService rebornTaskRedisService, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.rebornTaskDao = rebornTaskDao;
+        this.rebornTaskRedisService = rebornTaskRedisService;
+
+        Gauge.builder("reborn.task.expire.queue.depth", this, RebornTaskExpirationScheduler::getQueueDepth)
+                .description("만료 대기중인 리본 태스크 수")
+                .register(meterRegistry);
+        Gauge.builder("reborn.task.expire.lag", this, RebornTaskExpirationScheduler::getLagMillis)
+                .description("가장 오래 밀린 만료 태스크의 지연 시간(ms)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    // 만료 대기열 등록
+    public void schedule(Long rebornTaskIdx, long expiredAt) {
+        stringRedisTemplate.opsForZSet().add(EXPIRE_QUEUE_KEY, String.valueOf(rebornTaskIdx), expiredAt);
+    }
+
+    // 대기열 등록에 실패했거나 대기열이 유실된 태스크 보완, 처리 중인 태스크의 재시도 시각은 건드리지 않음
+    @Scheduled(fixedDelayString = "${reborn.task.expire.sweep-interval:60000}")
+    public void sweepOverdueTasks() {
+        try {
+            List<RebornTaskDeadline> deadlines = rebornTaskDao.getOverdueRebornTaskDeadlines(batchSize);
+            ZSetOperations<String, String> zSetOperations = stringRedisTemplate.opsForZSet();
+            deadlines.forEach(deadline ->
+                    zSetOperations.addIfAbsent(EXPIRE_QUEUE_KEY, String.valueOf(deadline.getRebornTaskIdx()), deadline.getExpiredAt()));
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        }
+    }
+
+    // 서버 시작시 MySQL 의 ACTIVE 태스크로 대기열 복구
+    @EventListener(ApplicationReadyEvent.class)
+    public void rehydrate() {
+        try {
+            List<RebornTaskDeadline> deadlines = rebornTaskDao.getActiveRebornTaskDeadlines();
+            deadlines.forEach(deadline -> schedule(deadline.getRebornTaskIdx(), deadline.getExpiredAt()));
+            log.info("rehydrate rebornTask expire queue : " + deadlines.size());
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reborn.task.expire.poll-interval:1000}")
+    public void expireDueTasks() {
+        long now = System.currentTimeMillis();
+        List<String> claimedTasks = stringRedisTemplate.execute(CLAIM_SCRIPT, Collections.singletonList(EXPIRE_QUEUE_KEY),
+                String.valueOf(now), String.valueOf(now + retryDelay), String.valueOf(batchSize));
+        if (claimedTasks == null || claimedTasks.isEmpty()) {
+            return;
+        }
+        List<Long> claimedTaskIdxList = claimedTasks.stream()
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
+
+        try {
+            // 실패하면 대기열에 재시도 시각으로 남아있으므로 그대로 둠
+            List<RebornTask> expiredRebornTasks = rebornTaskDao.expiredRebornTask(claimedTaskIdxList);
+
+            // 만료된 신청은 선착순 재고에도 반영
+            expiredRebornTasks.forEach(rebornTask ->
+                    rebornTaskRedisService.release(rebornTask.getRebornIdx(), rebornTask.getUserIdx()));
+
+            // DB 시계 기준으로 아직 만료되지 않은 ACTIVE 태스크는 원래 만료 시각으로 다시 등록
+            Set<Long> expiredTaskIdxSet = expiredRebornTasks.stream()
+                    .map(RebornTask::getRebornTaskIdx)
+                    .collect(Collectors.toSet());
+            List<Long> remainingTaskIdxList = claimedTaskIdxList.stream()
+                    .filter(rebornTaskIdx -> !expiredTaskIdxSet.contains(rebornTaskIdx))
+                    .collect(Collectors.toList());
+            List<RebornTaskDeadline> remainingDeadlines = rebornTaskDao.getActiveRebornTaskDeadlines(remainingTaskIdxList);
+            remainingDeadlines.forEach(deadline -> schedule(deadline.getRebornTaskIdx(), deadline.getExpiredAt()));
+
+            // 만료가 커밋된 태스크와 이미 교환/만료된 태스크만 대기열에서 제거
+            Set<Long> remainingTaskIdxSet = remainingDeadlines.stream()
+                    .map(RebornTaskDeadline::getRebornTaskIdx)
+                    .collect(Collectors.toSet());
+            Object[] doneTasks = claimedTaskIdxList.stream()
+                    .filter(rebornTaskIdx -> !remainingTaskIdxSet.contains(rebornTaskIdx))
+                    .map(String::valueOf)
+                    .toArray();
+            if (doneTasks.length > 0) {
+                stringRedisTemplate.opsForZSet().remove(EXPIRE_QUEUE_KEY, doneTasks);
+            }
+
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        }
+    }
+
+    public double getQueueDepth() {
+        Long size = stringRedisTemplate.opsForZSet().zCard(EXPIRE_QUEUE_KEY);
+        return size == null ? 0 : size;
+    }
+
+    public double getLagMillis() {
+        Set<ZSetOperations.TypedTuple<String>> oldest = stringRedisTemplate.opsForZSet().rangeWithScores(EXPIRE_QUEUE_KEY, 0, 0);
+        if (oldest == null || oldest.isEmpty()) {
+            return 0;
+        }
+        Double expiredAt = oldest.iterator().next().getScore();
+        if (expiredAt == null) {
+            return 0;
+        }
+        return Math.max(0, System.currentTimeMillis() - expiredAt);
+    }
+}
@@ -1,98 +1,186 @@
 package spring.reborn.domain.rebornTask;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.SetOperations;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 import spring.reborn.config.BaseException;
-import spring.reborn.config.RedisConfig;
-import spring.reborn.domain.rebornTask.model.PostRebornTaskReq;
-import spring.reborn.domain.rebornTask.model.PostRebornTaskRes;
-import spring.reborn.domain.rebornTask.model.RebornTask;
-//import spring.reborn.domain.redis.model.Event;
-//import spring.reborn.domain.redis.model.EventCount;
+import spring.reborn.domain.reborn.RebornDao;
 
-import java.util.Set;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
+import static spring.reborn.config.BaseResponseStatus.*;
+
+/**
+ * 선착순 리본 신청 (Redis)
+ * 재고 확인, 중복 신청 확인, 재고 감소, 신청 기록을 Lua 스크립트 하나로 처리해서
+ * 한 번의 왕복으로 원자적으로 순번을 발급한다.
+ * 통과했지만 아직 MySQL productCnt 에 반영되지 않은 신청 수를 함께 세어두고,
+ * 재고를 MySQL 에서 다시 채울 때는 그만큼 빼서 같은 재고가 두 번 팔리지 않게 한다.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RebornTaskRedisService {
 
-    @Autowired
-    private final RedisTemplate<Object,Object> redisTemplate;
-    private static final long FIRST_ELEMENT = 0;
-    private static final long LAST_ELEMENT = -1;
-    private static final long PUBLISH_SIZE = 10;
-//    private static final long LAST_INDEX = 1;
-//    private EventCount eventCount;
-//    private RebornTaskService rebornTaskService;
-//
-//    public void setEventCount(int rebornIdx, int queue){
-//        this.eventCount = new EventCount(
-//                "rebornIdx:"+rebornIdx, queue);
-//    }
-//
-    // redis 값 추가
-    public String addQueue(Long rebornIdx, Long userIdx){
-        SetOperations<Object, Object> stringStringSetOperations
-                = redisTemplate.opsForSet();
-        String key = "rId_" + rebornIdx;
+    private static final long ALREADY_RESERVED = -1;
+    private static final long SOLD_OUT = -2;
+    private static final long STOCK_NOT_LOADED = -3;
+
+    // MySQL 재고가 모자라 저장하지 못한 신청 (claimKey), 신청 결과 조회용
+    private static final Duration REJECTED_CLAIM_TTL = Duration.ofDays(1);
+
+    // KEYS[1] : 잔여 재고, KEYS[2] : 신청한 유저 set, KEYS[3] : 순번, KEYS[4] : 저장 대기 신청 수
+    // ARGV[1] : userIdx, ARGV[2] : 리본 key 유지 시간(ms)
+    private static final RedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('SISMEMBER', KEYS[2], ARGV[1]) == 1 then return -1 end " +
+            "local stock = redis.call('GET', KEYS[1]) " +
+            "if not stock then return -3 end " +
+            "if tonumber(stock) <= 0 then return -2 end " +
+            "redis.call('DECR', KEYS[1]) " +
+            "redis.call('SADD', KEYS[2], ARGV[1]) " +
+            "redis.call('INCR', KEYS[4]) " +
+            "local seq = redis.call('INCR', KEYS[3]) " +
+            "for i = 1, 4 do redis.call('PEXPIRE', KEYS[i], ARGV[2]) end " +
+            "return seq",
+            Long.class);
+
+    // 저장된 신청의 만료 시 재고 복구
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('SREM', KEYS[2], ARGV[1]) == 1 then " +
+            "  if redis.call('EXISTS', KEYS[1]) == 1 then redis.call('INCR', KEYS[1]) end " +
+            "  return 1 " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    // 저장하지 못한 신청 취소, ARGV[2] 가 1 이면 재고 복구 / 0 이면 MySQL 재고가 모자란 경우라 재고를 다시 읽도록 제거
+    private static final RedisScript<Long> CANCEL_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('SREM', KEYS[2], ARGV[1]) == 0 then return 0 end " +
+            "if tonumber(redis.call('GET', KEYS[4]) or '0') > 0 then redis.call('DECR', KEYS[4]) end " +
+            "if ARGV[2] == '1' then " +
+            "  if redis.call('EXISTS', KEYS[1]) == 1 then redis.call('INCR', KEYS[1]) end " +
+            "else redis.call('DEL', KEYS[1]) end " +
+            "return 1",
+            Long.class);
+
+    // MySQL productCnt 에 반영된 신청 수만큼 저장 대기 신청 수 감소
+    // KEYS[1] : 저장 대기 신청 수, ARGV[1] : 반영된 수
+    private static final RedisScript<Long> SETTLE_SCRIPT = new DefaultRedisScript<>(
+            "local pending = tonumber(redis.call('GET', KEYS[1]) or '0') - tonumber(ARGV[1]) " +
+            "if pending > 0 then redis.call('SET', KEYS[1], pending) else redis.call('DEL', KEYS[1]) end " +
+            "return pending",
+            Long.class);
+
+    // 다른 요청이 먼저 채웠으면 그대로 둠
+    // KEYS[1] : 잔여 재고, KEYS[2] : 저장 대기 신청 수, ARGV[1] : MySQL productCnt
+    private static final RedisScript<Long> LOAD_STOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+            "local stock = tonumber(ARGV[1]) - tonumber(redis.call('GET', KEYS[2]) or '0') " +
+            "if stock < 0 then stock = 0 end " +
+            "redis.call('SET', KEYS[1], stock) " +
+            "return 1",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RebornDao rebornDao;
+
+    // 신청이 없는 리본의 key 는 이 시간이 지나면 사라짐 (교환 제한 시간보다 충분히 길게)
+    @Value("${reborn.task.reservation-ttl:604800000}")
+    private long reservationTtlMillis;
+
+    // 선착순 신청, 성공시 순번 반환
+    public Long reserve(Long rebornIdx, Long userIdx) throws BaseException {
+        List<String> keys = getKeys(rebornIdx);
         String userIdxS = String.valueOf(userIdx);
 
-        String result = "";
+        String ttl = String.valueOf(reservationTtlMillis);
 
-        Set<Object> rebornUsers = redisTemplate.opsForSet().members("rId_" + rebornIdx);
+        Long result = stringRedisTemplate.execute(RESERVE_SCRIPT, keys, userIdxS, ttl);
+        if (result != null && result == STOCK_NOT_LOADED) {
+            // 재고가 아직 올라가지 않은 경우 MySQL productCnt 로 채운 뒤 재시도
+            loadStock(rebornIdx);
+            result = stringRedisTemplate.execute(RESERVE_SCRIPT, keys, userIdxS, ttl);
+        }
 
-        if (rebornUsers.size() < 5){
-            stringStringSetOperations.add(key,userIdxS);
-            result = "선착순 나눔에 성공하였습니다";
+        if (result == null || result == STOCK_NOT_LOADED) {
+            throw new BaseException(CAN_NOT_CREATE_REBORN_TASK);
+        }
+        if (result == ALREADY_RESERVED) {
+            throw new BaseException(ALREADY_RESERVED_REBORN);
         }
-        else{
-            result = "선착순 나눔에 실패하였습니다";
+        if (result == SOLD_OUT) {
+            throw new BaseException(NOT_ENOUGH_REBORN);
         }
         return result;
     }
-//
-//    public void getOrder(int rebornIdx){
-//        final long start = FIRST_ELEMENT;
-//        final long end = LAST_ELEMENT;
-//
-//        Set<Object> queue = redisTemplate.opsForZSet().range(
-//                "rId_"+rebornIdx, start, end);
-//
-//        for (Object people : queue) {
-//            Long rank = redisTemplate.opsForZSet().rank(
-//                    "rebornIdx:"+rebornIdx, people);
-//            log.info("'{}'님의 현재 대기열은 {}명 남았습니다.", people, rank);
-//        }
-//    }
-//
-//    public void publish(int rebornIdx, PostRebornTaskReq postRebornTaskReq) throws BaseException {
-//        final long start = FIRST_ELEMENT;
-//        final long end = PUBLISH_SIZE - LAST_INDEX;
-//
-//        Set<Object> queue =
-//                redisTemplate.opsForZSet().range(
-//                        "rebornIdx:"+rebornIdx, start, end);
-//        for (Object people : queue) {
-//            PostRebornTaskRes postRebornTaskRes = rebornTaskService.createRebornTask(postRebornTaskReq);
-//
-//            log.info("리본교환번호 발급 완료 - RebornTaskIdx : {}",
-//                    postRebornTaskRes.getRebornTaskIdx());
-//            redisTemplate.opsForZSet().remove("rebornIdx:"+rebornIdx, people);
-//            this.eventCount.decrease();
-//        }
-//    }
-//
-//    public boolean validEnd(){
-//        return this.eventCount != null && this.eventCount.end();
-//    }
-//
-//    public long getSize(Event event){
-//        return redisTemplate.opsForZSet().size(event.toString());
-//    }
+
+    // 저장된 신청이 만료되었을 때
+    public void release(Long rebornIdx, Long userIdx) {
+        stringRedisTemplate.execute(RELEASE_SCRIPT, getKeys(rebornIdx), String.valueOf(userIdx));
+    }
+
+    // 교환이 끝난 유저는 신청 set 에서 제거 (재고는 그대로)
+    public void complete(Long rebornIdx, Long userIdx) {
+        stringRedisTemplate.opsForSet().remove(getUserSetKey(rebornIdx), String.valueOf(userIdx));
+    }
+
+    // 저장하지 못한 신청 취소 (DB 저장 실패, stream 적재 실패)
+    public void cancel(Long rebornIdx, Long userIdx) {
+        stringRedisTemplate.execute(CANCEL_SCRIPT, getKeys(rebornIdx), String.valueOf(userIdx), "1");
+    }
+
+    // MySQL 재고가 모자라 저장하지 못한 신청
+    public void reject(Long rebornIdx, Long userIdx, String claimKey) {
+        stringRedisTemplate.execute(CANCEL_SCRIPT, getKeys(rebornIdx), String.valueOf(userIdx), "0");
+        if (claimKey != null) {
+            stringRedisTemplate.opsForValue().set(getRejectedClaimKey(claimKey), String.valueOf(userIdx), REJECTED_CLAIM_TTL);
+        }
+    }
+
+    public boolean isRejected(String claimKey) {
+        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(getRejectedClaimKey(claimKey)));
+    }
+
+    // 신청이 MySQL productCnt 에 반영됨
+    public void settle(Long rebornIdx, long count) {
+        stringRedisTemplate.execute(SETTLE_SCRIPT, Collections.singletonList(getPendingKey(rebornIdx)), String.valueOf(count));
+    }
+
+    // 리본 수정, 활성화 변경시 재고를 다시 MySQL 에서 읽도록 제거
+    public void evictStock(Long rebornIdx) {
+        stringRedisTemplate.delete(getStockKey(rebornIdx));
+    }
+
+    // MySQL productCnt 에서 아직 반영되지 않은 신청 수를 뺀 값으로 채움
+    private void loadStock(Long rebornIdx) throws BaseException {
+        int productCnt = rebornDao.getActiveRebornProductCnt(rebornIdx);
+        stringRedisTemplate.execute(LOAD_STOCK_SCRIPT, Arrays.asList(getStockKey(rebornIdx), getPendingKey(rebornIdx)),
+                String.valueOf(productCnt));
+    }
+
+    private List<String> getKeys(Long rebornIdx) {
+        return Arrays.asList(getStockKey(rebornIdx), getUserSetKey(rebornIdx), "rebornSeq:" + rebornIdx, getPendingKey(rebornIdx));
+    }
+
+    private String getUserSetKey(Long rebornIdx) {
+        return "rId_" + rebornIdx;
+    }
+
+    private String getPendingKey(Long rebornIdx) {
+        return "rebornPending:" + rebornIdx;
+    }
+
+    private String getRejectedClaimKey(String claimKey) {
+        return "rebornTask:rejected:" + claimKey;
+    }
+
+    private String getStockKey(Long rebornIdx) {
+        return "rebornStock:" + rebornIdx;
+    }
 }
@@ -2,24 +2,20 @@ package spring.reborn.domain.rebornTask;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import spring.reborn.config.AsyncConfig;
 import spring.reborn.config.BaseException;
 import spring.reborn.domain.reborn.RebornDao;
 import spring.reborn.domain.rebornTask.model.*;
 import spring.reborn.domain.user.UserDao;
 
-import java.sql.Time;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
+import java.sql.Timestamp;
+import java.util.UUID;
 
-import static spring.reborn.config.BaseResponseStatus.DATABASE_ERROR;
+import static spring.reborn.config.BaseResponseStatus.CAN_NOT_CREATE_REBORN_TASK;
+import static spring.reborn.config.BaseResponseStatus.NOT_ENOUGH_REBORN;
+import static spring.reborn.config.BaseResponseStatus.UPDATE_FAIL_REBORN_TASK;
 
 @Slf4j
 @Service
@@ -28,28 +24,74 @@ public class RebornTaskService {
     private final RebornTaskDao rebornTaskDao;
     private final RebornDao rebornDao;
     private final UserDao userDao;
+    private final RebornTaskRedisService rebornTaskRedisService;
+    private final RebornTaskExpirationScheduler rebornTaskExpirationScheduler;
+    private final RebornTaskClaimWriter rebornTaskClaimWriter;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
 
     public PostRebornTaskRes createRebornTask(PostRebornTaskReq postRebornTaskReq) throws BaseException {
-        try {
-            Long rebornTaskIdx = rebornTaskDao.createRebornTask(postRebornTaskReq);
+        // 선착순 신청은 Redis 에서 먼저 처리하고, 성공한 요청만 MySQL 에 저장
+        Long queueRank = rebornTaskRedisService.reserve(postRebornTaskReq.getRebornIdx(), postRebornTaskReq.getUserIdx());
 
-            Time productLimitTime = rebornTaskDao.getRebornProductLimitTime(rebornTaskIdx);
-            CompletableFuture.runAsync(() ->
-            {
-                try {
-                    ExpiringRebornTask(rebornTaskIdx,productLimitTime);
-                } catch (BaseException | ParseException e) {
-                    throw new RuntimeException(e);
-                }
-            });
+        if (rebornTaskClaimWriter.isEnabled()) {
+            return publishRebornTaskClaim(postRebornTaskReq, queueRank);
+        }
 
-            return new PostRebornTaskRes(rebornTaskIdx);
+        Long rebornTaskIdx;
+        try {
+            rebornTaskIdx = rebornTaskDao.createRebornTask(postRebornTaskReq);
         } catch (BaseException e) {
+            // 저장 실패시 Redis 신청 취소, MySQL 재고가 없어 실패했으면 재고를 다시 읽도록
+            if (e.getStatus() == UPDATE_FAIL_REBORN_TASK) {
+                rebornTaskRedisService.reject(postRebornTaskReq.getRebornIdx(), postRebornTaskReq.getUserIdx(), null);
+            } else {
+                rebornTaskRedisService.cancel(postRebornTaskReq.getRebornIdx(), postRebornTaskReq.getUserIdx());
+            }
             throw new BaseException(e.getStatus());
         }
-        catch (Exception e){
-            throw new BaseException(DATABASE_ERROR);
+        rebornTaskRedisService.settle(postRebornTaskReq.getRebornIdx(), 1);
+
+        try {
+            // 만료 시각에 맞춰 만료 대기열에 등록
+            Timestamp expiredAt = rebornTaskDao.getRebornTaskExpiredAt(rebornTaskIdx);
+            rebornTaskExpirationScheduler.schedule(rebornTaskIdx, expiredAt.getTime());
+        } catch (Exception e) {
+            // 신청은 이미 저장됨, 만료 처리는 RebornTaskExpirationScheduler.sweepOverdueTasks 가 보완
+            log.error("fail to schedule rebornTask expiration : " + rebornTaskIdx);
+        }
+        return new PostRebornTaskRes(rebornTaskIdx, queueRank);
+    }
+
+    // write-behind 모드 : stream 에만 적재하고 MySQL 저장은 RebornTaskClaimWriter 가 묶어서 처리
+    private PostRebornTaskRes publishRebornTaskClaim(PostRebornTaskReq postRebornTaskReq, Long queueRank) throws BaseException {
+        RebornTaskClaim rebornTaskClaim = RebornTaskClaim.builder()
+                .claimKey(UUID.randomUUID().toString())
+                .rebornIdx(postRebornTaskReq.getRebornIdx())
+                .userIdx(postRebornTaskReq.getUserIdx())
+                .productExchangeCode((long) (Math.random() * 89999 + 10000))
+                .build();
+        try {
+            rebornTaskClaimWriter.publish(rebornTaskClaim);
+            return new PostRebornTaskRes(null, queueRank, rebornTaskClaim.getClaimKey());
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            rebornTaskRedisService.cancel(postRebornTaskReq.getRebornIdx(), postRebornTaskReq.getUserIdx());
+            throw new BaseException(CAN_NOT_CREATE_REBORN_TASK);
+        }
+    }
+
+    public PostRebornTaskRes getRebornTaskClaim(String claimKey, Long userIdx) throws BaseException {
+        try {
+            Long rebornTaskIdx = rebornTaskDao.getRebornTaskIdxByClaimKey(claimKey, userIdx);
+            // MySQL 재고가 모자라 저장되지 못한 신청
+            if (rebornTaskIdx == null && rebornTaskRedisService.isRejected(claimKey)) {
+                throw new BaseException(NOT_ENOUGH_REBORN);
+            }
+            return new PostRebornTaskRes(rebornTaskIdx, null, claimKey);
+        }
+        catch (BaseException e){
+            throw new BaseException(e.getStatus());
         }
     }
 
@@ -61,6 +103,11 @@ public class RebornTaskService {
                     patchRebornTaskReq.getProductExchangeCode()
             );
 
+            // 교환 완료시 MySQL 재고가 한 번 더 줄어들므로 Redis 재고를 다시 읽도록 제거
+            rebornTaskRedisService.evictStock(patchRebornTaskRes.getRebornIdx());
+            rebornTaskRedisService.complete(patchRebornTaskRes.getRebornIdx(), patchRebornTaskRes.getUserIdx());
+            applicationEventPublisher.publishEvent(new RebornTaskCompletedEvent(patchRebornTaskReq.getRebornTaskIdx()));
+
             return patchRebornTaskRes;
         }
         catch (BaseException e){
@@ -76,24 +123,4 @@ public class RebornTaskService {
             throw new BaseException(e.getStatus());
         }
     }
-
-    @Async
-    @Transactional
-    public void ExpiringRebornTask(Long rebornTaskIdx, Time waitingTime) throws BaseException, ParseException {
-        log.info("async task start - RebornTaskIdx : "+ rebornTaskIdx);
-        // 쓰레드가 productLimitTime 타임만큼 대기 후 검증 및 처리
-        try {
-            Thread.sleep(convertTimeToMilliSecond(waitingTime));
-            rebornTaskDao.expiredRebornTask(rebornTaskIdx,waitingTime);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
-
-        log.info("async task end - RebornTaskIdx : "+ rebornTaskIdx);
-
-    }
-
-    public Long convertTimeToMilliSecond(Time time) throws ParseException {
-        return Long.valueOf(((time.getHours()*60)+time.getMinutes())*60+time.getSeconds())*1000;
-    }
 }
@@ -10,6 +10,7 @@ import lombok.Setter;
 public class PatchRebornTaskForExchange {
     private Long rebornTaskIdx;
     private Long rebornIdx;
+    private Long userIdx;
     private String status;
     private Long productExchangeCode;
     private Long productCnt;
@@ -9,5 +9,7 @@ import lombok.Setter;
 @Builder
 public class PatchRebornTaskRes {
     private Long rebornTaskIdx;
+    private Long rebornIdx;
+    private Long userIdx;
 
 }
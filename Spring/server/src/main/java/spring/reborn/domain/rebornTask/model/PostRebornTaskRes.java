@@ -7,8 +7,23 @@ import lombok.Setter;
 @Setter
 public class PostRebornTaskRes {
     private Long rebornTaskIdx;
+    // 선착순 순번
+    private Long queueRank;
+    // write-behind 모드에서 저장 완료 여부 조회용
+    private String claimKey;
 
     public PostRebornTaskRes(Long rebornTaskIdx) {
         this.rebornTaskIdx = rebornTaskIdx;
     }
+
+    public PostRebornTaskRes(Long rebornTaskIdx, Long queueRank) {
+        this.rebornTaskIdx = rebornTaskIdx;
+        this.queueRank = queueRank;
+    }
+
+    public PostRebornTaskRes(Long rebornTaskIdx, Long queueRank, String claimKey) {
+        this.rebornTaskIdx = rebornTaskIdx;
+        this.queueRank = queueRank;
+        this.claimKey = claimKey;
+    }
 }
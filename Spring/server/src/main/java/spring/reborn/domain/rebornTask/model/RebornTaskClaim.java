@@ -0,0 +1,16 @@
+package spring.reborn.domain.rebornTask.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class RebornTaskClaim {
+    // 중복 저장 방지용 멱등 키
+    private String claimKey;
+    private Long rebornIdx;
+    private Long userIdx;
+    private Long productExchangeCode;
+}
@@ -0,0 +1,16 @@
+package spring.reborn.domain.rebornTask.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// write-behind 묶음 저장 결과
+@Getter
+@AllArgsConstructor
+public class RebornTaskClaimResult {
+    // 새로 저장된 신청의 만료 시각
+    private List<RebornTaskDeadline> deadlines;
+    // MySQL 재고가 모자라 저장하지 못한 신청
+    private List<RebornTaskClaim> rejectedClaims;
+}
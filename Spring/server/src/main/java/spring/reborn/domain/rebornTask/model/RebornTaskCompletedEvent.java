@@ -0,0 +1,11 @@
+package spring.reborn.domain.rebornTask.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 리본 교환(픽업)이 완료되었을 때 발행 (추천 갱신)
+@Getter
+@AllArgsConstructor
+public class RebornTaskCompletedEvent {
+    private Long rebornTaskIdx;
+}
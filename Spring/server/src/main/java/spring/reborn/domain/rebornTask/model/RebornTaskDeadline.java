@@ -0,0 +1,12 @@
+package spring.reborn.domain.rebornTask.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class RebornTaskDeadline {
+    private Long rebornTaskIdx;
+    // 만료 시각 (epoch millis)
+    private Long expiredAt;
+}
@@ -0,0 +1,288 @@
+package spring.reborn.domain.review;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.review.model.BestReviewCandidate;
+import spring.reborn.domain.review.model.GetBestReviewRes;
+import spring.reborn.domain.review.model.ReviewChangedEvent;
+import spring.reborn.domain.store.model.StoreCategory;
+import spring.reborn.domain.store.model.StoreChangedEvent;
+import spring.reborn.domain.user.model.UserChangedEvent;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * 베스트 리뷰 순위
+ * 평점, 사진 개수, 스토어 인기(찜 수)로 기본 점수를 매기고 작성 후 시간이 지날수록 반감기마다 절반으로 줄인다.
+ * 모든 리뷰가 같은 비율로 줄어들기 때문에 순서는 log2(1 + 기본 점수) + 작성 시각 / 반감기 로 고정되고,
+ * 전체(ALL), 카테고리별로 상위 size * buffer 개만 메모리에 들고 있다가
+ * 리뷰 작성/삭제, 유저, 스토어 변경시 해당 리뷰만 다시 계산한다.
+ * 지운 뒤 상위 size 개를 채울 수 없으면 전체를 다시 적재한다. (요청 쓰레드가 아닌 별도 쓰레드에서)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BestReviewRanking {
+
+    public static final String ALL = "ALL";
+
+    private static final Comparator<Entry> RANK_ORDER = Comparator.comparingDouble((Entry entry) -> entry.rankKey)
+            .thenComparingInt(entry -> entry.candidate.getReviewIdx())
+            .reversed();
+
+    private static class Entry {
+        private final BestReviewCandidate candidate;
+        private final double rankKey;
+
+        private Entry(BestReviewCandidate candidate, double rankKey) {
+            this.candidate = candidate;
+            this.rankKey = rankKey;
+        }
+    }
+
+    // 전체, 카테고리별 순위 (capacity 를 넘으면 꼴찌부터 버림)
+    private static class Boards {
+        private final int capacity;
+        private final Map<String, TreeSet<Entry>> boards = new HashMap<>();
+        // 버린 적이 있는 순위, 지워서 모자라면 다시 적재해야 함
+        private final Set<String> truncated = new HashSet<>();
+
+        private Boards(int capacity) {
+            this.capacity = capacity;
+            boards.put(ALL, new TreeSet<>(RANK_ORDER));
+            for (StoreCategory category : StoreCategory.values()) {
+                boards.put(category.name(), new TreeSet<>(RANK_ORDER));
+            }
+        }
+
+        private void offer(Entry entry) {
+            offer(ALL, entry);
+            offer(entry.candidate.getCategory(), entry);
+        }
+
+        private void offer(String board, Entry entry) {
+            TreeSet<Entry> entries = boards.get(board);
+            if (entries == null) {
+                return;
+            }
+            entries.add(entry);
+            if (entries.size() > capacity) {
+                entries.pollLast();
+                truncated.add(board);
+            }
+        }
+
+        // 지운 뒤 size 개를 못 채우는 순위가 있으면 true
+        private boolean remove(Predicate<BestReviewCandidate> stale, int size) {
+            boolean underflow = false;
+            for (Map.Entry<String, TreeSet<Entry>> board : boards.entrySet()) {
+                if (board.getValue().removeIf(entry -> stale.test(entry.candidate))
+                        && board.getValue().size() < size && truncated.contains(board.getKey())) {
+                    underflow = true;
+                }
+            }
+            return underflow;
+        }
+    }
+
+    private final ReviewDao reviewDao;
+    // 순위가 모자랄 때의 재적재, 이미 예약되어 있으면 다시 넣지 않음
+    private final ExecutorService reloadExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean reloadQueued = new AtomicBoolean(false);
+
+    @Value("${review.best.size:5}")
+    private int size;
+
+    @Value("${review.best.buffer:4}")
+    private int buffer;
+
+    @Value("${review.best.half-life-hours:72}")
+    private double halfLifeHours;
+
+    @Value("${review.best.image-weight:0.5}")
+    private double imageWeight;
+
+    @Value("${review.best.popularity-weight:0.5}")
+    private double popularityWeight;
+
+    private Boards boards;
+    // 다시 적재하는 동안 들어온 변경, 적재가 끝나면 새 순위에 다시 반영
+    private List<Runnable> pendingRefreshes;
+    // 조회용 상위 size 개
+    private volatile Map<String, List<GetBestReviewRes>> bestReviews = Collections.emptyMap();
+    private volatile boolean ready = false;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // board : ALL 또는 StoreCategory name, 순위가 준비되기 전이면 null
+    public List<GetBestReviewRes> getBestReviews(String board) {
+        if (!ready) {
+            return null;
+        }
+        List<GetBestReviewRes> getBestReviewRes = new ArrayList<>();
+        // 조회한 쪽에서 이미지 주소를 바꾸므로 복사해서 넘김
+        bestReviews.getOrDefault(board, Collections.emptyList()).forEach(review -> getBestReviewRes.add(new GetBestReviewRes(
+                review.getReviewIdx(), review.getUserIdx(), review.getUserImg(), review.getUserNickname(),
+                review.getStoreName(), review.getStoreCategory(), review.getRebornIdx(), review.getProductName(),
+                review.getReviewScore(), review.getReviewComment(), review.getReviewCreatedAt(), review.getReviewImage1())));
+        return getBestReviewRes;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reloadExecutor.shutdownNow();
+    }
+
+    // 서버 시작시, 그리고 시간이 지나며 생기는 오차(찜 수 등)를 바로잡기 위해 주기적으로 전체 적재
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${review.best.reload-interval:600000}", fixedDelayString = "${review.best.reload-interval:600000}")
+    public void reload() {
+        synchronized (this) {
+            if (pendingRefreshes != null) {
+                return;
+            }
+            pendingRefreshes = new ArrayList<>();
+        }
+        List<Runnable> refreshes;
+        try {
+            Boards loaded = new Boards(Math.max(1, size * buffer));
+            int[] count = {0};
+            reviewDao.forEachBestReviewCandidate(candidate -> {
+                loaded.offer(toEntry(candidate));
+                count[0]++;
+            });
+
+            synchronized (this) {
+                boards = loaded;
+                publish();
+                ready = true;
+            }
+            log.info("reload best review ranking : " + count[0]);
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        } finally {
+            // 실패해도 (RuntimeException 포함) 다음 적재를 막지 않음, 모아둔 변경은 지금 순위에 반영
+            synchronized (this) {
+                refreshes = pendingRefreshes;
+                pendingRefreshes = null;
+            }
+        }
+        refreshes.forEach(Runnable::run);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewChanged(ReviewChangedEvent reviewChangedEvent) {
+        int reviewIdx = reviewChangedEvent.getReviewIdx();
+        refresh(candidate -> candidate.getReviewIdx() == reviewIdx,
+                () -> reviewDao.getBestReviewCandidatesByReviewIdx(reviewIdx));
+    }
+
+    // 스토어 이름, 카테고리, 찜 수가 바뀌면 그 스토어 리뷰의 점수와 표시 정보가 바뀜
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStoreChanged(StoreChangedEvent storeChangedEvent) {
+        long storeIdx = storeChangedEvent.getStoreIdx();
+        refresh(candidate -> candidate.getStoreIdx() == storeIdx,
+                () -> reviewDao.getBestReviewCandidatesByStoreIdx(storeIdx));
+    }
+
+    // 닉네임, 프로필 사진 변경
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent userChangedEvent) {
+        int userIdx = userChangedEvent.getUserIdx();
+        refresh(candidate -> candidate.getUserIdx() == userIdx,
+                () -> reviewDao.getBestReviewCandidatesByUserIdx(userIdx));
+    }
+
+    private interface CandidateLoader {
+        List<BestReviewCandidate> load() throws BaseException;
+    }
+
+    private void refresh(Predicate<BestReviewCandidate> stale, CandidateLoader loader) {
+        try {
+            List<BestReviewCandidate> candidates = loader.load();
+            boolean underflow;
+            synchronized (this) {
+                if (pendingRefreshes != null) {
+                    pendingRefreshes.add(() -> refresh(stale, loader));
+                }
+                if (boards == null) {
+                    return;
+                }
+                underflow = boards.remove(stale, size);
+                candidates.forEach(candidate -> boards.offer(toEntry(candidate)));
+                publish();
+            }
+            if (underflow) {
+                scheduleReload();
+            }
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        }
+    }
+
+    private void scheduleReload() {
+        if (!reloadQueued.compareAndSet(false, true)) {
+            return;
+        }
+        reloadExecutor.execute(() -> {
+            reloadQueued.set(false);
+            reload();
+        });
+    }
+
+    private Entry toEntry(BestReviewCandidate candidate) {
+        double baseScore = candidate.getReviewScore()
+                + imageWeight * candidate.getImageCnt()
+                + popularityWeight * Math.log1p(candidate.getStoreJjimCnt());
+        double createdAt = candidate.getCreatedAt() == null ? 0 : candidate.getCreatedAt().getTime();
+        double halfLifeMillis = halfLifeHours * 60 * 60 * 1000;
+        return new Entry(candidate, Math.log1p(Math.max(0, baseScore)) / Math.log(2) + createdAt / halfLifeMillis);
+    }
+
+    // synchronized 안에서 호출
+    private void publish() {
+        Map<String, List<GetBestReviewRes>> published = new HashMap<>();
+        boards.boards.forEach((board, entries) -> {
+            List<GetBestReviewRes> top = new ArrayList<>();
+            for (Entry entry : entries) {
+                if (top.size() >= size) {
+                    break;
+                }
+                BestReviewCandidate candidate = entry.candidate;
+                top.add(new GetBestReviewRes(
+                        candidate.getReviewIdx(),
+                        candidate.getUserIdx(),
+                        candidate.getUserImg(),
+                        candidate.getUserNickname(),
+                        candidate.getStoreName(),
+                        StoreCategory.valueOf(candidate.getCategory()).label(),
+                        candidate.getRebornIdx(),
+                        candidate.getProductName(),
+                        candidate.getReviewScore(),
+                        candidate.getReviewComment(),
+                        candidate.getCreatedAt(),
+                        candidate.getReviewImage1()));
+            }
+            published.put(board, Collections.unmodifiableList(top));
+        });
+        bestReviews = published;
+    }
+}
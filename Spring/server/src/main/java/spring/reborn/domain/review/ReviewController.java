@@ -8,6 +8,7 @@ import spring.reborn.config.BaseException;
 import spring.reborn.config.BaseResponse;
 import spring.reborn.domain.awsS3.AwsS3Service;
 import spring.reborn.domain.review.model.*;
+import spring.reborn.utils.CursorPage;
 import spring.reborn.utils.JwtService;
 
 import java.util.List;
@@ -72,7 +73,7 @@ public class ReviewController {
     @PostMapping(value = "/review/set")
     public BaseResponse<String> setReviewScore() {
         try {
-            reviewDao.setReviewScore();
+            reviewService.setReviewScore();
             return new BaseResponse<>("성공적으로 평점이 업데이트 되었습니다");
         } catch (BaseException exception) {
             return new BaseResponse<>((exception.getStatus()));
@@ -109,24 +110,7 @@ public class ReviewController {
     @DeleteMapping("/review")
     public BaseResponse<ReviewReq> deleteReview(@RequestBody ReviewReq reviewReq) {
         try {
-            ReviewImgKey reviewImgKey = reviewService.findImgKey(reviewReq);
-
-            if (reviewImgKey.getReviewImageKey1() != null) {
-                awsS3Service.deleteImage(reviewImgKey.getReviewImageKey1().split("/")[3]);
-            }
-            if (reviewImgKey.getReviewImageKey2() != null) {
-                awsS3Service.deleteImage(reviewImgKey.getReviewImageKey2().split("/")[3]);
-            }
-            if (reviewImgKey.getReviewImageKey3() != null) {
-                awsS3Service.deleteImage(reviewImgKey.getReviewImageKey3().split("/")[3]);
-            }
-            if (reviewImgKey.getReviewImageKey4() != null) {
-                awsS3Service.deleteImage(reviewImgKey.getReviewImageKey4().split("/")[3]);
-            }
-            if (reviewImgKey.getReviewImageKey5() != null) {
-                awsS3Service.deleteImage(reviewImgKey.getReviewImageKey5().split("/")[3]);
-            }
-
+            // 리뷰 이미지는 삭제가 커밋된 뒤에 해제됨
             reviewService.deleteReview(reviewReq);
             return new BaseResponse<>(reviewReq);
         } catch (BaseException exception) {
@@ -191,6 +175,45 @@ public class ReviewController {
         }
     }
 
+    @ResponseBody
+    @GetMapping("/review/store/{storeIdx}/cursor")
+    public BaseResponse<CursorPage<GetReviewRes>> getReviewPageByStoreIdx(@PathVariable Integer storeIdx,
+                                                                       @RequestParam(required = false) String after,
+                                                                       @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<GetReviewRes> getReviewPage = reviewProvider.getReviewPageByStoreIdx(storeIdx, after, size);
+            return new BaseResponse<>(getReviewPage);
+        } catch (BaseException exception) {
+            return new BaseResponse<>((exception.getStatus()));
+        }
+    }
+
+    @ResponseBody
+    @GetMapping("/review/store/{storeIdx}/buz/cursor")
+    public BaseResponse<CursorPage<GetReviewRes2>> getReviewPageByStoreIdx2(@PathVariable Integer storeIdx,
+                                                                       @RequestParam(required = false) String after,
+                                                                       @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<GetReviewRes2> getReviewPage = reviewProvider.getReviewPageByStoreIdx2(storeIdx, after, size);
+            return new BaseResponse<>(getReviewPage);
+        } catch (BaseException exception) {
+            return new BaseResponse<>((exception.getStatus()));
+        }
+    }
+
+    @ResponseBody
+    @GetMapping("/review/store/{storeIdx}/buz2/cursor")
+    public BaseResponse<CursorPage<GetReviewRes3>> getReviewPageByStoreIdx3(@PathVariable Integer storeIdx,
+                                                                       @RequestParam(required = false) String after,
+                                                                       @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<GetReviewRes3> getReviewPage = reviewProvider.getReviewPageByStoreIdx3(storeIdx, after, size);
+            return new BaseResponse<>(getReviewPage);
+        } catch (BaseException exception) {
+            return new BaseResponse<>((exception.getStatus()));
+        }
+    }
+
     @ResponseBody
     @GetMapping("/review/{reviewIdx}")
     public BaseResponse<GetReviewRes> getReviewByReviewIdx(@PathVariable Integer reviewIdx) {
@@ -204,9 +227,9 @@ public class ReviewController {
 
     @ResponseBody
     @GetMapping("/review/best")
-    public BaseResponse<List<GetBestReviewRes>> getBestReview() {
+    public BaseResponse<List<GetBestReviewRes>> getBestReview(@RequestParam(value = "category", required = false) String category) {
         try {
-            List<GetBestReviewRes> getReviewRes = reviewProvider.getBestReview();
+            List<GetBestReviewRes> getReviewRes = reviewProvider.getBestReview(category);
             return new BaseResponse<>(getReviewRes);
         } catch (BaseException exception) {
             return new BaseResponse<>((exception.getStatus()));
@@ -1,8 +1,11 @@
 package spring.reborn.domain.review;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
@@ -12,22 +15,96 @@ import spring.reborn.config.BaseResponseStatus;
 import spring.reborn.domain.awsS3.AwsS3Controller;
 import spring.reborn.domain.awsS3.AwsS3Service;
 import spring.reborn.domain.review.model.*;
+import spring.reborn.domain.store.StoreStatsDao;
 import spring.reborn.domain.store.model.StoreCategory;
+import spring.reborn.utils.CursorPage;
+import spring.reborn.utils.CursorPageCollector;
+import spring.reborn.utils.KeysetCursor;
 
 import javax.sql.DataSource;
 
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static spring.reborn.config.BaseResponseStatus.DATABASE_ERROR;
 
+@Slf4j
 @Repository
 
 public class ReviewDao {
     private JdbcTemplate jdbcTemplate;
     private AwsS3Service awsS3Service;
     private AwsS3Controller awsS3Controller;
+    private StoreStatsDao storeStatsDao;
+
+    private static final String BEST_REVIEW_CANDIDATE_QUERY =
+            "SELECT Review.reviewIdx, Review.userIdx, User.userImg, User.userNickname, Store.storeIdx, Store.storeName, Store.category,\n" +
+            "Review.rebornIdx, Reborn.productName, Review.reviewScore, Review.reviewComment, Review.reviewImage1, Review.createdAt,\n" +
+            "(ifnull(Review.reviewImage1, '') <> '') + (ifnull(Review.reviewImage2, '') <> '') + (ifnull(Review.reviewImage3, '') <> '')\n" +
+            "+ (ifnull(Review.reviewImage4, '') <> '') + (ifnull(Review.reviewImage5, '') <> '') imageCnt,\n" +
+            "ifnull(StoreStats.numOfJjim, 0) storeJjimCnt\n" +
+            "FROM Review JOIN Reborn ON Review.rebornIdx = Reborn.rebornIdx\n" +
+            "JOIN User ON Review.userIdx = User.userIdx\n" +
+            "JOIN Store ON Reborn.storeIdx = Store.storeIdx\n" +
+            "LEFT JOIN StoreStats ON StoreStats.storeIdx = Store.storeIdx\n";
+
+    // 벤치마크에서도 사용하므로 package-private
+    final RowMapper<GetReviewRes> reviewResMapper = (rs, rowNum) -> new GetReviewRes(
+            rs.getInt("reviewIdx"),
+            rs.getInt("userIdx"),
+            rs.getString("userImg"),
+            rs.getString("userNickname"),
+            rs.getString("storeName"),
+            StoreCategory.valueOf(rs.getString("category")).label(),
+            rs.getInt("rebornIdx"),
+            rs.getString("productName"),
+            rs.getInt("reviewScore"),
+            rs.getString("reviewComment"),
+            rs.getTimestamp("createdAt"),
+            new ReviewImg(
+                    rs.getString("reviewImage1"),
+                    rs.getString("reviewImage2"),
+                    rs.getString("reviewImage3"),
+                    rs.getString("reviewImage4"),
+                    rs.getString("reviewImage5")));
+
+    private final RowMapper<GetReviewRes2> reviewRes2Mapper = (rs, rowNum) -> new GetReviewRes2(
+            rs.getInt("reviewIdx"),
+            rs.getInt("userIdx"),
+            rs.getString("userImg"),
+            rs.getString("userNickname"),
+            rs.getString("storeName"),
+            StoreCategory.valueOf(rs.getString("category")).label(),
+            rs.getInt("rebornIdx"),
+            rs.getString("productName"),
+            rs.getInt("reviewScore"),
+            rs.getString("reviewComment"),
+            rs.getTimestamp("createdAt"),
+            new ArrayList<>() {{
+                add(rs.getString("reviewImage1"));
+                add(rs.getString("reviewImage2"));
+                add(rs.getString("reviewImage3"));
+                add(rs.getString("reviewImage4"));
+                add(rs.getString("reviewImage5"));
+            }});
+
+    private final RowMapper<GetReviewRes3> reviewRes3Mapper = (rs, rowNum) -> new GetReviewRes3(
+            rs.getInt("reviewIdx"),
+            rs.getInt("userIdx"),
+            rs.getString("userImg"),
+            rs.getString("userNickname"),
+            rs.getString("storeName"),
+            StoreCategory.valueOf(rs.getString("category")).label(),
+            rs.getInt("rebornIdx"),
+            rs.getString("productName"),
+            rs.getInt("reviewScore"),
+            rs.getString("reviewComment"),
+            rs.getTimestamp("createdAt"),
+            rs.getString("reviewImage1"));
 
     @Transactional
     @Autowired //readme 참고
@@ -35,14 +112,21 @@ public class ReviewDao {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
     }
 
+    @Autowired
+    public void setStoreStatsDao(StoreStatsDao storeStatsDao) {
+        this.storeStatsDao = storeStatsDao;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
     public PostReviewRes createReview(PostReviewReq postReviewReq) throws BaseException {
         try{
-            String createReviewQuery = "insert into Review (userIdx, rebornIdx, reviewScore, reviewComment, " +
+            String createReviewQuery = "insert into Review (userIdx, rebornIdx, storeIdx, reviewScore, reviewComment, " +
                     "reviewImage1)" +
-                    "VALUES (?,?,?,?,?)"; // 실행될 동적 쿼리문
+                    "VALUES (?,?,(select storeIdx from Reborn where rebornIdx = ?),?,?,?)"; // 실행될 동적 쿼리문
             Object[] createReviewParams = new Object[]{
                     postReviewReq.getUserIdx(),
                     postReviewReq.getRebornIdx(),
+                    postReviewReq.getRebornIdx(),
                     postReviewReq.getReviewScore(),
                     postReviewReq.getReviewComment(),
                     postReviewReq.getReviewImage()}; // 동적 쿼리의 ?부분에 주입될 값
@@ -59,6 +143,9 @@ public class ReviewDao {
             Integer rebornTaskIdx = jdbcTemplate.queryForObject(
                     getRebornTaskIdxQuery, getRebornTaskIdxParams, Integer.class);
 
+            // 스토어 평점, 리뷰 개수 반영
+            changeStoreReviewScore(postReviewReq.getRebornIdx(), postReviewReq.getReviewScore(), 1);
+            storeStatsDao.changeReviewCnt((long) postReviewReq.getRebornIdx(), 1);
 
             return new PostReviewRes(reviewIdx, rebornTaskIdx); // 해당 쿼리문의 결과 마지막으로 삽인된 유저의 userIdx번호를 반환한다.
         }
@@ -69,12 +156,13 @@ public class ReviewDao {
     }
 
     public int createReview2(PostReviewReq2 postReviewReq2) throws BaseException {
-        String createReviewQuery = "insert into Review (userIdx, rebornIdx, reviewScore, reviewComment, " +
+        String createReviewQuery = "insert into Review (userIdx, rebornIdx, storeIdx, reviewScore, reviewComment, " +
                 "reviewImage1, reviewImage2, reviewImage3, reviewImage4, reviewImage5) " +
-                "VALUES (?,?,?,?,?,?,?,?,?)"; // 실행될 동적 쿼리문
+                "VALUES (?,?,(select storeIdx from Reborn where rebornIdx = ?),?,?,?,?,?,?,?)"; // 실행될 동적 쿼리문
         Object[] createReviewParams = new Object[]{
                 postReviewReq2.getUserIdx(),
                 postReviewReq2.getRebornIdx(),
+                postReviewReq2.getRebornIdx(),
                 postReviewReq2.getReviewScore(),
                 postReviewReq2.getReviewComment(),
                 postReviewReq2.getReviewImg().getReviewImage1(),
@@ -89,31 +177,60 @@ public class ReviewDao {
     }
 
 
-    public int setReviewScore() throws BaseException {
-        String getStoreIdxQuery = "SELECT DISTINCT Store.storeIdx " +
-                "FROM Review JOIN Reborn ON Review.rebornIdx = Reborn.rebornIdx " +
-                "JOIN Store ON Store.storeIdx = Reborn.storeIdx;\n";
-
-        List<Integer> storeIdxList = this.jdbcTemplate.query(getStoreIdxQuery,
-                (rs, rowNum) -> rs.getInt("storeIdx")
-        );
-
-        for (int storeIdx : storeIdxList){
-            System.out.println(storeIdx);
-            calculateStoreScoreByStoreIdx(storeIdx);
+    // 스토어별 리뷰 점수 합계, 개수를 한 번에 집계 (리뷰가 없는 스토어는 0), 저장된 값과 다른 스토어만
+    public List<StoreReviewScore> getStoreReviewScores() throws BaseException {
+        try {
+            String getStoreReviewScoresQuery = "SELECT S.storeIdx, ifnull(RV.scoreSum, 0) reviewScoreSum, ifnull(RV.cnt, 0) reviewCnt " +
+                    "FROM Store S " +
+                    "LEFT JOIN (SELECT R.storeIdx, sum(Rv.reviewScore) scoreSum, count(*) cnt " +
+                    "           FROM Review Rv JOIN Reborn R ON Rv.rebornIdx = R.rebornIdx GROUP BY R.storeIdx) RV " +
+                    "ON RV.storeIdx = S.storeIdx " +
+                    "WHERE S.reviewScoreSum <> ifnull(RV.scoreSum, 0) OR S.reviewCnt <> ifnull(RV.cnt, 0)";
+
+            return this.jdbcTemplate.query(getStoreReviewScoresQuery,
+                    (rs, rowNum) -> new StoreReviewScore(
+                            rs.getLong("storeIdx"),
+                            rs.getLong("reviewScoreSum"),
+                            rs.getLong("reviewCnt"))
+            );
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
         }
+    }
 
-
-
-        return 1;
+    // 집계 결과 한 묶음을 batch update
+    public void updateStoreReviewScores(List<StoreReviewScore> storeReviewScores) throws BaseException {
+        try {
+            String updateStoreReviewScoreQuery = "UPDATE Store SET reviewScoreSum = ?, reviewCnt = ?, storeScore = ? WHERE storeIdx = ?";
+            this.jdbcTemplate.batchUpdate(updateStoreReviewScoreQuery, storeReviewScores, storeReviewScores.size(),
+                    (ps, storeReviewScore) -> {
+                        ps.setLong(1, storeReviewScore.getReviewScoreSum());
+                        ps.setLong(2, storeReviewScore.getReviewCnt());
+                        ps.setDouble(3, storeReviewScore.getStoreScore());
+                        ps.setLong(4, storeReviewScore.getStoreIdx());
+                    });
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
+        }
     }
 
-    @Transactional
+    @Transactional(rollbackFor = Exception.class)
     public void deleteReview(ReviewReq reviewReq) throws BaseException {
         try {
+            List<int[]> reviewList = this.jdbcTemplate.query(
+                    "select rebornIdx, reviewScore from Review where reviewIdx = ?",
+                    (rs, rowNum) -> new int[]{rs.getInt("rebornIdx"), rs.getInt("reviewScore")},
+                    reviewReq.getReviewIdx());
+
             String deleteReviewQuery = "delete from Review where Review.reviewIdx=?;";
             Object[] deleteReviewParams = new Object[]{reviewReq.getReviewIdx()};
-            this.jdbcTemplate.update(deleteReviewQuery, deleteReviewParams);
+
+            // 실제로 지워진 경우에만 스토어 평점, 리뷰 개수 반영
+            if (this.jdbcTemplate.update(deleteReviewQuery, deleteReviewParams) > 0 && !reviewList.isEmpty()) {
+                int rebornIdx = reviewList.get(0)[0];
+                changeStoreReviewScore(rebornIdx, -reviewList.get(0)[1], -1);
+                storeStatsDao.changeReviewCnt((long) rebornIdx, -1);
+            }
         } catch (Exception exception) {
             throw new BaseException(DATABASE_ERROR);
         }
@@ -195,7 +312,6 @@ public class ReviewDao {
 
     @Transactional
     public List<GetReviewRes> getReviewByStoreIdx(Integer storeIdx) throws BaseException {
-        System.out.println("dao");
         String getReviewByStoreIdxQuery = "SELECT Review.reviewIdx, Review.userIdx, User.userImg, User.userNickname, \n" +
                 "Store.storeName, Store.category, Review.rebornIdx, Reborn.productName, Review.reviewScore,\n" +
                 "Review.reviewComment, Review.reviewImage1, Review.reviewImage2, Review.reviewImage3,\n" +
@@ -210,30 +326,11 @@ public class ReviewDao {
 
         //queryForObject : DTO 여러개 값 반환
         List<GetReviewRes> getReviewRes = this.jdbcTemplate.query(getReviewByStoreIdxQuery,
-                (rs, rowNum) -> new GetReviewRes(
-                        rs.getInt("reviewIdx"),
-                        rs.getInt("userIdx"),
-                        rs.getString("userImg"),
-                        rs.getString("userNickname"),
-                        rs.getString("storeName"),
-                        StoreCategory.valueOf(rs.getString("category")).label(),
-                        rs.getInt("rebornIdx"),
-                        rs.getString("productName"),
-                        rs.getInt("reviewScore"),
-                        rs.getString("reviewComment"),
-                        rs.getTimestamp("createdAt"),
-                        new ReviewImg(
-                                rs.getString("reviewImage1"),
-                                rs.getString("reviewImage2"),
-                                rs.getString("reviewImage3"),
-                                rs.getString("reviewImage4"),
-                                rs.getString("reviewImage5"))),
+                reviewResMapper,
                 getReviewByStoreIdxParams
         );
 
-        System.out.println("dao-2");
-        System.out.println("getReviewRes");
-        System.out.println(getReviewRes);
+        log.debug("getReviewByStoreIdx storeIdx={} size={}", storeIdx, getReviewRes.size());
 
 
         return getReviewRes;
@@ -255,25 +352,7 @@ public class ReviewDao {
 
         //queryForObject : DTO 여러개 값 반환
         List<GetReviewRes2> getReviewRes = this.jdbcTemplate.query(getReviewByStoreIdxQuery,
-                (rs, rowNum) -> new GetReviewRes2(
-                        rs.getInt("reviewIdx"),
-                        rs.getInt("userIdx"),
-                        rs.getString("userImg"),
-                        rs.getString("userNickname"),
-                        rs.getString("storeName"),
-                        StoreCategory.valueOf(rs.getString("category")).label(),
-                        rs.getInt("rebornIdx"),
-                        rs.getString("productName"),
-                        rs.getInt("reviewScore"),
-                        rs.getString("reviewComment"),
-                        rs.getTimestamp("createdAt"),
-                        new ArrayList<>() {{
-                            add(rs.getString("reviewImage1"));
-                            add(rs.getString("reviewImage2"));
-                            add(rs.getString("reviewImage3"));
-                            add(rs.getString("reviewImage4"));
-                            add(rs.getString("reviewImage5"));
-                        }}),
+                reviewRes2Mapper,
                 getReviewByStoreIdxParams
         );
         return getReviewRes;
@@ -294,24 +373,57 @@ public class ReviewDao {
 
         //queryForObject : DTO 여러개 값 반환
         List<GetReviewRes3> getReviewRes = this.jdbcTemplate.query(getReviewByStoreIdxQuery,
-                (rs, rowNum) -> new GetReviewRes3(
-                        rs.getInt("reviewIdx"),
-                        rs.getInt("userIdx"),
-                        rs.getString("userImg"),
-                        rs.getString("userNickname"),
-                        rs.getString("storeName"),
-                        StoreCategory.valueOf(rs.getString("category")).label(),
-                        rs.getInt("rebornIdx"),
-                        rs.getString("productName"),
-                        rs.getInt("reviewScore"),
-                        rs.getString("reviewComment"),
-                        rs.getTimestamp("createdAt"),
-                        rs.getString("reviewImage1")),
+                reviewRes3Mapper,
                 getReviewByStoreIdxParams
         );
         return getReviewRes;
     }
 
+    // 스토어 리뷰 커서 페이지 (createdAt, reviewIdx 최신순), Review(storeIdx, createdAt, reviewIdx) 인덱스 사용
+    public CursorPage<GetReviewRes> getReviewPageByStoreIdx(Integer storeIdx, String after, int size) throws BaseException {
+        return getReviewPageByStoreIdx(storeIdx, after, size, reviewResMapper);
+    }
+
+    public CursorPage<GetReviewRes2> getReviewPageByStoreIdx2(Integer storeIdx, String after, int size) throws BaseException {
+        return getReviewPageByStoreIdx(storeIdx, after, size, reviewRes2Mapper);
+    }
+
+    public CursorPage<GetReviewRes3> getReviewPageByStoreIdx3(Integer storeIdx, String after, int size) throws BaseException {
+        return getReviewPageByStoreIdx(storeIdx, after, size, reviewRes3Mapper);
+    }
+
+    private <T> CursorPage<T> getReviewPageByStoreIdx(Integer storeIdx, String after, int size, RowMapper<T> rowMapper) throws BaseException {
+        KeysetCursor cursor = KeysetCursor.decode(after, 2);
+        Timestamp createdAt = cursor == null ? null : new Timestamp(cursor.getLong(0));
+        Long reviewIdx = cursor == null ? null : cursor.getLong(1);
+        try {
+            String getReviewPageByStoreIdxQuery = "SELECT Review.reviewIdx, Review.userIdx, User.userImg, User.userNickname, \n" +
+                    "Store.storeName, Store.category, Review.rebornIdx, Reborn.productName, Review.reviewScore,\n" +
+                    "Review.reviewComment, Review.reviewImage1, Review.reviewImage2, Review.reviewImage3,\n" +
+                    "Review.reviewImage4, Review.reviewImage5, Review.createdAt\n" +
+                    "FROM reborn.Review JOIN reborn.Reborn\n" +
+                    "ON Review.rebornIdx = Reborn.rebornIdx\n" +
+                    "JOIN reborn.User ON Review.userIdx=User.userIdx\n" +
+                    "JOIN reborn.Store ON Review.storeIdx=Store.storeIdx\n" +
+                    "WHERE Review.storeIdx = ?\n" +
+                    (cursor == null ? "" : "AND (Review.createdAt < ? OR (Review.createdAt = ? AND Review.reviewIdx < ?))\n") +
+                    "ORDER BY Review.createdAt DESC, Review.reviewIdx DESC\n" +
+                    "LIMIT ?";
+
+            CursorPageCollector<T> collector = new CursorPageCollector<>(rowMapper,
+                    rs -> KeysetCursor.encode(rs.getTimestamp("createdAt").getTime(), rs.getLong("reviewIdx")),
+                    size);
+            Object[] getReviewPageByStoreIdxParams = cursor == null
+                    ? new Object[]{storeIdx, collector.limit()}
+                    : new Object[]{storeIdx, createdAt, createdAt, reviewIdx, collector.limit()};
+
+            this.jdbcTemplate.query(getReviewPageByStoreIdxQuery, collector, getReviewPageByStoreIdxParams);
+            return collector.toPage();
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
     @Transactional
     public GetReviewRes getReviewByReviewIdx(Integer reviewIdx) throws BaseException {
         String getReviewByReviewIdxQuery = "SELECT Review.reviewIdx, Review.userIdx, User.userImg, User.userNickname, \n" +
@@ -351,8 +463,9 @@ public class ReviewDao {
         return getReviewRes;
     }
 
+    // 베스트 리뷰 순위가 준비되기 전에만 사용, category 가 null 이면 전체
     @Transactional
-    public List<GetBestReviewRes> getBestReview() throws BaseException {
+    public List<GetBestReviewRes> getBestReview(String category, int limit) throws BaseException {
         String GetReviewResQuery = "SELECT Review.reviewIdx, Review.userIdx, User.userImg, User.userNickname, \n" +
                 "Store.storeName, Store.category, Review.rebornIdx, Reborn.productName, Review.reviewScore,\n" +
                 "Review.reviewComment, Review.reviewImage1, Review.reviewImage2, Review.reviewImage3,\n" +
@@ -361,7 +474,9 @@ public class ReviewDao {
                 "ON Review.rebornIdx = Reborn.rebornIdx\n" +
                 "JOIN reborn.User ON Review.userIdx=User.userIdx\n" +
                 "JOIN reborn.Store ON Reborn.storeIdx=Store.storeIdx\n" +
-                "ORDER BY Review.reviewScore DESC LIMIT 5;"; // 실행될 동적 쿼리문
+                (category == null ? "" : "WHERE Store.category = ?\n") +
+                "ORDER BY Review.reviewScore DESC LIMIT ?;"; // 실행될 동적 쿼리문
+        Object[] getBestReviewParams = category == null ? new Object[]{limit} : new Object[]{category, limit};
 
         //queryForObject : DTO 여러개 값 반환
         List<GetBestReviewRes> getBestReviewRes = this.jdbcTemplate.query(GetReviewResQuery,
@@ -377,11 +492,62 @@ public class ReviewDao {
                         rs.getInt("reviewScore"),
                         rs.getString("reviewComment"),
                         rs.getTimestamp("createdAt"),
-                        rs.getString("reviewImage1"))
+                        rs.getString("reviewImage1")),
+                getBestReviewParams
         );
         return getBestReviewRes;
     }
 
+    // 베스트 리뷰 후보, 전체 적재는 목록을 만들지 않고 한 행씩 넘긴다.
+    public void forEachBestReviewCandidate(Consumer<BestReviewCandidate> consumer) throws BaseException {
+        try {
+            this.jdbcTemplate.query(BEST_REVIEW_CANDIDATE_QUERY, (RowCallbackHandler) rs -> consumer.accept(mapBestReviewCandidate(rs)));
+        } catch (Exception exception) {
+            log.error(exception.getMessage());
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
+    public List<BestReviewCandidate> getBestReviewCandidatesByReviewIdx(int reviewIdx) throws BaseException {
+        return getBestReviewCandidates("WHERE Review.reviewIdx = ?", reviewIdx);
+    }
+
+    public List<BestReviewCandidate> getBestReviewCandidatesByStoreIdx(long storeIdx) throws BaseException {
+        return getBestReviewCandidates("WHERE Store.storeIdx = ?", storeIdx);
+    }
+
+    public List<BestReviewCandidate> getBestReviewCandidatesByUserIdx(int userIdx) throws BaseException {
+        return getBestReviewCandidates("WHERE Review.userIdx = ?", userIdx);
+    }
+
+    private List<BestReviewCandidate> getBestReviewCandidates(String where, Object param) throws BaseException {
+        try {
+            return this.jdbcTemplate.query(BEST_REVIEW_CANDIDATE_QUERY + where, (rs, rowNum) -> mapBestReviewCandidate(rs), param);
+        } catch (Exception exception) {
+            log.error(exception.getMessage());
+            throw new BaseException(DATABASE_ERROR);
+        }
+    }
+
+    private BestReviewCandidate mapBestReviewCandidate(ResultSet rs) throws SQLException {
+        return new BestReviewCandidate(
+                rs.getInt("reviewIdx"),
+                rs.getInt("userIdx"),
+                rs.getString("userImg"),
+                rs.getString("userNickname"),
+                rs.getLong("storeIdx"),
+                rs.getString("storeName"),
+                rs.getString("category"),
+                rs.getInt("rebornIdx"),
+                rs.getString("productName"),
+                rs.getInt("reviewScore"),
+                rs.getString("reviewComment"),
+                rs.getTimestamp("createdAt"),
+                rs.getString("reviewImage1"),
+                rs.getInt("imageCnt"),
+                rs.getLong("storeJjimCnt"));
+    }
+
     @Transactional
     public ReviewImgKey findImgKey(int reviewIdx) {
         // 이미지 key 값 추출
@@ -435,51 +601,13 @@ public class ReviewDao {
         return count;
     }
 
-    @Transactional
-    public void calculateStoreAvgScore(int rebornIdx) throws BaseException {
-        // 가게 평점 업데이트
-        String getStoreScoreQuery =
-                "SELECT AVG(Review.reviewScore) FROM Review JOIN Reborn\n" +
-                        "on Review.rebornIdx = Reborn.rebornIdx\n" +
-                        "WHERE storeIdx = (SELECT storeIdx FROM Reborn where rebornIdx = ? );";
-
-        Float avgScore = jdbcTemplate.queryForObject(
-                getStoreScoreQuery, Float.class,rebornIdx);
-
-        Double avgScore2 = ((double) Math.round(avgScore*10)/10);
-
-        System.out.println("avgScore : " +avgScore);
-        System.out.println("새로운 스토어 평균 점수 (반올림처리) : "+avgScore2);
-
-        String updateStoreScoreQuery = "UPDATE Store SET storeScore=? " +
-                "WHERE storeIdx = (SELECT storeIdx FROM Reborn where rebornIdx = ? );";
-        Object[] updateStoreScoreParams = new Object[]{
-                avgScore2, rebornIdx}; // 동적 쿼리의 ?부분에 주입될 값
-        this.jdbcTemplate.update(updateStoreScoreQuery, updateStoreScoreParams);
-    }
-
-    @Transactional
-    public void calculateStoreScoreByStoreIdx(int storeIdx) throws BaseException {
-
-
-        // 가게 평점 업데이트
-        String getStoreScoreQuery =
-                "SELECT AVG(Review.reviewScore) FROM Review JOIN Reborn\n" +
-                        "on Review.rebornIdx = Reborn.rebornIdx\n" +
-                        "WHERE storeIdx = ?;";
-
-        Float avgScore = jdbcTemplate.queryForObject(
-                getStoreScoreQuery, Float.class,storeIdx);
-
-        Double avgScore2 = ((double) Math.round(avgScore*10)/10);
-
-        System.out.println("avgScore : " +avgScore);
-        System.out.println("새로운 스토어 평균 점수 (반올림처리) : "+avgScore2);
-
-        String updateStoreScoreQuery = "UPDATE Store SET storeScore=? " +
-                "WHERE storeIdx = ?;";
-        Object[] updateStoreScoreParams = new Object[]{
-                avgScore2, storeIdx}; // 동적 쿼리의 ?부분에 주입될 값
-        this.jdbcTemplate.update(updateStoreScoreQuery, updateStoreScoreParams);
+    // 스토어 리뷰 점수 합계, 개수를 증감하고 평점을 다시 계산 (호출한 쪽의 트랜잭션 안에서 실행)
+    // 단일 테이블 UPDATE 는 왼쪽부터 값을 반영하므로 storeScore 는 증감된 합계, 개수로 계산된다.
+    private void changeStoreReviewScore(int rebornIdx, int scoreDelta, int cntDelta) {
+        String changeStoreReviewScoreQuery = "UPDATE Store " +
+                "SET reviewScoreSum = greatest(reviewScoreSum + ?, 0), reviewCnt = greatest(reviewCnt + ?, 0), " +
+                "storeScore = if(reviewCnt > 0, round(reviewScoreSum / reviewCnt, 1), 0) " +
+                "WHERE storeIdx = (SELECT storeIdx FROM Reborn WHERE rebornIdx = ?)";
+        this.jdbcTemplate.update(changeStoreReviewScoreQuery, scoreDelta, cntDelta, rebornIdx);
     }
 }
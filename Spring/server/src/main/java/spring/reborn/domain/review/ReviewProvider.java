@@ -3,40 +3,70 @@ package spring.reborn.domain.review;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import spring.reborn.config.BaseException;
+import spring.reborn.domain.awsS3.ImageVariantIndex;
 import spring.reborn.domain.review.model.*;
+import spring.reborn.domain.store.model.StoreCategory;
+import spring.reborn.utils.CursorPage;
+import spring.reborn.utils.CursorPageCollector;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+
+import static spring.reborn.config.BaseResponseStatus.WRONG_CATEGORY_INPUT_ERROR;
 
 @Service
 public class ReviewProvider {
 
     private final ReviewDao reviewDao;
+    private final ImageVariantIndex imageVariantIndex;
+    private final BestReviewRanking bestReviewRanking;
 //    private final JwtService jwtService; // JWT부분은 7주차에 다루므로 모르셔도 됩니다!
 
     @Autowired //readme 참고
-    public ReviewProvider(ReviewDao reviewDao) {
+    public ReviewProvider(ReviewDao reviewDao, ImageVariantIndex imageVariantIndex, BestReviewRanking bestReviewRanking) {
         this.reviewDao = reviewDao;
+        this.imageVariantIndex = imageVariantIndex;
+        this.bestReviewRanking = bestReviewRanking;
 //        this.jwtService = jwtService; // JWT부분은 7주차에 다루므로 모르셔도 됩니다!
     }
 
     public List<GetReviewRes3> getReviewByUserIdx(Integer userIdx) throws BaseException {
-        return reviewDao.getReviewByUserIdx(userIdx);
+        return toVariant3(reviewDao.getReviewByUserIdx(userIdx));
     }
 
     public List<GetReviewRes2> getReviewByUserIdx2(Integer userIdx) throws BaseException {
-        return reviewDao.getReviewByUserIdx2(userIdx);
+        return toVariant2(reviewDao.getReviewByUserIdx2(userIdx));
     }
 
     public List<GetReviewRes> getReviewByStoreIdx(Integer storeIdx) throws BaseException {
-        return reviewDao.getReviewByStoreIdx(storeIdx);
+        return toVariant(reviewDao.getReviewByStoreIdx(storeIdx));
     }
 
     public List<GetReviewRes2> getReviewByStoreIdx2(Integer storeIdx) throws BaseException {
-        return reviewDao.getReviewByStoreIdx2(storeIdx);
+        return toVariant2(reviewDao.getReviewByStoreIdx2(storeIdx));
     }
 
     public List<GetReviewRes3> getReviewByStoreIdx3(Integer storeIdx) throws BaseException {
-        return reviewDao.getReviewByStoreIdx3(storeIdx);
+        return toVariant3(reviewDao.getReviewByStoreIdx3(storeIdx));
+    }
+
+    public CursorPage<GetReviewRes> getReviewPageByStoreIdx(Integer storeIdx, String after, Integer size) throws BaseException {
+        CursorPage<GetReviewRes> reviewPage = reviewDao.getReviewPageByStoreIdx(storeIdx, after, CursorPageCollector.pageSize(size));
+        toVariant(reviewPage.getItems());
+        return reviewPage;
+    }
+
+    public CursorPage<GetReviewRes2> getReviewPageByStoreIdx2(Integer storeIdx, String after, Integer size) throws BaseException {
+        CursorPage<GetReviewRes2> reviewPage = reviewDao.getReviewPageByStoreIdx2(storeIdx, after, CursorPageCollector.pageSize(size));
+        toVariant2(reviewPage.getItems());
+        return reviewPage;
+    }
+
+    public CursorPage<GetReviewRes3> getReviewPageByStoreIdx3(Integer storeIdx, String after, Integer size) throws BaseException {
+        CursorPage<GetReviewRes3> reviewPage = reviewDao.getReviewPageByStoreIdx3(storeIdx, after, CursorPageCollector.pageSize(size));
+        toVariant3(reviewPage.getItems());
+        return reviewPage;
     }
 
     public GetReviewRes getReviewByReviewIdx(Integer reviewIdx) throws BaseException {
@@ -44,7 +74,23 @@ public class ReviewProvider {
     }
 
     public List<GetBestReviewRes> getBestReview() throws BaseException {
-        return reviewDao.getBestReview();
+        return getBestReview(null);
+    }
+
+    // category 가 null 이면 전체 베스트 리뷰, 순위가 아직 준비되지 않았으면 DB 에서 바로 조회
+    public List<GetBestReviewRes> getBestReview(String category) throws BaseException {
+        if (category != null && Arrays.stream(StoreCategory.values()).noneMatch(storeCategory -> storeCategory.name().equals(category))) {
+            throw new BaseException(WRONG_CATEGORY_INPUT_ERROR);
+        }
+        List<GetBestReviewRes> getBestReviewRes = bestReviewRanking.getBestReviews(category == null ? BestReviewRanking.ALL : category);
+        if (getBestReviewRes == null) {
+            getBestReviewRes = reviewDao.getBestReview(category, bestReviewRanking.getSize());
+        }
+        getBestReviewRes.forEach(review -> {
+            review.setUserImg(imageVariantIndex.toThumbnailUrl(review.getUserImg()));
+            review.setReviewImage1(imageVariantIndex.toDetailUrl(review.getReviewImage1()));
+        });
+        return getBestReviewRes;
     }
 
     public Integer getReviewCntByStoreIdx(Integer storeIdx) throws BaseException {
@@ -54,4 +100,40 @@ public class ReviewProvider {
     public Integer getReviewCntByUserIdx(Integer userIdx) throws BaseException {
         return reviewDao.getReviewCntByUserIdx(userIdx);
     }
+
+    // 목록은 축소본 이미지로 (프로필은 128px, 리뷰 사진은 512px)
+    private List<GetReviewRes> toVariant(List<GetReviewRes> reviews) {
+        reviews.forEach(review -> {
+            review.setUserImg(imageVariantIndex.toThumbnailUrl(review.getUserImg()));
+            ReviewImg reviewImg = review.getReviewImg();
+            if (reviewImg != null) {
+                reviewImg.setReviewImage1(imageVariantIndex.toDetailUrl(reviewImg.getReviewImage1()));
+                reviewImg.setReviewImage2(imageVariantIndex.toDetailUrl(reviewImg.getReviewImage2()));
+                reviewImg.setReviewImage3(imageVariantIndex.toDetailUrl(reviewImg.getReviewImage3()));
+                reviewImg.setReviewImage4(imageVariantIndex.toDetailUrl(reviewImg.getReviewImage4()));
+                reviewImg.setReviewImage5(imageVariantIndex.toDetailUrl(reviewImg.getReviewImage5()));
+            }
+        });
+        return reviews;
+    }
+
+    private List<GetReviewRes2> toVariant2(List<GetReviewRes2> reviews) {
+        reviews.forEach(review -> {
+            review.setUserImg(imageVariantIndex.toThumbnailUrl(review.getUserImg()));
+            if (review.getReviewImgList() != null) {
+                review.setReviewImgList(review.getReviewImgList().stream()
+                        .map(imageVariantIndex::toDetailUrl)
+                        .collect(Collectors.toList()));
+            }
+        });
+        return reviews;
+    }
+
+    private List<GetReviewRes3> toVariant3(List<GetReviewRes3> reviews) {
+        reviews.forEach(review -> {
+            review.setUserImg(imageVariantIndex.toThumbnailUrl(review.getUserImg()));
+            review.setReviewImg(imageVariantIndex.toDetailUrl(review.getReviewImg()));
+        });
+        return reviews;
+    }
 }
@@ -1,25 +1,64 @@
 package spring.reborn.domain.review;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import spring.reborn.config.BaseException;
+import spring.reborn.domain.awsS3.ImageVariantIndex;
+import spring.reborn.domain.awsS3.model.ImageReleasedEvent;
 import spring.reborn.domain.review.model.*;
+import spring.reborn.domain.store.model.StoreChangedEvent;
 
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static spring.reborn.config.BaseResponseStatus.DATABASE_ERROR;
+
+@Slf4j
 @Service
 public class ReviewService {
 
     private final ReviewDao reviewDao;
     private final ReviewProvider reviewProvider;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    // 평점 일괄 재계산용, 호출마다 만들지 않고 서버 전체에서 하나만 씀
+    private final ExecutorService backfillExecutor;
+
+    @Value("${reborn.review.backfill.chunk-size:500}")
+    private int backfillChunkSize;
 
     @Autowired
-    public ReviewService(ReviewDao reviewDao, ReviewProvider reviewProvider){
+    public ReviewService(ReviewDao reviewDao, ReviewProvider reviewProvider,
+                         ApplicationEventPublisher applicationEventPublisher, MeterRegistry meterRegistry,
+                         @Value("${reborn.review.backfill.parallelism:4}") int backfillParallelism){
         this.reviewDao = reviewDao;
         this.reviewProvider = reviewProvider;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.backfillExecutor = Executors.newFixedThreadPool(Math.max(1, backfillParallelism));
+        new ExecutorServiceMetrics(backfillExecutor, "review-backfill", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillExecutor.shutdown();
     }
 
+    // 스토어 평점은 리뷰 작성/삭제 트랜잭션 안에서 함께 반영된다.
     public PostReviewRes createReview(PostReviewReq postReviewReq) throws BaseException {
         PostReviewRes postReviewRes = reviewDao.createReview(postReviewReq);
-        reviewDao.calculateStoreAvgScore(postReviewReq.getRebornIdx());
+        applicationEventPublisher.publishEvent(new ReviewChangedEvent(postReviewRes.getReviewIdx()));
         return postReviewRes;
     }
 
@@ -28,12 +67,55 @@ public class ReviewService {
 //        return new PostReviewRes(reviewIdx);
 //    }
 
+    // 리뷰 이미지는 삭제가 커밋된 뒤에 참조 해제, 다른 곳에서 같은 이미지를 쓰고 있으면 참조 수만 줄어듦
+    @Transactional(rollbackFor = Exception.class)
     public void deleteReview(ReviewReq reviewReq) throws BaseException {
+        ReviewImgKey reviewImgKey = findImgKey(reviewReq);
         reviewDao.deleteReview(reviewReq);
-        reviewDao.calculateStoreAvgScore(reviewReq.getRebornIdx());
+        applicationEventPublisher.publishEvent(new ReviewChangedEvent(reviewReq.getReviewIdx()));
+
+        Arrays.asList(reviewImgKey.getReviewImageKey1(), reviewImgKey.getReviewImageKey2(), reviewImgKey.getReviewImageKey3(),
+                        reviewImgKey.getReviewImageKey4(), reviewImgKey.getReviewImageKey5()).stream()
+                .filter(imageUrl -> imageUrl != null && !imageUrl.isEmpty())
+                .forEach(imageUrl -> applicationEventPublisher.publishEvent(new ImageReleasedEvent(ImageVariantIndex.toImageKey(imageUrl))));
     }
 
     public ReviewImgKey findImgKey(ReviewReq reviewReq) throws BaseException {
         return reviewDao.findImgKey(reviewReq.getReviewIdx());
     }
+
+    // 전체 스토어 평점 재계산
+    // 한 번의 집계 쿼리로 값이 달라진 스토어의 합계, 개수를 구한 뒤 묶음 단위로 나눠 병렬로 batch update 한다.
+    public int setReviewScore() throws BaseException {
+        List<StoreReviewScore> storeReviewScores = reviewDao.getStoreReviewScores();
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int from = 0; from < storeReviewScores.size(); from += backfillChunkSize) {
+                List<StoreReviewScore> chunk = storeReviewScores.subList(from, Math.min(from + backfillChunkSize, storeReviewScores.size()));
+                futures.add(backfillExecutor.submit(() -> {
+                    reviewDao.updateStoreReviewScores(chunk);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BaseException(DATABASE_ERROR);
+        } catch (ExecutionException e) {
+            log.error(e.getCause().getMessage());
+            if (e.getCause() instanceof BaseException) {
+                throw (BaseException) e.getCause();
+            }
+            throw new BaseException(DATABASE_ERROR);
+        }
+
+        log.info("set review score : " + storeReviewScores.size());
+        // 평점이 바뀐 스토어마다 캐시, 검색 색인, 인기 가게 순위표 갱신
+        storeReviewScores.forEach(storeReviewScore ->
+                applicationEventPublisher.publishEvent(new StoreChangedEvent(storeReviewScore.getStoreIdx())));
+        return storeReviewScores.size();
+    }
 }
@@ -0,0 +1,28 @@
+package spring.reborn.domain.review.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.sql.Timestamp;
+
+// 베스트 리뷰 순위 계산에 필요한 리뷰 정보 (응답 필드 + 점수 요소)
+@Getter
+@AllArgsConstructor
+public class BestReviewCandidate {
+    private int reviewIdx;
+    private int userIdx;
+    private String userImg;
+    private String userNickname;
+    private long storeIdx;
+    private String storeName;
+    // StoreCategory name
+    private String category;
+    private int rebornIdx;
+    private String productName;
+    private int reviewScore;
+    private String reviewComment;
+    private Timestamp createdAt;
+    private String reviewImage1;
+    private int imageCnt;
+    private long storeJjimCnt;
+}
@@ -0,0 +1,11 @@
+package spring.reborn.domain.review.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 리뷰가 작성/삭제되었을 때 발행 (베스트 리뷰 순위 갱신)
+@Getter
+@AllArgsConstructor
+public class ReviewChangedEvent {
+    private int reviewIdx;
+}
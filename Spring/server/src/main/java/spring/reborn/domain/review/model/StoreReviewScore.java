@@ -0,0 +1,21 @@
+package spring.reborn.domain.review.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 스토어별 리뷰 점수 합계, 개수 (평점 일괄 재계산용)
+@Getter
+@AllArgsConstructor
+public class StoreReviewScore {
+    private Long storeIdx;
+    private Long reviewScoreSum;
+    private Long reviewCnt;
+
+    // 소수 첫째 자리 반올림, 리뷰가 없으면 0
+    public double getStoreScore() {
+        if (reviewCnt == null || reviewCnt == 0) {
+            return 0;
+        }
+        return (double) Math.round((double) reviewScoreSum / reviewCnt * 10) / 10;
+    }
+}
@@ -10,6 +10,8 @@ import spring.reborn.config.BaseException;
 import spring.reborn.config.BaseResponse;
 import spring.reborn.config.BaseResponseStatus;
 import spring.reborn.domain.store.model.*;
+import spring.reborn.utils.CursorPage;
+import spring.reborn.utils.GeoUtils;
 import spring.reborn.utils.JwtService;
 
 import java.util.List;
@@ -41,6 +43,21 @@ public class StoreController {
 
     }
 
+    /*
+    가게 리스트 조회(등록 순, 커서 페이지)
+     */
+    @GetMapping("/list/cursor")
+    public BaseResponse<CursorPage<GetStoreRes>> getStoreListPage(@RequestParam(required = false) String after,
+                                                                  @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<GetStoreRes> storePage = storeService.getStoreListPage(after, size);
+            return new BaseResponse<>(storePage);
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+            return new BaseResponse<>((e.getStatus()));
+        }
+    }
+
     @GetMapping("/new")
     public BaseResponse<List<GetNewStoreRes>> getNewStoreList() {
         try {
@@ -53,6 +70,23 @@ public class StoreController {
 
     }
 
+    /*
+    주변 가게 조회(ACTIVE 리본이 있는 가게, 가까운 순)
+    radius 단위 m, 기본 1000
+     */
+    @GetMapping("/nearby")
+    public BaseResponse<List<GetNearbyStoreRes>> getNearbyStoreList(@RequestParam(required = false) Double lat,
+                                                                    @RequestParam(required = false) Double lng,
+                                                                    @RequestParam(required = false) Integer radius) {
+        try {
+            List<GetNearbyStoreRes> nearbyStoreList = storeService.getNearbyStoreList(lat, lng, radius);
+            return new BaseResponse<>(nearbyStoreList);
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+            return new BaseResponse<>((e.getStatus()));
+        }
+    }
+
     /*
     가게 위치 표시
      */
@@ -132,6 +166,9 @@ public class StoreController {
                 throw new BaseException(BaseResponseStatus.MODIFY_FAIL_STORE_EMPTY_NAME);
             if (patchStoreReq.getStoreAddress().isEmpty())
                 throw new BaseException(BaseResponseStatus.MODIFY_FAIL_STORE_EMPTY_LOCATION);
+            if ((patchStoreReq.getLatitude() != null || patchStoreReq.getLongitude() != null)
+                    && !GeoUtils.isValidCoordinate(patchStoreReq.getLatitude(), patchStoreReq.getLongitude()))
+                throw new BaseException(BaseResponseStatus.INVALID_STORE_COORDINATE);
             storeService.updateStoreInfo(storeIdx, patchStoreReq);
 
 
@@ -153,6 +190,9 @@ public class StoreController {
                 throw new BaseException(BaseResponseStatus.MODIFY_FAIL_STORE_EMPTY_NAME);
             if (patchStoreReq.getStoreAddress().isEmpty())
                 throw new BaseException(BaseResponseStatus.MODIFY_FAIL_STORE_EMPTY_LOCATION);
+            if ((patchStoreReq.getLatitude() != null || patchStoreReq.getLongitude() != null)
+                    && !GeoUtils.isValidCoordinate(patchStoreReq.getLatitude(), patchStoreReq.getLongitude()))
+                throw new BaseException(BaseResponseStatus.INVALID_STORE_COORDINATE);
 
             if (multipartFile == null)
                 storeService.updateStoreInfo2(storeIdx, patchStoreReq);
@@ -180,6 +220,18 @@ public class StoreController {
         }
     }
 
+    /* 인기가게 순위표 재적재 (Redis 초기화, 평점 일괄 수정 후), 관리자만 */
+    @ResponseBody
+    @PostMapping("/popular/rebuild")
+    public BaseResponse<Integer> rebuildPopularStore() {
+        try {
+            jwtService.checkAdmin();
+            return new BaseResponse<>(storeService.rebuildPopularStore());
+        } catch (BaseException baseException) {
+            return new BaseResponse<>(baseException.getStatus());
+        }
+    }
+
     /**
      * 유저의 좋아할만한 가게 API
      * [GET]
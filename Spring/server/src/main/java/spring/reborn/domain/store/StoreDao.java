@@ -3,14 +3,21 @@ package spring.reborn.domain.store;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import spring.reborn.config.BaseException;
 import spring.reborn.config.BaseResponseStatus;
 import spring.reborn.domain.store.model.*;
+import spring.reborn.utils.CursorPage;
+import spring.reborn.utils.CursorPageCollector;
+import spring.reborn.utils.KeysetCursor;
 
 import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -20,6 +27,25 @@ public class StoreDao {
 
     private JdbcTemplate jdbcTemplate;
 
+    // 스토어 목록/검색 공통 (벤치마크에서도 사용하므로 package-private)
+    final RowMapper<GetStoreRes> storeResMapper = (rs, rowNum) -> GetStoreRes.builder()
+            .storeIdx(rs.getLong("storeIdx"))
+            .storeName(rs.getString("storeName"))
+            .category(StoreCategory.valueOf(rs.getString("category")))
+            .storeAddress(rs.getString("storeAddress"))
+            .userImage(rs.getString("userImage"))
+            .storeDescription(rs.getString("storeDescription"))
+            .storeScore(rs.getFloat("storeScore"))
+            .build();
+
+    private final RowMapper<GetPopularStoreRes> popularStoreResMapper = (rs, rowNum) -> new GetPopularStoreRes(
+            rs.getInt("storeIdx"),
+            rs.getString("storeName"),
+            rs.getString("storeImage"),
+            rs.getString("storeAddress"),
+            rs.getString("category"),
+            rs.getFloat("storeScore"));
+
     @Autowired
     private void setDataSource(DataSource dataSource) {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
@@ -31,16 +57,7 @@ public class StoreDao {
             String getStoreListQuery = "SELECT storeIdx, storeName, userImg `userImage`,storeAddress, storeDescription, category, storeScore FROM Store S join User U on U.userIdx = S.userIdx WHERE S.status = 'ACTIVE' ORDER BY S.updatedAt desc";
             List<GetStoreRes> res = this.jdbcTemplate.query(
                     getStoreListQuery,
-                    (rs, rowNum) -> GetStoreRes.builder()
-                            .storeIdx(rs.getLong("storeIdx"))
-                            .storeName(rs.getString("storeName"))
-                            .category(StoreCategory.valueOf(rs.getString("category")))
-                            .storeAddress(rs.getString("storeAddress"))
-                            .userImage(rs.getString("userImage"))
-                            .storeDescription(rs.getString("storeDescription"))
-                            .storeScore(rs.getFloat("storeScore"))
-
-                            .build()
+                    storeResMapper
 
             );
             return res;
@@ -53,6 +70,38 @@ public class StoreDao {
         }
 
     }
+    // 등록 순 커서 페이지 (createdAt, storeIdx)
+    // updatedAt 은 가게 정보가 바뀔 때마다 변해서 페이지를 넘기는 사이에 가게가 빠지거나 중복될 수 있으므로 변하지 않는 값으로 정렬
+    public CursorPage<GetStoreRes> getStoreListPage(String after, int size) throws BaseException {
+        KeysetCursor cursor = KeysetCursor.decode(after, 2);
+        Timestamp createdAt = cursor == null ? null : new Timestamp(cursor.getLong(0));
+        Long storeIdx = cursor == null ? null : cursor.getLong(1);
+        try {
+            String getStoreListQuery = "SELECT storeIdx, storeName, userImg `userImage`,storeAddress, storeDescription, category, storeScore, S.createdAt " +
+                    "FROM Store S join User U on U.userIdx = S.userIdx " +
+                    "WHERE S.status = 'ACTIVE' " +
+                    (cursor == null ? "" : "and (S.createdAt < ? or (S.createdAt = ? and S.storeIdx < ?)) ") +
+                    "ORDER BY S.createdAt desc, S.storeIdx desc " +
+                    "LIMIT ?";
+
+            CursorPageCollector<GetStoreRes> collector = new CursorPageCollector<>(
+                    storeResMapper,
+                    rs -> KeysetCursor.encode(rs.getTimestamp("createdAt").getTime(), rs.getLong("storeIdx")),
+                    size);
+
+            Object[] getStoreListParams = cursor == null
+                    ? new Object[]{collector.limit()}
+                    : new Object[]{createdAt, createdAt, storeIdx, collector.limit()};
+
+            this.jdbcTemplate.query(getStoreListQuery, collector, getStoreListParams);
+            return collector.toPage();
+        }
+        catch (Exception e){
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
     public List<GetNewStoreRes> getNewStoreList() throws BaseException {
         try {
 
@@ -86,7 +135,7 @@ public class StoreDao {
 
     public GetStoreLocationRes getStoreLocation(Long storeIdx) throws BaseException {
         try {
-            String getStoreQuery = "SELECT storeIdx, storeName, storeAddress, storeScore FROM Store WHERE storeIdx = ? and status = 'ACTIVE'";
+            String getStoreQuery = "SELECT storeIdx, storeName, storeAddress, storeScore, latitude, longitude FROM Store WHERE storeIdx = ? and status = 'ACTIVE'";
 
             Object[] selectStoreParams = new Object[]{storeIdx};
             GetStoreLocationRes res = this.jdbcTemplate.queryForObject(
@@ -97,7 +146,8 @@ public class StoreDao {
                             .storeName(rs.getString("storeName"))
                             .storeAddress(rs.getString("storeAddress"))
                             .storeScore(rs.getFloat("storeScore"))
-
+                            .latitude(rs.getObject("latitude", Double.class))
+                            .longitude(rs.getObject("longitude", Double.class))
                             .build()
 
             );
@@ -113,11 +163,10 @@ public class StoreDao {
     public GetStoreInfoRes getStoreInfo(Long storeIdx) throws BaseException {
         try {
             String getStoreInfoQuery =
-                    "select storeIdx, storeName, storeImage, userImg `userImage`, storeAddress, storeDescription, category, storeScore,\n" +
-                    "       (select count(rebornTaskIdx) from RebornTask Rt join Reborn R on Rt.rebornIdx = R.rebornIdx where R.storeIdx = S.storeIdx  and Rt.status = 'COMPLETE')`numOfReborn`,\n" +
-                    "       (select count(reviewIdx) from Review Rv join Reborn R on Rv.rebornIdx = R.rebornIdx where R.storeIdx = S.storeIdx)`numOfReview`,\n" +
-                    "       (select count(jjimIdx) from Jjim J where J.storeIdx = S.storeIdx) `numOfJjim`\n" +
+                    "select S.storeIdx, storeName, storeImage, userImg `userImage`, storeAddress, storeDescription, category, storeScore,\n" +
+                    "       ifnull(SS.numOfReborn, 0) `numOfReborn`, ifnull(SS.numOfReview, 0) `numOfReview`, ifnull(SS.numOfJjim, 0) `numOfJjim`\n" +
                     "FROM Store S join User U on U.userIdx = S.userIdx\n" +
+                    "left join StoreStats SS on SS.storeIdx = S.storeIdx\n" +
                     "WHERE S.storeIdx = ? and S.status = 'ACTIVE';";
 
             Object[] selectStoreParams = new Object[]{storeIdx};
@@ -162,16 +211,7 @@ public class StoreDao {
 
             List<GetStoreRes> res = this.jdbcTemplate.query(
                     getStoreInfoQuery,
-                    (rs, rowNum) -> GetStoreRes.builder()
-                            .storeIdx(rs.getLong("storeIdx"))
-                            .storeName(rs.getString("storeName"))
-                            .category(StoreCategory.valueOf(rs.getString("category")))
-                            .storeAddress(rs.getString("storeAddress"))
-                            .userImage(rs.getString("userImage"))
-                            .storeDescription(rs.getString("storeDescription"))
-                            .storeScore(rs.getFloat("storeScore"))
-
-                            .build(),
+                    storeResMapper,
                     keyword
 
             );
@@ -194,16 +234,7 @@ public class StoreDao {
 
             List<GetStoreRes> res = this.jdbcTemplate.query(
                     getStoreInfoQuery,
-                    (rs, rowNum) -> GetStoreRes.builder()
-                            .storeIdx(rs.getLong("storeIdx"))
-                            .storeName(rs.getString("storeName"))
-                            .category(StoreCategory.valueOf(rs.getString("category")))
-                            .storeAddress(rs.getString("storeAddress"))
-                            .userImage(rs.getString("userImage"))
-                            .storeDescription(rs.getString("storeDescription"))
-                            .storeScore(rs.getFloat("storeScore"))
-
-                            .build(),
+                    storeResMapper,
                     keyword
 
             );
@@ -224,16 +255,7 @@ public class StoreDao {
 
             List<GetStoreRes> res = this.jdbcTemplate.query(
                     getStoreInfoQuery,
-                    (rs, rowNum) -> GetStoreRes.builder()
-                            .storeIdx(rs.getLong("storeIdx"))
-                            .storeName(rs.getString("storeName"))
-                            .category(StoreCategory.valueOf(rs.getString("category")))
-                            .storeAddress(rs.getString("storeAddress"))
-                            .userImage(rs.getString("userImage"))
-                            .storeDescription(rs.getString("storeDescription"))
-                            .storeScore(rs.getFloat("storeScore"))
-
-                            .build(),
+                    storeResMapper,
                     keyword
 
             );
@@ -255,16 +277,7 @@ public class StoreDao {
 
             List<GetStoreRes> res = this.jdbcTemplate.query(
                     getStoreInfoQuery,
-                    (rs, rowNum) -> GetStoreRes.builder()
-                            .storeIdx(rs.getLong("storeIdx"))
-                            .storeName(rs.getString("storeName"))
-                            .category(StoreCategory.valueOf(rs.getString("category")))
-                            .storeAddress(rs.getString("storeAddress"))
-                            .userImage(rs.getString("userImage"))
-                            .storeDescription(rs.getString("storeDescription"))
-                            .storeScore(rs.getFloat("storeScore"))
-
-                            .build(),
+                    storeResMapper,
                     keyword
 
             );
@@ -279,7 +292,8 @@ public class StoreDao {
     @Transactional
     public void updateStoreInfo(Long storeIdx, PatchStoreReq patchStoreReq) throws BaseException {
         try {
-            String updateStoreInfoQuery = "UPDATE Store SET storeName = ?, storeAddress = ?, storeDescription = ?, category = ?, storeImage = ? WHERE storeIdx = ? and status = 'ACTIVE'";
+            String updateStoreInfoQuery = "UPDATE Store SET storeName = ?, storeAddress = ?, storeDescription = ?, category = ?, storeImage = ?, " +
+                    "latitude = ifnull(?, latitude), longitude = ifnull(?, longitude) WHERE storeIdx = ? and status = 'ACTIVE'";
 
             Object[] updateStoreParams = new Object[]{
                     patchStoreReq.getStoreName(),
@@ -287,6 +301,8 @@ public class StoreDao {
                     patchStoreReq.getStoreDescription(),
                     patchStoreReq.getCategory(),
                     patchStoreReq.getStoreImage(),
+                    patchStoreReq.getLatitude(),
+                    patchStoreReq.getLongitude(),
                     storeIdx
             };
 
@@ -328,21 +344,59 @@ public class StoreDao {
 
     }
 
-    public List<GetPopularStoreRes> getPopularStore(String category) throws BaseException {
-        System.out.println("dao 시작");
-        String getHistroiesQuery = "SELECT storeIdx, storeName, storeImage, storeAddress, category, storeScore FROM Store WHERE category = ? and status = 'ACTIVE' ORDER BY storeScore DESC LIMIT 3";
-        List<GetPopularStoreRes> result = this.jdbcTemplate.query(
-                getHistroiesQuery,
-                (rs, rowNum) -> new GetPopularStoreRes(
-                        rs.getInt("storeIdx"),
-                        rs.getString("storeName"),
-                        rs.getString("storeImage"),
-                        rs.getString("storeAddress"),
-                        rs.getString("category"),
-                        rs.getFloat("storeScore")),
-                category
-        );
-        return result;
+    // 순위표를 쓸 수 없을 때 (Redis 장애) 직접 조회
+    public List<GetPopularStoreRes> getPopularStore(String category, int limit) throws BaseException {
+        String getHistroiesQuery = "SELECT storeIdx, storeName, storeImage, storeAddress, category, storeScore FROM Store " +
+                "WHERE status = 'ACTIVE' " + (category == null ? "" : "and category = ? ") +
+                "ORDER BY storeScore DESC LIMIT ?";
+        Object[] params = category == null ? new Object[]{limit} : new Object[]{category, limit};
+        return this.jdbcTemplate.query(getHistroiesQuery, popularStoreResMapper, params);
+    }
+
+    // 순위표에서 꺼낸 storeIdx 의 가게 정보, ACTIVE 가 아닌 가게는 빠짐
+    public List<GetPopularStoreRes> getPopularStoreCards(List<Long> storeIdxList) throws BaseException {
+        try {
+            String getPopularStoreCardsQuery = "SELECT storeIdx, storeName, storeImage, storeAddress, category, storeScore FROM Store " +
+                    "WHERE storeIdx in (" + String.join(",", Collections.nCopies(storeIdxList.size(), "?")) + ") and status = 'ACTIVE'";
+            return this.jdbcTemplate.query(getPopularStoreCardsQuery, popularStoreResMapper, storeIdxList.toArray());
+        }
+        catch (Exception e){
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
+    // 순위표 재적재용 ACTIVE 스토어 평점
+    public List<StoreRanking> getStoreRankings() throws BaseException {
+        try {
+            String getStoreRankingsQuery = "SELECT storeIdx, category, storeScore, status FROM Store WHERE status = 'ACTIVE'";
+            return this.jdbcTemplate.query(getStoreRankingsQuery, (rs, rowNum) -> mapStoreRanking(rs));
+        }
+        catch (Exception e){
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
+    // 순위표 갱신용, 스토어가 없으면 null
+    public StoreRanking getStoreRanking(Long storeIdx) throws BaseException {
+        try {
+            String getStoreRankingQuery = "SELECT storeIdx, category, storeScore, status FROM Store WHERE storeIdx = ?";
+            List<StoreRanking> res = this.jdbcTemplate.query(getStoreRankingQuery, (rs, rowNum) -> mapStoreRanking(rs), storeIdx);
+            return res.isEmpty() ? null : res.get(0);
+        }
+        catch (Exception e){
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
+    private StoreRanking mapStoreRanking(ResultSet rs) throws SQLException {
+        return new StoreRanking(
+                rs.getLong("storeIdx"),
+                rs.getString("category"),
+                rs.getFloat("storeScore"),
+                "ACTIVE".equals(rs.getString("status")));
     }
 
 
@@ -350,8 +404,8 @@ public class StoreDao {
         try {
             // 유저의 관심사가 없는 경우 ETC 대체
             // todo 유저가 스토어인 경우는 ??
-            String selectLikeableStoreQuery = "select s.storeIdx, storeName, category, storeScore, (select userImg FROM User U WHERE U.userIdx = s.userIdx) `userImage`, " +
-                    "if((select j.jjimIdx from Jjim j where j.userIdx = ? and s.storeIdx = j.storeIdx) is null, false, true) hasJjim\n" +
+            // 찜 여부(hasJjim)는 StoreService 에서 유저 찜 set 으로 채움
+            String selectLikeableStoreQuery = "select s.storeIdx, storeName, category, storeScore, (select userImg FROM User U WHERE U.userIdx = s.userIdx) `userImage`\n" +
                     "from  Store s\n" +
                     "where s.category = (select ifnull(userLikes,'ETC') from User where userIdx = ?) and s.status='ACTIVE' " +
                     "order by storeScore desc " +
@@ -364,10 +418,9 @@ public class StoreDao {
                             .storeName(rs.getString("storeName"))
                             .userImage(rs.getString("userImage"))
                             .category(rs.getString("category"))
-                            .hasJjim(rs.getBoolean("hasJjim"))
                             .build()
                     ),
-                    userIdx,userIdx);
+                    userIdx);
 
             return likeableStoreRes;
 
@@ -378,4 +431,121 @@ public class StoreDao {
             throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
         }
     }
+
+    // 검색 색인용 전체 스토어
+    public List<StoreSearchDocument> getStoreSearchDocuments() throws BaseException {
+        try {
+            String getStoreSearchDocumentsQuery = "SELECT S.storeIdx, storeName, userImg `userImage`, storeAddress, storeDescription, category, storeScore, " +
+                    "ifnull(SS.numOfJjim, 0) `numOfJjim` " +
+                    "FROM Store S join User U on U.userIdx = S.userIdx " +
+                    "left join StoreStats SS on SS.storeIdx = S.storeIdx " +
+                    "WHERE S.status = 'ACTIVE'";
+
+            return this.jdbcTemplate.query(getStoreSearchDocumentsQuery, (rs, rowNum) -> mapStoreSearchDocument(rs));
+        }
+        catch (Exception e){
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
+    // 검색 색인 갱신용, ACTIVE 스토어가 아니면 null
+    public StoreSearchDocument getStoreSearchDocument(Long storeIdx) throws BaseException {
+        try {
+            String getStoreSearchDocumentQuery = "SELECT S.storeIdx, storeName, userImg `userImage`, storeAddress, storeDescription, category, storeScore, " +
+                    "ifnull(SS.numOfJjim, 0) `numOfJjim` " +
+                    "FROM Store S join User U on U.userIdx = S.userIdx " +
+                    "left join StoreStats SS on SS.storeIdx = S.storeIdx " +
+                    "WHERE S.storeIdx = ? and S.status = 'ACTIVE'";
+
+            List<StoreSearchDocument> res = this.jdbcTemplate.query(getStoreSearchDocumentQuery,
+                    (rs, rowNum) -> mapStoreSearchDocument(rs),
+                    storeIdx);
+            return res.isEmpty() ? null : res.get(0);
+        }
+        catch (Exception e){
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
+    private StoreSearchDocument mapStoreSearchDocument(ResultSet rs) throws SQLException {
+        return StoreSearchDocument.builder()
+                .storeIdx(rs.getLong("storeIdx"))
+                .storeName(rs.getString("storeName"))
+                .userImage(rs.getString("userImage"))
+                .storeAddress(rs.getString("storeAddress"))
+                .storeDescription(rs.getString("storeDescription"))
+                .storeScore(rs.getFloat("storeScore"))
+                .category(StoreCategory.valueOf(rs.getString("category")))
+                .numOfJjim(rs.getLong("numOfJjim"))
+                .build();
+    }
+
+    // 주변 스토어 색인용, 위치가 등록되어 있고 ACTIVE 리본이 남아있는 ACTIVE 스토어
+    public List<StoreLocation> getStoreLocations() throws BaseException {
+        try {
+            String getStoreLocationsQuery = "SELECT S.storeIdx, storeName, userImg `userImage`, storeAddress, storeScore, category, latitude, longitude " +
+                    "FROM Store S join User U on U.userIdx = S.userIdx " +
+                    "WHERE S.status = 'ACTIVE' and S.latitude is not null and S.longitude is not null " +
+                    "and exists(select 1 from Reborn R where R.storeIdx = S.storeIdx and R.status = 'ACTIVE' and R.productCnt > 0)";
+
+            return this.jdbcTemplate.query(getStoreLocationsQuery, (rs, rowNum) -> mapStoreLocation(rs));
+        }
+        catch (Exception e){
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
+    // 주변 스토어 색인이 준비되기 전, 위도/경도 범위 안의 색인 대상 스토어
+    public List<StoreLocation> getStoreLocationsInRange(double minLatitude, double maxLatitude,
+                                                        double minLongitude, double maxLongitude) throws BaseException {
+        try {
+            String getStoreLocationsInRangeQuery = "SELECT S.storeIdx, storeName, userImg `userImage`, storeAddress, storeScore, category, latitude, longitude " +
+                    "FROM Store S join User U on U.userIdx = S.userIdx " +
+                    "WHERE S.latitude between ? and ? and S.longitude between ? and ? and S.status = 'ACTIVE' " +
+                    "and exists(select 1 from Reborn R where R.storeIdx = S.storeIdx and R.status = 'ACTIVE' and R.productCnt > 0)";
+
+            return this.jdbcTemplate.query(getStoreLocationsInRangeQuery,
+                    (rs, rowNum) -> mapStoreLocation(rs),
+                    minLatitude, maxLatitude, minLongitude, maxLongitude);
+        }
+        catch (Exception e){
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
+    // 주변 스토어 색인 갱신용, 색인 대상이 아니면 null
+    public StoreLocation getStoreLocationEntry(Long storeIdx) throws BaseException {
+        try {
+            String getStoreLocationQuery = "SELECT S.storeIdx, storeName, userImg `userImage`, storeAddress, storeScore, category, latitude, longitude " +
+                    "FROM Store S join User U on U.userIdx = S.userIdx " +
+                    "WHERE S.storeIdx = ? and S.status = 'ACTIVE' and S.latitude is not null and S.longitude is not null " +
+                    "and exists(select 1 from Reborn R where R.storeIdx = S.storeIdx and R.status = 'ACTIVE' and R.productCnt > 0)";
+
+            List<StoreLocation> res = this.jdbcTemplate.query(getStoreLocationQuery,
+                    (rs, rowNum) -> mapStoreLocation(rs),
+                    storeIdx);
+            return res.isEmpty() ? null : res.get(0);
+        }
+        catch (Exception e){
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
+    private StoreLocation mapStoreLocation(ResultSet rs) throws SQLException {
+        return StoreLocation.builder()
+                .storeIdx(rs.getLong("storeIdx"))
+                .storeName(rs.getString("storeName"))
+                .userImage(rs.getString("userImage"))
+                .storeAddress(rs.getString("storeAddress"))
+                .storeScore(rs.getFloat("storeScore"))
+                .category(StoreCategory.valueOf(rs.getString("category")))
+                .latitude(rs.getDouble("latitude"))
+                .longitude(rs.getDouble("longitude"))
+                .build();
+    }
 }
@@ -0,0 +1,37 @@
+package spring.reborn.domain.store;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.store.model.GetStoreInfoRes;
+import spring.reborn.domain.store.model.StoreChangedEvent;
+import spring.reborn.utils.LocalCache;
+
+/**
+ * 스토어 상세 조회 캐시
+ * 스토어 정보나 통계가 바뀌면 커밋 이후에 해당 스토어만 비운다.
+ */
+@Component
+public class StoreInfoCache {
+
+    private final LocalCache<Long, GetStoreInfoRes> cache;
+
+    public StoreInfoCache(@Value("${store.info.cache.ttl:60000}") long ttlMillis,
+                          @Value("${store.info.cache.max-size:1000}") int maxSize) {
+        this.cache = new LocalCache<>(ttlMillis, maxSize);
+    }
+
+    public GetStoreInfoRes get(Long storeIdx, LocalCache.Loader<Long, GetStoreInfoRes> loader) throws BaseException {
+        return cache.get(storeIdx, loader);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStoreChanged(StoreChangedEvent storeChangedEvent) {
+        cache.invalidate(storeChangedEvent.getStoreIdx());
+    }
+}
@@ -0,0 +1,194 @@
+package spring.reborn.domain.store;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.store.model.GetNearbyStoreRes;
+import spring.reborn.domain.store.model.StoreChangedEvent;
+import spring.reborn.domain.store.model.StoreLocation;
+import spring.reborn.utils.GeoUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 주변 스토어 색인
+ * ACTIVE 리본이 남아있는 ACTIVE 스토어를 위도/경도 격자(CELL_DEGREE 단위)에 나눠 메모리에 올려두고,
+ * 반경 검색은 반경을 덮는 격자만 훑은 뒤 실제 거리로 거른다.
+ * 스토어/리본 변경 이벤트로 해당 스토어만 갱신하고, 리본 소진처럼 이벤트가 없는 변화는 주기적인 재색인으로 맞춘다.
+ * 재색인은 서버 시작 / 스케줄러에서만 한 번에 하나씩 돌고, 색인이 준비되기 전 요청은 DB 범위 조회로 처리한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StoreLocationIndex {
+
+    // 약 1.1km 격자
+    private static final double CELL_DEGREE = 0.01;
+
+    private static class Grid {
+        private final Map<Long, StoreLocation> locations = new ConcurrentHashMap<>();
+        private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    }
+
+    private final StoreDao storeDao;
+
+    @Value("${reborn.store.nearby.max-radius:5000}")
+    private int maxRadius;
+
+    private volatile Grid grid = new Grid();
+    private volatile boolean ready = false;
+    private final AtomicBoolean building = new AtomicBoolean(false);
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getMaxRadius() {
+        return maxRadius;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${reborn.store.nearby.refresh-interval:60000}", initialDelayString = "${reborn.store.nearby.refresh-interval:60000}")
+    public void build() {
+        // 이미 재색인 중이면 건너뜀
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<StoreLocation> storeLocations = storeDao.getStoreLocations();
+            Grid newGrid = new Grid();
+            storeLocations.forEach(storeLocation -> put(newGrid, storeLocation));
+            synchronized (this) {
+                grid = newGrid;
+            }
+            ready = true;
+            log.debug("build store location index : " + storeLocations.size());
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        } finally {
+            building.set(false);
+        }
+    }
+
+    // 스토어 정보나 리본 상태가 바뀌면 해당 스토어만 다시 색인
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStoreChanged(StoreChangedEvent storeChangedEvent) {
+        try {
+            StoreLocation storeLocation = storeDao.getStoreLocationEntry(storeChangedEvent.getStoreIdx());
+            synchronized (this) {
+                if (storeLocation == null) {
+                    remove(grid, storeChangedEvent.getStoreIdx());
+                } else {
+                    put(grid, storeLocation);
+                }
+            }
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        }
+    }
+
+    // 반경(m) 안의 스토어, 가까운 순
+    public List<GetNearbyStoreRes> findNearby(double latitude, double longitude, int radius) {
+        Grid current = grid;
+        double latDelta = latDelta(radius);
+        double lngDelta = lngDelta(latitude, radius);
+
+        long minLatCell = cell(Math.max(latitude - latDelta, -90));
+        long maxLatCell = cell(Math.min(latitude + latDelta, 90));
+        long minLngCell = cell(longitude - lngDelta);
+        long maxLngCell = cell(longitude + lngDelta);
+
+        List<StoreLocation> candidates = new ArrayList<>();
+        for (long latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+            for (long lngCell = minLngCell; lngCell <= maxLngCell; lngCell++) {
+                Set<Long> storeIdxSet = current.cells.get(cellKey(latCell, lngCell));
+                if (storeIdxSet == null) {
+                    continue;
+                }
+                for (Long storeIdx : storeIdxSet) {
+                    StoreLocation storeLocation = current.locations.get(storeIdx);
+                    if (storeLocation != null) {
+                        candidates.add(storeLocation);
+                    }
+                }
+            }
+        }
+        return toNearby(candidates, latitude, longitude, radius);
+    }
+
+    // 색인이 준비되기 전, 반경을 덮는 위도/경도 범위만 DB 에서 읽음
+    public List<GetNearbyStoreRes> findNearbyFromDb(double latitude, double longitude, int radius) throws BaseException {
+        double latDelta = latDelta(radius);
+        double lngDelta = lngDelta(latitude, radius);
+        List<StoreLocation> candidates = storeDao.getStoreLocationsInRange(
+                latitude - latDelta, latitude + latDelta, longitude - lngDelta, longitude + lngDelta);
+        return toNearby(candidates, latitude, longitude, radius);
+    }
+
+    private static List<GetNearbyStoreRes> toNearby(List<StoreLocation> candidates, double latitude, double longitude, int radius) {
+        List<StoreLocation> found = new ArrayList<>();
+        Map<Long, Double> distances = new HashMap<>();
+        for (StoreLocation storeLocation : candidates) {
+            double distance = GeoUtils.distance(latitude, longitude, storeLocation.getLatitude(), storeLocation.getLongitude());
+            if (distance <= radius) {
+                found.add(storeLocation);
+                distances.put(storeLocation.getStoreIdx(), distance);
+            }
+        }
+
+        found.sort(Comparator.comparingDouble(storeLocation -> distances.get(storeLocation.getStoreIdx())));
+        List<GetNearbyStoreRes> result = new ArrayList<>(found.size());
+        found.forEach(storeLocation -> result.add(storeLocation.toGetNearbyStoreRes(distances.get(storeLocation.getStoreIdx()))));
+        return result;
+    }
+
+    private static void put(Grid grid, StoreLocation storeLocation) {
+        remove(grid, storeLocation.getStoreIdx());
+        grid.locations.put(storeLocation.getStoreIdx(), storeLocation);
+        grid.cells.computeIfAbsent(cellKey(storeLocation), key -> ConcurrentHashMap.newKeySet())
+                .add(storeLocation.getStoreIdx());
+    }
+
+    private static void remove(Grid grid, Long storeIdx) {
+        StoreLocation storeLocation = grid.locations.remove(storeIdx);
+        if (storeLocation == null) {
+            return;
+        }
+        Long key = cellKey(storeLocation);
+        Set<Long> storeIdxSet = grid.cells.get(key);
+        if (storeIdxSet != null) {
+            storeIdxSet.remove(storeIdx);
+            if (storeIdxSet.isEmpty()) {
+                grid.cells.remove(key, storeIdxSet);
+            }
+        }
+    }
+
+    private static double latDelta(int radius) {
+        return radius / GeoUtils.METERS_PER_DEGREE;
+    }
+
+    private static double lngDelta(double latitude, int radius) {
+        return radius / (GeoUtils.METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+    }
+
+    private static long cell(double degree) {
+        return (long) Math.floor(degree / CELL_DEGREE);
+    }
+
+    private static Long cellKey(StoreLocation storeLocation) {
+        return cellKey(cell(storeLocation.getLatitude()), cell(storeLocation.getLongitude()));
+    }
+
+    private static Long cellKey(long latCell, long lngCell) {
+        return (latCell << 32) | (lngCell & 0xffffffffL);
+    }
+}
@@ -0,0 +1,200 @@
+package spring.reborn.domain.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.store.model.GetPopularStoreRes;
+import spring.reborn.domain.store.model.StoreCategory;
+import spring.reborn.domain.store.model.StoreChangedEvent;
+import spring.reborn.domain.store.model.StoreRanking;
+import spring.reborn.utils.LocalCache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static spring.reborn.config.BaseResponseStatus.SERVER_ERROR;
+
+/**
+ * 인기 가게 순위표
+ * 카테고리별, 전체(ALL) Redis sorted set 에 storeIdx 를 평점(storeScore)으로 올려두고 ZREVRANGE 로 상위 N 개를 읽는다.
+ * 평점, 카테고리, 상태가 바뀌면 StoreChangedEvent 로 해당 가게만 다시 반영하고,
+ * 순위표가 비어있으면(콜드 스타트) MySQL 에서 다시 적재한다.
+ * 가게 정보(이름, 이미지, 주소)는 로컬 캐시에 두고, Redis 를 쓸 수 없으면 MySQL 에서 직접 조회한다.
+ */
+@Slf4j
+@Component
+public class StorePopularityBoard {
+
+    public static final String ALL = "ALL";
+
+    private static final String KEY_PREFIX = "storePopular:";
+    private static final String REBUILD_SUFFIX = ":rebuild";
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final StoreDao storeDao;
+    private final LocalCache<Long, GetPopularStoreRes> storeCards;
+
+    @Value("${store.popular.top-n:3}")
+    private int topN;
+
+    public StorePopularityBoard(StringRedisTemplate stringRedisTemplate, StoreDao storeDao,
+                                @Value("${store.popular.card-ttl:60000}") long cardTtl,
+                                @Value("${store.popular.card-max-size:1000}") int cardMaxSize) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.storeDao = storeDao;
+        this.storeCards = new LocalCache<>(cardTtl, cardMaxSize);
+    }
+
+    // 카테고리(StoreCategory name) 또는 ALL 의 상위 N 개, 평점 높은 순
+    public List<GetPopularStoreRes> getTopStores(String board) throws BaseException {
+        Set<String> members;
+        try {
+            members = stringRedisTemplate.opsForZSet().reverseRange(key(board), 0, topN - 1);
+        } catch (Exception e) {
+            log.error("store popularity board unavailable : " + e.getMessage());
+            return storeDao.getPopularStore(ALL.equals(board) ? null : board, topN);
+        }
+        if (members == null || members.isEmpty()) {
+            // 빈 카테고리이거나 아직 적재 전
+            return storeDao.getPopularStore(ALL.equals(board) ? null : board, topN);
+        }
+
+        List<Long> storeIdxList = new ArrayList<>();
+        members.forEach(member -> storeIdxList.add(Long.valueOf(member)));
+
+        Map<Long, GetPopularStoreRes> cards = new HashMap<>();
+        List<Long> missingStoreIdxList = new ArrayList<>();
+        for (Long storeIdx : storeIdxList) {
+            GetPopularStoreRes card = storeCards.get(storeIdx);
+            if (card == null) {
+                missingStoreIdxList.add(storeIdx);
+            } else {
+                cards.put(storeIdx, card);
+            }
+        }
+        if (!missingStoreIdxList.isEmpty()) {
+            for (GetPopularStoreRes card : storeDao.getPopularStoreCards(missingStoreIdxList)) {
+                storeCards.put((long) card.getStoreIdx(), card);
+                cards.put((long) card.getStoreIdx(), card);
+            }
+        }
+
+        // 순위표 순서대로, 캐시 항목은 응답에서 바뀌지 않도록 복사
+        List<GetPopularStoreRes> topStores = new ArrayList<>();
+        for (Long storeIdx : storeIdxList) {
+            GetPopularStoreRes card = cards.get(storeIdx);
+            if (card != null) {
+                topStores.add(new GetPopularStoreRes(card.getStoreIdx(), card.getStoreName(), card.getStoreImage(),
+                        card.getStoreAddress(), card.getCategory(), card.getStoreScore()));
+            }
+        }
+        return topStores;
+    }
+
+    // 콜드 스타트 : 전체 순위표가 없으면 다시 적재
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        try {
+            if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(key(ALL)))) {
+                log.info("store popularity board rebuilt : " + rebuild());
+            }
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        } catch (Exception e) {
+            log.error("store popularity board rebuild failed : " + e.getMessage());
+        }
+    }
+
+    // MySQL 에서 전체 다시 적재, 임시 key 에 채운 뒤 RENAME 으로 바꿔서 읽는 쪽이 빈 순위표를 보지 않도록 함
+    public int rebuild() throws BaseException {
+        List<StoreRanking> storeRankings = storeDao.getStoreRankings();
+
+        Map<String, List<ZSetOperations.TypedTuple<String>>> boards = new LinkedHashMap<>();
+        boards.put(ALL, new ArrayList<>());
+        for (StoreCategory category : StoreCategory.values()) {
+            boards.put(category.name(), new ArrayList<>());
+        }
+        for (StoreRanking storeRanking : storeRankings) {
+            ZSetOperations.TypedTuple<String> tuple =
+                    new DefaultTypedTuple<>(String.valueOf(storeRanking.getStoreIdx()), (double) storeRanking.getStoreScore());
+            boards.get(ALL).add(tuple);
+            List<ZSetOperations.TypedTuple<String>> categoryBoard = boards.get(storeRanking.getCategory());
+            if (categoryBoard != null) {
+                categoryBoard.add(tuple);
+            }
+        }
+
+        try {
+            for (Map.Entry<String, List<ZSetOperations.TypedTuple<String>>> board : boards.entrySet()) {
+                String key = key(board.getKey());
+                List<ZSetOperations.TypedTuple<String>> tuples = board.getValue();
+                if (tuples.isEmpty()) {
+                    stringRedisTemplate.delete(key);
+                    continue;
+                }
+                String rebuildKey = key + REBUILD_SUFFIX;
+                stringRedisTemplate.delete(rebuildKey);
+                for (int from = 0; from < tuples.size(); from += REBUILD_CHUNK_SIZE) {
+                    stringRedisTemplate.opsForZSet().add(rebuildKey,
+                            new HashSet<>(tuples.subList(from, Math.min(from + REBUILD_CHUNK_SIZE, tuples.size()))));
+                }
+                stringRedisTemplate.rename(rebuildKey, key);
+            }
+        } catch (Exception e) {
+            log.error("store popularity board rebuild failed : " + e.getMessage());
+            throw new BaseException(SERVER_ERROR);
+        }
+        storeCards.invalidateAll();
+        return storeRankings.size();
+    }
+
+    // 평점, 카테고리, 상태 변경 반영 (모든 순위표에서 빼고 현재 카테고리와 ALL 에만 다시 올림, 한 번에 pipeline)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStoreChanged(StoreChangedEvent storeChangedEvent) {
+        Long storeIdx = storeChangedEvent.getStoreIdx();
+        storeCards.invalidate(storeIdx);
+        try {
+            StoreRanking storeRanking = storeDao.getStoreRanking(storeIdx);
+            boolean ranked = storeRanking != null && storeRanking.isActive();
+            byte[] member = bytes(String.valueOf(storeIdx));
+
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                RedisZSetCommands zSetCommands = connection.zSetCommands();
+                for (StoreCategory category : StoreCategory.values()) {
+                    if (!ranked || !category.name().equals(storeRanking.getCategory())) {
+                        zSetCommands.zRem(bytes(key(category.name())), member);
+                    }
+                }
+                if (ranked) {
+                    zSetCommands.zAdd(bytes(key(storeRanking.getCategory())), storeRanking.getStoreScore(), member);
+                    zSetCommands.zAdd(bytes(key(ALL)), storeRanking.getStoreScore(), member);
+                } else {
+                    zSetCommands.zRem(bytes(key(ALL)), member);
+                }
+                return null;
+            });
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        } catch (Exception e) {
+            log.error("store popularity board update failed : " + e.getMessage());
+        }
+    }
+
+    private static String key(String board) {
+        return KEY_PREFIX + board;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -6,6 +6,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import spring.reborn.config.BaseException;
+import spring.reborn.domain.awsS3.ImageVariantIndex;
 import spring.reborn.domain.reborn.RebornDao;
 import spring.reborn.domain.store.model.GetPopularStoreRes;
 import spring.reborn.domain.store.model.GetStoreRes;
@@ -18,23 +19,28 @@ import static spring.reborn.config.BaseResponseStatus.WRONG_CATEGORY_INPUT_ERROR
 @Service
 public class StoreProvider {
     private final StoreDao storeDao;
+    private final ImageVariantIndex imageVariantIndex;
+    private final StorePopularityBoard storePopularityBoard;
 
     final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     @Autowired
-    public StoreProvider(StoreDao storeDao) {
+    public StoreProvider(StoreDao storeDao, ImageVariantIndex imageVariantIndex, StorePopularityBoard storePopularityBoard) {
         this.storeDao = storeDao;
+        this.imageVariantIndex = imageVariantIndex;
+        this.storePopularityBoard = storePopularityBoard;
     }
 
 
+    // category 에 ALL 을 주면 전체 인기 가게
     public List<GetPopularStoreRes> getPopularStore(String category) throws BaseException {
-        if (!(category.equals("CAFE") || category.equals("FASHION") || category.equals("SIDEDISH") || category.equals("LIFE") || category.equals("ETC"))) {
+        if (!(category.equals("CAFE") || category.equals("FASHION") || category.equals("SIDEDISH") || category.equals("LIFE") || category.equals("ETC")
+                || category.equals(StorePopularityBoard.ALL))) {
             throw new BaseException(WRONG_CATEGORY_INPUT_ERROR);
         }
         try {
-            System.out.println("provider 시작");
-            List<GetPopularStoreRes> getHistories = storeDao.getPopularStore(category);
-            System.out.println("provider 끝");
+            List<GetPopularStoreRes> getHistories = storePopularityBoard.getTopStores(category);
+            getHistories.forEach(store -> store.setStoreImage(imageVariantIndex.toThumbnailUrl(store.getStoreImage())));
             return getHistories;
         } catch (Exception exception) {
             throw new BaseException(DATABASE_ERROR);
@@ -0,0 +1,141 @@
+package spring.reborn.domain.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import spring.reborn.config.BaseException;
+import spring.reborn.config.BaseResponseStatus;
+import spring.reborn.domain.store.model.GetLikeableStoreRes;
+import spring.reborn.domain.store.model.StoreInteraction;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 좋아할만한 가게 추천용 조회
+ * 전체 적재는 목록을 만들지 않고 한 행씩 넘긴다. (MySQL 드라이버가 결과를 통째로 받아두지 않도록 streaming 으로 읽음)
+ */
+@Slf4j
+@Repository
+public class StoreRecommendDao {
+
+    // 찜과 완료된 픽업을 (유저, 스토어) 단위로 합침
+    private static final String INTERACTION_QUERY =
+            "select userIdx, storeIdx, sum(jjim) jjim, sum(pickup) pickupCnt from (" +
+            "  select userIdx, storeIdx, 1 jjim, 0 pickup from Jjim %s" +
+            "  union all " +
+            "  select rt.userIdx, r.storeIdx, 0 jjim, 1 pickup from RebornTask rt join Reborn r on rt.rebornIdx = r.rebornIdx " +
+            "  where rt.status = 'COMPLETE' %s" +
+            ") I group by userIdx, storeIdx order by userIdx";
+
+    private JdbcTemplate jdbcTemplate;
+    // 전체 적재용, fetch size Integer.MIN_VALUE 면 MySQL Connector/J 가 한 행씩 받아옴
+    private JdbcTemplate streamingJdbcTemplate;
+
+    @Autowired
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    // userIdx 순으로 넘김
+    public void forEachStoreInteraction(Consumer<StoreInteraction> consumer) throws BaseException {
+        try {
+            this.streamingJdbcTemplate.query(String.format(INTERACTION_QUERY, "", ""),
+                    (RowCallbackHandler) rs -> consumer.accept(mapStoreInteraction(rs)));
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
+    public List<StoreInteraction> getStoreInteractions(int userIdx) throws BaseException {
+        try {
+            return this.jdbcTemplate.query(String.format(INTERACTION_QUERY, "where userIdx = ?", "and rt.userIdx = ?"),
+                    (rs, rowNum) -> mapStoreInteraction(rs), userIdx, userIdx);
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
+    // 손님 유저의 관심 카테고리 (없으면 ETC)
+    public void forEachUserLikes(BiConsumer<Integer, String> consumer) throws BaseException {
+        try {
+            this.streamingJdbcTemplate.query("select userIdx, ifnull(userLikes, 'ETC') userLikes from User where userType = 'CONSUMER'",
+                    (RowCallbackHandler) rs -> consumer.accept(rs.getInt("userIdx"), rs.getString("userLikes")));
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
+    public String getUserLikes(int userIdx) throws BaseException {
+        try {
+            List<String> userLikes = this.jdbcTemplate.queryForList(
+                    "select ifnull(userLikes, 'ETC') from User where userIdx = ?", String.class, userIdx);
+            return userLikes.isEmpty() ? null : userLikes.get(0);
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
+    // 추천 대상 ACTIVE 스토어
+    public List<GetLikeableStoreRes> getRecommendStores() throws BaseException {
+        return getRecommendStores("");
+    }
+
+    // ACTIVE 가 아니거나 없으면 null
+    public GetLikeableStoreRes getRecommendStore(Long storeIdx) throws BaseException {
+        List<GetLikeableStoreRes> stores = getRecommendStores("and s.storeIdx = ?", storeIdx);
+        return stores.isEmpty() ? null : stores.get(0);
+    }
+
+    private List<GetLikeableStoreRes> getRecommendStores(String where, Object... params) throws BaseException {
+        try {
+            String getRecommendStoresQuery = "select s.storeIdx, s.storeName, s.category, s.storeScore, U.userImg userImage " +
+                    "from Store s left join User U on U.userIdx = s.userIdx " +
+                    "where s.status = 'ACTIVE' " + where;
+            return this.jdbcTemplate.query(getRecommendStoresQuery,
+                    (rs, rowNum) -> GetLikeableStoreRes.builder()
+                            .storeIdx(rs.getLong("storeIdx"))
+                            .storeName(rs.getString("storeName"))
+                            .storeScore(rs.getFloat("storeScore"))
+                            .category(rs.getString("category"))
+                            .userImage(rs.getString("userImage"))
+                            .build(),
+                    params);
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
+    // 완료된 리본 태스크의 유저, 없으면 null
+    public Integer getRebornTaskUserIdx(Long rebornTaskIdx) throws BaseException {
+        try {
+            List<Integer> userIdxList = this.jdbcTemplate.queryForList(
+                    "select userIdx from RebornTask where rebornTaskIdx = ?", Integer.class, rebornTaskIdx);
+            return userIdxList.isEmpty() ? null : userIdxList.get(0);
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
+    private StoreInteraction mapStoreInteraction(ResultSet rs) throws SQLException {
+        return new StoreInteraction(
+                rs.getInt("userIdx"),
+                rs.getLong("storeIdx"),
+                rs.getInt("jjim") > 0,
+                rs.getInt("pickupCnt"));
+    }
+}
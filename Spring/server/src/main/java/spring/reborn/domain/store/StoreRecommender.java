@@ -0,0 +1,489 @@
+package spring.reborn.domain.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.jjim.model.JjimChangedEvent;
+import spring.reborn.domain.rebornTask.model.RebornTaskCompletedEvent;
+import spring.reborn.domain.store.model.GetLikeableStoreRes;
+import spring.reborn.domain.store.model.StoreCategory;
+import spring.reborn.domain.store.model.StoreChangedEvent;
+import spring.reborn.domain.store.model.StoreInteraction;
+import spring.reborn.domain.user.model.UserChangedEvent;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 좋아할만한 가게 추천
+ * 찜, 완료된 픽업 기록으로 스토어끼리 함께 선택된 정도(코사인 유사도)를 주기적으로 계산해 스토어별 이웃 상위 N 개만 남기고,
+ * 유저마다 (이웃 점수, 카테고리 선호, 스토어 평점)을 섞은 상위 size 개를 미리 계산해둔다.
+ * 스토어는 배치마다 0 부터 번호를 다시 매기고 int / float 배열로만 들고 있는다.
+ * 유저가 찜하거나 픽업을 완료하면 유저 기록만 다시 읽어 그 유저의 추천을 다시 계산한다 (스토어 유사도는 다음 배치에 반영).
+ * 다시 계산은 요청 쓰레드가 아닌 별도 쓰레드에서 하고, 대기중인 같은 유저의 요청은 한 번으로 합친다.
+ */
+@Slf4j
+@Component
+public class StoreRecommender {
+
+    private static final int[] NO_ITEMS = new int[0];
+    private static final float[] NO_WEIGHTS = new float[0];
+    private static final StoreCategory[] CATEGORIES = StoreCategory.values();
+
+    // 유저가 활동한 스토어(번호)와 가중치, 가중치 큰 순
+    private static class UserVector {
+        private final int[] items;
+        private final float[] weights;
+
+        private UserVector(int[] items, float[] weights) {
+            this.items = items;
+            this.weights = weights;
+        }
+    }
+
+    // 배치 한 번의 결과
+    private static class Model {
+        private final long[] storeIdxByIndex;
+        private final Map<Long, Integer> indexByStoreIdx;
+        private final int[] categoryByIndex;
+        private final float[] scoreByIndex;
+        private int[][] neighbors;
+        private float[][] similarities;
+        // 이웃이 없는 후보 : 카테고리별 평점 상위 size 개
+        private int[][] topByCategory;
+        // 활동 기록이 없는 유저 : 관심 카테고리별 추천
+        private int[][] defaultTop;
+        private final Map<Integer, int[]> userTop = new ConcurrentHashMap<>();
+
+        private Model(int storeCnt) {
+            this.storeIdxByIndex = new long[storeCnt];
+            this.indexByStoreIdx = new HashMap<>(storeCnt * 2);
+            this.categoryByIndex = new int[storeCnt];
+            this.scoreByIndex = new float[storeCnt];
+        }
+    }
+
+    private final StoreRecommendDao storeRecommendDao;
+    // 응답에 쓰는 스토어 정보 (스토어 변경시 바로 갱신)
+    private final Map<Long, GetLikeableStoreRes> stores = new ConcurrentHashMap<>();
+    // 배치 계산 중 갱신 요청이 들어온 유저, 새 결과로 바꾼 뒤 다시 계산
+    private final Set<Integer> refreshedDuringRebuild = ConcurrentHashMap.newKeySet();
+    // 다시 계산할 유저 (대기중)
+    private final Set<Integer> refreshQueue = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+    private volatile Model model;
+    private volatile boolean rebuilding = false;
+
+    @Value("${store.recommend.size:10}")
+    private int size;
+
+    @Value("${store.recommend.neighbors:50}")
+    private int neighborCnt;
+
+    // 한 유저가 유사도 계산에 기여하는 스토어 수 상한 (유저당 계산량이 제곱으로 늘어나는 것 방지)
+    @Value("${store.recommend.max-items-per-user:50}")
+    private int maxItemsPerUser;
+
+    @Value("${store.recommend.jjim-weight:1.0}")
+    private float jjimWeight;
+
+    @Value("${store.recommend.pickup-weight:2.0}")
+    private float pickupWeight;
+
+    @Value("${store.recommend.neighbor-weight:0.5}")
+    private double neighborWeight;
+
+    @Value("${store.recommend.category-weight:0.3}")
+    private double categoryWeight;
+
+    @Value("${store.recommend.score-weight:0.2}")
+    private double scoreWeight;
+
+    public StoreRecommender(StoreRecommendDao storeRecommendDao) {
+        this.storeRecommendDao = storeRecommendDao;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return model != null;
+    }
+
+    // 준비되기 전이면 null
+    public List<GetLikeableStoreRes> getLikeableStores(int userIdx) throws BaseException {
+        Model current = model;
+        if (current == null) {
+            return null;
+        }
+        int[] top = current.userTop.get(userIdx);
+        if (top == null) {
+            // 배치 이후에 가입한 유저
+            top = refresh(current, userIdx);
+        }
+
+        List<GetLikeableStoreRes> likeableStores = new ArrayList<>();
+        for (int index : top) {
+            GetLikeableStoreRes store = stores.get(current.storeIdxByIndex[index]);
+            if (store != null) {
+                likeableStores.add(GetLikeableStoreRes.builder()
+                        .storeIdx(store.getStoreIdx())
+                        .storeName(store.getStoreName())
+                        .storeScore(store.getStoreScore())
+                        .category(store.getCategory())
+                        .userImage(store.getUserImage())
+                        .build());
+            }
+        }
+        return likeableStores;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${store.recommend.rebuild-interval:3600000}", fixedDelayString = "${store.recommend.rebuild-interval:3600000}")
+    public void rebuild() {
+        synchronized (this) {
+            if (rebuilding) {
+                return;
+            }
+            rebuilding = true;
+        }
+        refreshedDuringRebuild.clear();
+        try {
+            long startedAt = System.currentTimeMillis();
+            Model built = build();
+            model = built;
+
+            for (Integer userIdx : refreshedDuringRebuild) {
+                refresh(built, userIdx);
+            }
+            log.info("rebuild store recommender : " + built.storeIdxByIndex.length + " stores, "
+                    + built.userTop.size() + " users, " + (System.currentTimeMillis() - startedAt) + "ms");
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        } finally {
+            rebuilding = false;
+        }
+    }
+
+    private Model build() throws BaseException {
+        // 1. 스토어 번호 매기기
+        List<GetLikeableStoreRes> storeList = storeRecommendDao.getRecommendStores();
+        Model built = new Model(storeList.size());
+        for (int index = 0; index < storeList.size(); index++) {
+            GetLikeableStoreRes store = storeList.get(index);
+            built.storeIdxByIndex[index] = store.getStoreIdx();
+            built.indexByStoreIdx.put(store.getStoreIdx(), index);
+            built.categoryByIndex[index] = toCategory(store.getCategory());
+            built.scoreByIndex[index] = store.getStoreScore() == null ? 0 : store.getStoreScore() / 5f;
+            stores.put(store.getStoreIdx(), store);
+        }
+        int storeCnt = storeList.size();
+
+        // 2. 유저별 활동 (userIdx 순으로 넘어옴)
+        List<Integer> userIdxList = new ArrayList<>();
+        List<UserVector> userVectors = new ArrayList<>();
+        List<StoreInteraction> pending = new ArrayList<>();
+        storeRecommendDao.forEachStoreInteraction(interaction -> {
+            if (!pending.isEmpty() && pending.get(0).getUserIdx() != interaction.getUserIdx()) {
+                userIdxList.add(pending.get(0).getUserIdx());
+                userVectors.add(toUserVector(built, pending));
+                pending.clear();
+            }
+            pending.add(interaction);
+        });
+        if (!pending.isEmpty()) {
+            userIdxList.add(pending.get(0).getUserIdx());
+            userVectors.add(toUserVector(built, pending));
+        }
+
+        // 3. 스토어별 유저 목록 (역색인)
+        int[] userCntByItem = new int[storeCnt];
+        float[] squaredNorm = new float[storeCnt];
+        for (UserVector userVector : userVectors) {
+            for (int k = 0; k < userVector.items.length; k++) {
+                userCntByItem[userVector.items[k]]++;
+                squaredNorm[userVector.items[k]] += userVector.weights[k] * userVector.weights[k];
+            }
+        }
+        int[][] usersByItem = new int[storeCnt][];
+        float[][] weightsByItem = new float[storeCnt][];
+        for (int item = 0; item < storeCnt; item++) {
+            usersByItem[item] = new int[userCntByItem[item]];
+            weightsByItem[item] = new float[userCntByItem[item]];
+        }
+        int[] filled = new int[storeCnt];
+        for (int user = 0; user < userVectors.size(); user++) {
+            UserVector userVector = userVectors.get(user);
+            for (int k = 0; k < userVector.items.length; k++) {
+                int item = userVector.items[k];
+                usersByItem[item][filled[item]] = user;
+                weightsByItem[item][filled[item]++] = userVector.weights[k];
+            }
+        }
+
+        // 4. 스토어별 이웃 (코사인 유사도 상위 neighborCnt 개), 같은 배열을 비워가며 재사용
+        built.neighbors = new int[storeCnt][];
+        built.similarities = new float[storeCnt][];
+        float[] coOccurrence = new float[storeCnt];
+        int[] touched = new int[storeCnt];
+        for (int item = 0; item < storeCnt; item++) {
+            int touchedCnt = 0;
+            for (int k = 0; k < usersByItem[item].length; k++) {
+                UserVector userVector = userVectors.get(usersByItem[item][k]);
+                float weight = weightsByItem[item][k];
+                for (int other = 0; other < userVector.items.length; other++) {
+                    int otherItem = userVector.items[other];
+                    if (otherItem == item) {
+                        continue;
+                    }
+                    if (coOccurrence[otherItem] == 0) {
+                        touched[touchedCnt++] = otherItem;
+                    }
+                    coOccurrence[otherItem] += weight * userVector.weights[other];
+                }
+            }
+
+            Integer[] candidates = new Integer[touchedCnt];
+            float[] similarity = new float[touchedCnt];
+            for (int k = 0; k < touchedCnt; k++) {
+                int otherItem = touched[k];
+                candidates[k] = k;
+                similarity[k] = (float) (coOccurrence[otherItem] / Math.sqrt(squaredNorm[item] * squaredNorm[otherItem]));
+            }
+            Arrays.sort(candidates, (a, b) -> Float.compare(similarity[b], similarity[a]));
+
+            int kept = Math.min(neighborCnt, touchedCnt);
+            built.neighbors[item] = new int[kept];
+            built.similarities[item] = new float[kept];
+            for (int k = 0; k < kept; k++) {
+                built.neighbors[item][k] = touched[candidates[k]];
+                built.similarities[item][k] = similarity[candidates[k]];
+            }
+            for (int k = 0; k < touchedCnt; k++) {
+                coOccurrence[touched[k]] = 0;
+            }
+        }
+
+        // 5. 카테고리별 평점 상위, 활동이 없는 유저의 관심 카테고리별 추천
+        built.topByCategory = new int[CATEGORIES.length][];
+        for (int category = 0; category < CATEGORIES.length; category++) {
+            int target = category;
+            built.topByCategory[category] = topIndexes(storeCnt, index -> built.categoryByIndex[index] == target,
+                    index -> built.scoreByIndex[index]);
+        }
+        UserVector emptyVector = new UserVector(NO_ITEMS, NO_WEIGHTS);
+        built.defaultTop = new int[CATEGORIES.length][];
+        for (int category = 0; category < CATEGORIES.length; category++) {
+            built.defaultTop[category] = computeTop(built, emptyVector, category);
+        }
+
+        // 6. 손님 유저별 추천
+        Map<Integer, UserVector> userVectorByIdx = new HashMap<>(userIdxList.size() * 2);
+        for (int user = 0; user < userIdxList.size(); user++) {
+            userVectorByIdx.put(userIdxList.get(user), userVectors.get(user));
+        }
+        storeRecommendDao.forEachUserLikes((userIdx, userLikes) -> {
+            int category = toCategory(userLikes);
+            UserVector userVector = userVectorByIdx.get(userIdx);
+            built.userTop.put(userIdx, userVector == null ? built.defaultTop[category] : computeTop(built, userVector, category));
+        });
+        return built;
+    }
+
+    // 찜, 픽업 완료
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJjimChanged(JjimChangedEvent jjimChangedEvent) {
+        queueRefresh(jjimChangedEvent.getUserIdx());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRebornTaskCompleted(RebornTaskCompletedEvent rebornTaskCompletedEvent) {
+        Long rebornTaskIdx = rebornTaskCompletedEvent.getRebornTaskIdx();
+        refreshExecutor.execute(() -> {
+            try {
+                Integer userIdx = storeRecommendDao.getRebornTaskUserIdx(rebornTaskIdx);
+                if (userIdx != null) {
+                    refreshQuietly(userIdx);
+                }
+            } catch (BaseException e) {
+                log.error(e.getStatus().getMessage());
+            }
+        });
+    }
+
+    // 관심 카테고리 변경
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent userChangedEvent) {
+        queueRefresh(userChangedEvent.getUserIdx());
+    }
+
+    // 스토어 정보는 바로 갱신, 평점과 카테고리는 다음 배치부터 점수에 반영
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStoreChanged(StoreChangedEvent storeChangedEvent) {
+        Long storeIdx = storeChangedEvent.getStoreIdx();
+        try {
+            GetLikeableStoreRes store = storeRecommendDao.getRecommendStore(storeIdx);
+            if (store == null) {
+                stores.remove(storeIdx);
+            } else {
+                stores.put(storeIdx, store);
+            }
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        }
+    }
+
+    // 이미 대기중이면 다시 넣지 않음, 계산을 시작하면서 빼므로 그 뒤의 변경은 다시 계산됨
+    private void queueRefresh(int userIdx) {
+        if (refreshQueue.add(userIdx)) {
+            refreshExecutor.execute(() -> {
+                refreshQueue.remove(userIdx);
+                refreshQuietly(userIdx);
+            });
+        }
+    }
+
+    private void refreshQuietly(int userIdx) {
+        Model current = model;
+        if (current == null) {
+            return;
+        }
+        try {
+            refresh(current, userIdx);
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        }
+    }
+
+    private int[] refresh(Model current, int userIdx) throws BaseException {
+        if (rebuilding) {
+            refreshedDuringRebuild.add(userIdx);
+        }
+        String userLikes = storeRecommendDao.getUserLikes(userIdx);
+        if (userLikes == null) {
+            current.userTop.remove(userIdx);
+            return NO_ITEMS;
+        }
+        int category = toCategory(userLikes);
+        List<StoreInteraction> interactions = storeRecommendDao.getStoreInteractions(userIdx);
+        int[] top = interactions.isEmpty()
+                ? current.defaultTop[category]
+                : computeTop(current, toUserVector(current, interactions), category);
+        current.userTop.put(userIdx, top);
+        return top;
+    }
+
+    private UserVector toUserVector(Model current, List<StoreInteraction> interactions) {
+        int[] allItems = new int[interactions.size()];
+        float[] allWeights = new float[interactions.size()];
+        List<Integer> order = new ArrayList<>();
+        for (StoreInteraction interaction : interactions) {
+            // 추천 대상이 아닌(ACTIVE 가 아닌) 스토어
+            Integer index = current.indexByStoreIdx.get(interaction.getStoreIdx());
+            if (index == null) {
+                continue;
+            }
+            // 픽업은 여러 번 해도 점점 덜 늘어나도록
+            allItems[order.size()] = index;
+            allWeights[order.size()] = (interaction.isJjim() ? jjimWeight : 0)
+                    + (float) (pickupWeight * Math.log1p(interaction.getPickupCnt()) / Math.log(2));
+            order.add(order.size());
+        }
+        order.sort((a, b) -> Float.compare(allWeights[b], allWeights[a]));
+
+        int itemCnt = Math.min(maxItemsPerUser, order.size());
+        int[] items = new int[itemCnt];
+        float[] weights = new float[itemCnt];
+        for (int k = 0; k < itemCnt; k++) {
+            items[k] = allItems[order.get(k)];
+            weights[k] = allWeights[order.get(k)];
+        }
+        return new UserVector(items, weights);
+    }
+
+    // 이웃 점수(활동한 스토어와의 유사도 가중 평균) + 카테고리 선호(관심 카테고리, 활동 비율) + 평점
+    private int[] computeTop(Model current, UserVector userVector, int likedCategory) {
+        float totalWeight = 0;
+        double[] categoryShare = new double[CATEGORIES.length];
+        Map<Integer, Double> neighborScore = new HashMap<>();
+        for (int k = 0; k < userVector.items.length; k++) {
+            int item = userVector.items[k];
+            float weight = userVector.weights[k];
+            totalWeight += weight;
+            categoryShare[current.categoryByIndex[item]] += weight;
+            for (int n = 0; n < current.neighbors[item].length; n++) {
+                neighborScore.merge(current.neighbors[item][n], (double) weight * current.similarities[item][n], Double::sum);
+            }
+        }
+
+        Set<Integer> candidates = new HashSet<>(neighborScore.keySet());
+        for (int[] top : current.topByCategory) {
+            for (int index : top) {
+                candidates.add(index);
+            }
+        }
+
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Integer index : candidates) {
+            int category = current.categoryByIndex[index];
+            double affinity = 0.5 * (category == likedCategory ? 1 : 0)
+                    + 0.5 * (totalWeight == 0 ? 0 : categoryShare[category] / totalWeight);
+            double neighbor = totalWeight == 0 ? 0 : neighborScore.getOrDefault(index, 0.0) / totalWeight;
+            scores.put(index, neighborWeight * neighbor + categoryWeight * affinity + scoreWeight * current.scoreByIndex[index]);
+        }
+        List<Integer> ranked = new ArrayList<>(scores.keySet());
+        ranked.sort((a, b) -> {
+            int compare = Double.compare(scores.get(b), scores.get(a));
+            return compare != 0 ? compare : Long.compare(current.storeIdxByIndex[a], current.storeIdxByIndex[b]);
+        });
+
+        int[] top = new int[Math.min(size, ranked.size())];
+        for (int k = 0; k < top.length; k++) {
+            top[k] = ranked.get(k);
+        }
+        return top;
+    }
+
+    private interface IndexFilter {
+        boolean test(int index);
+    }
+
+    private interface IndexScore {
+        float score(int index);
+    }
+
+    private int[] topIndexes(int storeCnt, IndexFilter filter, IndexScore score) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int index = 0; index < storeCnt; index++) {
+            if (filter.test(index)) {
+                indexes.add(index);
+            }
+        }
+        indexes.sort((a, b) -> Float.compare(score.score(b), score.score(a)));
+        int[] top = new int[Math.min(size, indexes.size())];
+        for (int k = 0; k < top.length; k++) {
+            top[k] = indexes.get(k);
+        }
+        return top;
+    }
+
+    // 알 수 없는 카테고리는 ETC
+    private static int toCategory(String category) {
+        for (StoreCategory storeCategory : CATEGORIES) {
+            if (storeCategory.name().equals(category)) {
+                return storeCategory.ordinal();
+            }
+        }
+        return StoreCategory.ETC.ordinal();
+    }
+}
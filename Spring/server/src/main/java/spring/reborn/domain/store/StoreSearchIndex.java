@@ -0,0 +1,252 @@
+package spring.reborn.domain.store;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.store.model.GetStoreRes;
+import spring.reborn.domain.store.model.StoreChangedEvent;
+import spring.reborn.domain.store.model.StoreSearchDocument;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 스토어 검색 색인
+ * 스토어 이름, 설명, 카테고리를 1-gram / 2-gram 으로 나눠 메모리에 역색인해두고,
+ * 이름 초성 검색(ㅋㅍ -> 카페)도 지원한다.
+ * 이름에서 찾은 스토어를 설명/카테고리에서 찾은 스토어보다 앞에 두고, 같은 그룹 안에서는 요청한 정렬 기준을 따른다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StoreSearchIndex {
+
+    public enum Sort {
+        NAME, SCORE, JJIM
+    }
+
+    private static final char[] CHOSEONG = {
+            'ㄱ', 'ㄲ', 'ㄴ', 'ㄷ', 'ㄸ', 'ㄹ', 'ㅁ', 'ㅂ', 'ㅃ', 'ㅅ',
+            'ㅆ', 'ㅇ', 'ㅈ', 'ㅉ', 'ㅊ', 'ㅋ', 'ㅌ', 'ㅍ', 'ㅎ'
+    };
+    private static final int NAME_MATCH = 0;
+    private static final int TEXT_MATCH = 1;
+
+    private static class Entry {
+        private final StoreSearchDocument document;
+        private final String name;
+        private final String text;
+        private final String nameChoseong;
+
+        private Entry(StoreSearchDocument document) {
+            this.document = document;
+            this.name = normalize(document.getStoreName());
+            this.text = normalize(document.getStoreDescription()) + "|" +
+                    normalize(document.getCategory().name()) + "|" +
+                    normalize(document.getCategory().label());
+            this.nameChoseong = toChoseong(this.name);
+        }
+    }
+
+    private final StoreDao storeDao;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> nameIndex = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> textIndex = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> choseongIndex = new ConcurrentHashMap<>();
+    private volatile boolean ready = false;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        try {
+            List<StoreSearchDocument> documents = storeDao.getStoreSearchDocuments();
+            documents.forEach(this::index);
+            ready = true;
+            log.info("build store search index : " + documents.size());
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        }
+    }
+
+    // 스토어 정보, 찜 개수 변경시 해당 스토어만 다시 색인
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStoreChanged(StoreChangedEvent storeChangedEvent) {
+        try {
+            StoreSearchDocument document = storeDao.getStoreSearchDocument(storeChangedEvent.getStoreIdx());
+            if (document == null) {
+                remove(storeChangedEvent.getStoreIdx());
+            } else {
+                index(document);
+            }
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        }
+    }
+
+    public List<GetStoreRes> search(String keyword, Sort sort) {
+        String query = normalize(keyword);
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 색인 항목 -> 매칭 그룹 (이름 매칭이 우선)
+        Map<Entry, Integer> matches = new HashMap<>();
+        if (isChoseongOnly(query)) {
+            for (Long storeIdx : candidates(choseongIndex, query)) {
+                Entry entry = entries.get(storeIdx);
+                if (entry != null && entry.nameChoseong.contains(query)) {
+                    matches.put(entry, NAME_MATCH);
+                }
+            }
+        }
+        for (Long storeIdx : candidates(nameIndex, query)) {
+            Entry entry = entries.get(storeIdx);
+            if (entry != null && entry.name.contains(query)) {
+                matches.put(entry, NAME_MATCH);
+            }
+        }
+        for (Long storeIdx : candidates(textIndex, query)) {
+            Entry entry = entries.get(storeIdx);
+            if (entry != null && entry.text.contains(query)) {
+                matches.putIfAbsent(entry, TEXT_MATCH);
+            }
+        }
+
+        Comparator<Map.Entry<Entry, Integer>> comparator = Map.Entry.<Entry, Integer>comparingByValue()
+                .thenComparing(match -> match.getKey().document, documentComparator(sort));
+
+        return matches.entrySet().stream()
+                .sorted(comparator)
+                .map(match -> match.getKey().document.toGetStoreRes())
+                .collect(Collectors.toList());
+    }
+
+    private Comparator<StoreSearchDocument> documentComparator(Sort sort) {
+        Comparator<StoreSearchDocument> byName = Comparator.comparing(StoreSearchDocument::getStoreName);
+        switch (sort) {
+            case SCORE:
+                return Comparator.comparing(StoreSearchDocument::getStoreScore, Comparator.reverseOrder()).thenComparing(byName);
+            case JJIM:
+                return Comparator.comparing(StoreSearchDocument::getNumOfJjim, Comparator.reverseOrder()).thenComparing(byName);
+            default:
+                return byName;
+        }
+    }
+
+    private synchronized void index(StoreSearchDocument document) {
+        remove(document.getStoreIdx());
+
+        Entry entry = new Entry(document);
+        entries.put(document.getStoreIdx(), entry);
+        grams(entry.name).forEach(gram -> post(nameIndex, gram, document.getStoreIdx()));
+        grams(entry.text).forEach(gram -> post(textIndex, gram, document.getStoreIdx()));
+        grams(entry.nameChoseong).forEach(gram -> post(choseongIndex, gram, document.getStoreIdx()));
+    }
+
+    private synchronized void remove(Long storeIdx) {
+        Entry entry = entries.remove(storeIdx);
+        if (entry == null) {
+            return;
+        }
+        grams(entry.name).forEach(gram -> unpost(nameIndex, gram, storeIdx));
+        grams(entry.text).forEach(gram -> unpost(textIndex, gram, storeIdx));
+        grams(entry.nameChoseong).forEach(gram -> unpost(choseongIndex, gram, storeIdx));
+    }
+
+    private void post(Map<String, Set<Long>> index, String gram, Long storeIdx) {
+        index.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(storeIdx);
+    }
+
+    private void unpost(Map<String, Set<Long>> index, String gram, Long storeIdx) {
+        Set<Long> postings = index.get(gram);
+        if (postings != null) {
+            postings.remove(storeIdx);
+            if (postings.isEmpty()) {
+                index.remove(gram, postings);
+            }
+        }
+    }
+
+    // 검색어 gram 을 모두 포함하는 후보 (실제 포함 여부는 호출한 쪽에서 확인)
+    private Set<Long> candidates(Map<String, Set<Long>> index, String query) {
+        Set<String> queryGrams = query.length() == 1 ? Collections.singleton(query) : bigrams(query);
+
+        Set<Long> result = null;
+        for (String gram : queryGrams) {
+            Set<Long> postings = index.get(gram);
+            if (postings == null) {
+                return Collections.emptySet();
+            }
+            if (result == null) {
+                result = new HashSet<>(postings);
+            } else {
+                result.retainAll(postings);
+            }
+            if (result.isEmpty()) {
+                return result;
+            }
+        }
+        return result == null ? Collections.emptySet() : result;
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = bigrams(value);
+        for (int i = 0; i < value.length(); i++) {
+            grams.add(String.valueOf(value.charAt(i)));
+        }
+        return grams;
+    }
+
+    private static Set<String> bigrams(String value) {
+        Set<String> bigrams = new HashSet<>();
+        for (int i = 0; i + 1 < value.length(); i++) {
+            bigrams.add(value.substring(i, i + 2));
+        }
+        return bigrams;
+    }
+
+    // 대소문자, 공백 무시
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(value.length());
+        for (char c : value.toUpperCase().toCharArray()) {
+            if (!Character.isWhitespace(c)) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    // 한글 음절은 초성으로, 나머지 문자는 그대로
+    private static String toChoseong(String value) {
+        StringBuilder choseong = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c >= '가' && c <= '힣') {
+                choseong.append(CHOSEONG[(c - '가') / 588]);
+            } else {
+                choseong.append(c);
+            }
+        }
+        return choseong.toString();
+    }
+
+    private static boolean isChoseongOnly(String query) {
+        for (char c : query.toCharArray()) {
+            if (c < 'ㄱ' || c > 'ㅎ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
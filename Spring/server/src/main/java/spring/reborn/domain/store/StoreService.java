@@ -2,29 +2,52 @@ package spring.reborn.domain.store;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import spring.reborn.config.BaseException;
+import spring.reborn.config.BaseResponseStatus;
 import spring.reborn.domain.awsS3.AwsS3Service;
+import spring.reborn.domain.awsS3.ImageVariantIndex;
+import spring.reborn.domain.awsS3.model.ImageReleasedEvent;
+import spring.reborn.domain.jjim.JjimProvider;
 import spring.reborn.domain.store.model.*;
 import spring.reborn.domain.user.UserDao;
+import spring.reborn.utils.CursorPage;
+import spring.reborn.utils.CursorPageCollector;
+import spring.reborn.utils.GeoUtils;
 
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class StoreService {
 
+    // 주변 스토어 기본 반경 (m)
+    private static final int DEFAULT_NEARBY_RADIUS = 1000;
+
     private final StoreDao storeDao;
     private final AwsS3Service awsS3Service;
 
     private final UserDao userDao;
+    private final StoreInfoCache storeInfoCache;
+    private final StoreSearchIndex storeSearchIndex;
+    private final StoreLocationIndex storeLocationIndex;
+    private final StorePopularityBoard storePopularityBoard;
+    private final StoreRecommender storeRecommender;
+    private final ImageVariantIndex imageVariantIndex;
+    private final JjimProvider jjimProvider;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     public List<GetStoreRes> getStoreList() throws BaseException {
         try {
-            return storeDao.getStoreList();
+            List<GetStoreRes> getStoreRes = storeDao.getStoreList();
+            // 목록은 축소본 이미지로
+            getStoreRes.forEach(store -> store.setUserImage(imageVariantIndex.toThumbnailUrl(store.getUserImage())));
+            return getStoreRes;
 
         }
         catch (BaseException e){
@@ -32,10 +55,22 @@ public class StoreService {
         }
     }
 
+    public CursorPage<GetStoreRes> getStoreListPage(String after, Integer size) throws BaseException {
+        try {
+            CursorPage<GetStoreRes> getStoreResPage = storeDao.getStoreListPage(after, CursorPageCollector.pageSize(size));
+            getStoreResPage.getItems().forEach(store -> store.setUserImage(imageVariantIndex.toThumbnailUrl(store.getUserImage())));
+            return getStoreResPage;
+        }
+        catch (BaseException e){
+            throw new BaseException(e.getStatus());
+        }
+    }
 
     public List<GetNewStoreRes> getNewStoreList() throws BaseException{
         try {
-            return storeDao.getNewStoreList();
+            List<GetNewStoreRes> getNewStoreRes = storeDao.getNewStoreList();
+            getNewStoreRes.forEach(store -> store.setUserImage(imageVariantIndex.toThumbnailUrl(store.getUserImage())));
+            return getNewStoreRes;
         }
         catch (BaseException e){
             throw new BaseException(e.getStatus());
@@ -51,9 +86,29 @@ public class StoreService {
         }
     }
 
+    public List<GetNearbyStoreRes> getNearbyStoreList(Double latitude, Double longitude, Integer radius) throws BaseException {
+        if (!GeoUtils.isValidCoordinate(latitude, longitude))
+            throw new BaseException(BaseResponseStatus.INVALID_STORE_COORDINATE);
+        int searchRadius = radius == null || radius <= 0 ? DEFAULT_NEARBY_RADIUS : Math.min(radius, storeLocationIndex.getMaxRadius());
+
+        // 색인이 준비되기 전(서버 시작 직후)에는 DB 범위 조회, 색인은 시작 / 스케줄러에서만 만듦
+        if (!storeLocationIndex.isReady()) {
+            return storeLocationIndex.findNearbyFromDb(latitude, longitude, searchRadius);
+        }
+        return storeLocationIndex.findNearby(latitude, longitude, searchRadius);
+    }
+
     public GetStoreInfoRes getStoreInfo(Long storeIdx) throws BaseException{
         try {
-            return storeDao.getStoreInfo(storeIdx);
+            GetStoreInfoRes getStoreInfoRes = storeInfoCache.get(storeIdx, storeDao::getStoreInfo);
+            // 저장 대기중인 찜 증감을 더함, 캐시된 응답은 그대로 두고 복사본에
+            long unsavedJjimCnt = jjimProvider.getUnsavedJjimCnt(storeIdx);
+            if (unsavedJjimCnt == 0) {
+                return getStoreInfoRes;
+            }
+            return getStoreInfoRes.toBuilder()
+                    .numOfJjim(Math.max(getStoreInfoRes.getNumOfJjim() + unsavedJjimCnt, 0))
+                    .build();
 
         }
         catch (BaseException e){
@@ -63,6 +118,10 @@ public class StoreService {
 
     public List<GetStoreRes> searchStoreListUsingTitle(String keyword) throws BaseException {
         try {
+            // 색인이 준비되기 전(서버 시작 직후)에는 DB 검색
+            if (storeSearchIndex.isReady()) {
+                return storeSearchIndex.search(keyword, StoreSearchIndex.Sort.NAME);
+            }
             return storeDao.searchStoreUsingTitle(keyword);
         }
         catch (BaseException e){
@@ -72,6 +131,9 @@ public class StoreService {
 
     public List<GetStoreRes> searchStoreListUsingTitleSortByName(String keyword) throws BaseException{
         try {
+            if (storeSearchIndex.isReady()) {
+                return storeSearchIndex.search(keyword, StoreSearchIndex.Sort.NAME);
+            }
             return storeDao.searchStoreUsingTitleSortByName(keyword);
         }
         catch (BaseException e){
@@ -81,6 +143,9 @@ public class StoreService {
 
     public List<GetStoreRes> searchStoreListUsingTitleSortByScore(String keyword) throws BaseException{
         try {
+            if (storeSearchIndex.isReady()) {
+                return storeSearchIndex.search(keyword, StoreSearchIndex.Sort.SCORE);
+            }
             return storeDao.searchStoreUsingTitleSortByScore(keyword);
         }
         catch (BaseException e){
@@ -89,6 +154,9 @@ public class StoreService {
     }
     public List<GetStoreRes> searchStoreListUsingTitleSortByJjim(String keyword) throws BaseException{
         try {
+            if (storeSearchIndex.isReady()) {
+                return storeSearchIndex.search(keyword, StoreSearchIndex.Sort.JJIM);
+            }
             return storeDao.searchStoreUsingTitleSortByJjim(keyword);
         }
         catch (BaseException e){
@@ -100,11 +168,13 @@ public class StoreService {
     @Transactional
     public void updateStoreInfo(Long storeIdx, PatchStoreReq patchStoreReq) throws BaseException{
         storeDao.updateStoreInfo(storeIdx,patchStoreReq);
+        applicationEventPublisher.publishEvent(new StoreChangedEvent(storeIdx));
     }
     @Transactional
     public void updateStoreInfo2(Long storeIdx, PatchStoreReq patchStoreReq) throws BaseException {
         try {
             storeDao.updateStoreInfo(storeIdx , patchStoreReq);
+            applicationEventPublisher.publishEvent(new StoreChangedEvent(storeIdx));
         }
         catch (BaseException e){
             throw new BaseException(e.getStatus());
@@ -114,16 +184,20 @@ public class StoreService {
     @Transactional
     public void updateStoreInfo2(Long storeIdx, PatchStoreReq patchStoreReq, MultipartFile multipartFile) throws BaseException {
         try {
+            String oldImageUrl = null;
             if(!multipartFile.isEmpty()){
+                // 요청값이 아니라 DB 에 저장된 기존 이미지를 해제 대상으로
+                oldImageUrl = storeDao.getStoreInfo(storeIdx).getStoreImage();
                 String imageUrl = awsS3Service.uploadImage(multipartFile);
-                // 이미지가 비어있지 않은 경우 삭제
-                // todo 더미데이터 중복 url에 관해 이미지 삭제시 문제 발생 이후 주석해제
-//                if(patchStoreReq.getStoreImage() != null) {
-//                    awsS3Service.deleteImage(patchStoreReq.getStoreImage());
-//                }
                 patchStoreReq.setStoreImage(imageUrl);
             }
             storeDao.updateStoreInfo(storeIdx , patchStoreReq);
+            applicationEventPublisher.publishEvent(new StoreChangedEvent(storeIdx));
+
+            // 이미지가 비어있지 않은 경우 커밋 후 삭제, 다른 곳에서 같은 이미지를 쓰고 있으면 참조 수만 줄어듦
+            if (oldImageUrl != null && !oldImageUrl.isEmpty()) {
+                applicationEventPublisher.publishEvent(new ImageReleasedEvent(ImageVariantIndex.toImageKey(oldImageUrl)));
+            }
         }
         catch (BaseException e){
             throw new BaseException(e.getStatus());
@@ -132,10 +206,23 @@ public class StoreService {
 
 
     public List<GetLikeableStoreRes> getLikeableStores(int userIdx) throws BaseException {
-        // todo 유저 도메인에서 category를 받아와야하나?? -> 유저와 스토어 구분 필요할듯한거 같기두,,?
-//        String userLikes = userDao.getUserLikes(userIdx);
-        return storeDao.getLikeableStore(userIdx);
+        // 찜, 픽업 기록 기반 추천, 추천 계산 전이면 관심 카테고리 평점순
+        List<GetLikeableStoreRes> getLikeableStoreRes = storeRecommender.getLikeableStores(userIdx);
+        if (getLikeableStoreRes == null) {
+            getLikeableStoreRes = storeDao.getLikeableStore(userIdx);
+        }
+        Set<Long> jjimStoreIdxSet = jjimProvider.getJjimStoreIdxSet(userIdx);
+        getLikeableStoreRes.forEach(store -> {
+            store.setUserImage(imageVariantIndex.toThumbnailUrl(store.getUserImage()));
+            store.setHasJjim(jjimStoreIdxSet.contains(store.getStoreIdx()));
+        });
+        return getLikeableStoreRes;
     }
 
+    // 인기 가게 순위표를 MySQL 기준으로 다시 적재
+    public int rebuildPopularStore() throws BaseException {
+        int count = storePopularityBoard.rebuild();
+        log.info("rebuild popular store : " + count);
+        return count;
+    }
 }
-
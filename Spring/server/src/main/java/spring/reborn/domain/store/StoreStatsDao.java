@@ -0,0 +1,149 @@
+package spring.reborn.domain.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import spring.reborn.config.BaseException;
+import spring.reborn.config.BaseResponseStatus;
+import spring.reborn.domain.store.model.StoreChangedEvent;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 스토어 상세 화면의 리본/리뷰/찜 개수
+ * 매 조회마다 세지 않고 변경이 일어날 때 StoreStats 를 증감한다.
+ * 호출한 쪽의 트랜잭션 안에서 실행된다.
+ */
+@Slf4j
+@Repository
+public class StoreStatsDao {
+
+    private JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    public StoreStatsDao(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    @Autowired
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // 리본 교환 완료
+    public void increaseRebornCnt(Long rebornIdx) throws BaseException {
+        Long storeIdx = getStoreIdxByRebornIdx(rebornIdx);
+        if (storeIdx == null) {
+            return;
+        }
+        String increaseRebornCntQuery = "insert into StoreStats (storeIdx, numOfReborn) values (?, 1) " +
+                "on duplicate key update numOfReborn = numOfReborn + 1, updatedAt = now()";
+        update(increaseRebornCntQuery, storeIdx);
+    }
+
+    // 리뷰 작성(+1) / 삭제(-1)
+    public void changeReviewCnt(Long rebornIdx, int delta) throws BaseException {
+        Long storeIdx = getStoreIdxByRebornIdx(rebornIdx);
+        if (storeIdx == null) {
+            return;
+        }
+        String changeReviewCntQuery = "insert into StoreStats (storeIdx, numOfReview) values (?, greatest(?, 0)) " +
+                "on duplicate key update numOfReview = greatest(numOfReview + ?, 0), updatedAt = now()";
+        update(changeReviewCntQuery, storeIdx, delta, delta);
+    }
+
+    // 찜 등록(+1) / 해제(-1)
+    public void changeJjimCnt(Long storeIdx, int delta) throws BaseException {
+        String changeJjimCntQuery = "insert into StoreStats (storeIdx, numOfJjim) values (?, greatest(?, 0)) " +
+                "on duplicate key update numOfJjim = greatest(numOfJjim + ?, 0), updatedAt = now()";
+        update(changeJjimCntQuery, storeIdx, delta, delta);
+    }
+
+    // 찜 write-behind 저장 후 해당 스토어들의 찜 개수를 Jjim 기준으로 다시 셈 (다시 저장해도 결과가 같음)
+    public void recountJjimCnt(List<Long> storeIdxList) throws BaseException {
+        if (storeIdxList.isEmpty()) {
+            return;
+        }
+        try {
+            String recountJjimCntQuery = "insert into StoreStats (storeIdx, numOfJjim) " +
+                    "select S.storeIdx, (select count(*) from Jjim J where J.storeIdx = S.storeIdx) from Store S " +
+                    "where S.storeIdx in (" + String.join(",", Collections.nCopies(storeIdxList.size(), "?")) + ") " +
+                    "on duplicate key update numOfJjim = values(numOfJjim), updatedAt = now()";
+            this.jdbcTemplate.update(recountJjimCntQuery, storeIdxList.toArray());
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+        storeIdxList.forEach(storeIdx -> applicationEventPublisher.publishEvent(new StoreChangedEvent(storeIdx)));
+    }
+
+    // 누락, 중복 반영된 개수를 원본 테이블 기준으로 다시 계산
+    // 원본 개수와 StoreStats 를 한 번의 조회(같은 시점)로 읽어서 차이만 더함, 그 사이에 들어온 증감은 덮어쓰지 않음
+    public int reconcile() throws BaseException {
+        try {
+            String selectDriftQuery = "select D.storeIdx, D.rebornDelta, D.reviewDelta, D.jjimDelta from (" +
+                    "select S.storeIdx, " +
+                    "ifnull(RT.cnt, 0) - ifnull(SS.numOfReborn, 0) rebornDelta, " +
+                    "ifnull(RV.cnt, 0) - ifnull(SS.numOfReview, 0) reviewDelta, " +
+                    "ifnull(J.cnt, 0) - ifnull(SS.numOfJjim, 0) jjimDelta " +
+                    "from Store S " +
+                    "left join StoreStats SS on SS.storeIdx = S.storeIdx " +
+                    "left join (select R.storeIdx, count(*) cnt from RebornTask Rt join Reborn R on Rt.rebornIdx = R.rebornIdx " +
+                    "           where Rt.status = 'COMPLETE' group by R.storeIdx) RT on RT.storeIdx = S.storeIdx " +
+                    "left join (select R.storeIdx, count(*) cnt from Review Rv join Reborn R on Rv.rebornIdx = R.rebornIdx " +
+                    "           group by R.storeIdx) RV on RV.storeIdx = S.storeIdx " +
+                    "left join (select storeIdx, count(*) cnt from Jjim group by storeIdx) J on J.storeIdx = S.storeIdx" +
+                    ") D where D.rebornDelta <> 0 or D.reviewDelta <> 0 or D.jjimDelta <> 0";
+            List<Object[]> driftParams = this.jdbcTemplate.query(selectDriftQuery,
+                    (rs, rowNum) -> {
+                        long rebornDelta = rs.getLong("rebornDelta");
+                        long reviewDelta = rs.getLong("reviewDelta");
+                        long jjimDelta = rs.getLong("jjimDelta");
+                        return new Object[]{rs.getLong("storeIdx"), rebornDelta, reviewDelta, jjimDelta,
+                                rebornDelta, reviewDelta, jjimDelta};
+                    });
+            if (driftParams.isEmpty()) {
+                return 0;
+            }
+
+            String applyDriftQuery = "insert into StoreStats (storeIdx, numOfReborn, numOfReview, numOfJjim) " +
+                    "values (?, greatest(?, 0), greatest(?, 0), greatest(?, 0)) " +
+                    "on duplicate key update numOfReborn = greatest(numOfReborn + ?, 0), " +
+                    "numOfReview = greatest(numOfReview + ?, 0), numOfJjim = greatest(numOfJjim + ?, 0), updatedAt = now()";
+            this.jdbcTemplate.batchUpdate(applyDriftQuery, driftParams);
+            return driftParams.size();
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
+    private Long getStoreIdxByRebornIdx(Long rebornIdx) throws BaseException {
+        try {
+            List<Long> storeIdxList = this.jdbcTemplate.queryForList(
+                    "select storeIdx from Reborn where rebornIdx = ?", Long.class, rebornIdx);
+            return storeIdxList.isEmpty() ? null : storeIdxList.get(0);
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+    }
+
+    private void update(String query, Long storeIdx, Object... params) throws BaseException {
+        try {
+            Object[] queryParams = new Object[params.length + 1];
+            queryParams[0] = storeIdx;
+            System.arraycopy(params, 0, queryParams, 1, params.length);
+            this.jdbcTemplate.update(query, queryParams);
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BaseException(BaseResponseStatus.DATABASE_ERROR);
+        }
+        applicationEventPublisher.publishEvent(new StoreChangedEvent(storeIdx));
+    }
+}
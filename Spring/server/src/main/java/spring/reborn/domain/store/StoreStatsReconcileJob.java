@@ -0,0 +1,28 @@
+package spring.reborn.domain.store;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import spring.reborn.config.BaseException;
+
+// StoreStats 개수가 원본과 어긋난 경우를 대비해 주기적으로 다시 계산
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StoreStatsReconcileJob {
+
+    private final StoreStatsDao storeStatsDao;
+    private final StoreInfoCache storeInfoCache;
+
+    @Scheduled(cron = "${store.stats.reconcile-cron:0 0 4 * * *}")
+    public void reconcile() {
+        try {
+            int updated = storeStatsDao.reconcile();
+            storeInfoCache.invalidateAll();
+            log.info("reconcile StoreStats : " + updated);
+        } catch (BaseException e) {
+            log.error(e.getStatus().getMessage());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package spring.reborn.domain.store.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@Builder
+public class GetNearbyStoreRes {
+    private Long storeIdx;
+
+    private String storeName;
+
+    private String userImage;
+
+    private String storeAddress;
+
+    private Float storeScore;
+
+    private Enum<StoreCategory> category;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    // 요청 위치로부터의 거리 (m)
+    private Long distance;
+}
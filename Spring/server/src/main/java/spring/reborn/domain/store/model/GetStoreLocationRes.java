@@ -12,5 +12,7 @@ public class GetStoreLocationRes {
     private String storeName;
     private String storeAddress;
     private Float storeScore;
+    private Double latitude;
+    private Double longitude;
 
 }
@@ -16,5 +16,10 @@ public class PatchStoreReq {
 
     private String storeImage;
 
+    // 위치 (보내지 않으면 기존 값 유지)
+    private Double latitude;
+
+    private Double longitude;
+
 
 }
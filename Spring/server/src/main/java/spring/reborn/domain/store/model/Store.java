@@ -24,6 +24,10 @@ public class Store {
 
     private Float storeScore;
 
+    private Double latitude;
+
+    private Double longitude;
+
     private Enum<StoreCategory> category;
 
     private Enum<StoreStatus> status;
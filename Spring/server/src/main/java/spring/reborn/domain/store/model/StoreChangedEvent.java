@@ -0,0 +1,11 @@
+package spring.reborn.domain.store.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 스토어 정보나 통계가 바뀌었을 때 발행 (캐시 무효화, 검색 색인 갱신 등)
+@Getter
+@AllArgsConstructor
+public class StoreChangedEvent {
+    private Long storeIdx;
+}
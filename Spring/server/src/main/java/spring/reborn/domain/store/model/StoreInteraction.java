@@ -0,0 +1,14 @@
+package spring.reborn.domain.store.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 유저-스토어 활동 (찜 여부, 완료된 리본 픽업 수), 추천 계산용
+@Getter
+@AllArgsConstructor
+public class StoreInteraction {
+    private int userIdx;
+    private long storeIdx;
+    private boolean jjim;
+    private int pickupCnt;
+}
@@ -0,0 +1,34 @@
+package spring.reborn.domain.store.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+// 주변 스토어 색인에 올려두는 스토어 정보 (ACTIVE 리본이 있는 ACTIVE 스토어)
+@Getter
+@Builder
+@AllArgsConstructor
+public class StoreLocation {
+    private Long storeIdx;
+    private String storeName;
+    private String userImage;
+    private String storeAddress;
+    private Float storeScore;
+    private StoreCategory category;
+    private double latitude;
+    private double longitude;
+
+    public GetNearbyStoreRes toGetNearbyStoreRes(double distance) {
+        return GetNearbyStoreRes.builder()
+                .storeIdx(storeIdx)
+                .storeName(storeName)
+                .userImage(userImage)
+                .storeAddress(storeAddress)
+                .storeScore(storeScore)
+                .category(category)
+                .latitude(latitude)
+                .longitude(longitude)
+                .distance(Math.round(distance))
+                .build();
+    }
+}
@@ -0,0 +1,14 @@
+package spring.reborn.domain.store.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 인기 가게 순위표에 올리는 값 (ACTIVE 가 아니면 순위표에서 제외)
+@Getter
+@AllArgsConstructor
+public class StoreRanking {
+    private Long storeIdx;
+    private String category;
+    private float storeScore;
+    private boolean active;
+}
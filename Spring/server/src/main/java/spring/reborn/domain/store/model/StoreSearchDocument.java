@@ -0,0 +1,32 @@
+package spring.reborn.domain.store.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+// 검색 색인에 올려두는 스토어 정보 (정렬 값 포함)
+@Getter
+@Builder
+@AllArgsConstructor
+public class StoreSearchDocument {
+    private Long storeIdx;
+    private String storeName;
+    private String userImage;
+    private String storeAddress;
+    private String storeDescription;
+    private Float storeScore;
+    private StoreCategory category;
+    private Long numOfJjim;
+
+    public GetStoreRes toGetStoreRes() {
+        return GetStoreRes.builder()
+                .storeIdx(storeIdx)
+                .storeName(storeName)
+                .userImage(userImage)
+                .storeAddress(storeAddress)
+                .storeDescription(storeDescription)
+                .storeScore(storeScore)
+                .category(category)
+                .build();
+    }
+}
@@ -15,10 +15,12 @@ import spring.reborn.domain.awsS3.AwsS3Service;
 import javax.servlet.http.HttpServletRequest;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
+import java.util.ArrayList;
 import java.util.List;
 
 import static spring.reborn.config.BaseResponseStatus.*;
 import static spring.reborn.utils.ValidationRegex.*;
+import static spring.reborn.utils.GeoUtils.isValidCoordinate;
 
 @RestController
 @RequestMapping("/users")
@@ -222,12 +224,19 @@ public class UserController {
         if (postUserStoreReq.getCategory() == null) {
             return new BaseResponse<>(POST_USERS_EMPTY_STORECATEGORY);
         }
+        // 가게 위치는 선택 입력, 보냈다면 위도와 경도가 모두 범위 안에 있는지 검사
+        if ((postUserStoreReq.getLatitude() != null || postUserStoreReq.getLongitude() != null)
+                && !isValidCoordinate(postUserStoreReq.getLatitude(), postUserStoreReq.getLongitude())) {
+            return new BaseResponse<>(POST_USERS_INVALID_STORELOCATION);
+        }
+        // 스토어 홈 배경 사진과 프로필 사진을 한 번에 올림 (동시에 업로드)
+        List<MultipartFile> imageFiles = new ArrayList<>(storeImageFile);
+        imageFiles.addAll(userImgFile);
+        List<String> fileUrl = awsS3Service.uploadImage(imageFiles);
         // 스토어 홈 배경 사진 넣기
-        List<String> fileUrl = awsS3Service.uploadImage(storeImageFile);
         postUserStoreReq.setStoreImage(fileUrl.get(0));             // 이미지 파일 객체에 추가
         // 스토어 프로필 사진 넣기
-        fileUrl = awsS3Service.uploadImage(userImgFile);
-        postUserStoreReq.setUserImg(fileUrl.get(0));                // 이미지 파일 객체에 추가
+        postUserStoreReq.setUserImg(fileUrl.get(storeImageFile.size()));                // 이미지 파일 객체에 추가
         try {
             PostUserStoreRes postUserStoreRes = userService.createUserStore(postUserStoreReq);
             return new BaseResponse<>(postUserStoreRes);
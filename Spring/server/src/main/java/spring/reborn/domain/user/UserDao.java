@@ -11,6 +11,9 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
 
 @Repository
 public class UserDao {
@@ -111,8 +114,8 @@ public class UserDao {
 
         try{
             // DB의 Store 테이블에 스토어 데이터 삽입.
-            String createUserStoreQuery = "INSERT INTO Store (userIdx, storeName, storeRegister, storeImage, storeAddress, storeDescription, category, storeScore) VALUES (last_insert_id(), ?,?,?,?,?,?, 0.0)";
-            Object[] createUserParams = new Object[]{postUserStoreReq.getStoreName(), postUserStoreReq.getStoreRegister(), postUserStoreReq.getStoreImage(), postUserStoreReq.getStoreAddress(), postUserStoreReq.getStoreDescription(), postUserStoreReq.getCategory().name()};
+            String createUserStoreQuery = "INSERT INTO Store (userIdx, storeName, storeRegister, storeImage, storeAddress, storeDescription, category, storeScore, latitude, longitude) VALUES (last_insert_id(), ?,?,?,?,?,?, 0.0, ?,?)";
+            Object[] createUserParams = new Object[]{postUserStoreReq.getStoreName(), postUserStoreReq.getStoreRegister(), postUserStoreReq.getStoreImage(), postUserStoreReq.getStoreAddress(), postUserStoreReq.getStoreDescription(), postUserStoreReq.getCategory().name(), postUserStoreReq.getLatitude(), postUserStoreReq.getLongitude()};
             this.jdbcTemplate.update(createUserStoreQuery, createUserParams);
         } catch (Exception exception) {
             System.out.println(exception);
@@ -136,6 +139,12 @@ public class UserDao {
                 storeIdx);
     }
 
+    // 해당 userIdx를 갖는 스토어의 storeIdx 조회
+    public List<Long> getStoreIdxByUserIdx(int userIdx) {
+        String getStoreIdxQuery = "select storeIdx from Store where userIdx = ?";
+        return this.jdbcTemplate.queryForList(getStoreIdxQuery, Long.class, userIdx);
+    }
+
     // 해당 storeIdx를 갖는 스토어의 이름조회
     public String getStoreName(int storeIdx) {
         String getStoreNameQuery = "select storeName from Store where storeIdx = ?"; // 해당 userIdx를 만족하는 유저를 조회하는 쿼리문
@@ -258,6 +267,13 @@ public class UserDao {
         return this.jdbcTemplate.update(modifyStoreStatusQuery, modifyStoreStatusParams); // 대응시켜 매핑시켜 쿼리 요청(생성했으면 1, 실패했으면 0)
     }
 
+    // 수정 전 프로필 이미지 (이미지 참조 해제용), 없는 유저면 null
+    public String getUserImg(int userIdx) {
+        List<String> userImgList = this.jdbcTemplate.queryForList(
+                "select userImg from User where userIdx = ?", String.class, userIdx);
+        return userImgList.isEmpty() ? null : userImgList.get(0);
+    }
+
     // 회원정보 수정
     @Transactional
     public int modifyUserInform(PatchUserReq patchUserReq) {
@@ -289,6 +305,42 @@ public class UserDao {
                 getPwdParams
         ); // 한 개의 회원정보를 얻기 위한 jdbcTemplate 함수(Query, 객체 매핑 정보, Params)의 결과 반환
     }
+    // 로그인: 해당 id 유저의 암호화된 비밀번호, 상태, 타입, 닉네임, 스토어 정보를 한 번에 가져온다. 없으면 null
+    public UserLogin getUserLogin(String userId) {
+        String getUserLoginQuery = "select U.userIdx, U.userPwd, U.status, U.userType, U.userNickname, S.storeIdx, S.storeName " +
+                "from User U left join Store S on S.userIdx = U.userIdx " +
+                "where U.userId = ? limit 1";
+
+        List<UserLogin> userLogins = this.jdbcTemplate.query(getUserLoginQuery,
+                (rs, rowNum) -> new UserLogin(
+                        rs.getString("userPwd"),
+                        mapUserPrincipal(rs),
+                        rs.getString("storeName")),
+                userId);
+        return userLogins.isEmpty() ? null : userLogins.get(0);
+    }
+
+    // 해당 userIdx 유저의 스냅샷, 없으면 null
+    public UserPrincipal getUserPrincipal(Integer userIdx) {
+        String getUserPrincipalQuery = "select U.userIdx, U.status, U.userType, U.userNickname, S.storeIdx " +
+                "from User U left join Store S on S.userIdx = U.userIdx " +
+                "where U.userIdx = ? limit 1";
+
+        List<UserPrincipal> userPrincipals = this.jdbcTemplate.query(getUserPrincipalQuery,
+                (rs, rowNum) -> mapUserPrincipal(rs),
+                userIdx);
+        return userPrincipals.isEmpty() ? null : userPrincipals.get(0);
+    }
+
+    private UserPrincipal mapUserPrincipal(ResultSet rs) throws SQLException {
+        return new UserPrincipal(
+                rs.getInt("userIdx"),
+                rs.getString("status"),
+                rs.getString("userType"),
+                rs.getString("userNickname"),
+                rs.getObject("storeIdx", Integer.class));
+    }
+
     // 스토어 로그인: 해당 email에 해당되는 user의 암호화된 비밀번호 값을 가져온다.
     public Store getStorePwd(int userIdx) {
         String getStorePwdQuery = "select * from Store where userIdx = ?"; // 해당 userIdx를 만족하는 Store의 정보들을 조회한다.
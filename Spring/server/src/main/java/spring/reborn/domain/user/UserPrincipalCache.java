@@ -0,0 +1,43 @@
+package spring.reborn.domain.user;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.user.model.UserChangedEvent;
+import spring.reborn.domain.user.model.UserPrincipal;
+import spring.reborn.utils.LocalCache;
+
+/**
+ * 유저 스냅샷(상태, 타입, 닉네임, storeIdx) 캐시
+ * 로그인시 채우고, 요청마다 하는 권한 확인은 여기서 읽는다.
+ * 회원정보 수정, 탈퇴시 해당 유저만 비운다.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final UserDao userDao;
+    private final LocalCache<Integer, UserPrincipal> cache;
+
+    public UserPrincipalCache(UserDao userDao,
+                              @Value("${user.principal.cache.ttl:30000}") long ttlMillis,
+                              @Value("${user.principal.cache.max-size:10000}") int maxSize) {
+        this.userDao = userDao;
+        this.cache = new LocalCache<>(ttlMillis, maxSize);
+    }
+
+    // 없는 유저면 null
+    public UserPrincipal get(int userIdx) throws BaseException {
+        return cache.get(userIdx, userDao::getUserPrincipal);
+    }
+
+    public void put(UserPrincipal userPrincipal) {
+        cache.put(userPrincipal.getUserIdx(), userPrincipal);
+    }
+
+    // 커밋 이후에 비워야 커밋 전 값을 다시 읽어 캐시에 올리는 일이 없다.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent userChangedEvent) {
+        cache.invalidate(userChangedEvent.getUserIdx());
+    }
+}
@@ -27,14 +27,16 @@ public class UserProvider {
     // *********************** 동작에 있어 필요한 요소들을 불러옵니다. *************************
     private final UserDao userDao;
     private final JwtService jwtService; // JWT부분은 7주차에 다루므로 모르셔도 됩니다!
+    private final UserPrincipalCache userPrincipalCache;
 
 
     final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     @Autowired //readme 참고
-    public UserProvider(UserDao userDao, JwtService jwtService) {
+    public UserProvider(UserDao userDao, JwtService jwtService, UserPrincipalCache userPrincipalCache) {
         this.userDao = userDao;
         this.jwtService = jwtService; // JWT부분은 7주차에 다루므로 모르셔도 됩니다!
+        this.userPrincipalCache = userPrincipalCache;
     }
 
     // ******************************************************************************
@@ -102,72 +104,36 @@ public class UserProvider {
     //이웃 로그인(password 검사)
     @Transactional
     public PostLoginRes logIn(PostLoginReq postLoginReq) throws BaseException {
-        User user = userDao.getPwd(postLoginReq);
-        String password;
-        try {
-            password = new AES128(Secret.USER_INFO_PASSWORD_KEY).decrypt(user.getUserPwd()); // 암호화
-            // 회원가입할 때 비밀번호가 암호화되어 저장되었기 떄문에 로그인을 할때도 암호화된 값끼리 비교를 해야합니다.
-        } catch (Exception ignored) {
-            throw new BaseException(PASSWORD_DECRYPTION_ERROR);
-        }
-
-        if (postLoginReq.getUserPwd().equals(password)) { //비말번호가 일치한다면 userIdx를 가져온다.
-            int userIdx = userDao.getPwd(postLoginReq).getUserIdx();
-//            return new PostLoginRes(userIdx);
+        UserPrincipal userPrincipal = checkPassword(postLoginReq);
+        int userIdx = userPrincipal.getUserIdx();
 //  *********** 해당 부분은 7주차 - JWT 수업 후 주석해제 및 대체해주세요!  **************** //
-            String jwt = jwtService.createJwt(userIdx);
-            String status = userDao.getUserStatus(userIdx);
-            String userType = userDao.getUserType(userIdx);
-            String userNickname = userDao.getUserNickname(userIdx);
-            if (!userType.equals("CONSUMER")) {
-                throw new BaseException(INVALID_USERTYPE);
-            }
-            if (!status.equals("ACTIVE")) {
-                throw new BaseException(INVALID_USER);
-            } else {
-                return new PostLoginRes(userIdx, userNickname, jwt);
-            }
-//  **************************************************************************
-
-        } else { // 비밀번호가 다르다면 에러메세지를 출력한다.
-            throw new BaseException(FAILED_TO_LOGIN);
+        if (!userPrincipal.isConsumer()) {
+            throw new BaseException(INVALID_USERTYPE);
+        }
+        if (!userPrincipal.isActive()) {
+            throw new BaseException(INVALID_USER);
         }
+        String jwt = jwtService.createJwt(userIdx);
+        return new PostLoginRes(userIdx, userPrincipal.getUserNickname(), jwt);
+//  **************************************************************************
     }
 
     //스토어 로그인(password 검사)
     @Transactional
     public PostStoreLoginRes storeLogIn(PostLoginReq postLoginReq) throws BaseException {
-        User user = userDao.getPwd(postLoginReq);
-        String password;
-        try {
-            password = new AES128(Secret.USER_INFO_PASSWORD_KEY).decrypt(user.getUserPwd()); // 암호화
-            // 회원가입할 때 비밀번호가 암호화되어 저장되었기 떄문에 로그인을 할때도 암호화된 값끼리 비교를 해야합니다.
-        } catch (Exception ignored) {
-            throw new BaseException(PASSWORD_DECRYPTION_ERROR);
+        UserLogin userLogin = getUserLogin(postLoginReq);
+        UserPrincipal userPrincipal = checkPassword(postLoginReq, userLogin);
+        int userIdx = userPrincipal.getUserIdx();
+        if (!userPrincipal.isStore() || userPrincipal.getStoreIdx() == null) {
+            throw new BaseException(INVALID_USERTYPE);
         }
-
-        if (postLoginReq.getUserPwd().equals(password)) { //비말번호가 일치한다면 userIdx를 가져온다.
-            int userIdx = userDao.getPwd(postLoginReq).getUserIdx();
-            String userType = userDao.getUserType(userIdx);
-            if (!userType.equals("STORE")) {
-                throw new BaseException(INVALID_USERTYPE);
-            }
-            int storeIdx = userDao.getStorePwd(userIdx).getStoreIdx();
-            String storeName = userDao.getStoreName(storeIdx);
-//            return new PostLoginRes(userIdx);
 //  *********** 해당 부분은 7주차 - JWT 수업 후 주석해제 및 대체해주세요!  **************** //
-            String jwt = jwtService.createJwt(userIdx);
-            String status = userDao.getUserStatus(userIdx);
-            if (!status.equals("ACTIVE")) {
-                throw new BaseException(INVALID_USER);
-            } else {
-                return new PostStoreLoginRes(userIdx, storeIdx, storeName, jwt);
-            }
-//  **************************************************************************
-
-        } else { // 비밀번호가 다르다면 에러메세지를 출력한다.
-            throw new BaseException(FAILED_TO_LOGIN);
+        if (!userPrincipal.isActive()) {
+            throw new BaseException(INVALID_USER);
         }
+        String jwt = jwtService.createJwt(userIdx);
+        return new PostStoreLoginRes(userIdx, userPrincipal.getStoreIdx(), userLogin.getStoreName(), jwt);
+//  **************************************************************************
     }
 
     //로그아웃
@@ -175,7 +141,7 @@ public class UserProvider {
     public PostLogoutRes logOut(int userIdx) throws BaseException {
 //  *********** 해당 부분은 7주차 - JWT 수업 후 주석해제 및 대체해주세요!  **************** //
         String jwt = jwtService.createEmptyJwt(userIdx);
-        String userNickname = userDao.getUserNickname(userIdx);
+        String userNickname = getUserPrincipal(userIdx).getUserNickname();
         return new PostLogoutRes(userIdx, userNickname, jwt);
 //  **************************************************************************
     }
@@ -183,37 +149,19 @@ public class UserProvider {
     //이웃 로그인Rtk(password 검사)
     @Transactional
     public PostLoginRtkRes logInRtk(PostLoginReq postLoginReq) throws BaseException {
-        User user = userDao.getPwd(postLoginReq);
-        String password;
-        try {
-            password = new AES128(Secret.USER_INFO_PASSWORD_KEY).decrypt(user.getUserPwd()); // 암호화
-            // 회원가입할 때 비밀번호가 암호화되어 저장되었기 떄문에 로그인을 할때도 암호화된 값끼리 비교를 해야합니다.
-        } catch (Exception ignored) {
-            throw new BaseException(PASSWORD_DECRYPTION_ERROR);
-        }
-
-        if (postLoginReq.getUserPwd().equals(password)) { //비말번호가 일치한다면 userIdx를 가져온다.
-            int userIdx = userDao.getPwd(postLoginReq).getUserIdx();
-//            return new PostLoginRes(userIdx);
+        UserPrincipal userPrincipal = checkPassword(postLoginReq);
+        int userIdx = userPrincipal.getUserIdx();
 //  *********** 해당 부분은 7주차 - JWT 수업 후 주석해제 및 대체해주세요!  **************** //
-            String jwt = jwtService.createJwt(userIdx);
-            String status = userDao.getUserStatus(userIdx);
-            String userType = userDao.getUserType(userIdx);
-            String userNickname = userDao.getUserNickname(userIdx);
-            String rtk = jwtService.createRefreshToken(userIdx);
-            if (!userType.equals("CONSUMER")) {
-                throw new BaseException(INVALID_USERTYPE);
-            }
-            if (!status.equals("ACTIVE")) {
-                throw new BaseException(INVALID_USER);
-            } else {
-                return new PostLoginRtkRes(userIdx, userNickname, jwt, rtk);
-            }
-//  **************************************************************************
-
-        } else { // 비밀번호가 다르다면 에러메세지를 출력한다.
-            throw new BaseException(FAILED_TO_LOGIN);
+        if (!userPrincipal.isConsumer()) {
+            throw new BaseException(INVALID_USERTYPE);
         }
+        if (!userPrincipal.isActive()) {
+            throw new BaseException(INVALID_USER);
+        }
+        String jwt = jwtService.createJwt(userIdx);
+        String rtk = jwtService.createRefreshToken(userIdx);
+        return new PostLoginRtkRes(userIdx, userPrincipal.getUserNickname(), jwt, rtk);
+//  **************************************************************************
     }
 
     //로그아웃rtk
@@ -221,7 +169,7 @@ public class UserProvider {
     public PostLogoutRtkRes logOutRtk(int userIdx) throws BaseException {
 //  *********** 해당 부분은 7주차 - JWT 수업 후 주석해제 및 대체해주세요!  **************** //
         String rtk = jwtService.createEmptyRtk(userIdx);
-        String userNickname = userDao.getUserNickname(userIdx);
+        String userNickname = getUserPrincipal(userIdx).getUserNickname();
         return new PostLogoutRtkRes(userIdx, userNickname, rtk);
 //  **************************************************************************
     }
@@ -231,17 +179,62 @@ public class UserProvider {
     public PostLoginRes appleLogIn(PostAppleLoginReq postAppleLoginReq) throws BaseException {
         int userIdx = userDao.getApplePwd(postAppleLoginReq).getUserIdx();
 
-        String jwt = jwtService.createJwt(userIdx);
-        String status = userDao.getUserStatus(userIdx);
-        String userType = userDao.getUserType(userIdx);
-        String userNickname = userDao.getUserNickname(userIdx);
-        if (!userType.equals("CONSUMER")) {
+        UserPrincipal userPrincipal = getUserPrincipal(userIdx);
+        if (!userPrincipal.isConsumer()) {
             throw new BaseException(INVALID_USERTYPE);
         }
-        if (!status.equals("ACTIVE")) {
+        if (!userPrincipal.isActive()) {
             throw new BaseException(INVALID_USER);
-        } else {
-            return new PostLoginRes(userIdx, userNickname, jwt);
         }
+        String jwt = jwtService.createJwt(userIdx);
+        return new PostLoginRes(userIdx, userPrincipal.getUserNickname(), jwt);
+    }
+
+    // 유저 스냅샷 (상태, 타입, 닉네임, storeIdx), 없는 유저면 INVALID_USER
+    public UserPrincipal getUserPrincipal(int userIdx) throws BaseException {
+        UserPrincipal userPrincipal;
+        try {
+            userPrincipal = userPrincipalCache.get(userIdx);
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
+        }
+        if (userPrincipal == null) {
+            throw new BaseException(INVALID_USER);
+        }
+        return userPrincipal;
+    }
+
+    private UserLogin getUserLogin(PostLoginReq postLoginReq) throws BaseException {
+        UserLogin userLogin;
+        try {
+            userLogin = userDao.getUserLogin(postLoginReq.getUserId());
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
+        }
+        if (userLogin == null) {
+            throw new BaseException(FAILED_TO_LOGIN);
+        }
+        return userLogin;
+    }
+
+    private UserPrincipal checkPassword(PostLoginReq postLoginReq) throws BaseException {
+        return checkPassword(postLoginReq, getUserLogin(postLoginReq));
+    }
+
+    // 비밀번호가 맞으면 한 번에 가져온 유저 스냅샷을 캐시에 올려두고 반환
+    private UserPrincipal checkPassword(PostLoginReq postLoginReq, UserLogin userLogin) throws BaseException {
+        String password;
+        try {
+            password = new AES128(Secret.USER_INFO_PASSWORD_KEY).decrypt(userLogin.getUserPwd()); // 암호화
+            // 회원가입할 때 비밀번호가 암호화되어 저장되었기 떄문에 로그인을 할때도 암호화된 값끼리 비교를 해야합니다.
+        } catch (Exception ignored) {
+            throw new BaseException(PASSWORD_DECRYPTION_ERROR);
+        }
+        if (!postLoginReq.getUserPwd().equals(password)) { // 비밀번호가 다르다면 에러메세지를 출력한다.
+            throw new BaseException(FAILED_TO_LOGIN);
+        }
+
+        userPrincipalCache.put(userLogin.getUserPrincipal());
+        return userLogin.getUserPrincipal();
     }
-}
\ No newline at end of file
+}
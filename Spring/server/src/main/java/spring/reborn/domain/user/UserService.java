@@ -1,13 +1,17 @@
 package spring.reborn.domain.user;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
-import org.springframework.mail.MailException;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.RequestBody;
 import spring.reborn.config.BaseException;
 import spring.reborn.config.secret.Secret;
+import spring.reborn.domain.awsS3.ImageVariantIndex;
+import spring.reborn.domain.awsS3.model.ImageReleasedEvent;
+import spring.reborn.domain.mail.MailOutbox;
+import spring.reborn.domain.mail.model.MailRequestedEvent;
+import spring.reborn.domain.store.model.StoreChangedEvent;
 import spring.reborn.domain.user.model.PostUserReq;
 import spring.reborn.domain.user.model.PostUserRes;
 import spring.reborn.domain.user.model.PostUserStoreReq;
@@ -20,11 +24,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import javax.mail.MessagingException;
-import javax.mail.internet.InternetAddress;
-import javax.mail.internet.MimeMessage;
 
-import java.io.UnsupportedEncodingException;
 import java.time.Duration;
 import java.util.Random;
 
@@ -38,17 +38,19 @@ public class UserService {
     private final UserDao userDao;
     private final UserProvider userProvider;
     private final JwtService jwtService; // JWT부분은 7주차에 다루므로 모르셔도 됩니다!
-    private String ePw; // 인증번호
+    private final ApplicationEventPublisher applicationEventPublisher; // 스토어 변경 알림 (검색 색인 등)
+    private final MailOutbox mailOutbox; // 메일 발송 대기열, 실제 발송은 MailOutboxWorker 가 함
 
     @Autowired //readme 참고
-    public UserService(UserDao userDao, UserProvider userProvider, JwtService jwtService) {
+    public UserService(UserDao userDao, UserProvider userProvider, JwtService jwtService, ApplicationEventPublisher applicationEventPublisher,
+                       MailOutbox mailOutbox) {
         this.userDao = userDao;
         this.userProvider = userProvider;
         this.jwtService = jwtService; // JWT부분은 7주차에 다루므로 모르셔도 됩니다!
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.mailOutbox = mailOutbox;
 
     }
-    @Autowired
-    JavaMailSender emailsender; // Bean 등록해둔 MailConfig 를 emailsender 라는 이름으로 autowired
     // ******************************************************************************
     // 회원가입(POST)
     @Transactional
@@ -108,6 +110,7 @@ public class UserService {
         try {
             int storeId = userDao.createUserStore(postUserStoreReq);
             postUserStoreRes = userDao.getStoreInform(storeId);
+            applicationEventPublisher.publishEvent(new StoreChangedEvent((long) storeId));
          } catch (Exception exception) { // DB에 이상이 있는 경우 에러 메시지를 보냅니다.
             System.out.println(exception);
             throw new BaseException(DATABASE_ERROR);
@@ -141,6 +144,7 @@ public class UserService {
             if (result == 0) { // result값이 0이면 과정이 실패한 것이므로 에러 메서지를 보냅니다.
                 throw new BaseException(MODIFY_FAIL_USERSTATUS);
             }
+            applicationEventPublisher.publishEvent(new UserChangedEvent(userIdx));
         } catch (Exception exception) { // DB에 이상이 있는 경우 에러 메시지를 보냅니다.
             throw new BaseException(DATABASE_ERROR);
         }
@@ -154,6 +158,9 @@ public class UserService {
         if (result == 0) { // result값이 0이면 과정이 실패한 것이므로 에러 메서지를 보냅니다.
             throw new BaseException(MODIFY_FAIL_STORESTATUS);
         }
+        userDao.getStoreIdxByUserIdx(userIdx)
+                .forEach(storeIdx -> applicationEventPublisher.publishEvent(new StoreChangedEvent(storeIdx)));
+        applicationEventPublisher.publishEvent(new UserChangedEvent(userIdx));
         } catch (Exception exception) { // DB에 이상이 있는 경우 에러 메시지를 보냅니다.
           throw new BaseException(DATABASE_ERROR);
         }
@@ -163,10 +170,16 @@ public class UserService {
     @Transactional
     public String modifyUserInform(PatchUserReq patchUserReq) throws BaseException {
         try {
+            String oldUserImg = userDao.getUserImg(patchUserReq.getUserIdx());
             int result = userDao.modifyUserInform(patchUserReq); // 해당 과정이 무사히 수행되면 True(1), 그렇지 않으면 False(0)입니다.
             if (result == 0) { // result값이 0이면 과정이 실패한 것이므로 에러 메서지를 보냅니다.
                 throw new BaseException(MODIFY_FAIL_USERNAME);
             }
+            applicationEventPublisher.publishEvent(new UserChangedEvent(patchUserReq.getUserIdx()));
+            // 바뀐 프로필 이미지는 커밋 후 참조 해제
+            if (oldUserImg != null && !oldUserImg.isEmpty() && !oldUserImg.equals(patchUserReq.getUserImg())) {
+                applicationEventPublisher.publishEvent(new ImageReleasedEvent(ImageVariantIndex.toImageKey(oldUserImg)));
+            }
             String message = "회원정보가 수정되었습니다.";
             return message;
         } catch (Exception exception) { // DB에 이상이 있는 경우 에러 메시지를 보냅니다.
@@ -177,12 +190,7 @@ public class UserService {
 
     // 이메일 본인인증
     // 메일 내용 작성(Post)
-    public MimeMessage createMessage(String to) throws MessagingException, UnsupportedEncodingException {
-
-        MimeMessage message = emailsender.createMimeMessage();
-
-        message.addRecipients(MimeMessage.RecipientType.TO, to);// 보내는 대상
-        message.setSubject("Reborn 회원가입 이메일 인증");// 제목
+    public String createMessage(String code) {
 
         String msgg = "";
         msgg += "<div style=\"font-family: 'Apple SD Gothic Neo', 'sans-serif' !important; width: 540px; height: 600px; border-top: 4px solid #FF4D15; margin: 100px auto; padding: 30px 0; box-sizing: border-box;\">\n" +
@@ -199,24 +207,15 @@ public class UserService {
                 "\n" +
                 "\t<p style=\"font-size: 16px; margin: 40px 5px 20px; line-height: 28px;\">\n" +
                 "\t\t회원가입 인증 코드: <br />\n" +
-                "\t\t<span style=\"font-size: 24px; font-family: 'Times New Roman', 'serif' !important;\">"+ePw+"</span>\n" +
+                "\t\t<span style=\"font-size: 24px; font-family: 'Times New Roman', 'serif' !important;\">"+code+"</span>\n" +
                 "\t</p>\n" +
                 "</div>";
-        message.setText(msgg, "utf-8", "html");// 내용, charset 타입, subtype
-        // 보내는 사람의 이메일 주소, 보내는 사람 이름
-        message.setFrom(new InternetAddress("reborn_umc@naver.com", "Reborn_Admin"));// 보내는 사람
-
-        return message;
+        return msgg;
     }
 
     // 이메일 내용-아이디 찾기
     // 메일 내용 작성(Post)
-    public MimeMessage createIDMessage(String to) throws MessagingException, UnsupportedEncodingException {
-
-        MimeMessage message = emailsender.createMimeMessage();
-
-        message.addRecipients(MimeMessage.RecipientType.TO, to);// 보내는 대상
-        message.setSubject("Reborn 아이디 확인");// 제목
+    public String createIDMessage(String code) {
 
         String msgg = "";
         msgg += "<div style=\"font-family: 'Apple SD Gothic Neo', 'sans-serif' !important; width: 540px; height: 600px; border-top: 4px solid #FF4D15; margin: 100px auto; padding: 30px 0; box-sizing: border-box;\">\n" +
@@ -233,27 +232,15 @@ public class UserService {
                 "\n" +
                 "\t<p style=\"font-size: 16px; margin: 40px 5px 20px; line-height: 28px;\">\n" +
                 "\t\t아이디: <br />\n" +
-                "\t\t<span style=\"font-size: 24px; font-family: 'Times New Roman', 'serif' !important;\">"+ePw+"</span>\n" +
+                "\t\t<span style=\"font-size: 24px; font-family: 'Times New Roman', 'serif' !important;\">"+code+"</span>\n" +
                 "\t</p>\n" +
                 "</div>";
-        message.setText(msgg, "utf-8", "html");// 내용, charset 타입, subtype
-        // 보내는 사람의 이메일 주소, 보내는 사람 이름
-        message.setFrom(new InternetAddress("reborn_umc@naver.com", "Reborn_Admin"));// 보내는 사람
-
-        return message;
+        return msgg;
     }
 
     // 이메일로 임시비번 전송
     // 메일 내용 작성(Post)
-    public MimeMessage createPwdMessage(String to) throws MessagingException, UnsupportedEncodingException {
-//		System.out.println("보내는 대상 : " + to);
-//		System.out.println("인증 번호 : " + ePw);
-
-        MimeMessage message = emailsender.createMimeMessage();
-
-        message.addRecipients(MimeMessage.RecipientType.TO, to);// 보내는 대상
-        message.setSubject("Reborn 임시 비밀번호 발급");// 제목
-
+    public String createPwdMessage(String code) {
         String msgg = "";
         msgg += "<div style=\"font-family: 'Apple SD Gothic Neo', 'sans-serif' !important; width: 540px; height: 600px; border-top: 4px solid #FF4D15; margin: 100px auto; padding: 30px 0; box-sizing: border-box;\">\n" +
                 "\t<h1 style=\"margin: 0; padding: 0 5px; font-size: 28px; font-weight: 400;\">\n" +
@@ -269,14 +256,10 @@ public class UserService {
                 "\n" +
                 "\t<p style=\"font-size: 16px; margin: 40px 5px 20px; line-height: 28px;\">\n" +
                 "\t\t임시 비밀번호: <br />\n" +
-                "\t\t<span style=\"font-size: 24px; font-family: 'Times New Roman', 'serif' !important;\">"+ePw+"</span>\n" +
+                "\t\t<span style=\"font-size: 24px; font-family: 'Times New Roman', 'serif' !important;\">"+code+"</span>\n" +
                 "\t</p>\n" +
                 "</div>";
-        message.setText(msgg, "utf-8", "html");// 내용, charset 타입, subtype
-        // 보내는 사람의 이메일 주소, 보내는 사람 이름
-        message.setFrom(new InternetAddress("reborn_umc@naver.com", "Reborn_Admin"));// 보내는 사람
-
-        return message;
+        return msgg;
     }
 
     // 이메일 본인인증
@@ -365,44 +348,38 @@ public class UserService {
     // 이메일 본인인증
     // 메일 발송(Post)
     // sendSimpleMessage 의 매개변수로 들어온 to 는 곧 이메일 주소가 되고,
-    // MimeMessage 객체 안에 내가 전송할 메일의 내용을 담는다.
-    // 그리고 bean 으로 등록해둔 javaMail 객체를 사용해서 이메일 send
+    // 인증 코드를 넣은 메일 내용(html)을 만들어서
+    // 메일은 대기열에 넣고 바로 반환, 실제 발송은 MailOutboxWorker 가 묶어서 한다.
     public String sendSimpleMessage(String to) throws Exception {
 
-        ePw = createKey(); // 랜덤 인증번호 생성
-
-        // TODO Auto-generated method stub
-        MimeMessage message = createMessage(to); // 메일 발송
-        try {// 예외처리
-            emailsender.send(message);
-        } catch (MailException es) {
-            es.printStackTrace();
-            throw new IllegalArgumentException();
-        }
+        String ePw = createKey(); // 랜덤 인증번호 생성
 
         // 암호화
+        String encryptedPw;
         try {
-            ePw = new AES128(Secret.USER_INFO_PASSWORD_KEY).encrypt(ePw); // 암호화코드
+            encryptedPw = new AES128(Secret.USER_INFO_PASSWORD_KEY).encrypt(ePw); // 암호화코드
         } catch (Exception ignored) { // 암호화가 실패하였을 경우 에러 발생
             throw new BaseException(PASSWORD_ENCRYPTION_ERROR);
         }
 
-        return ePw; // 메일로 보냈던 인증 코드를 서버로 반환
+        mailOutbox.enqueue(to, "Reborn 회원가입 이메일 인증", createMessage(ePw)); // 메일 발송
+
+        return encryptedPw; // 메일로 보냈던 인증 코드를 서버로 반환
     }
 
     // 인증 번호 암호화(Get)
     public String encryptionCode(String code) throws Exception{
         // 암호화
         try {
-            ePw = new AES128(Secret.USER_INFO_PASSWORD_KEY).encrypt(code); // 암호화코드
+            return new AES128(Secret.USER_INFO_PASSWORD_KEY).encrypt(code); // 암호화코드
         } catch (Exception ignored) { // 암호화가 실패하였을 경우 에러 발생
             throw new BaseException(PASSWORD_ENCRYPTION_ERROR);
         }
-        return ePw;
     }
 
     // 임시 비밀번호 전송
-    @Transactional
+    // 비밀번호 변경이 커밋된 뒤에 메일 대기열에 넣음 (롤백되면 메일도 보내지 않음)
+    @Transactional(rollbackFor = Exception.class)
     public String sendTempPwd(PatchUserPwdResetReq patchUserPwdResetReq) throws Exception {
 
         // 가입 확인: 해당 이메일을 가진 유저가 있는지 확인합니다. 없을 경우, 에러 메시지를 보냅니다.
@@ -414,16 +391,8 @@ public class UserService {
             throw new BaseException(NO_JOINED_ID);
         }
 
-        ePw = createPwd(); // 랜덤 인증번호 생성
+        String ePw = createPwd(); // 랜덤 인증번호 생성
 
-        // TODO Auto-generated method stub
-        MimeMessage message = createPwdMessage(patchUserPwdResetReq.getUserEmail()); // 메일 발송
-        try {// 예외처리
-            emailsender.send(message);
-        } catch (MailException es) {
-            es.printStackTrace();
-            throw new IllegalArgumentException();
-        }
         String tempPwd;
         try {
             tempPwd = new AES128(Secret.USER_INFO_PASSWORD_KEY).encrypt(ePw); // 암호화코드
@@ -433,6 +402,9 @@ public class UserService {
             throw new BaseException(PASSWORD_ENCRYPTION_ERROR);
         }
 
+        applicationEventPublisher.publishEvent(new MailRequestedEvent(
+                patchUserPwdResetReq.getUserEmail(), "Reborn 임시 비밀번호 발급", createPwdMessage(ePw))); // 메일 발송
+
         return ePw; // 메일로 보냈던 인증 코드를 서버로 반환
     }
 
@@ -447,20 +419,15 @@ public class UserService {
         }
 
         // 이메일로 아이디 찾기
+        String userId;
         try{
             GetUserIdRes getUserIdRes = userProvider.getUserIdInform(to);
-            ePw = getUserIdRes.getUserId();     // 아이디 저장
+            userId = getUserIdRes.getUserId();     // 아이디 저장
         } catch (Exception ignored){
             throw new BaseException(DATABASE_ERROR);
         }
 
-        MimeMessage message = createIDMessage(to); // 메일 발송
-        try {// 예외처리
-            emailsender.send(message);
-        } catch (MailException es) {
-            es.printStackTrace();
-            throw new IllegalArgumentException();
-        }
+        mailOutbox.enqueue(to, "Reborn 아이디 확인", createIDMessage(userId)); // 메일 발송
     }
 
     // ID 찾기 - 부분(Get)
@@ -3,7 +3,7 @@ package spring.reborn.domain.user.model;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 
-@FeignClient(name = "appleClient", url = "https://appleid.apple.com/auth"/*, configuration = FeignConfig.class*/)
+@FeignClient(name = "appleClient", url = "${apple.auth.url:https://appleid.apple.com/auth}"/*, configuration = FeignConfig.class*/)
 public interface AppleClient {
     @GetMapping(value = "/keys")
     ApplePublicKeyResponse getAppleAuthPublicKey();
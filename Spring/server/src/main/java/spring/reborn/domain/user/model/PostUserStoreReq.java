@@ -20,6 +20,8 @@ public class PostUserStoreReq {
     private String storeImage;          // 스토어 홈 배경사진
     private String storeAddress;        // 가게 주소
     private String storeDescription;    // 가게 한 줄 소개
+    private Double latitude;            // 가게 위도
+    private Double longitude;           // 가게 경도
 
     @Getter
     public enum category
@@ -0,0 +1,11 @@
+package spring.reborn.domain.user.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 유저 정보, 상태가 바뀌었을 때 발행 (유저 스냅샷 캐시 무효화)
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+    private int userIdx;
+}
@@ -0,0 +1,16 @@
+package spring.reborn.domain.user.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 로그인 한 번에 필요한 값을 한 쿼리로 가져온 결과
+ * 암호화된 비밀번호 + 유저 스냅샷 + (스토어 유저인 경우) 스토어 이름
+ */
+@Getter
+@AllArgsConstructor
+public class UserLogin {
+    private String userPwd;
+    private UserPrincipal userPrincipal;
+    private String storeName;
+}
@@ -0,0 +1,30 @@
+package spring.reborn.domain.user.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 로그인, 권한 확인에 필요한 유저 정보 스냅샷
+ * storeIdx 는 스토어 유저인 경우에만 존재
+ */
+@Getter
+@AllArgsConstructor
+public class UserPrincipal {
+    private int userIdx;
+    private String status;
+    private String userType;
+    private String userNickname;
+    private Integer storeIdx;
+
+    public boolean isActive() {
+        return "ACTIVE".equals(status);
+    }
+
+    public boolean isConsumer() {
+        return "CONSUMER".equals(userType);
+    }
+
+    public boolean isStore() {
+        return "STORE".equals(userType);
+    }
+}
@@ -0,0 +1,119 @@
+package spring.reborn.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.user.model.AppleClient;
+import spring.reborn.domain.user.model.ApplePublicKeyResponse;
+
+import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static spring.reborn.config.BaseResponseStatus.INVALID_JWT;
+
+/**
+ * 애플 공개키(JWKS) 캐시
+ * 로그인마다 애플 서버를 부르지 않도록 kid 별로 만들어둔 PublicKey 를 들고 있다.
+ * 주기적으로 다시 받아오고, 모르는 kid 가 들어오면(키 교체) 바로 다시 받아온다.
+ * 동시에 여러 로그인이 갱신을 기다리면 한 번만 요청한다.
+ */
+@Slf4j
+@Component
+public class ApplePublicKeyCache {
+
+    private static class Keys {
+        private final Map<String, PublicKey> publicKeys;
+        private final Map<String, String> algs;
+
+        private Keys(Map<String, PublicKey> publicKeys, Map<String, String> algs) {
+            this.publicKeys = publicKeys;
+            this.algs = algs;
+        }
+
+        private PublicKey find(String kid, String alg) {
+            if (kid == null || alg == null || !alg.equals(algs.get(kid))) {
+                return null;
+            }
+            return publicKeys.get(kid);
+        }
+    }
+
+    private static final Keys EMPTY = new Keys(Collections.emptyMap(), Collections.emptyMap());
+
+    private final AppleClient appleClient;
+    private final Object refreshLock = new Object();
+    private volatile Keys keys = EMPTY;
+    private volatile long refreshedAt = 0;
+
+    // 모르는 kid 로 인한 갱신 최소 간격 (잘못된 토큰으로 애플 서버를 두드리지 않도록)
+    @Value("${apple.auth.keys.miss-refresh-interval:10000}")
+    private long missRefreshInterval;
+
+    public ApplePublicKeyCache(AppleClient appleClient) {
+        this.appleClient = appleClient;
+    }
+
+    public PublicKey getPublicKey(String kid, String alg) throws BaseException {
+        Keys current = keys;
+        PublicKey publicKey = current.find(kid, alg);
+        if (publicKey != null) {
+            return publicKey;
+        }
+
+        if (System.currentTimeMillis() - refreshedAt >= missRefreshInterval) {
+            refresh(current, missRefreshInterval);
+            publicKey = keys.find(kid, alg);
+        }
+        if (publicKey == null) {
+            throw new BaseException(INVALID_JWT);
+        }
+        return publicKey;
+    }
+
+    @Scheduled(fixedDelayString = "${apple.auth.keys.refresh-interval:3600000}")
+    public void refresh() {
+        refresh(keys, 0);
+    }
+
+    // 기다리는 동안 다른 쓰레드가 이미 갱신했거나 갱신을 시도했다면(실패 포함) 다시 요청하지 않음
+    private void refresh(Keys observed, long minInterval) {
+        synchronized (refreshLock) {
+            if (keys != observed || System.currentTimeMillis() - refreshedAt < minInterval) {
+                return;
+            }
+            refreshedAt = System.currentTimeMillis();
+            try {
+                keys = load();
+                log.debug("refresh apple public keys : " + keys.publicKeys.size());
+            } catch (Exception e) {
+                // 갱신에 실패해도 기존 키는 계속 사용
+                log.error("apple public key refresh failed : " + e.getMessage());
+            }
+        }
+    }
+
+    private Keys load() throws Exception {
+        ApplePublicKeyResponse response = appleClient.getAppleAuthPublicKey();
+
+        Map<String, PublicKey> publicKeys = new HashMap<>();
+        Map<String, String> algs = new HashMap<>();
+        for (ApplePublicKeyResponse.Key key : response.getKeys()) {
+            byte[] nBytes = Base64.getUrlDecoder().decode(key.getN());
+            byte[] eBytes = Base64.getUrlDecoder().decode(key.getE());
+
+            RSAPublicKeySpec publicKeySpec = new RSAPublicKeySpec(new BigInteger(1, nBytes), new BigInteger(1, eBytes));
+            KeyFactory keyFactory = KeyFactory.getInstance(key.getKty());
+            publicKeys.put(key.getKid(), keyFactory.generatePublic(publicKeySpec));
+            algs.put(key.getKid(), key.getAlg());
+        }
+        return new Keys(publicKeys, algs);
+    }
+}
@@ -0,0 +1,64 @@
+package spring.reborn.utils;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 한 페이지 분량만 매핑하는 RowCallbackHandler
+ * 쿼리는 LIMIT size + 1 로 요청하고, 마지막 한 행은 다음 페이지 존재 여부 확인용으로만 쓴다.
+ */
+public class CursorPageCollector<T> implements RowCallbackHandler {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    @FunctionalInterface
+    public interface CursorExtractor {
+        String extract(ResultSet rs) throws SQLException;
+    }
+
+    private final RowMapper<T> rowMapper;
+    private final CursorExtractor cursorExtractor;
+    private final int size;
+    private final List<T> items;
+    private String lastCursor;
+    private boolean hasNext = false;
+
+    public CursorPageCollector(RowMapper<T> rowMapper, CursorExtractor cursorExtractor, int size) {
+        this.rowMapper = rowMapper;
+        this.cursorExtractor = cursorExtractor;
+        this.size = size;
+        this.items = new ArrayList<>(size);
+    }
+
+    public static int pageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    // 쿼리 LIMIT 값
+    public int limit() {
+        return size + 1;
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+        if (items.size() >= size) {
+            hasNext = true;
+            return;
+        }
+        items.add(rowMapper.mapRow(rs, items.size()));
+        lastCursor = cursorExtractor.extract(rs);
+    }
+
+    public CursorPage<T> toPage() {
+        return new CursorPage<>(items, hasNext ? lastCursor : null, hasNext);
+    }
+}
@@ -0,0 +1,24 @@
+package spring.reborn.utils;
+
+public class GeoUtils {
+    // 지구 평균 반지름 (m)
+    public static final double EARTH_RADIUS = 6_371_000d;
+    // 위도 1도의 거리 (m)
+    public static final double METERS_PER_DEGREE = 111_320d;
+
+    // 위도, 경도 범위 체크
+    public static boolean isValidCoordinate(Double latitude, Double longitude) {
+        return latitude != null && longitude != null
+                && latitude >= -90 && latitude <= 90
+                && longitude >= -180 && longitude <= 180;
+    }
+
+    // 두 좌표 사이의 거리 (m, haversine)
+    public static double distance(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -2,21 +2,28 @@ package spring.reborn.utils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.*;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import spring.reborn.config.*;
 import spring.reborn.config.secret.Secret;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import spring.reborn.domain.user.UserPrincipalCache;
 import spring.reborn.domain.user.model.AppleClient;
 import spring.reborn.domain.user.model.ApplePublicKeyResponse;
+import spring.reborn.domain.user.model.UserPrincipal;
 
 import javax.servlet.http.HttpServletRequest;
 import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.security.KeyFactory;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.spec.InvalidKeySpecException;
@@ -25,13 +32,32 @@ import java.util.*;
 
 import static spring.reborn.config.BaseResponseStatus.*;
 
+@Slf4j
 @Service
 public class JwtService {
-    @Autowired
-    private final AppleClient appleClient;
+    // 한 요청 안에서 검증한 claims 를 담아두는 request attribute
+    private static final String CLAIMS_ATTRIBUTE = JwtService.class.getName() + ".claims";
+
+    private final ApplePublicKeyCache applePublicKeyCache;
+
+    // 토큰의 유저가 탈퇴, 정지되었는지 확인용 유저 스냅샷 캐시
+    private final UserPrincipalCache userPrincipalCache;
+
+    // 검증이 끝난 토큰(SHA-256) -> claims, 토큰 만료 시각을 넘겨서 들고 있지 않음
+    private final LocalCache<String, Claims> claimsCache;
+
+    // 운영용 API (백필, 재적재) 를 호출할 수 있는 userIdx 목록 (쉼표 구분), 비어있으면 아무도 못 부름
+    @Value("${reborn.admin.user-idx-list:}")
+    private String adminUserIdxList;
 
-    public JwtService(AppleClient appleClient) {
-        this.appleClient = appleClient;
+    @Autowired
+    public JwtService(ApplePublicKeyCache applePublicKeyCache,
+                      UserPrincipalCache userPrincipalCache,
+                      @Value("${jwt.claims.cache.ttl:300000}") long claimsCacheTtl,
+                      @Value("${jwt.claims.cache.max-size:10000}") int claimsCacheMaxSize) {
+        this.applePublicKeyCache = applePublicKeyCache;
+        this.userPrincipalCache = userPrincipalCache;
+        this.claimsCache = new LocalCache<>(claimsCacheTtl, claimsCacheMaxSize);
     }
 
     /*
@@ -94,29 +120,121 @@ public class JwtService {
 
     /*
     JWT에서 userIdx 추출
+    탈퇴, 정지된 유저의 토큰이면 예외
     @return int
     @throws BaseException
      */
     public int getUserIdx() throws BaseException{
-        //1. JWT 추출
-        String accessToken = getJwt();
+        // 1. 요청 안에서 한 번만 JWT 검증
+        Claims claims = getClaims();
+
+        // 2. userIdx 추출
+        int userIdx = claims.get("userIdx",Integer.class);  // jwt 에서 userIdx를 추출합니다.
+
+        // 3. 유저 상태 확인 (DB 대신 유저 스냅샷 캐시에서 읽음)
+        checkActiveUser(userIdx);
+        return userIdx;
+    }
+
+    private void checkActiveUser(int userIdx) throws BaseException {
+        UserPrincipal userPrincipal;
+        try {
+            userPrincipal = userPrincipalCache.get(userIdx);
+        } catch (Exception exception) {
+            throw new BaseException(DATABASE_ERROR);
+        }
+        if (userPrincipal == null || !userPrincipal.isActive()) {
+            throw new BaseException(INVALID_USER);
+        }
+    }
+
+    /*
+    운영용 API 권한 확인, JWT 의 userIdx 가 관리자 목록에 없으면 예외
+    @throws BaseException
+     */
+    public void checkAdmin() throws BaseException {
+        String userIdx = String.valueOf(getUserIdx());
+        for (String adminUserIdx : adminUserIdxList.split(",")) {
+            if (adminUserIdx.trim().equals(userIdx)) {
+                return;
+            }
+        }
+        throw new BaseException(INVALID_USER_JWT);
+    }
+
+    /*
+    현재 요청의 X-ACCESS-TOKEN 을 검증한 claims
+    같은 요청에서 다시 부르면 request attribute 에 담아둔 값을 그대로 쓴다.
+    @return Claims
+    @throws BaseException
+     */
+    public Claims getClaims() throws BaseException {
+        HttpServletRequest request = ((ServletRequestAttributes)RequestContextHolder.currentRequestAttributes()).getRequest();
+        Object resolved = request.getAttribute(CLAIMS_ATTRIBUTE);
+        if (resolved instanceof Claims) {
+            return (Claims) resolved;
+        }
+
+        String accessToken = request.getHeader("X-ACCESS-TOKEN");
         if(accessToken == null || accessToken.length() == 0){
             throw new BaseException(EMPTY_JWT);
         }
 
-        // 2. JWT parsing
-        Jws<Claims> claims;
+        Claims claims = getVerifiedClaims(accessToken);
+        request.setAttribute(CLAIMS_ATTRIBUTE, claims);
+        return claims;
+    }
+
+    /*
+    검증한 적 있는 토큰이면 서명 검증 없이 캐시된 claims 반환
+    @param token
+    @return Claims
+    @throws BaseException
+     */
+    public Claims getVerifiedClaims(String token) throws BaseException {
+        String tokenHash = hash(token);
+        Claims claims = claimsCache.get(tokenHash);
+        if (claims != null) {
+            // 캐시 ttl 은 만료 시각까지로 잡지만, 경계에서 한 번 더 확인
+            if (claims.getExpiration() == null || claims.getExpiration().getTime() > System.currentTimeMillis()) {
+                return claims;
+            }
+            claimsCache.invalidate(tokenHash);
+        }
+
+        claims = parseClaims(token);
+        long ttl = claims.getExpiration() == null
+                ? Long.MAX_VALUE
+                : claims.getExpiration().getTime() - System.currentTimeMillis();
+        claimsCache.put(tokenHash, claims, ttl);
+        return claims;
+    }
+
+    /*
+    서명 검증을 포함한 JWT parsing (캐시 사용 안함)
+    @param token
+    @return Claims
+    @throws BaseException
+     */
+    public Claims parseClaims(String token) throws BaseException {
         try{
-            claims = Jwts.parser()
+            return Jwts.parser()
                     .setSigningKey(Secret.JWT_SECRET_KEY)
-                    .parseClaimsJws(accessToken);
+                    .parseClaimsJws(token)
+                    .getBody();
         } catch (Exception ignored) {
             System.out.println(ignored);
             throw new BaseException(INVALID_JWT);
         }
+    }
 
-        // 3. userIdx 추출
-        return claims.getBody().get("userIdx",Integer.class);  // jwt 에서 userIdx를 추출합니다.
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     public String getUserEmailApple() throws BaseException{
@@ -127,18 +245,10 @@ public class JwtService {
         }
 
         // 2. JWT parsing
-        Jws<Claims> claims;
-        try{
-            claims = Jwts.parser()
-                    .setSigningKey(Secret.JWT_SECRET_KEY)
-                    .parseClaimsJws(accessToken);
-        } catch (Exception ignored) {
-            System.out.println(ignored);
-            throw new BaseException(INVALID_JWT);
-        }
+        Claims claims = getVerifiedClaims(accessToken);
 
-        // 3. userIdx 추출
-        return claims.getBody().get("email",String.class);  // identityToken 에서 email를 추출합니다.
+        // 3. email 추출
+        return claims.get("email",String.class);  // identityToken 에서 email를 추출합니다.
     }
 
     public String parseAppleJwt() throws BaseException, InvalidKeySpecException, NoSuchAlgorithmException {
@@ -164,7 +274,7 @@ public class JwtService {
         return getPublicKeys(token);
     }
 
-    private /*List<PublicKey>*/String getPublicKeys(String token) throws InvalidKeySpecException, NoSuchAlgorithmException {
+    private /*List<PublicKey>*/String getPublicKeys(String token) throws BaseException {
         /*List<ApplePublicKeyResponse.Key> responseApplePublicKeys = appleClient.getAppleAuthPublicKey().getKeys();
 
         List<PublicKey> publicKeys = new ArrayList<>();
@@ -197,65 +307,24 @@ public class JwtService {
         }
 
         return publicKeys;*/
-        PublicKey publicKey = null;
         try {
-            ApplePublicKeyResponse response = appleClient.getAppleAuthPublicKey();
-
             String headerOfIdentityToken = token.substring(0, token.indexOf("."));
-            Map<String, String> header = new ObjectMapper().readValue(new String(Base64.getDecoder().decode(headerOfIdentityToken), "UTF-8"), Map.class);
-            ApplePublicKeyResponse.Key key = response.getMatchedKeyBy(header.get("kid"), header.get("alg"))
-                    .orElseThrow(() -> new NullPointerException("Failed get public key from apple's id server."));
-
-            byte[] nBytes = Base64.getUrlDecoder().decode(key.getN());
-            byte[] eBytes = Base64.getUrlDecoder().decode(key.getE());
-
-            BigInteger n = new BigInteger(1, nBytes);
-            BigInteger e = new BigInteger(1, eBytes);
-
-            RSAPublicKeySpec publicKeySpec = new RSAPublicKeySpec(n, e);
-            KeyFactory keyFactory = KeyFactory.getInstance(key.getKty());
-            publicKey = keyFactory.generatePublic(publicKeySpec);
-
-        } catch (
-                NoSuchAlgorithmException e) {
-        } catch (
-                InvalidKeySpecException e) {
-        } catch (
-                SignatureException e) {
-        } catch (
-                MalformedJwtException e) {
-        } catch (
-                ExpiredJwtException e) {
-        } catch (JsonMappingException e) {
-            throw new RuntimeException(e);
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+            JsonNode header = new ObjectMapper().readTree(new String(Base64.getUrlDecoder().decode(headerOfIdentityToken), StandardCharsets.UTF_8));
+            PublicKey publicKey = applePublicKeyCache.getPublicKey(header.path("kid").asText(null), header.path("alg").asText(null));
+
+            return Jwts.parser().setSigningKey(publicKey).parseClaimsJws(token).getBody().get("email",String.class);
+        } catch (BaseException e) {
+            throw e;
+        } catch (Exception e) {
+            // 토큰 구조, 서명, 만료 문제
+            log.warn("invalid apple identity token : " + e.getMessage());
+            throw new BaseException(INVALID_JWT);
         }
-        return Jwts.parser().setSigningKey(publicKey).parseClaimsJws(token).getBody().get("email",String.class);
     }
 
         public int compareUserIdx(int userIdx) throws BaseException{
-            //1. JWT 추출
-            String accessToken = getJwt();
-            if(accessToken == null || accessToken.length() == 0){
-                throw new BaseException(EMPTY_JWT);
-            }
-
-            // 2. JWT parsing
-            Jws<Claims> claims;
-            try{
-                claims = Jwts.parser()
-                        .setSigningKey(Secret.JWT_SECRET_KEY)
-                        .parseClaimsJws(accessToken);
-            } catch (Exception ignored) {
-                System.out.println(ignored);
-                throw new BaseException(INVALID_JWT);
-            }
-
-            // 3. userIdx 추출
-            int jwtIdx = claims.getBody().get("userIdx",Integer.class);  // jwt 에서 userIdx를 추출합니다.
+            // JWT 검증, userIdx 추출, 유저 상태 확인
+            int jwtIdx = getUserIdx();
             if(jwtIdx != userIdx){
                 return 0;
             }
@@ -0,0 +1,70 @@
+package spring.reborn.utils;
+
+import spring.reborn.config.BaseException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+import static spring.reborn.config.BaseResponseStatus.INVALID_CURSOR;
+
+/**
+ * keyset 페이지네이션 커서
+ * 마지막으로 내려준 행의 정렬 값들을 묶어서 클라이언트에는 불투명한 문자열로 전달한다.
+ */
+public class KeysetCursor {
+
+    private static final String DELIMITER = "\u001F";
+
+    private final String[] values;
+
+    private KeysetCursor(String[] values) {
+        this.values = values;
+    }
+
+    public static String encode(Object... values) {
+        String joined = Arrays.stream(values)
+                .map(String::valueOf)
+                .collect(Collectors.joining(DELIMITER));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 첫 페이지 요청이면 null
+    public static KeysetCursor decode(String cursor, int size) throws BaseException {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] values = joined.split(DELIMITER, -1);
+            if (values.length != size) {
+                throw new BaseException(INVALID_CURSOR);
+            }
+            return new KeysetCursor(values);
+        } catch (IllegalArgumentException e) {
+            throw new BaseException(INVALID_CURSOR);
+        }
+    }
+
+    public String getString(int index) {
+        return values[index];
+    }
+
+    public long getLong(int index) throws BaseException {
+        try {
+            return Long.parseLong(values[index]);
+        } catch (NumberFormatException e) {
+            throw new BaseException(INVALID_CURSOR);
+        }
+    }
+
+    public BigDecimal getDecimal(int index) throws BaseException {
+        try {
+            return new BigDecimal(values[index]);
+        } catch (NumberFormatException e) {
+            throw new BaseException(INVALID_CURSOR);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package spring.reborn.utils;
+
+import spring.reborn.config.BaseException;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 만료 시간과 최대 크기를 가진 간단한 로컬 캐시
+ * 조회 결과가 자주 바뀌지 않는 화면 응답을 잠깐 들고 있는 용도
+ */
+public class LocalCache<K, V> {
+
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws BaseException;
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiredAt;
+
+        private Entry(V value, long expiredAt) {
+            this.value = value;
+            this.expiredAt = expiredAt;
+        }
+    }
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int maxSize;
+
+    public LocalCache(long ttlMillis, int maxSize) {
+        this.ttlMillis = ttlMillis;
+        this.maxSize = maxSize;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiredAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    // 캐시에 없으면 loader 로 읽어서 저장
+    public V get(K key, Loader<K, V> loader) throws BaseException {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        value = loader.load(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, ttlMillis);
+    }
+
+    // 값마다 만료 시간이 다른 경우 (기본 만료 시간보다 길게 두지는 않음)
+    public void put(K key, V value, long ttlMillis) {
+        long ttl = Math.min(ttlMillis, this.ttlMillis);
+        if (ttl <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            evict();
+        }
+        entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttl));
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // 만료된 값부터 지우고, 그래도 가득 차 있으면 임의의 값 하나 제거
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.entrySet().removeIf(entry -> entry.getValue().expiredAt <= now);
+
+        Iterator<K> iterator = entries.keySet().iterator();
+        while (entries.size() >= maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+-- 내용 해시(SHA-256)로 저장한 이미지 원본과 참조 수
+-- 같은 사진은 한 번만 올리고, 참조 수가 0 이 되면 S3 에서 지운다.
+CREATE TABLE ImageObject
+(
+    imageKey  VARCHAR(255) NOT NULL PRIMARY KEY,
+    refCount  INT          NOT NULL DEFAULT 0,
+    uploaded  BOOLEAN      NOT NULL DEFAULT FALSE,
+    createdAt TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 기존(UUID key) 이미지 참조 수 적재, 여기에 없는 key 는 참조를 알 수 없으므로 지우지 않는다.
+INSERT INTO ImageObject (imageKey, refCount, uploaded)
+SELECT SUBSTRING_INDEX(url, '/', -1), COUNT(*), TRUE
+FROM (SELECT userImg url FROM User
+      UNION ALL SELECT storeImage FROM Store
+      UNION ALL SELECT productImg FROM Reborn
+      UNION ALL SELECT reviewImage1 FROM Review
+      UNION ALL SELECT reviewImage2 FROM Review
+      UNION ALL SELECT reviewImage3 FROM Review
+      UNION ALL SELECT reviewImage4 FROM Review
+      UNION ALL SELECT reviewImage5 FROM Review) images
+WHERE url IS NOT NULL AND url <> ''
+GROUP BY SUBSTRING_INDEX(url, '/', -1);
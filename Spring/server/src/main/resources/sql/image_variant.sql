@@ -0,0 +1,9 @@
+-- 업로드 이미지의 축소본 (목록용 128px, 상세용 512px)
+-- imageKey 는 원본 S3 key (URL 의 마지막 경로)
+CREATE TABLE ImageVariant
+(
+    imageKey     VARCHAR(255) NOT NULL PRIMARY KEY,
+    thumbnailKey VARCHAR(255) NOT NULL,
+    detailKey    VARCHAR(255) NOT NULL,
+    createdAt    TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
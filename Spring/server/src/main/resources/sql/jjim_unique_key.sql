@@ -0,0 +1,8 @@
+-- 찜 토글, write-behind 저장시 (userIdx, storeIdx) 중복 방지
+-- 기존 중복 찜은 먼저 만든 것만 남김
+DELETE j1
+FROM Jjim j1
+         JOIN Jjim j2 ON j1.userIdx = j2.userIdx AND j1.storeIdx = j2.storeIdx AND j1.jjimIdx > j2.jjimIdx;
+
+ALTER TABLE Jjim
+    ADD UNIQUE INDEX uk_jjim_user_store (userIdx, storeIdx);
@@ -0,0 +1,15 @@
+-- 커서 페이지네이션 (정렬 컬럼, idx) 복합 인덱스
+
+-- GET /store/list/cursor
+CREATE INDEX idx_store_status_createdAt ON Store (status, createdAt, storeIdx);
+
+-- 스토어 단위 리뷰, 리본 태스크 페이지는 store_idx_denormalize.sql 의 (storeIdx, createdAt, idx) 인덱스 사용
+CREATE INDEX idx_reborn_storeIdx ON Reborn (storeIdx, rebornIdx);
+CREATE INDEX idx_review_rebornIdx_createdAt ON Review (rebornIdx, createdAt, reviewIdx);
+CREATE INDEX idx_rebornTask_rebornIdx_createdAt ON RebornTask (rebornIdx, createdAt, rebornTaskIdx);
+
+-- GET /reborns/history/{userIdx}/cursor
+CREATE INDEX idx_rebornTask_userIdx_createdAt ON RebornTask (userIdx, createdAt, rebornTaskIdx);
+
+-- GET /jjim/{userIdx}/cursor
+CREATE INDEX idx_jjim_userIdx ON Jjim (userIdx, jjimIdx);
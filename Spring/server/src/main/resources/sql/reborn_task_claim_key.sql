@@ -0,0 +1,4 @@
+-- write-behind 신청 저장시 중복 방지용 멱등 키
+ALTER TABLE RebornTask
+    ADD COLUMN claimKey VARCHAR(36) NULL,
+    ADD UNIQUE INDEX uk_rebornTask_claimKey (claimKey);
@@ -0,0 +1,16 @@
+-- Review, RebornTask 에 storeIdx 를 함께 저장
+-- Reborn(storeIdx) 를 거쳐 join 하면 (rebornIdx, createdAt, idx) 인덱스로는 스토어 전체 최신순 정렬을 못 하므로
+-- 스토어 단위 커서 페이지가 (storeIdx, createdAt, idx) 인덱스만 읽고 LIMIT 에서 멈추도록 함
+
+ALTER TABLE Review ADD COLUMN storeIdx BIGINT NULL AFTER rebornIdx;
+ALTER TABLE RebornTask ADD COLUMN storeIdx BIGINT NULL AFTER rebornIdx;
+
+-- 기존 데이터 채우기 (리본의 스토어는 바뀌지 않음)
+UPDATE Review Rv JOIN Reborn R ON Rv.rebornIdx = R.rebornIdx SET Rv.storeIdx = R.storeIdx;
+UPDATE RebornTask Rt JOIN Reborn R ON Rt.rebornIdx = R.rebornIdx SET Rt.storeIdx = R.storeIdx;
+
+-- GET /review/store/{storeIdx}/cursor
+CREATE INDEX idx_review_storeIdx_createdAt ON Review (storeIdx, createdAt, reviewIdx);
+
+-- GET /reborns/store/page/{storeIdx}/cursor
+CREATE INDEX idx_rebornTask_storeIdx_createdAt ON RebornTask (storeIdx, createdAt, rebornTaskIdx);
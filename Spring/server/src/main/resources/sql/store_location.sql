@@ -0,0 +1,10 @@
+-- 스토어 위치 (주변 스토어 조회), 가입시 입력 / 기존 스토어는 NULL (색인 제외)
+ALTER TABLE Store
+    ADD COLUMN latitude DOUBLE NULL,
+    ADD COLUMN longitude DOUBLE NULL;
+
+-- 주변 스토어 색인 적재시 ACTIVE 리본 여부 확인
+CREATE INDEX idx_reborn_storeIdx_status ON Reborn (storeIdx, status, productCnt);
+
+-- 주변 스토어 색인이 준비되기 전 DB 범위 조회
+CREATE INDEX idx_store_latitude_longitude ON Store (latitude, longitude);
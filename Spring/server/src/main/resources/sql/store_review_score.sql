@@ -0,0 +1,13 @@
+-- 스토어 평점 누적값 (리뷰 작성/삭제시 증감, storeScore = round(reviewScoreSum / reviewCnt, 1))
+ALTER TABLE Store
+    ADD COLUMN reviewScoreSum BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN reviewCnt      BIGINT NOT NULL DEFAULT 0;
+
+-- 최초 적재 (이후 재계산은 POST /review/set)
+UPDATE Store S
+    LEFT JOIN (SELECT R.storeIdx, SUM(Rv.reviewScore) scoreSum, COUNT(*) cnt
+               FROM Review Rv JOIN Reborn R ON Rv.rebornIdx = R.rebornIdx
+               GROUP BY R.storeIdx) RV ON RV.storeIdx = S.storeIdx
+SET S.reviewScoreSum = IFNULL(RV.scoreSum, 0),
+    S.reviewCnt      = IFNULL(RV.cnt, 0),
+    S.storeScore     = IFNULL(ROUND(RV.scoreSum / RV.cnt, 1), 0);
@@ -0,0 +1,22 @@
+-- 스토어 상세 화면 개수 (리본 완료, 리뷰, 찜)
+CREATE TABLE StoreStats
+(
+    storeIdx    BIGINT    NOT NULL PRIMARY KEY,
+    numOfReborn BIGINT    NOT NULL DEFAULT 0,
+    numOfReview BIGINT    NOT NULL DEFAULT 0,
+    numOfJjim   BIGINT    NOT NULL DEFAULT 0,
+    updatedAt   TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 최초 적재 (이후에는 StoreStatsReconcileJob 이 주기적으로 보정)
+INSERT INTO StoreStats (storeIdx, numOfReborn, numOfReview, numOfJjim)
+SELECT S.storeIdx, IFNULL(RT.cnt, 0), IFNULL(RV.cnt, 0), IFNULL(J.cnt, 0)
+FROM Store S
+         LEFT JOIN (SELECT R.storeIdx, COUNT(*) cnt
+                    FROM RebornTask Rt JOIN Reborn R ON Rt.rebornIdx = R.rebornIdx
+                    WHERE Rt.status = 'COMPLETE'
+                    GROUP BY R.storeIdx) RT ON RT.storeIdx = S.storeIdx
+         LEFT JOIN (SELECT R.storeIdx, COUNT(*) cnt
+                    FROM Review Rv JOIN Reborn R ON Rv.rebornIdx = R.rebornIdx
+                    GROUP BY R.storeIdx) RV ON RV.storeIdx = S.storeIdx
+         LEFT JOIN (SELECT storeIdx, COUNT(*) cnt FROM Jjim GROUP BY storeIdx) J ON J.storeIdx = S.storeIdx;
@@ -0,0 +1,119 @@
+package spring.reborn.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 요청 사용자 구분 (토큰 해시), read-your-writes 표시
+ */
+class DataSourceRoutingFilterTest {
+
+    private static final String TOKEN = "eyJ0eXBlIjoiand0In0.eyJ1c2VySWR4IjoxfQ.signature";
+
+    private ReplicationRoutingDataSource routingDataSource;
+    private DataSourceRoutingFilter dataSourceRoutingFilter;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new ReplicationRoutingDataSource(ReplicationRoutingDataSourceTest.createNode("primary"),
+                Collections.singletonList(ReplicationRoutingDataSourceTest.createNode("replica-0")),
+                ReplicationRoutingDataSource.Balance.ROUND_ROBIN, 5, 3000);
+        routingDataSource.afterPropertiesSet();
+        dataSourceRoutingFilter = new DataSourceRoutingFilter(routingDataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        routingDataSource.destroy();
+    }
+
+    // 토큰 원문 대신 해시로 구분, 요청이 끝나면 쓰레드에서 지움
+    @Test
+    void keysClientByTokenHash() throws Exception {
+        String clientKey = clientKeyOf(request("GET", TOKEN, "10.0.0.1"));
+
+        assertThat(clientKey).isEqualTo(DataSourceRoutingFilter.hash(TOKEN)).doesNotContain(TOKEN);
+        assertThat(clientKeyOf(request("GET", TOKEN, "10.0.0.2"))).isEqualTo(clientKey);
+        assertThat(DataSourceRouting.getClientKey()).isNull();
+    }
+
+    // 프록시 뒤에서는 모두 같은 IP 이므로 토큰이 없으면 구분하지 않음
+    @Test
+    void doesNotKeyAnonymousClientsByRemoteAddress() throws Exception {
+        assertThat(clientKeyOf(request("POST", null, "10.0.0.1"))).isNull();
+
+        // 익명 쓰기 뒤에도 같은 IP 의 다른 사용자는 replica
+        assertThat(nodeDuringRequest(request("GET", "other-user-token", "10.0.0.1"))).isEqualTo("replica-0");
+    }
+
+    // 토큰이 없는 쓰기 요청(회원가입 등) 안의 조회도 primary, 요청이 끝나면 다시 replica
+    @Test
+    void routesAnonymousWriteRequestToPrimary() throws Exception {
+        assertThat(nodeDuringRequest(request("POST", null, "10.0.0.1"))).isEqualTo("primary");
+        assertThat(DataSourceRouting.isForcePrimary()).isFalse();
+
+        assertThat(nodeDuringRequest(request("GET", null, "10.0.0.1"))).isEqualTo("replica-0");
+    }
+
+    // 쓰기 요청을 보낸 사용자의 다음 조회는 primary, 다른 사용자는 replica
+    @Test
+    void routesWriterToPrimaryAfterWriteRequest() throws Exception {
+        dataSourceRoutingFilter.doFilter(request("PATCH", TOKEN, "10.0.0.1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(nodeDuringRequest(request("GET", TOKEN, "10.0.0.1"))).isEqualTo("primary");
+        assertThat(nodeDuringRequest(request("GET", "other-user-token", "10.0.0.1"))).isEqualTo("replica-0");
+    }
+
+    private String clientKeyOf(MockHttpServletRequest request) throws Exception {
+        AtomicReference<String> clientKey = new AtomicReference<>();
+        dataSourceRoutingFilter.doFilter(request, new MockHttpServletResponse(),
+                new MockFilterChain(servlet(() -> clientKey.set(DataSourceRouting.getClientKey()))));
+        return clientKey.get();
+    }
+
+    // Provider 조회 경로에서 실제로 읽은 DB
+    private String nodeDuringRequest(MockHttpServletRequest request) throws Exception {
+        AtomicReference<String> node = new AtomicReference<>();
+        dataSourceRoutingFilter.doFilter(request, new MockHttpServletResponse(),
+                new MockFilterChain(servlet(() -> {
+                    Boolean previous = DataSourceRouting.setReadOnly(true);
+                    try {
+                        node.set(new JdbcTemplate(routingDataSource).queryForObject("SELECT name FROM node", String.class));
+                    } finally {
+                        DataSourceRouting.restoreReadOnly(previous);
+                    }
+                })));
+        return node.get();
+    }
+
+    private static MockHttpServletRequest request(String method, String token, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/");
+        if (token != null) {
+            request.addHeader("X-ACCESS-TOKEN", token);
+        }
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    private static HttpServlet servlet(Runnable body) {
+        return new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                body.run();
+            }
+        };
+    }
+}
@@ -0,0 +1,168 @@
+package spring.reborn.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * primary / replica 라우팅, 각 DB 는 자기 이름이 들어있는 H2 메모리 DB
+ */
+class ReplicationRoutingDataSourceTest {
+
+    private ReplicationRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        DataSourceRouting.clear();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        if (routingDataSource != null) {
+            routingDataSource.destroy();
+        }
+    }
+
+    @Test
+    void routesNonReadOnlyPathToPrimary() {
+        createRoutingDataSource(ReplicationRoutingDataSource.Balance.ROUND_ROBIN, 3000);
+
+        assertThat(currentNode()).isEqualTo("primary");
+    }
+
+    // *Provider 경로는 replica 를 번갈아 사용
+    @Test
+    void routesReadOnlyPathToReplicasRoundRobin() {
+        createRoutingDataSource(ReplicationRoutingDataSource.Balance.ROUND_ROBIN, 3000);
+        DataSourceRouting.setReadOnly(true);
+
+        List<String> nodes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(currentNode());
+        }
+
+        assertThat(nodes).containsOnly("replica-0", "replica-1");
+        assertThat(nodes.get(0)).isNotEqualTo(nodes.get(1));
+    }
+
+    @Test
+    void readOnlyTransactionUsesReplica() {
+        createRoutingDataSource(ReplicationRoutingDataSource.Balance.ROUND_ROBIN, 3000);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(currentNode()).startsWith("replica-");
+    }
+
+    // 쓰기 트랜잭션 안에서 불린 Provider 조회는 primary
+    @Test
+    void writeTransactionUsesPrimaryEvenOnReadOnlyPath() {
+        createRoutingDataSource(ReplicationRoutingDataSource.Balance.ROUND_ROBIN, 3000);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        DataSourceRouting.setReadOnly(true);
+
+        assertThat(currentNode()).isEqualTo("primary");
+    }
+
+    // 방금 쓴 사용자만 read-your-writes 시간 동안 primary
+    @Test
+    void recentWriterReadsFromPrimaryUntilWindowPasses() throws Exception {
+        createRoutingDataSource(ReplicationRoutingDataSource.Balance.ROUND_ROBIN, 200);
+        DataSourceRouting.setReadOnly(true);
+        routingDataSource.markWrite("writer");
+
+        DataSourceRouting.setClientKey("writer");
+        assertThat(currentNode()).isEqualTo("primary");
+        DataSourceRouting.setClientKey("reader");
+        assertThat(currentNode()).startsWith("replica-");
+
+        Thread.sleep(300);
+        DataSourceRouting.setClientKey("writer");
+        assertThat(currentNode()).startsWith("replica-");
+    }
+
+    // H2 는 복제 상태를 알 수 없으므로 지연 확인 후 모두 제외, primary 로
+    @Test
+    void fallsBackToPrimaryWhenNoReplicaIsHealthy() {
+        createRoutingDataSource(ReplicationRoutingDataSource.Balance.ROUND_ROBIN, 3000);
+        DataSourceRouting.setReadOnly(true);
+
+        routingDataSource.checkReplicaLag();
+
+        assertThat(routingDataSource.getReplicas()).noneMatch(ReplicationRoutingDataSource.Replica::isHealthy);
+        assertThat(currentNode()).isEqualTo("primary");
+    }
+
+    @Test
+    void leastConnectionsSkipsUnhealthyReplica() {
+        createRoutingDataSource(ReplicationRoutingDataSource.Balance.LEAST_CONNECTIONS, 3000);
+        DataSourceRouting.setReadOnly(true);
+        ReflectionTestUtils.setField(routingDataSource.getReplicas().get(0), "healthy", false);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(currentNode()).isEqualTo("replica-1");
+        }
+    }
+
+    // executor 쓰레드에서도 요청 쓰레드와 같은 라우팅, 끝나면 작업 쓰레드는 원래대로
+    @Test
+    void wrappedTaskKeepsRoutingOnExecutorThread() throws Exception {
+        createRoutingDataSource(ReplicationRoutingDataSource.Balance.ROUND_ROBIN, 3000);
+        routingDataSource.markWrite("writer");
+        DataSourceRouting.setReadOnly(true);
+        DataSourceRouting.setClientKey("writer");
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            FutureTask<String> wrapped = new FutureTask<>(this::currentNode);
+            executorService.execute(DataSourceRouting.wrap(wrapped));
+            assertThat(wrapped.get()).isEqualTo("primary");
+
+            Future<String> afterWrapped = executorService.submit(() ->
+                    DataSourceRouting.isReadOnly() + "/" + DataSourceRouting.getClientKey());
+            assertThat(afterWrapped.get()).isEqualTo("false/null");
+
+            DataSourceRouting.setClientKey("reader");
+            FutureTask<String> readerTask = new FutureTask<>(this::currentNode);
+            executorService.execute(DataSourceRouting.wrap(readerTask));
+            assertThat(readerTask.get()).startsWith("replica-");
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private void createRoutingDataSource(ReplicationRoutingDataSource.Balance balance, long readYourWritesMillis) {
+        HikariDataSource primary = createNode("primary");
+        List<HikariDataSource> replicas = Arrays.asList(createNode("replica-0"), createNode("replica-1"));
+        routingDataSource = new ReplicationRoutingDataSource(primary, replicas, balance, 5, readYourWritesMillis);
+        routingDataSource.afterPropertiesSet();
+        jdbcTemplate = new JdbcTemplate(routingDataSource);
+    }
+
+    static HikariDataSource createNode(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(2);
+        JdbcTemplate nodeTemplate = new JdbcTemplate(dataSource);
+        nodeTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        nodeTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+}
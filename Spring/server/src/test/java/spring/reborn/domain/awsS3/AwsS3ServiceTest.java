@@ -0,0 +1,144 @@
+package spring.reborn.domain.awsS3;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 여러 장 동시 업로드, S3 stand-in(Mockito) 사용
+ * 동시에 나간 요청 수는 stand-in 안에서 직접 세고, 시간은 재지 않음
+ */
+class AwsS3ServiceTest {
+
+    // stand-in 이 다른 업로드를 기다리는 최대 시간 (넘기면 동시에 나가지 않은 것)
+    private static final long AWAIT_SECONDS = 5;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger putCount = new AtomicInteger();
+    private final Set<String> uploadedKeys = ConcurrentHashMap.newKeySet();
+    private final Set<String> deletedKeys = ConcurrentHashMap.newKeySet();
+
+    private AwsS3Service awsS3Service;
+
+    @AfterEach
+    void tearDown() {
+        if (awsS3Service != null) {
+            awsS3Service.shutdown();
+        }
+    }
+
+    // 업로드 쓰레드 수만큼 S3 요청이 동시에 나가야 함 (TransferManager 쪽 쓰레드가 모자라 기다리지 않음)
+    // stand-in 은 8 개가 동시에 들어올 때까지 응답하지 않으므로, 동시에 나가지 못하면 기다리다 실패함
+    @Test
+    void uploadsAsManyFilesConcurrentlyAsUploadThreads() throws Exception {
+        CountDownLatch allInFlight = new CountDownLatch(8);
+        awsS3Service = createService(8, 4, allInFlight, -1);
+
+        List<String> fileUrls = awsS3Service.uploadImage(createFiles(16));
+
+        assertThat(fileUrls).hasSize(16).doesNotHaveDuplicates();
+        assertThat(maxInFlight.get()).isEqualTo(8);
+        assertThat(deletedKeys).isEmpty();
+    }
+
+    @Test
+    void singleUploadThreadUploadsSequentially() throws Exception {
+        awsS3Service = createService(1, 4, new CountDownLatch(0), -1);
+
+        List<String> fileUrls = awsS3Service.uploadImage(createFiles(4));
+
+        assertThat(fileUrls).hasSize(4).doesNotHaveDuplicates();
+        assertThat(maxInFlight.get()).isEqualTo(1);
+    }
+
+    // 한 장이 실패하면 먼저 올라간 파일과 실패한 파일 모두 지우고 실패 처리
+    @Test
+    void deletesOtherUploadsWhenOneUploadFails() throws Exception {
+        awsS3Service = createService(4, 4, new CountDownLatch(0), 3);
+
+        assertThatThrownBy(() -> awsS3Service.uploadImage(createFiles(6)))
+                .isInstanceOf(ResponseStatusException.class);
+
+        assertThat(putCount.get()).isEqualTo(6);
+        assertThat(uploadedKeys).hasSize(5);
+        assertThat(deletedKeys).containsAll(uploadedKeys).hasSize(6);
+    }
+
+    private List<MultipartFile> createFiles(int fileCnt) {
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < fileCnt; i++) {
+            files.add(new MockMultipartFile("images", "image" + i + ".jpg", "image/jpeg", ("image-" + i).getBytes()));
+        }
+        return files;
+    }
+
+    // failOnPut 번째 putObject 는 예외 (-1 이면 모두 성공)
+    private AwsS3Service createService(int uploadPoolSize, int partPoolSize, CountDownLatch allInFlight, int failOnPut) throws Exception {
+        AmazonS3 amazonS3 = mock(AmazonS3.class);
+        when(amazonS3.putObject(any(PutObjectRequest.class))).thenAnswer(invocation -> {
+            PutObjectRequest putObjectRequest = invocation.getArgument(0);
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                allInFlight.countDown();
+                if (!allInFlight.await(AWAIT_SECONDS, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("동시에 나간 업로드가 모자람 : " + maxInFlight.get());
+                }
+                if (putCount.incrementAndGet() == failOnPut) {
+                    throw new AmazonServiceException("stand-in upload failure");
+                }
+                uploadedKeys.add(putObjectRequest.getKey());
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return new PutObjectResult();
+        });
+        when(amazonS3.getUrl(anyString(), anyString())).thenAnswer(invocation ->
+                new URL("https://reborn-test.s3.amazonaws.com/" + invocation.getArgument(1)));
+        doAnswer(invocation -> {
+            deletedKeys.add(invocation.<DeleteObjectRequest>getArgument(0).getKey());
+            return null;
+        }).when(amazonS3).deleteObject(any(DeleteObjectRequest.class));
+
+        // 새 사진만 올리고, 해제하면 마지막 참조로 보고 바로 지움
+        ImageObjectDao imageObjectDao = mock(ImageObjectDao.class);
+        when(imageObjectDao.acquire(anyString())).thenReturn(false);
+        when(imageObjectDao.release(anyString(), any())).thenAnswer(invocation -> {
+            invocation.<ImageObjectDao.ObjectDeleter>getArgument(1).delete(invocation.getArgument(0));
+            return true;
+        });
+
+        AwsS3Service service = new AwsS3Service(amazonS3, mock(ApplicationEventPublisher.class), imageObjectDao,
+                mock(ImageVariantService.class), new SimpleMeterRegistry(), uploadPoolSize, 64, 8388608L, partPoolSize);
+        ReflectionTestUtils.setField(service, "bucket", "reborn-test");
+        return service;
+    }
+}
@@ -0,0 +1,93 @@
+package spring.reborn.domain.awsS3;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import spring.reborn.config.BaseException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static spring.reborn.config.BaseResponseStatus.AWS_DELETE_FAIL_ERROR;
+
+/**
+ * 이미지 참조 수, H2(MySQL 모드) 사용
+ */
+class ImageObjectDaoTest {
+
+    private static final String IMAGE_KEY = "3a7bd3e2360a3d29eea436fcfb7e44c735d117c42d1c1835420b6b9942dd4f1b.jpg";
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ImageObjectDao imageObjectDao;
+    private final List<String> deletedKeys = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:image-object-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(2);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE ImageObject (imageKey VARCHAR(255) NOT NULL PRIMARY KEY, " +
+                "refCount INT NOT NULL DEFAULT 0, uploaded BOOLEAN NOT NULL DEFAULT FALSE, " +
+                "createdAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+
+        imageObjectDao = new ImageObjectDao();
+        imageObjectDao.setDataSource(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    // 같은 사진을 두 곳에서 쓰면 한 번만 올리고, 마지막 참조가 해제될 때만 S3 에서 지움
+    @Test
+    void deletesObjectOnlyWhenLastReferenceIsReleased() throws BaseException {
+        assertThat(imageObjectDao.acquire(IMAGE_KEY)).isFalse();
+        imageObjectDao.markUploaded(IMAGE_KEY);
+        assertThat(imageObjectDao.acquire(IMAGE_KEY)).isTrue();
+        assertThat(refCount()).isEqualTo(2);
+
+        assertThat(imageObjectDao.release(IMAGE_KEY, deletedKeys::add)).isFalse();
+        assertThat(deletedKeys).isEmpty();
+        assertThat(refCount()).isEqualTo(1);
+
+        assertThat(imageObjectDao.release(IMAGE_KEY, deletedKeys::add)).isTrue();
+        assertThat(deletedKeys).containsExactly(IMAGE_KEY);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM ImageObject", Integer.class)).isZero();
+
+        // 지운 뒤 같은 사진은 새로 올림
+        assertThat(imageObjectDao.acquire(IMAGE_KEY)).isFalse();
+    }
+
+    // 참조 수를 모르는 key (기존 이미지) 는 지우지 않음
+    @Test
+    void keepsUnknownImage() throws BaseException {
+        assertThat(imageObjectDao.release("unknown.jpg", deletedKeys::add)).isFalse();
+        assertThat(deletedKeys).isEmpty();
+    }
+
+    // S3 삭제에 실패하면 참조도 그대로 남아서 다음에 다시 지울 수 있음
+    @Test
+    void keepsReferenceWhenS3DeleteFails() throws BaseException {
+        imageObjectDao.acquire(IMAGE_KEY);
+        imageObjectDao.markUploaded(IMAGE_KEY);
+
+        assertThatThrownBy(() -> imageObjectDao.release(IMAGE_KEY, imageKey -> {
+            throw new IllegalStateException("s3 down");
+        })).isInstanceOfSatisfying(BaseException.class, e -> assertThat(e.getStatus()).isEqualTo(AWS_DELETE_FAIL_ERROR));
+        assertThat(refCount()).isEqualTo(1);
+
+        assertThat(imageObjectDao.release(IMAGE_KEY, deletedKeys::add)).isTrue();
+        assertThat(deletedKeys).containsExactly(IMAGE_KEY);
+    }
+
+    private int refCount() {
+        return jdbcTemplate.queryForObject("SELECT refCount FROM ImageObject WHERE imageKey = ?", Integer.class, IMAGE_KEY);
+    }
+}
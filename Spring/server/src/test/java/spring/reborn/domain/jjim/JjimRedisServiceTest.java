@@ -0,0 +1,165 @@
+package spring.reborn.domain.jjim;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+import spring.reborn.domain.jjim.model.JjimChange;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 유저 찜 hash 재적재, 찜 번호 채우기와 write-behind 대기열, 임베디드 Redis 사용
+ */
+class JjimRedisServiceTest {
+
+    private static final int REDIS_PORT = 16382;
+    private static final int USER_IDX = 1;
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate stringRedisTemplate;
+
+    private JjimDao jjimDao;
+    private JjimRedisService jjimRedisService;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redisServer = new RedisServer(REDIS_PORT);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", REDIS_PORT));
+        connectionFactory.afterPropertiesSet();
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stringRedisTemplate.getConnectionFactory().getConnection().flushAll();
+        jjimDao = mock(JjimDao.class);
+        Map<Long, Integer> savedJjims = new LinkedHashMap<>();
+        savedJjims.put(2L, 12);
+        savedJjims.put(1L, 11);
+        when(jjimDao.getUserJjims(anyInt())).thenReturn(savedJjims);
+        jjimRedisService = new JjimRedisService(stringRedisTemplate, jjimDao);
+        ReflectionTestUtils.setField(jjimRedisService, "enabled", true);
+        ReflectionTestUtils.setField(jjimRedisService, "userTtlMillis", 600000L);
+    }
+
+    // 저장 전에 hash 가 만료되어도 저장중 / 대기중 변경을 잃지 않음
+    @Test
+    void reloadAfterExpiryKeepsUnsavedChanges() throws Exception {
+        assertThat(jjimRedisService.toggle(USER_IDX, 3)).isTrue();
+        assertThat(jjimRedisService.toggle(USER_IDX, 1)).isFalse();
+        // 저장 시작 (대기열 -> 저장중), 그 사이 새 변경
+        stringRedisTemplate.rename(JjimRedisService.PENDING_KEY, JjimRedisService.FLUSHING_KEY);
+        assertThat(jjimRedisService.toggle(USER_IDX, 2)).isFalse();
+        assertThat(jjimRedisService.toggle(USER_IDX, 3)).isFalse();
+        assertThat(jjimRedisService.toggle(USER_IDX, 3)).isTrue();
+        // 다른 유저(10)의 변경은 섞이지 않음
+        stringRedisTemplate.opsForHash().put(JjimRedisService.PENDING_KEY, "10:5", "1");
+
+        stringRedisTemplate.delete("jjim:user-jjim:" + USER_IDX);
+
+        assertThat(jjimRedisService.getJjims(USER_IDX)).containsOnly(entry(3L, 0));
+        assertThat(jjimRedisService.countJjim(USER_IDX)).isEqualTo(1);
+    }
+
+    // 저장이 끝난 찜만 번호를 채우고, 그 사이 해제한 찜이나 이미 번호가 있는 찜은 그대로
+    @Test
+    void savedJjimIdxFillsOnlyUnsavedJjims() throws Exception {
+        jjimRedisService.toggle(USER_IDX, 3);
+        jjimRedisService.toggle(USER_IDX, 4);
+        jjimRedisService.toggle(USER_IDX, 4);
+        Map<String, Integer> jjimIdxMap = new HashMap<>();
+        jjimIdxMap.put(USER_IDX + ":3", 103);
+        jjimIdxMap.put(USER_IDX + ":4", 104);
+        jjimIdxMap.put(USER_IDX + ":1", 999);
+
+        jjimRedisService.setSavedJjimIdx(jjimIdxMap);
+
+        assertThat(jjimRedisService.getJjims(USER_IDX)).containsOnly(entry(1L, 11), entry(2L, 12), entry(3L, 103));
+    }
+
+    // 대기열이 없으면 MySQL 그대로
+    @Test
+    void reloadWithoutPendingChangesUsesDatabase() throws Exception {
+        assertThat(jjimRedisService.getJjims(USER_IDX)).containsOnly(entry(1L, 11), entry(2L, 12));
+        assertThat(jjimRedisService.getJjimStoreIdxSet(USER_IDX)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    // 토글과 함께 스토어 찜 개수 증감이 쌓이고, 저장중인 증감은 StoreStats 를 다시 센 뒤 지워짐
+    @Test
+    void toggleTracksUnsavedStoreJjimCnt() throws Exception {
+        jjimRedisService.toggle(USER_IDX, 3);
+        jjimRedisService.toggle(USER_IDX, 1);
+        jjimRedisService.toggle(2, 3);
+        assertThat(jjimRedisService.getUnsavedJjimCnt(3L)).isEqualTo(2);
+        assertThat(jjimRedisService.getUnsavedJjimCnt(1L)).isEqualTo(-1);
+
+        JjimChangeWriter jjimChangeWriter = newJjimChangeWriter();
+        // 저장 도중의 토글은 다음 대기열에 쌓임
+        doAnswer(invocation -> {
+            jjimRedisService.toggle(USER_IDX, 3);
+            assertThat(jjimRedisService.getUnsavedJjimCnt(3L)).isEqualTo(1);
+            return null;
+        }).when(jjimDao).applyJjimChanges(anyList());
+
+        jjimChangeWriter.flush();
+
+        assertThat(stringRedisTemplate.hasKey(JjimRedisService.FLUSHING_STORE_DELTA_KEY)).isFalse();
+        assertThat(jjimRedisService.getUnsavedJjimCnt(3L)).isEqualTo(-1);
+        assertThat(jjimRedisService.getUnsavedJjimCnt(1L)).isZero();
+    }
+
+    // write-behind 를 끈 뒤에도 남은 대기열은 저장
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushDrainsQueueAfterDisabled() throws Exception {
+        jjimRedisService.toggle(USER_IDX, 3);
+        ReflectionTestUtils.setField(jjimRedisService, "enabled", false);
+        when(jjimDao.getJjimIdxMap(anyList())).thenReturn(Collections.singletonMap(USER_IDX + ":3", 103));
+        JjimChangeWriter jjimChangeWriter = newJjimChangeWriter();
+
+        jjimChangeWriter.flush();
+
+        ArgumentCaptor<List<JjimChange>> jjimChanges = ArgumentCaptor.forClass(List.class);
+        verify(jjimDao).applyJjimChanges(jjimChanges.capture());
+        assertThat(jjimChanges.getValue()).singleElement()
+                .satisfies(jjimChange -> assertThat(jjimChange.getStoreIdx()).isEqualTo(3));
+        assertThat(stringRedisTemplate.hasKey(JjimRedisService.PENDING_KEY)).isFalse();
+        assertThat(stringRedisTemplate.hasKey(JjimRedisService.FLUSHING_KEY)).isFalse();
+        assertThat(jjimRedisService.getJjims(USER_IDX)).containsEntry(3L, 103);
+    }
+
+    private JjimChangeWriter newJjimChangeWriter() {
+        JjimChangeWriter jjimChangeWriter = new JjimChangeWriter(stringRedisTemplate, jjimDao, jjimRedisService,
+                mock(ApplicationEventPublisher.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jjimChangeWriter, "maxBatchSize", 500);
+        ReflectionTestUtils.setField(jjimChangeWriter, "lockTtlMillis", 30000L);
+        return jjimChangeWriter;
+    }
+}
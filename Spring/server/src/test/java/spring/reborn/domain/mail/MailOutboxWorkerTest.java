@@ -0,0 +1,200 @@
+package spring.reborn.domain.mail;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import redis.embedded.RedisServer;
+import spring.reborn.domain.mail.model.MailRequestedEvent;
+
+import javax.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static spring.reborn.domain.mail.MailOutbox.*;
+
+/**
+ * 메일 발송 대기열, 임베디드 Redis + GreenMail SMTP 사용
+ */
+class MailOutboxWorkerTest {
+
+    private static final int REDIS_PORT = 16380;
+    private static final int SMTP_PORT = 3025;
+    // 아무것도 떠 있지 않은 포트 (SMTP 연결 실패)
+    private static final int CLOSED_SMTP_PORT = 3026;
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate stringRedisTemplate;
+
+    private GreenMail greenMail;
+    private MailOutbox mailOutbox;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redisServer = new RedisServer(REDIS_PORT);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", REDIS_PORT));
+        connectionFactory.afterPropertiesSet();
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate.getConnectionFactory().getConnection().flushAll();
+        greenMail = new GreenMail(new ServerSetup(SMTP_PORT, null, ServerSetup.PROTOCOL_SMTP));
+        greenMail.start();
+
+        mailOutbox = new MailOutbox(stringRedisTemplate, new SimpleMeterRegistry(), "test-payload-key");
+        ReflectionTestUtils.setField(mailOutbox, "deadMaxLength", 2L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        greenMail.stop();
+    }
+
+    // 대기열에는 인증 코드, 임시 비밀번호가 평문으로 남지 않음
+    @Test
+    void sendsQueuedMailsAndKeepsBodyEncryptedInRedis() throws Exception {
+        MailOutboxWorker worker = createWorker(SMTP_PORT, 5, 100);
+        worker.createGroup();
+
+        mailOutbox.enqueue("user1@reborn.test", "Reborn 회원가입 이메일 인증", "<p>인증 코드 A1b2C3d4</p>");
+        mailOutbox.enqueue("user2@reborn.test", "Reborn 임시 비밀번호 발급", "<p>임시 비밀번호 Zx9$Tmp!</p>");
+
+        List<MapRecord<String, Object, Object>> queued = stringRedisTemplate.opsForStream().range(OUTBOX_STREAM_KEY,
+                Range.unbounded());
+        assertThat(queued).hasSize(2);
+        assertThat(queued.toString()).doesNotContain("A1b2C3d4").doesNotContain("Zx9$Tmp!");
+
+        worker.drain();
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 2)).isTrue();
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(2);
+        assertThat(received[0].getContent() + " " + received[1].getContent())
+                .contains("A1b2C3d4")
+                .contains("Zx9$Tmp!");
+        assertThat(stringRedisTemplate.opsForStream().size(OUTBOX_STREAM_KEY)).isZero();
+        worker.shutdown();
+    }
+
+    // 재시도를 모두 실패하면 내용을 지우고 dead 로, dead 는 최근 deadMaxLength 개만 유지
+    @Test
+    void movesRedactedMailToDeadAfterMaxAttempts() throws Exception {
+        MailOutboxWorker worker = createWorker(CLOSED_SMTP_PORT, 1, 100);
+        worker.createGroup();
+
+        for (int i = 0; i < 3; i++) {
+            mailOutbox.enqueue("user" + i + "@reborn.test", "Reborn 임시 비밀번호 발급", "<p>임시 비밀번호 Secret" + i + "</p>");
+        }
+        worker.drain();
+
+        List<MapRecord<String, Object, Object>> dead = stringRedisTemplate.opsForStream().range(DEAD_STREAM_KEY,
+                Range.unbounded());
+        assertThat(dead).hasSize(2);
+        dead.forEach(record -> assertThat(record.getValue().get("encryptedHtml")).isEqualTo(""));
+        assertThat(stringRedisTemplate.opsForZSet().zCard(RETRY_QUEUE_KEY)).isZero();
+        assertThat(stringRedisTemplate.opsForStream().size(OUTBOX_STREAM_KEY)).isZero();
+        worker.shutdown();
+    }
+
+    // 재시도 대기열이 넘치면 재시도 시각이 가장 늦은 메일부터 dead 로
+    @Test
+    void movesOverflowingRetriesToDead() throws Exception {
+        MailOutboxWorker worker = createWorker(CLOSED_SMTP_PORT, 5, 1);
+        worker.createGroup();
+
+        for (int i = 0; i < 2; i++) {
+            mailOutbox.enqueue("user" + i + "@reborn.test", "Reborn 회원가입 이메일 인증", "<p>인증 코드 Code" + i + "</p>");
+        }
+        worker.drain();
+
+        assertThat(stringRedisTemplate.opsForZSet().zCard(RETRY_QUEUE_KEY)).isEqualTo(1);
+        assertThat(stringRedisTemplate.opsForZSet().range(RETRY_QUEUE_KEY, 0, -1).toString())
+                .doesNotContain("Code0").doesNotContain("Code1");
+        assertThat(stringRedisTemplate.opsForStream().size(DEAD_STREAM_KEY)).isEqualTo(1);
+        worker.shutdown();
+    }
+
+    // 트랜잭션 안에서 요청한 메일은 커밋된 뒤에만 대기열에 들어가고, 롤백되면 버려짐
+    @Test
+    void enqueuesRequestedMailOnlyAfterCommit() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.register(TransactionalEventConfig.class);
+            context.registerBean(MailOutbox.class, () -> mailOutbox);
+            context.refresh();
+
+            publishInTransaction(context, "rolledback@reborn.test", TransactionSynchronization.STATUS_ROLLED_BACK);
+            assertThat(stringRedisTemplate.opsForStream().size(OUTBOX_STREAM_KEY)).isZero();
+
+            publishInTransaction(context, "committed@reborn.test", TransactionSynchronization.STATUS_COMMITTED);
+            List<MapRecord<String, Object, Object>> queued = stringRedisTemplate.opsForStream().range(OUTBOX_STREAM_KEY,
+                    Range.unbounded());
+            assertThat(queued).hasSize(1);
+            assertThat(queued.get(0).getValue().get("to")).isEqualTo("committed@reborn.test");
+        }
+    }
+
+    private void publishInTransaction(AnnotationConfigApplicationContext context, String to, int completionStatus) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            context.publishEvent(new MailRequestedEvent(to, "Reborn 임시 비밀번호 발급", "<p>임시 비밀번호 Tmp</p>"));
+            // 커밋 전에는 대기열에 없음
+            assertThat(stringRedisTemplate.opsForStream().size(OUTBOX_STREAM_KEY)).isZero();
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(completionStatus));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // @TransactionalEventListener 처리만 켬
+    @Configuration
+    @EnableTransactionManagement
+    static class TransactionalEventConfig {
+    }
+
+    private MailOutboxWorker createWorker(int smtpPort, int maxAttempts, long retryMaxLength) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpPort);
+
+        MailOutboxWorker worker = new MailOutboxWorker(stringRedisTemplate, mailOutbox, mailSender, new ObjectMapper(),
+                new SimpleMeterRegistry(), 2);
+        ReflectionTestUtils.setField(worker, "maxBatchSize", 50);
+        ReflectionTestUtils.setField(worker, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(worker, "retryDelay", 60000L);
+        ReflectionTestUtils.setField(worker, "maxRetryDelay", 600000L);
+        ReflectionTestUtils.setField(worker, "retryMaxLength", retryMaxLength);
+        ReflectionTestUtils.setField(worker, "claimIdleMillis", 60000L);
+        return worker;
+    }
+}
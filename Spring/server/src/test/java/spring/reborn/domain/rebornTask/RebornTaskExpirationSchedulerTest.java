@@ -0,0 +1,166 @@
+package spring.reborn.domain.rebornTask;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.reborn.RebornDao;
+import spring.reborn.domain.rebornTask.model.RebornTask;
+import spring.reborn.domain.rebornTask.model.RebornTaskDeadline;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static spring.reborn.config.BaseResponseStatus.DATABASE_ERROR;
+
+/**
+ * 리본 태스크 만료 대기열, 임베디드 Redis 사용 (MySQL 은 mock)
+ */
+class RebornTaskExpirationSchedulerTest {
+
+    private static final int REDIS_PORT = 16383;
+    private static final String EXPIRE_QUEUE_KEY = "rebornTask:expire";
+    private static final long REBORN_IDX = 1L;
+    private static final long USER_IDX = 7L;
+    private static final long REBORN_TASK_IDX = 11L;
+    private static final long RETRY_DELAY = 5000L;
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate stringRedisTemplate;
+
+    private RebornTaskDao rebornTaskDao;
+    private RebornTaskRedisService rebornTaskRedisService;
+    private RebornTaskExpirationScheduler rebornTaskExpirationScheduler;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redisServer = new RedisServer(REDIS_PORT);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", REDIS_PORT));
+        connectionFactory.afterPropertiesSet();
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() throws BaseException {
+        stringRedisTemplate.getConnectionFactory().getConnection().flushAll();
+
+        // 재고 1 개를 USER_IDX 가 신청한 상태
+        RebornDao rebornDao = mock(RebornDao.class);
+        when(rebornDao.getActiveRebornProductCnt(anyLong())).thenReturn(1);
+        rebornTaskRedisService = new RebornTaskRedisService(stringRedisTemplate, rebornDao);
+        ReflectionTestUtils.setField(rebornTaskRedisService, "reservationTtlMillis", 600000L);
+        rebornTaskRedisService.reserve(REBORN_IDX, USER_IDX);
+
+        rebornTaskDao = mock(RebornTaskDao.class);
+        rebornTaskExpirationScheduler = new RebornTaskExpirationScheduler(stringRedisTemplate, rebornTaskDao,
+                rebornTaskRedisService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(rebornTaskExpirationScheduler, "batchSize", 100);
+        ReflectionTestUtils.setField(rebornTaskExpirationScheduler, "retryDelay", RETRY_DELAY);
+    }
+
+    // 등록 → 만료 시각 경과 → 만료 처리되고 선착순 재고 복구, 대기열에서 제거
+    @Test
+    void expiresDueTaskAndRestoresStock() throws BaseException {
+        List<Long> claimed = Collections.singletonList(REBORN_TASK_IDX);
+        when(rebornTaskDao.expiredRebornTask(claimed)).thenReturn(Collections.singletonList(expiredTask()));
+        assertThat(stringRedisTemplate.opsForValue().get("rebornStock:" + REBORN_IDX)).isEqualTo("0");
+
+        rebornTaskExpirationScheduler.schedule(REBORN_TASK_IDX, System.currentTimeMillis() - 1000);
+        rebornTaskExpirationScheduler.expireDueTasks();
+
+        verify(rebornTaskDao).expiredRebornTask(claimed);
+        assertThat(stringRedisTemplate.opsForValue().get("rebornStock:" + REBORN_IDX)).isEqualTo("1");
+        assertThat(stringRedisTemplate.opsForSet().isMember("rId_" + REBORN_IDX, String.valueOf(USER_IDX))).isFalse();
+        assertThat(stringRedisTemplate.opsForZSet().zCard(EXPIRE_QUEUE_KEY)).isZero();
+    }
+
+    // 만료 시각이 안 된 태스크는 건드리지 않음
+    @Test
+    void leavesFutureTaskQueued() throws BaseException {
+        rebornTaskExpirationScheduler.schedule(REBORN_TASK_IDX, System.currentTimeMillis() + 60000);
+        rebornTaskExpirationScheduler.expireDueTasks();
+
+        verify(rebornTaskDao, never()).expiredRebornTask(anyList());
+        assertThat(stringRedisTemplate.opsForZSet().zCard(EXPIRE_QUEUE_KEY)).isEqualTo(1);
+    }
+
+    // 만료 처리가 실패하면 대기열에 재시도 시각으로 남아있음
+    @Test
+    void keepsTaskQueuedWhenExpiryFails() throws BaseException {
+        when(rebornTaskDao.expiredRebornTask(anyList())).thenThrow(new BaseException(DATABASE_ERROR));
+
+        long before = System.currentTimeMillis();
+        rebornTaskExpirationScheduler.schedule(REBORN_TASK_IDX, before - 1000);
+        rebornTaskExpirationScheduler.expireDueTasks();
+
+        Double score = stringRedisTemplate.opsForZSet().score(EXPIRE_QUEUE_KEY, String.valueOf(REBORN_TASK_IDX));
+        assertThat(score).isNotNull();
+        assertThat(score.longValue()).isGreaterThanOrEqualTo(before + RETRY_DELAY);
+        assertThat(stringRedisTemplate.opsForValue().get("rebornStock:" + REBORN_IDX)).isEqualTo("0");
+    }
+
+    // DB 시계 기준으로 아직 만료 전이면 원래 만료 시각으로 다시 등록
+    @Test
+    void reschedulesTaskNotYetExpiredInDatabase() throws BaseException {
+        long expiredAt = System.currentTimeMillis() + 30000;
+        when(rebornTaskDao.expiredRebornTask(anyList())).thenReturn(Collections.emptyList());
+        when(rebornTaskDao.getActiveRebornTaskDeadlines(Collections.singletonList(REBORN_TASK_IDX)))
+                .thenReturn(Collections.singletonList(new RebornTaskDeadline(REBORN_TASK_IDX, expiredAt)));
+
+        rebornTaskExpirationScheduler.schedule(REBORN_TASK_IDX, System.currentTimeMillis() - 1000);
+        rebornTaskExpirationScheduler.expireDueTasks();
+
+        assertThat(stringRedisTemplate.opsForZSet().score(EXPIRE_QUEUE_KEY, String.valueOf(REBORN_TASK_IDX)))
+                .isEqualTo((double) expiredAt);
+    }
+
+    // 대기열 등록에 실패한 태스크는 MySQL 에서 다시 찾아 등록, 처리 중인 태스크의 재시도 시각은 유지
+    @Test
+    void sweepQueuesOverdueTasksMissingFromQueue() throws BaseException {
+        long expiredAt = System.currentTimeMillis() - 1000;
+        long leasedUntil = System.currentTimeMillis() + RETRY_DELAY;
+        rebornTaskExpirationScheduler.schedule(12L, leasedUntil);
+        when(rebornTaskDao.getOverdueRebornTaskDeadlines(anyInt())).thenReturn(List.of(
+                new RebornTaskDeadline(REBORN_TASK_IDX, expiredAt),
+                new RebornTaskDeadline(12L, expiredAt)));
+
+        rebornTaskExpirationScheduler.sweepOverdueTasks();
+
+        assertThat(stringRedisTemplate.opsForZSet().score(EXPIRE_QUEUE_KEY, String.valueOf(REBORN_TASK_IDX)))
+                .isEqualTo((double) expiredAt);
+        assertThat(stringRedisTemplate.opsForZSet().score(EXPIRE_QUEUE_KEY, "12"))
+                .isEqualTo((double) leasedUntil);
+    }
+
+    private RebornTask expiredTask() {
+        return RebornTask.builder()
+                .rebornTaskIdx(REBORN_TASK_IDX)
+                .rebornIdx(REBORN_IDX)
+                .userIdx(USER_IDX)
+                .build();
+    }
+}
@@ -0,0 +1,170 @@
+package spring.reborn.domain.rebornTask;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.reborn.RebornDao;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static spring.reborn.config.BaseResponseStatus.ALREADY_RESERVED_REBORN;
+import static spring.reborn.config.BaseResponseStatus.NOT_ENOUGH_REBORN;
+
+/**
+ * 선착순 리본 신청 Lua 스크립트, 임베디드 Redis 사용
+ */
+class RebornTaskRedisServiceTest {
+
+    private static final int REDIS_PORT = 16381;
+    private static final long REBORN_IDX = 1L;
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate stringRedisTemplate;
+
+    private RebornDao rebornDao;
+    private RebornTaskRedisService rebornTaskRedisService;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redisServer = new RedisServer(REDIS_PORT);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", REDIS_PORT));
+        connectionFactory.afterPropertiesSet();
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate.getConnectionFactory().getConnection().flushAll();
+        rebornDao = mock(RebornDao.class);
+        rebornTaskRedisService = new RebornTaskRedisService(stringRedisTemplate, rebornDao);
+        ReflectionTestUtils.setField(rebornTaskRedisService, "reservationTtlMillis", 600000L);
+    }
+
+    // 10,000 명이 동시에 재고 100 개에 신청하면 정확히 100 명만 통과하고 순번은 1..100
+    @Test
+    void reservesExactlyStockUnderConcurrency() throws Exception {
+        when(rebornDao.getActiveRebornProductCnt(anyLong())).thenReturn(100);
+        int users = 10_000;
+
+        ExecutorService executorService = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (long userIdx = 1; userIdx <= users; userIdx++) {
+            long user = userIdx;
+            futures.add(executorService.submit(() -> {
+                start.await();
+                try {
+                    return rebornTaskRedisService.reserve(REBORN_IDX, user);
+                } catch (BaseException e) {
+                    assertThat(e.getStatus()).isEqualTo(NOT_ENOUGH_REBORN);
+                    return null;
+                }
+            }));
+        }
+        start.countDown();
+
+        Set<Long> ranks = new HashSet<>();
+        int soldOut = 0;
+        for (Future<Long> future : futures) {
+            Long rank = future.get(30, TimeUnit.SECONDS);
+            if (rank == null) {
+                soldOut++;
+            } else {
+                ranks.add(rank);
+            }
+        }
+        executorService.shutdown();
+
+        assertThat(ranks).hasSize(100);
+        assertThat(Collections.min(ranks)).isEqualTo(1);
+        assertThat(Collections.max(ranks)).isEqualTo(100);
+        assertThat(soldOut).isEqualTo(users - 100);
+        assertThat(stringRedisTemplate.opsForValue().get("rebornStock:" + REBORN_IDX)).isEqualTo("0");
+        assertThat(stringRedisTemplate.opsForSet().size("rId_" + REBORN_IDX)).isEqualTo(100);
+        assertThat(stringRedisTemplate.opsForValue().get("rebornPending:" + REBORN_IDX)).isEqualTo("100");
+    }
+
+    @Test
+    void rejectsSecondClaimOfSameUser() throws Exception {
+        when(rebornDao.getActiveRebornProductCnt(anyLong())).thenReturn(10);
+
+        rebornTaskRedisService.reserve(REBORN_IDX, 7L);
+
+        assertThatThrownBy(() -> rebornTaskRedisService.reserve(REBORN_IDX, 7L))
+                .isInstanceOfSatisfying(BaseException.class, e -> assertThat(e.getStatus()).isEqualTo(ALREADY_RESERVED_REBORN));
+    }
+
+    // 재고를 다시 읽을 때 아직 MySQL 에 반영되지 않은 신청 수를 뺌
+    @Test
+    void reloadsStockMinusPendingClaims() throws Exception {
+        when(rebornDao.getActiveRebornProductCnt(anyLong())).thenReturn(10);
+        for (long userIdx = 1; userIdx <= 3; userIdx++) {
+            rebornTaskRedisService.reserve(REBORN_IDX, userIdx);
+        }
+
+        // MySQL productCnt 는 아직 10 인 채로 재고 제거
+        rebornTaskRedisService.evictStock(REBORN_IDX);
+        rebornTaskRedisService.reserve(REBORN_IDX, 4L);
+        assertThat(stringRedisTemplate.opsForValue().get("rebornStock:" + REBORN_IDX)).isEqualTo("6");
+
+        // 4 건이 MySQL 에 저장된 뒤 다시 읽으면 productCnt 그대로
+        when(rebornDao.getActiveRebornProductCnt(anyLong())).thenReturn(6);
+        rebornTaskRedisService.settle(REBORN_IDX, 4);
+        rebornTaskRedisService.evictStock(REBORN_IDX);
+        rebornTaskRedisService.reserve(REBORN_IDX, 5L);
+        assertThat(stringRedisTemplate.opsForValue().get("rebornStock:" + REBORN_IDX)).isEqualTo("5");
+    }
+
+    @Test
+    void cancelRestoresStockAndRejectEvictsIt() throws Exception {
+        when(rebornDao.getActiveRebornProductCnt(anyLong())).thenReturn(2);
+        rebornTaskRedisService.reserve(REBORN_IDX, 1L);
+        rebornTaskRedisService.reserve(REBORN_IDX, 2L);
+
+        rebornTaskRedisService.cancel(REBORN_IDX, 1L);
+        assertThat(stringRedisTemplate.opsForValue().get("rebornStock:" + REBORN_IDX)).isEqualTo("1");
+        assertThat(stringRedisTemplate.opsForValue().get("rebornPending:" + REBORN_IDX)).isEqualTo("1");
+
+        rebornTaskRedisService.reject(REBORN_IDX, 2L, "claim-2");
+        assertThat(stringRedisTemplate.hasKey("rebornStock:" + REBORN_IDX)).isFalse();
+        assertThat(stringRedisTemplate.opsForValue().get("rebornPending:" + REBORN_IDX)).isEqualTo("0");
+        assertThat(rebornTaskRedisService.isRejected("claim-2")).isTrue();
+    }
+
+    // 교환이 끝난 유저는 신청 set 에서 빠지고, 리본 key 에는 만료 시간이 걸림
+    @Test
+    void completeRemovesUserAndKeysExpire() throws Exception {
+        when(rebornDao.getActiveRebornProductCnt(anyLong())).thenReturn(5);
+        rebornTaskRedisService.reserve(REBORN_IDX, 1L);
+        rebornTaskRedisService.reserve(REBORN_IDX, 2L);
+
+        rebornTaskRedisService.complete(REBORN_IDX, 1L);
+
+        assertThat(stringRedisTemplate.opsForSet().members("rId_" + REBORN_IDX)).containsExactly("2");
+        for (String key : Arrays.asList("rebornStock:", "rId_", "rebornSeq:", "rebornPending:")) {
+            assertThat(stringRedisTemplate.getExpire(key + REBORN_IDX, TimeUnit.MILLISECONDS)).isPositive();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package spring.reborn.domain.review;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import spring.reborn.domain.review.model.BestReviewCandidate;
+import spring.reborn.domain.review.model.ReviewChangedEvent;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 베스트 리뷰 순위 재적재, ReviewDao 는 Mockito stand-in
+ */
+class BestReviewRankingTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private ReviewDao reviewDao;
+    private BestReviewRanking bestReviewRanking;
+
+    @BeforeEach
+    void setUp() {
+        reviewDao = mock(ReviewDao.class);
+        bestReviewRanking = new BestReviewRanking(reviewDao);
+        ReflectionTestUtils.setField(bestReviewRanking, "size", 1);
+        ReflectionTestUtils.setField(bestReviewRanking, "buffer", 1);
+        ReflectionTestUtils.setField(bestReviewRanking, "halfLifeHours", 72.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bestReviewRanking.shutdown();
+    }
+
+    // 적재 중 RuntimeException 이 나도 다음 적재가 막히지 않음
+    @Test
+    void failedReloadDoesNotBlockNextReload() throws Exception {
+        doAnswer(invocation -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IllegalStateException("db unavailable");
+            }
+            offer(invocation.getArgument(0), candidate(1, 5));
+            return null;
+        }).when(reviewDao).forEachBestReviewCandidate(any());
+
+        try {
+            bestReviewRanking.reload();
+        } catch (IllegalStateException ignored) {
+        }
+        assertThat(bestReviewRanking.isReady()).isFalse();
+
+        bestReviewRanking.reload();
+
+        assertThat(bestReviewRanking.isReady()).isTrue();
+        assertThat(bestReviewRanking.getBestReviews(BestReviewRanking.ALL)).extracting("reviewIdx").containsExactly(1);
+    }
+
+    // 지워서 순위가 모자라면 요청 쓰레드는 기다리지 않고, 재적재는 별도 쓰레드에서
+    @Test
+    void underflowReloadsOffTheCallingThread() throws Exception {
+        AtomicReference<List<BestReviewCandidate>> stored = new AtomicReference<>(Arrays.asList(candidate(1, 5), candidate(2, 3)));
+        CountDownLatch releaseReload = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            // 첫 적재 이후의 재적재는 releaseReload 까지 대기
+            if (loads.incrementAndGet() > 1) {
+                releaseReload.await(10, TimeUnit.SECONDS);
+            }
+            stored.get().forEach(candidate -> offer(invocation.getArgument(0), candidate));
+            return null;
+        }).when(reviewDao).forEachBestReviewCandidate(any());
+        when(reviewDao.getBestReviewCandidatesByReviewIdx(anyInt())).thenReturn(Collections.emptyList());
+        bestReviewRanking.reload();
+        assertThat(bestReviewRanking.getBestReviews(BestReviewRanking.ALL)).extracting("reviewIdx").containsExactly(1);
+
+        // 1번 리뷰 삭제, 상위 1 개만 들고 있었으므로 모자람
+        stored.set(Collections.singletonList(candidate(2, 3)));
+        bestReviewRanking.onReviewChanged(new ReviewChangedEvent(1));
+
+        // 재적재가 막혀 있어도 이벤트 처리는 끝남
+        assertThat(bestReviewRanking.getBestReviews(BestReviewRanking.ALL)).isEmpty();
+        releaseReload.countDown();
+        for (int i = 0; i < 250 && bestReviewRanking.getBestReviews(BestReviewRanking.ALL).isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+        assertThat(bestReviewRanking.getBestReviews(BestReviewRanking.ALL)).extracting("reviewIdx").containsExactly(2);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void offer(Object consumer, BestReviewCandidate candidate) {
+        ((Consumer<BestReviewCandidate>) consumer).accept(candidate);
+    }
+
+    private static BestReviewCandidate candidate(int reviewIdx, int reviewScore) {
+        return new BestReviewCandidate(reviewIdx, 1, null, "user", 1L, "store", "CAFE", 1, "product",
+                reviewScore, "comment", new Timestamp(System.currentTimeMillis()), null, 0, 0L);
+    }
+}
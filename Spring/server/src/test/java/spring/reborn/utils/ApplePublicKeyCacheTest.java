@@ -0,0 +1,210 @@
+package spring.reborn.utils;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.user.model.AppleClient;
+import spring.reborn.domain.user.model.ApplePublicKeyResponse;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static spring.reborn.config.BaseResponseStatus.INVALID_JWT;
+
+/**
+ * 애플 공개키 캐시, 애플 JWKS 대신 호출 횟수를 세는 stub 사용
+ */
+class ApplePublicKeyCacheTest {
+
+    /**
+     * /auth/keys 응답 stub, 응답 지연과 실패를 흉내낼 수 있음
+     */
+    private static class StubAppleClient implements AppleClient {
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile Map<String, KeyPair> keyPairs = new LinkedHashMap<>();
+        private volatile long latencyMillis = 0;
+        private volatile boolean failing = false;
+
+        @Override
+        public ApplePublicKeyResponse getAppleAuthPublicKey() {
+            calls.incrementAndGet();
+            sleep(latencyMillis);
+            if (failing) {
+                throw new IllegalStateException("apple keys unavailable");
+            }
+            List<ApplePublicKeyResponse.Key> keys = new ArrayList<>();
+            keyPairs.forEach((kid, keyPair) -> keys.add(toJwk(kid, (RSAPublicKey) keyPair.getPublic())));
+            ApplePublicKeyResponse response = new ApplePublicKeyResponse();
+            response.setKeys(keys);
+            return response;
+        }
+    }
+
+    private StubAppleClient appleClient;
+    private ApplePublicKeyCache applePublicKeyCache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        appleClient = new StubAppleClient();
+        appleClient.keyPairs.put("kid-1", generateKeyPair());
+        applePublicKeyCache = new ApplePublicKeyCache(appleClient);
+        ReflectionTestUtils.setField(applePublicKeyCache, "missRefreshInterval", 10000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    // 첫 요청에서 한 번 받아오고 이후에는 캐시 사용
+    @Test
+    void loadsKeysOnceAndServesFromCache() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            assertThat(applePublicKeyCache.getPublicKey("kid-1", "RS256"))
+                    .isEqualTo(appleClient.keyPairs.get("kid-1").getPublic());
+        }
+        assertThat(appleClient.calls.get()).isEqualTo(1);
+    }
+
+    // 모르는 kid 로 동시에 들어와도 애플 서버는 한 번만 부름
+    @Test
+    void concurrentMissesRefreshOnce() throws Exception {
+        appleClient.latencyMillis = 200;
+        int threads = 32;
+
+        List<Future<Object>> futures = runConcurrently(threads, () -> applePublicKeyCache.getPublicKey("unknown", "RS256"));
+
+        for (Future<Object> future : futures) {
+            assertThatThrownBy(future::get).hasCauseInstanceOf(BaseException.class);
+        }
+        assertThat(appleClient.calls.get()).isEqualTo(1);
+    }
+
+    // 갱신이 실패해도 기다리던 쓰레드들이 차례로 다시 부르지 않음
+    @Test
+    void failedRefreshIsNotRetriedByWaitingThreads() throws Exception {
+        appleClient.failing = true;
+        appleClient.latencyMillis = 200;
+
+        List<Future<Object>> futures = runConcurrently(32, () -> applePublicKeyCache.getPublicKey("kid-1", "RS256"));
+
+        for (Future<Object> future : futures) {
+            assertThatThrownBy(future::get).hasCauseInstanceOf(BaseException.class);
+        }
+        assertThat(appleClient.calls.get()).isEqualTo(1);
+    }
+
+    // 키 교체 후 새 kid 는 최소 간격이 지나면 다시 받아옴
+    @Test
+    void picksUpRotatedKeyAfterMissInterval() throws Exception {
+        ReflectionTestUtils.setField(applePublicKeyCache, "missRefreshInterval", 0L);
+        applePublicKeyCache.getPublicKey("kid-1", "RS256");
+
+        KeyPair rotated = generateKeyPair();
+        appleClient.keyPairs = Collections.singletonMap("kid-2", rotated);
+
+        assertThat(applePublicKeyCache.getPublicKey("kid-2", "RS256")).isEqualTo(rotated.getPublic());
+        assertThat(appleClient.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsAlgMismatch() {
+        assertThatThrownBy(() -> applePublicKeyCache.getPublicKey("kid-1", "HS256"))
+                .isInstanceOfSatisfying(BaseException.class, e -> assertThat(e.getStatus()).isEqualTo(INVALID_JWT));
+    }
+
+    // identity token 헤더의 kid 로 키를 골라 서명 검증 후 email 반환
+    @Test
+    void parsesAppleIdentityToken() throws Exception {
+        JwtService jwtService = new JwtService(applePublicKeyCache, null, 300000L, 100);
+        String token = Jwts.builder()
+                .setHeaderParam("kid", "kid-1")
+                .claim("email", "user@privaterelay.appleid.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.RS256, appleClient.keyPairs.get("kid-1").getPrivate())
+                .compact();
+        setAccessToken(token);
+
+        assertThat(jwtService.parseAppleJwt()).isEqualTo("user@privaterelay.appleid.com");
+
+        // 다른 키로 서명한 토큰은 거부
+        String forged = Jwts.builder()
+                .setHeaderParam("kid", "kid-1")
+                .claim("email", "attacker@reborn.test")
+                .signWith(SignatureAlgorithm.RS256, generateKeyPair().getPrivate())
+                .compact();
+        setAccessToken(forged);
+
+        assertThatThrownBy(jwtService::parseAppleJwt)
+                .isInstanceOfSatisfying(BaseException.class, e -> assertThat(e.getStatus()).isEqualTo(INVALID_JWT));
+        assertThat(appleClient.calls.get()).isEqualTo(1);
+    }
+
+    private static List<Future<Object>> runConcurrently(int threads, Callable<Object> task) throws InterruptedException {
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executorService.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        executorService.shutdown();
+        executorService.awaitTermination(30, TimeUnit.SECONDS);
+        return futures;
+    }
+
+    private static void setAccessToken(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-ACCESS-TOKEN", token);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static KeyPair generateKeyPair() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    private static ApplePublicKeyResponse.Key toJwk(String kid, RSAPublicKey publicKey) {
+        ApplePublicKeyResponse.Key key = new ApplePublicKeyResponse.Key();
+        key.setKty("RSA");
+        key.setKid(kid);
+        key.setUse("sig");
+        key.setAlg("RS256");
+        key.setN(Base64.getUrlEncoder().withoutPadding().encodeToString(toUnsigned(publicKey.getModulus().toByteArray())));
+        key.setE(Base64.getUrlEncoder().withoutPadding().encodeToString(toUnsigned(publicKey.getPublicExponent().toByteArray())));
+        return key;
+    }
+
+    // BigInteger 부호 바이트 제거
+    private static byte[] toUnsigned(byte[] bytes) {
+        return bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
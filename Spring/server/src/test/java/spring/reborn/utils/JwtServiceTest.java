@@ -0,0 +1,94 @@
+package spring.reborn.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import spring.reborn.config.BaseException;
+import spring.reborn.domain.user.UserDao;
+import spring.reborn.domain.user.UserPrincipalCache;
+import spring.reborn.domain.user.model.UserChangedEvent;
+import spring.reborn.domain.user.model.UserPrincipal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static spring.reborn.config.BaseResponseStatus.INVALID_USER;
+
+/**
+ * JWT 의 userIdx 를 꺼낼 때 유저 스냅샷 캐시로 탈퇴, 정지 여부 확인
+ */
+class JwtServiceTest {
+
+    private static final int USER_IDX = 3;
+
+    private UserDao userDao;
+    private UserPrincipalCache userPrincipalCache;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        userDao = mock(UserDao.class);
+        userPrincipalCache = new UserPrincipalCache(userDao, 30000L, 100);
+        jwtService = new JwtService(null, userPrincipalCache, 300000L, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    // 같은 유저의 요청이 이어져도 DB 조회는 한 번
+    @Test
+    void readsUserStatusFromCache() throws BaseException {
+        when(userDao.getUserPrincipal(USER_IDX)).thenReturn(principal("ACTIVE"));
+
+        for (int i = 0; i < 3; i++) {
+            setAccessToken(jwtService.createJwt(USER_IDX));
+            assertThat(jwtService.getUserIdx()).isEqualTo(USER_IDX);
+        }
+        verify(userDao, times(1)).getUserPrincipal(USER_IDX);
+    }
+
+    // 탈퇴하면 캐시가 비워지고, 아직 만료되지 않은 토큰도 거부
+    @Test
+    void rejectsTokenOfWithdrawnUser() throws BaseException {
+        when(userDao.getUserPrincipal(USER_IDX)).thenReturn(principal("ACTIVE"), principal("INACTIVE"));
+        String token = jwtService.createJwt(USER_IDX);
+
+        setAccessToken(token);
+        assertThat(jwtService.getUserIdx()).isEqualTo(USER_IDX);
+
+        userPrincipalCache.onUserChanged(new UserChangedEvent(USER_IDX));
+
+        setAccessToken(token);
+        assertThatThrownBy(() -> jwtService.getUserIdx())
+                .isInstanceOfSatisfying(BaseException.class, e -> assertThat(e.getStatus()).isEqualTo(INVALID_USER));
+        assertThatThrownBy(() -> jwtService.compareUserIdx(USER_IDX))
+                .isInstanceOfSatisfying(BaseException.class, e -> assertThat(e.getStatus()).isEqualTo(INVALID_USER));
+    }
+
+    // 없는 유저의 토큰도 거부
+    @Test
+    void rejectsTokenOfUnknownUser() {
+        setAccessToken(jwtService.createJwt(USER_IDX));
+
+        assertThatThrownBy(() -> jwtService.getUserIdx())
+                .isInstanceOfSatisfying(BaseException.class, e -> assertThat(e.getStatus()).isEqualTo(INVALID_USER));
+    }
+
+    private static UserPrincipal principal(String status) {
+        return new UserPrincipal(USER_IDX, status, "CONSUMER", "nickname", null);
+    }
+
+    private static void setAccessToken(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-ACCESS-TOKEN", token);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}